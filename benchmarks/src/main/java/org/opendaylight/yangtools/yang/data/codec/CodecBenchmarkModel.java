@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec;
+
+import com.google.common.collect.ImmutableSet;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+
+/**
+ * Model shared by codec benchmarks. It exercises deep containers and a large keyed list, whose entries contain
+ * unions, identityrefs, instance-identifiers, leaf-lists and decimals.
+ */
+public final class CodecBenchmarkModel {
+    private static final String CODEC_BENCHMARK_YANG = "/codec-benchmark.yang";
+
+    public static final QName ROOT_QNAME = QName.create("urn:opendaylight:yangtools:benchmark:codec", "2016-10-15",
+        "root");
+    public static final QName LEVEL1_QNAME = QName.create(ROOT_QNAME, "level1");
+    public static final QName LEVEL2_QNAME = QName.create(ROOT_QNAME, "level2");
+    public static final QName LEVEL3_QNAME = QName.create(ROOT_QNAME, "level3");
+    public static final QName LEVEL4_QNAME = QName.create(ROOT_QNAME, "level4");
+    public static final QName DEPTH_QNAME = QName.create(ROOT_QNAME, "depth");
+    public static final QName DESCRIPTION_QNAME = QName.create(ROOT_QNAME, "description");
+    public static final QName ENTRY_QNAME = QName.create(ROOT_QNAME, "entry");
+    public static final QName ID_QNAME = QName.create(ROOT_QNAME, "id");
+    public static final QName NAME_QNAME = QName.create(ROOT_QNAME, "name");
+    public static final QName ENABLED_QNAME = QName.create(ROOT_QNAME, "enabled");
+    public static final QName VALUE_QNAME = QName.create(ROOT_QNAME, "value");
+    public static final QName KIND_QNAME = QName.create(ROOT_QNAME, "kind");
+    public static final QName REFERENCE_QNAME = QName.create(ROOT_QNAME, "reference");
+    public static final QName TAGS_QNAME = QName.create(ROOT_QNAME, "tags");
+    public static final QName STATISTICS_QNAME = QName.create(ROOT_QNAME, "statistics");
+    public static final QName COUNTER_QNAME = QName.create(ROOT_QNAME, "counter");
+    public static final QName RATIO_QNAME = QName.create(ROOT_QNAME, "ratio");
+    public static final QName PRIMARY_QNAME = QName.create(ROOT_QNAME, "primary");
+    public static final QName SECONDARY_QNAME = QName.create(ROOT_QNAME, "secondary");
+
+    public static final YangInstanceIdentifier ENTRY_PATH = YangInstanceIdentifier.builder().node(ROOT_QNAME)
+            .node(ENTRY_QNAME).build();
+
+    private CodecBenchmarkModel() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static SchemaContext createTestContext() throws ReactorException {
+        return YangInferencePipeline.RFC6020_REACTOR.newBuild().buildEffective(Collections.singletonList(
+            CodecBenchmarkModel.class.getResourceAsStream(CODEC_BENCHMARK_YANG)));
+    }
+
+    public static ContainerNode createData(final int entryCount) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> entries = ImmutableNodes.mapNodeBuilder(ENTRY_QNAME);
+        for (int i = 0; i < entryCount; ++i) {
+            entries.withChild(createEntry(i));
+        }
+
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(ROOT_QNAME))
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(LEVEL1_QNAME))
+                .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(LEVEL2_QNAME))
+                    .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(LEVEL3_QNAME))
+                        .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(LEVEL4_QNAME))
+                            .withChild(ImmutableNodes.leafNode(DEPTH_QNAME, (short) 4))
+                            .withChild(ImmutableNodes.leafNode(DESCRIPTION_QNAME, "deeply nested container"))
+                            .build())
+                        .build())
+                    .build())
+                .build())
+            .withChild(entries.build())
+            .build();
+    }
+
+    private static MapEntryNode createEntry(final int id) {
+        final ListNodeBuilder<Object, LeafSetEntryNode<Object>> tags = Builders.leafSetBuilder()
+                .withNodeIdentifier(new NodeIdentifier(TAGS_QNAME));
+        for (String tag : ImmutableSet.of("tag-" + id % 10, "tag-" + id % 7)) {
+            tags.withChild(Builders.leafSetEntryBuilder().withNodeIdentifier(new NodeWithValue<>(TAGS_QNAME, tag))
+                .withValue(tag).build());
+        }
+
+        final long longId = id;
+        return ImmutableNodes.mapEntryBuilder(ENTRY_QNAME, ID_QNAME, longId)
+            .withChild(ImmutableNodes.leafNode(NAME_QNAME, "entry-" + id))
+            .withChild(ImmutableNodes.leafNode(ENABLED_QNAME, id % 2 == 0))
+            .withChild(ImmutableNodes.leafNode(VALUE_QNAME, id % 3 == 0 ? (Object) ("value-" + id) : (Object) longId))
+            .withChild(ImmutableNodes.leafNode(KIND_QNAME, id % 2 == 0 ? PRIMARY_QNAME : SECONDARY_QNAME))
+            .withChild(ImmutableNodes.leafNode(REFERENCE_QNAME, YangInstanceIdentifier.builder(ENTRY_PATH)
+                .nodeWithKey(ENTRY_QNAME, ID_QNAME, (long) (id + 1)).node(NAME_QNAME).build()))
+            .withChild(tags.build())
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(STATISTICS_QNAME))
+                .withChild(ImmutableNodes.leafNode(COUNTER_QNAME, BigInteger.valueOf(id).shiftLeft(20)))
+                .withChild(ImmutableNodes.leafNode(RATIO_QNAME, BigDecimal.valueOf(id % 10000, 2)))
+                .build())
+            .build();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONCodecFactory;
+import org.opendaylight.yangtools.yang.data.codec.gson.JSONNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.codec.gson.JsonParserStream;
+import org.opendaylight.yangtools.yang.data.codec.gson.JsonWriterFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Benchmarking of {@link JsonParserStream} and {@link JSONNormalizedNodeStreamWriter} throughput. Allocation rate
+ * is reported when run with the GC profiler, which {@link #main(String...)} enables.
+ *
+ * @see <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class JsonCodecBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    private int entryCount;
+
+    private SchemaContext schemaContext;
+    private JSONCodecFactory codecFactory;
+    private ContainerNode data;
+    private String json;
+
+    public static void main(final String... args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+            .include(".*" + JsonCodecBenchmark.class.getSimpleName() + ".*")
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws ReactorException, IOException {
+        schemaContext = CodecBenchmarkModel.createTestContext();
+        codecFactory = JSONCodecFactory.create(schemaContext);
+        data = CodecBenchmarkModel.createData(entryCount);
+        json = writeJson(codecFactory, data);
+    }
+
+    @TearDown
+    public void tearDown() {
+        schemaContext = null;
+        codecFactory = null;
+        data = null;
+        json = null;
+    }
+
+    private static String writeJson(final JSONCodecFactory codecFactory, final NormalizedNode<?, ?> node)
+            throws IOException {
+        final StringWriter writer = new StringWriter();
+        final NormalizedNodeStreamWriter streamWriter = JSONNormalizedNodeStreamWriter.createExclusiveWriter(
+            codecFactory, SchemaPath.ROOT, null, JsonWriterFactory.createJsonWriter(writer));
+        try (NormalizedNodeWriter nodeWriter = NormalizedNodeWriter.forStreamWriter(streamWriter)) {
+            nodeWriter.write(node);
+        }
+        return writer.toString();
+    }
+
+    @Benchmark
+    public NormalizedNode<?, ?> parseJson() {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final NormalizedNodeStreamWriter streamWriter = ImmutableNormalizedNodeStreamWriter.from(result);
+        JsonParserStream.create(streamWriter, schemaContext).parse(new JsonReader(new StringReader(json)));
+        return result.getResult();
+    }
+
+    @Benchmark
+    public String writeJson() throws IOException {
+        return writeJson(codecFactory, data);
+    }
+
+    @Benchmark
+    public String writeJsonWithNewCodecFactory() throws IOException {
+        return writeJson(JSONCodecFactory.create(schemaContext), data);
+    }
+}
@@ -113,7 +113,7 @@ public class InMemoryDataTreeBenchmark {
     public void setup() throws DataValidationFailedException, SourceException, ReactorException {
         schemaContext = BenchmarkModel.createTestContext();
         final InMemoryDataTreeFactory factory = InMemoryDataTreeFactory.getInstance();
-        datastore = factory.create();
+        datastore = factory.create(TreeType.OPERATIONAL);
         datastore.setSchemaContext(schemaContext);
         final DataTreeSnapshot snapshot = datastore.takeSnapshot();
         initTestNode(snapshot);
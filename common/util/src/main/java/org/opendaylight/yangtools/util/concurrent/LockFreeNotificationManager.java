@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util.concurrent;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import org.opendaylight.yangtools.util.concurrent.QueuedNotificationManager.BatchedInvoker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link NotificationManager} which dispatches notifications to each listener serially via an {@link Executor},
+ * like {@link QueuedNotificationManager}, but without taking locks.
+ *
+ * <p>Each listener with pending notifications has a lock-free queue, which any number of threads append to, and an
+ * atomic state word holding the number of pending notifications and a flag indicating whether the listener's task is
+ * scheduled. After appending its notifications, a submitter schedules the task unless it is already scheduled, so at
+ * most one thread drains a queue at any time. The task drains all pending notifications into a single
+ * {@link BatchedInvoker} call and retires once the counter drops back to zero, at which point the queue is discarded.
+ *
+ * <p>What happens when a listener's queue is at capacity is governed by a {@link BackpressurePolicy}.
+ *
+ * @param <L> the listener type
+ * @param <N> the notification type
+ */
+@Beta
+public final class LockFreeNotificationManager<L, N> implements NotificationManager<L, N> {
+    /**
+     * Action taken when notifications are submitted to a listener whose queue is full.
+     */
+    public enum BackpressurePolicy {
+        /**
+         * Wait for the listener to make room in its queue. Notifications are dropped if the listener does not make
+         * progress within 10 minutes.
+         */
+        BLOCK,
+        /**
+         * Drop notifications which do not fit into the queue.
+         */
+        DROP,
+        /**
+         * Throw a {@link RejectedExecutionException} for notifications which do not fit into the queue.
+         */
+        REJECT,
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(LockFreeNotificationManager.class);
+
+    private static final int MAX_NOTIFICATION_OFFER_MINUTES = 10;
+    private static final long GIVE_UP_NANOS = TimeUnit.MINUTES.toNanos(MAX_NOTIFICATION_OFFER_MINUTES);
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // State of a task which has exited and must not be used anymore
+    private static final int RETIRED = -1;
+    // State flag indicating the task has been submitted to the executor and has not stopped draining its queue
+    private static final int SCHEDULED = 1;
+    // Pending notification count is stored above the SCHEDULED flag
+    private static final int MAX_QUEUE_CAPACITY = Integer.MAX_VALUE >>> 1;
+
+    private final ConcurrentMap<ListenerKey<L>, NotificationTask> listenerCache = new ConcurrentHashMap<>();
+    private final BatchedInvoker<L, N> listenerInvoker;
+    private final BackpressurePolicy backpressurePolicy;
+    private final Executor executor;
+    private final String name;
+    private final int maxQueueCapacity;
+
+    private LockFreeNotificationManager(final Executor executor, final BatchedInvoker<L, N> listenerInvoker,
+            final int maxQueueCapacity, final String name, final BackpressurePolicy backpressurePolicy) {
+        Preconditions.checkArgument(maxQueueCapacity > 0 && maxQueueCapacity <= MAX_QUEUE_CAPACITY,
+            "Invalid maxQueueCapacity %s must be > 0 and <= %s", maxQueueCapacity, MAX_QUEUE_CAPACITY);
+        this.executor = Preconditions.checkNotNull(executor);
+        this.listenerInvoker = Preconditions.checkNotNull(listenerInvoker);
+        this.maxQueueCapacity = maxQueueCapacity;
+        this.name = Preconditions.checkNotNull(name);
+        this.backpressurePolicy = Preconditions.checkNotNull(backpressurePolicy);
+    }
+
+    /**
+     * Create a new notification manager, which blocks submitters while a listener's queue is full.
+     *
+     * @param executor the {@link Executor} to use for notification tasks
+     * @param listenerInvoker the {@link BatchedInvoker} to use for invoking listeners
+     * @param maxQueueCapacity the capacity of each listener queue
+     * @param name the name of this instance for logging info
+     */
+    public static <L, N> LockFreeNotificationManager<L, N> create(final Executor executor,
+            final BatchedInvoker<L, N> listenerInvoker, final int maxQueueCapacity, final String name) {
+        return create(executor, listenerInvoker, maxQueueCapacity, name, BackpressurePolicy.BLOCK);
+    }
+
+    /**
+     * Create a new notification manager.
+     *
+     * @param executor the {@link Executor} to use for notification tasks
+     * @param listenerInvoker the {@link BatchedInvoker} to use for invoking listeners
+     * @param maxQueueCapacity the capacity of each listener queue
+     * @param name the name of this instance for logging info
+     * @param backpressurePolicy the action taken when a listener's queue is full
+     */
+    public static <L, N> LockFreeNotificationManager<L, N> create(final Executor executor,
+            final BatchedInvoker<L, N> listenerInvoker, final int maxQueueCapacity, final String name,
+            final BackpressurePolicy backpressurePolicy) {
+        return new LockFreeNotificationManager<>(executor, listenerInvoker, maxQueueCapacity, name,
+                backpressurePolicy);
+    }
+
+    /**
+     * Returns the maximum listener queue capacity.
+     */
+    public int getMaxQueueCapacity() {
+        return maxQueueCapacity;
+    }
+
+    /**
+     * Returns the {@link Executor} to used for notification tasks.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the action taken when a listener's queue is full.
+     */
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    @Override
+    public void submitNotification(final L listener, final N notification) {
+        if (notification != null) {
+            submitNotifications(listener, Collections.singletonList(notification));
+        }
+    }
+
+    @Override
+    public void submitNotifications(final L listener, final Iterable<N> notifications) {
+        if (notifications == null || listener == null) {
+            return;
+        }
+
+        LOG.trace("{}: submitNotifications for listener {}: {}", name, listener, notifications);
+
+        final List<N> items = ImmutableList.copyOf(notifications);
+        final ListenerKey<L> key = new ListenerKey<>(listener);
+        final long deadline = System.nanoTime() + GIVE_UP_NANOS;
+        long backoff = MIN_BACKOFF_NANOS;
+
+        int offset = 0;
+        while (offset < items.size()) {
+            final NotificationTask task = listenerCache.computeIfAbsent(key, NotificationTask::new);
+            final int reserved = task.reserve(items.size() - offset);
+            if (reserved == RETIRED) {
+                // The task has exited, replace it with a new one
+                listenerCache.remove(key, task);
+                continue;
+            }
+
+            if (reserved == 0) {
+                // The queue is full
+                final List<N> remaining = items.subList(offset, items.size());
+                switch (backpressurePolicy) {
+                case DROP:
+                    LOG.warn("{}: Dropping notifications {} for listener {}, its queue is full", name, remaining,
+                        listener);
+                    return;
+                case REJECT:
+                    throw new RejectedExecutionException(String.format("%s: queue of listener %s is full", name,
+                        listener));
+                default:
+                    break;
+                }
+
+                if (System.nanoTime() - deadline >= 0) {
+                    LOG.warn("{}: Failed to offer notifications {} to the queue for listener {}. Exceeded maximum "
+                        + "allowable time of {} minutes; the listener is likely in an unrecoverable state (deadlock "
+                        + "or endless loop).", name, remaining, listener, MAX_NOTIFICATION_OFFER_MINUTES);
+                    return;
+                }
+
+                LockSupport.parkNanos(backoff);
+                if (Thread.interrupted()) {
+                    LOG.warn("{}: Interrupted trying to add to {} listener's queue", name, listener);
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+                continue;
+            }
+
+            backoff = MIN_BACKOFF_NANOS;
+            task.enqueue(items.subList(offset, offset + reserved));
+            offset += reserved;
+            if (task.trySchedule()) {
+                runTask(task);
+            }
+        }
+
+        LOG.trace("{}: submitNotifications done for listener {}", name, listener);
+    }
+
+    /**
+     * Returns {@link ListenerNotificationQueueStats} instances for each current listener
+     * notification task in progress.
+     */
+    public List<ListenerNotificationQueueStats> getListenerNotificationQueueStats() {
+        return listenerCache.values().stream().map(t -> new ListenerNotificationQueueStats(t.listenerKey.toString(),
+            t.size())).collect(Collectors.toList());
+    }
+
+    private void runTask(final NotificationTask task) {
+        LOG.debug("{}: Submitting NotificationTask for listener {}", name, task.listenerKey);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // The task will never run, make sure it is not used anymore
+            task.retire();
+            throw e;
+        }
+    }
+
+    /**
+     * Used as the listenerCache map key. We key by listener reference identity hashCode/equals.
+     */
+    private static final class ListenerKey<L> {
+        private final L listener;
+
+        ListenerKey(final L listener) {
+            this.listener = Preconditions.checkNotNull(listener);
+        }
+
+        L getListener() {
+            return listener;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(listener);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            return (obj instanceof ListenerKey<?>) && listener == ((ListenerKey<?>) obj).listener;
+        }
+
+        @Override
+        public String toString() {
+            return listener.toString();
+        }
+    }
+
+    /**
+     * Executor task for a single listener. Notifications are counted in {@link #state} before they are appended to
+     * {@link #queue}, hence the queue may transiently hold fewer items than counted, but never more than that.
+     *
+     * <p>The state is either {@link #RETIRED}, or the pending count shifted left by one, with the {@link #SCHEDULED}
+     * flag set while a thread owns the queue. Only the thread which sets the flag may submit the task, and only the
+     * running task may clear it, hence there is never more than one thread invoking the listener. The task retires
+     * in a single step from the last pending notification to {@link #RETIRED}, so that a concurrent reservation either
+     * precedes it and keeps the task running, or observes the retirement and creates a new task.
+     */
+    private final class NotificationTask implements Runnable {
+        private final Queue<N> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger state = new AtomicInteger();
+        private final ListenerKey<L> listenerKey;
+
+        NotificationTask(final ListenerKey<L> listenerKey) {
+            this.listenerKey = Preconditions.checkNotNull(listenerKey);
+        }
+
+        int size() {
+            final int current = state.get();
+            return current == RETIRED ? 0 : current >>> 1;
+        }
+
+        /**
+         * Reserve space for notifications. The task does not retire while it has reserved notifications, hence
+         * the caller has to follow up with {@link #enqueue(List)} and {@link #trySchedule()}.
+         *
+         * @return number of reserved notifications, 0 if the queue is full, or {@link #RETIRED}
+         */
+        int reserve(final int count) {
+            while (true) {
+                final int current = state.get();
+                if (current == RETIRED) {
+                    return RETIRED;
+                }
+
+                final int reserved = Math.min(count, maxQueueCapacity - (current >>> 1));
+                if (reserved <= 0) {
+                    return 0;
+                }
+                if (state.compareAndSet(current, current + (reserved << 1))) {
+                    return reserved;
+                }
+            }
+        }
+
+        /**
+         * Mark the task as scheduled, unless it already is.
+         *
+         * @return true if the caller has to submit the task to the executor
+         */
+        boolean trySchedule() {
+            while (true) {
+                final int current = state.get();
+                if (current == RETIRED || (current & SCHEDULED) != 0) {
+                    return false;
+                }
+                if (state.compareAndSet(current, current | SCHEDULED)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Append previously-reserved notifications.
+         */
+        void enqueue(final List<N> notifications) {
+            queue.addAll(notifications);
+        }
+
+        void retire() {
+            state.set(RETIRED);
+            listenerCache.remove(listenerKey, this);
+        }
+
+        @Override
+        public void run() {
+            boolean exited = false;
+            try {
+                while (true) {
+                    final int count = state.get() >>> 1;
+                    final List<N> notifications = new ArrayList<>(count);
+                    for (int i = 0; i < count; ++i) {
+                        final N notification = queue.poll();
+                        if (notification == null) {
+                            // Submitter has not finished appending, we will pick the rest up in the next round
+                            break;
+                        }
+                        notifications.add(notification);
+                    }
+
+                    if (notifications.isEmpty()) {
+                        // All pending notifications are still being appended. Hand the queue off to their
+                        // submitters, which will schedule us again once they are done.
+                        if (unschedule()) {
+                            exited = true;
+                            return;
+                        }
+                        continue;
+                    }
+
+                    invokeListener(notifications);
+                    if (release(notifications.size())) {
+                        listenerCache.remove(listenerKey, this);
+                        exited = true;
+                        return;
+                    }
+                }
+            } finally {
+                if (!exited) {
+                    // We are exiting abnormally, make sure we are not used anymore
+                    retire();
+                }
+            }
+        }
+
+        /**
+         * Release delivered notifications, retiring the task if there are no more pending notifications.
+         *
+         * @return true if the task has retired
+         */
+        private boolean release(final int count) {
+            while (true) {
+                final int current = state.get();
+                final int next = current - (count << 1);
+                if (next >>> 1 == 0) {
+                    if (state.compareAndSet(current, RETIRED)) {
+                        return true;
+                    }
+                } else if (state.compareAndSet(current, next)) {
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * Clear the scheduled flag, unless notifications were appended in the meantime and we can keep draining.
+         *
+         * @return true if the task should exit
+         */
+        private boolean unschedule() {
+            int current;
+            do {
+                current = state.get();
+            } while (!state.compareAndSet(current, current & ~SCHEDULED));
+
+            // A submitter which appended before we cleared the flag may have seen it set and not scheduled us. We
+            // cannot tell, so re-acquire the queue if it is not empty.
+            return queue.isEmpty() || !trySchedule();
+        }
+
+        private void invokeListener(final List<N> notifications) {
+            LOG.debug("{}: Invoking listener {} with notification: {}", name, listenerKey, notifications);
+            try {
+                listenerInvoker.invokeListener(listenerKey.getListener(), notifications);
+            } catch (Exception e) {
+                // We'll let a RuntimeException from the listener slide and keep sending any remaining notifications.
+                LOG.error("{}: Error notifying listener {} with {}", name, listenerKey, notifications, e);
+            }
+        }
+    }
+}
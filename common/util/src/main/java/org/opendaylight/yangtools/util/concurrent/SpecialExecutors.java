@@ -18,6 +18,8 @@ import java.util.concurrent.TimeUnit;
  */
 public final class SpecialExecutors {
 
+    private static final long PLATFORM_FALLBACK_IDLE_TIMEOUT_IN_SEC = 1L;
+
     private SpecialExecutors() {
     }
 
@@ -150,4 +152,78 @@ public final class SpecialExecutors {
         return new FastThreadPoolExecutor( 1, maximumQueueSize, Long.MAX_VALUE, TimeUnit.SECONDS,
                 threadPrefix );
     }
+
+    /**
+     * Creates an ExecutorService which runs each task in a new virtual thread, as long as the number of
+     * concurrently-running tasks is below the specified limit. Tasks submitted beyond that limit are
+     * queued, and if the maximum queue capacity is reached, subsequent tasks will be rejected. The
+     * queue, rejection counting and largest queue size tracking behave as in
+     * {@link #newBoundedFastThreadPool }.
+     *
+     * <p>Virtual threads are cheap to create and do not tie up a platform thread while blocked, hence
+     * this executor is suitable for tasks which block, such as listeners performing I/O. Virtual
+     * threads are not meant to be pooled, hence each task, including a queued one, runs in a new
+     * thread, which terminates when the task completes.
+     *
+     * <p>If the runtime does not provide virtual threads, a {@link #newBoundedFastThreadPool } of
+     * daemon platform threads is used instead, whose threads terminate as soon as they have been idle
+     * for a second. Otherwise the returned executor is a {@link ThreadPerTaskBoundedExecutor}, whose
+     * statistics are available through the same accessors as those of a {@link FastThreadPoolExecutor}.
+     *
+     * @param maximumThreadCount
+     *            the maximum number of tasks running concurrently.
+     * @param maximumQueueSize
+     *            the capacity of the queue.
+     * @param threadPrefix
+     *            the name prefix for threads created by this executor.
+     * @return a new ExecutorService with the specified configuration.
+     */
+    public static ExecutorService newBoundedVirtualThreadExecutor( int maximumThreadCount,
+            int maximumQueueSize, String threadPrefix ) {
+        return newBoundedVirtualThreadExecutor( maximumThreadCount, maximumQueueSize, threadPrefix, false );
+    }
+
+    /**
+     * Creates an ExecutorService similar to {@link #newBoundedVirtualThreadExecutor } except that it
+     * handles rejected tasks by running them in the same thread as the caller. Therefore if the
+     * queue is full, the caller submitting the task will be blocked until the task completes. In
+     * this manner, tasks are never rejected.
+     *
+     * @param maximumThreadCount
+     *            the maximum number of tasks running concurrently.
+     * @param maximumQueueSize
+     *            the capacity of the queue.
+     * @param threadPrefix
+     *            the name prefix for threads created by this executor.
+     * @return a new ExecutorService with the specified configuration.
+     */
+    public static ExecutorService newBlockingBoundedVirtualThreadExecutor( int maximumThreadCount,
+            int maximumQueueSize, String threadPrefix ) {
+        return newBoundedVirtualThreadExecutor( maximumThreadCount, maximumQueueSize, threadPrefix, true );
+    }
+
+    /**
+     * Returns true if executors created by {@link #newBoundedVirtualThreadExecutor } and
+     * {@link #newBlockingBoundedVirtualThreadExecutor } use virtual threads, false if the runtime
+     * does not provide them and platform threads are used instead.
+     */
+    public static boolean isVirtualThreadAvailable() {
+        return VirtualThreadSupport.isAvailable();
+    }
+
+    private static ExecutorService newBoundedVirtualThreadExecutor( int maximumThreadCount,
+            int maximumQueueSize, String threadPrefix, boolean callerRuns ) {
+        ExecutorService threadPerTask = VirtualThreadSupport.newThreadPerTaskExecutor( threadPrefix );
+        if (threadPerTask != null) {
+            return new ThreadPerTaskBoundedExecutor( threadPerTask, maximumThreadCount, maximumQueueSize,
+                    threadPrefix, callerRuns );
+        }
+
+        FastThreadPoolExecutor executor = new FastThreadPoolExecutor( maximumThreadCount, maximumQueueSize,
+                PLATFORM_FALLBACK_IDLE_TIMEOUT_IN_SEC, TimeUnit.SECONDS, threadPrefix );
+        if (callerRuns) {
+            executor.setRejectedExecutionHandler( CountingRejectedExecutionHandler.newCallerRunsPolicy() );
+        }
+        return executor;
+    }
 }
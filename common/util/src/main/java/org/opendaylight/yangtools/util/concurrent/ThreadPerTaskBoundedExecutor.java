@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util.concurrent;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * An ExecutorService which runs each task in a new thread obtained from a thread-per-task delegate, such as one
+ * created by {@code Executors.newThreadPerTaskExecutor()}, as long as the number of running tasks is below a limit.
+ * Tasks submitted beyond that limit are queued in a bounded {@link TrackingLinkedBlockingQueue} and started as
+ * running tasks complete. Threads are never reused, which is what virtual threads expect.
+ *
+ * <p>If the queue is full, the task is handed to a {@link CountingRejectedExecutionHandler}, which either throws a
+ * {@link RejectedExecutionException} or runs it in the caller's thread. Statistics are exposed through the same
+ * accessors as {@link FastThreadPoolExecutor} provides.
+ *
+ * <p>Instances are created by {@link SpecialExecutors#newBoundedVirtualThreadExecutor} and
+ * {@link SpecialExecutors#newBlockingBoundedVirtualThreadExecutor}, see there for more details.
+ */
+@Beta
+public final class ThreadPerTaskBoundedExecutor extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final TrackingLinkedBlockingQueue<Runnable> queue;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final CountingRejectedExecutionHandler rejectedExecutionHandler;
+    private final String threadPrefix;
+    private final int maximumThreadCount;
+    private final int maximumQueueSize;
+
+    @GuardedBy("queue")
+    private int runningCount;
+    @GuardedBy("queue")
+    private int largestRunningCount;
+    @GuardedBy("queue")
+    private boolean shutdown;
+
+    ThreadPerTaskBoundedExecutor(final ExecutorService delegate, final int maximumThreadCount,
+            final int maximumQueueSize, final String threadPrefix, final boolean callerRuns) {
+        Preconditions.checkArgument(maximumThreadCount > 0, "Maximum thread count %s is not positive",
+            maximumThreadCount);
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.queue = new TrackingLinkedBlockingQueue<>(maximumQueueSize);
+        this.threadPrefix = Preconditions.checkNotNull(threadPrefix);
+        this.maximumThreadCount = maximumThreadCount;
+        this.maximumQueueSize = maximumQueueSize;
+        this.rejectedExecutionHandler = new CountingRejectedExecutionHandler(callerRuns ? (task, executor) -> task.run()
+                : (task, executor) -> {
+                    throw new RejectedExecutionException("Task " + task + " rejected from " + this);
+                });
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        Preconditions.checkNotNull(command);
+
+        final boolean busy;
+        synchronized (queue) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor has been shutdown.");
+            }
+
+            busy = runningCount >= maximumThreadCount;
+            if (!busy) {
+                runningCount++;
+                largestRunningCount = Math.max(largestRunningCount, runningCount);
+            } else if (queue.offer(command)) {
+                return;
+            }
+        }
+
+        if (!busy) {
+            start(command);
+            return;
+        }
+
+        // This is not a ThreadPoolExecutor, and neither of our policies needs one
+        rejectedExecutionHandler.rejectedExecution(command, null);
+    }
+
+    private void start(final Runnable command) {
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    taskCompleted();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Only happens after shutdownNow(), account for the task as if it had completed
+            taskCompleted();
+            throw e;
+        }
+    }
+
+    private void taskCompleted() {
+        final Runnable next;
+        synchronized (queue) {
+            next = queue.poll();
+            if (next == null) {
+                runningCount--;
+                tryTerminate();
+            }
+        }
+
+        // The slot held by the completed task passes on to the next queued task, which runs in a new thread
+        if (next != null) {
+            start(next);
+        }
+    }
+
+    @GuardedBy("queue")
+    private void tryTerminate() {
+        // No tasks are queued while none are running, hence this also means the queue is empty
+        if (shutdown && runningCount == 0 && terminated.getCount() != 0) {
+            delegate.shutdown();
+            terminated.countDown();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (queue) {
+            shutdown = true;
+            tryTerminate();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> ret = new ArrayList<>();
+        synchronized (queue) {
+            shutdown = true;
+            queue.drainTo(ret);
+            tryTerminate();
+        }
+
+        // Interrupts running tasks
+        delegate.shutdownNow();
+        return ret;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        synchronized (queue) {
+            return shutdown;
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Returns the number of tasks currently running.
+     */
+    public int getActiveCount() {
+        synchronized (queue) {
+            return runningCount;
+        }
+    }
+
+    /**
+     * Returns the largest number of tasks that have ever been running at the same time.
+     */
+    public int getLargestPoolSize() {
+        synchronized (queue) {
+            return largestRunningCount;
+        }
+    }
+
+    /**
+     * Returns the maximum number of tasks running at the same time.
+     */
+    public int getMaximumPoolSize() {
+        return maximumThreadCount;
+    }
+
+    /**
+     * Returns the largest number of tasks that have been queued at the same time.
+     */
+    public long getLargestQueueSize() {
+        return queue.getLargestQueueSize();
+    }
+
+    /**
+     * Returns the handler of rejected tasks, which also keeps their count.
+     */
+    public CountingRejectedExecutionHandler getRejectedExecutionHandler() {
+        return rejectedExecutionHandler;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("Thread Prefix", threadPrefix)
+                .add("Active Thread Count", getActiveCount())
+                .add("Largest Active Thread Count", getLargestPoolSize())
+                .add("Max Thread Count", maximumThreadCount)
+                .add("Current Queue Size", queue.size())
+                .add("Largest Queue Size", getLargestQueueSize())
+                .add("Max Queue Size", maximumQueueSize)
+                .add("Rejected Task Count", rejectedExecutionHandler.getRejectedTaskCount()).toString();
+    }
+}
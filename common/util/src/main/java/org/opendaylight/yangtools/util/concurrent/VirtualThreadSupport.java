@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util.concurrent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Access to virtual threads on runtimes which provide them. We are compiled against a runtime which does not, hence
+ * the builder API and {@code Executors.newThreadPerTaskExecutor()} are accessed reflectively.
+ */
+final class VirtualThreadSupport {
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadSupport.class);
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method THREAD_PER_TASK;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method threadPerTask = null;
+        try {
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            threadPerTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            LOG.debug("Virtual threads are not available, platform threads will be used", e);
+            ofVirtual = null;
+        }
+
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        THREAD_PER_TASK = threadPerTask;
+    }
+
+    private VirtualThreadSupport() {
+        throw new UnsupportedOperationException();
+    }
+
+    static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Create an executor which runs each task in a new virtual thread, named with specified prefix followed by
+     * a sequence number.
+     *
+     * @param threadPrefix the name prefix for created threads
+     * @return A thread-per-task executor, or null if virtual threads are not available
+     */
+    @Nullable static ExecutorService newThreadPerTaskExecutor(final String threadPrefix) {
+        if (OF_VIRTUAL == null) {
+            return null;
+        }
+
+        try {
+            final Object factory = FACTORY.invoke(NAME.invoke(OF_VIRTUAL.invoke(null), threadPrefix + "-", 0L));
+            return (ExecutorService) THREAD_PER_TASK.invoke(null, factory);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            LOG.warn("Failed to create virtual thread executor, platform threads will be used", e);
+            return null;
+        }
+    }
+}
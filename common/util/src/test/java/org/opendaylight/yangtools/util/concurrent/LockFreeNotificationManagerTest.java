@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import org.opendaylight.yangtools.util.concurrent.LockFreeNotificationManager.BackpressurePolicy;
+import org.opendaylight.yangtools.util.concurrent.QueuedNotificationManager.BatchedInvoker;
+import org.opendaylight.yangtools.util.concurrent.QueuedNotificationManagerTest.TestListener;
+
+public class LockFreeNotificationManagerTest {
+    private static final BatchedInvoker<TestListener<Integer>, Integer> INVOKER =
+        (listener, notifications) -> notifications.forEach(listener::onNotification);
+
+    private ExecutorService queueExecutor;
+
+    @After
+    public void tearDown() {
+        if (queueExecutor != null) {
+            queueExecutor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testNotificationsWithSingleListener() {
+        queueExecutor = Executors.newFixedThreadPool(2);
+        final LockFreeNotificationManager<TestListener<Integer>, Integer> manager =
+                LockFreeNotificationManager.create(queueExecutor, INVOKER, 10, "TestMgr");
+
+        final int nNotifications = 100;
+        final TestListener<Integer> listener = new TestListener<>(nNotifications, 1);
+        listener.sleepTime = 20;
+
+        manager.submitNotifications(listener, Arrays.asList(1, 2));
+        manager.submitNotification(listener, 3);
+        manager.submitNotifications(null, Arrays.asList(4));
+        manager.submitNotifications(listener, null);
+        manager.submitNotification(listener, null);
+
+        Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+        listener.sleepTime = 0;
+
+        final List<Integer> expNotifications = new ArrayList<>(nNotifications);
+        expNotifications.addAll(Arrays.asList(1, 2, 3));
+        for (int i = 4; i <= nNotifications; i++) {
+            expNotifications.add(i);
+            manager.submitNotification(listener, i);
+        }
+
+        listener.verifyNotifications(expNotifications);
+    }
+
+    @Test
+    public void testNotificationsWithMultipleListeners() throws InterruptedException {
+        final int nListeners = 10;
+        final int nNotifications = 100000;
+        queueExecutor = Executors.newFixedThreadPool(nListeners);
+        final ExecutorService stagingExecutor = Executors.newFixedThreadPool(nListeners);
+        final LockFreeNotificationManager<TestListener<Integer>, Integer> manager =
+                LockFreeNotificationManager.create(queueExecutor, INVOKER, 5000, "TestMgr");
+
+        final List<TestListener<Integer>> listeners = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 1; i <= nListeners; i++) {
+            final TestListener<Integer> listener = new TestListener<>(nNotifications, i);
+            listeners.add(listener);
+
+            final Thread t = new Thread(() -> {
+                for (int j = 1; j <= nNotifications; j++) {
+                    final Integer n = j;
+                    stagingExecutor.execute(() -> manager.submitNotification(listener, n));
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+
+        try {
+            for (TestListener<Integer> listener : listeners) {
+                listener.verifyNotifications();
+            }
+        } finally {
+            stagingExecutor.shutdownNow();
+        }
+
+        for (Thread t : threads) {
+            t.join();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testSerializedDeliveryWithMultipleProducers() throws InterruptedException {
+        final int nProducers = 8;
+        final int nNotifications = 20000;
+        queueExecutor = Executors.newFixedThreadPool(nProducers);
+
+        // Each notification encodes its producer and sequence number
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final AtomicInteger delivered = new AtomicInteger();
+        final int[] lastSequence = new int[nProducers];
+        final CountDownLatch done = new CountDownLatch(1);
+        final Object listener = new Object();
+        final BatchedInvoker<Object, Integer> invoker = (l, notifications) -> {
+            if (active.incrementAndGet() != 1) {
+                overlapped.set(true);
+            }
+            for (Integer n : notifications) {
+                final int producer = n / nNotifications;
+                final int sequence = n % nNotifications + 1;
+                if (lastSequence[producer] + 1 != sequence) {
+                    overlapped.set(true);
+                }
+                lastSequence[producer] = sequence;
+            }
+            active.decrementAndGet();
+            if (delivered.addAndGet(notifications.size()) == nProducers * nNotifications) {
+                done.countDown();
+            }
+        };
+
+        final LockFreeNotificationManager<Object, Integer> manager =
+                LockFreeNotificationManager.create(queueExecutor, invoker, 1, "TestMgr");
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < nProducers; i++) {
+            final int base = i * nNotifications;
+            final Thread t = new Thread(() -> {
+                for (int j = 0; j < nNotifications; j++) {
+                    manager.submitNotification(listener, base + j);
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertTrue("All notifications delivered", done.await(30, TimeUnit.SECONDS));
+        assertFalse("Listener invoked concurrently or out of order", overlapped.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testDropPolicy() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final LockFreeNotificationManager<TestListener<Integer>, Integer> manager =
+                LockFreeNotificationManager.create(tasks::add, INVOKER, 5, "TestMgr", BackpressurePolicy.DROP);
+
+        final TestListener<Integer> listener = new TestListener<>(5, 1);
+        manager.submitNotifications(listener, Arrays.asList(1, 2, 3));
+        manager.submitNotifications(listener, Arrays.asList(4, 5, 6, 7));
+        assertEquals(1, tasks.size());
+        assertEquals(1, manager.getListenerNotificationQueueStats().size());
+        assertEquals(5, manager.getListenerNotificationQueueStats().get(0).getCurrentQueueSize());
+
+        tasks.get(0).run();
+        listener.verifyNotifications(Arrays.asList(1, 2, 3, 4, 5));
+        assertTrue(manager.getListenerNotificationQueueStats().isEmpty());
+
+        // Queue has been drained, further notifications are delivered by a new task
+        listener.reset(1);
+        manager.submitNotification(listener, 8);
+        assertEquals(2, tasks.size());
+        tasks.get(1).run();
+        listener.verifyNotifications(Arrays.asList(8));
+    }
+
+    @Test(timeout = 10000)
+    public void testRejectPolicy() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final LockFreeNotificationManager<TestListener<Integer>, Integer> manager =
+                LockFreeNotificationManager.create(tasks::add, INVOKER, 2, "TestMgr", BackpressurePolicy.REJECT);
+
+        final TestListener<Integer> listener = new TestListener<>(2, 1);
+        manager.submitNotifications(listener, Arrays.asList(1, 2));
+        try {
+            manager.submitNotification(listener, 3);
+            fail("Notification should have been rejected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+
+        tasks.get(0).run();
+        listener.verifyNotifications(Arrays.asList(1, 2));
+    }
+
+    @Test(timeout = 10000)
+    public void testNotificationsWithListenerJVMError() {
+        final CountDownLatch errorCaughtLatch = new CountDownLatch(1);
+        queueExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(final Runnable command) {
+                super.execute(() -> {
+                    try {
+                        command.run();
+                    } catch (Error e) {
+                        errorCaughtLatch.countDown();
+                    }
+                });
+            }
+        };
+
+        final LockFreeNotificationManager<TestListener<Integer>, Integer> manager =
+                LockFreeNotificationManager.create(queueExecutor, INVOKER, 10, "TestMgr");
+
+        final TestListener<Integer> listener = new TestListener<>(2, 1);
+        listener.jvmError = mock(Error.class);
+
+        manager.submitNotification(listener, 1);
+        assertTrue("JVM Error caught", Uninterruptibles.awaitUninterruptibly(errorCaughtLatch, 5,
+            TimeUnit.SECONDS));
+
+        manager.submitNotification(listener, 2);
+        listener.verifyNotifications();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.ForwardingExecutorService;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class ThreadPerTaskBoundedExecutorTest {
+    private final AtomicInteger delegateTasks = new AtomicInteger();
+    private final ExecutorService delegate = Executors.newCachedThreadPool();
+    private final ExecutorService countingDelegate = new CountingExecutorService();
+
+    private ThreadPerTaskBoundedExecutor executor;
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        delegate.shutdownNow();
+    }
+
+    @Test(timeout = 10000)
+    public void testBoundedConcurrency() throws Exception {
+        executor = new ThreadPerTaskBoundedExecutor(countingDelegate, 2, 3, "TestPool", false);
+
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(5);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        // Two tasks running, three queued
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(2, executor.getMaximumPoolSize());
+        assertEquals(3, executor.getLargestQueueSize());
+        try {
+            executor.execute(() -> { });
+            fail("Task should have been rejected");
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, executor.getRejectedExecutionHandler().getRejectedTaskCount());
+        }
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(2, executor.getLargestPoolSize());
+
+        // Each task, including the queued ones, has been handed to the delegate
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(5, delegateTasks.get());
+        assertTrue(delegate.isShutdown());
+    }
+
+    @Test(timeout = 10000)
+    public void testCallerRuns() throws Exception {
+        executor = new ThreadPerTaskBoundedExecutor(countingDelegate, 1, 1, "TestPool", true);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        executor.execute(() -> { });
+
+        final Thread[] thread = new Thread[1];
+        executor.execute(() -> thread[0] = Thread.currentThread());
+        assertSame(Thread.currentThread(), thread[0]);
+        assertEquals(1, executor.getRejectedExecutionHandler().getRejectedTaskCount());
+
+        release.countDown();
+    }
+
+    @Test(timeout = 10000)
+    public void testShutdownNow() throws Exception {
+        executor = new ThreadPerTaskBoundedExecutor(countingDelegate, 1, 1, "TestPool", false);
+
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        final Runnable queued = () -> { };
+        executor.execute(queued);
+
+        final List<Runnable> pending = executor.shutdownNow();
+        assertEquals(1, pending.size());
+        assertSame(queued, pending.get(0));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, delegateTasks.get());
+
+        try {
+            executor.execute(queued);
+            fail("Task should have been rejected");
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+    }
+
+    private final class CountingExecutorService extends ForwardingExecutorService {
+        @Override
+        protected ExecutorService delegate() {
+            return delegate;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            delegateTasks.incrementAndGet();
+            super.execute(command);
+        }
+    }
+}
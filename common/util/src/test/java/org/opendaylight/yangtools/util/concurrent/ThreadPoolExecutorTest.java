@@ -94,6 +94,33 @@ public class ThreadPoolExecutorTest {
                 1000, null, 10 );
     }
 
+    @Test
+    public void testVirtualThreadExecution() throws Exception {
+
+        testThreadPoolExecution(
+                SpecialExecutors.newBoundedVirtualThreadExecutor( 50, 100000, "TestPool" ),
+                100000, "TestPool", 0 );
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testVirtualThreadRejectingTask() throws Exception {
+
+        executor = SpecialExecutors.newBoundedVirtualThreadExecutor( 1, 1, "TestPool" );
+
+        for (int i = 0; i < 5; i++) {
+            executor.execute( new Task( null, null, null, null,
+                    TimeUnit.MICROSECONDS.convert( 5, TimeUnit.SECONDS ) ) );
+        }
+    }
+
+    @Test
+    public void testBlockingVirtualThreadExecution() throws Exception {
+
+        testThreadPoolExecution(
+                SpecialExecutors.newBlockingBoundedVirtualThreadExecutor( 2, 1, "TestPool" ),
+                1000, null, 10 );
+    }
+
     void testThreadPoolExecution( final ExecutorService executor,
             final int numTasksToRun, final String expThreadPrefix, final long taskDelay ) throws Exception {
 
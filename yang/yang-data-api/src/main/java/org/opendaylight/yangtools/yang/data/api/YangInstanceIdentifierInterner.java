@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * Interner of {@link YangInstanceIdentifier}s. Canonical instances are chains of single path arguments, each of which
+ * refers to its canonical parent, so that identifiers which share a prefix also share the objects representing it.
+ * Canonical instances are weakly referenced and are retained only as long as they are in use.
+ *
+ * <p>
+ * This class is thread-safe.
+ */
+@Beta
+public final class YangInstanceIdentifierInterner {
+    private final Interner<YangInstanceIdentifier> interner = Interners.newWeakInterner();
+
+    // Identity-based set of canonical instances, so that they are recognized without walking their parents
+    private final ConcurrentMap<YangInstanceIdentifier, Boolean> canonical = new MapMaker().weakKeys().makeMap();
+
+    private YangInstanceIdentifierInterner() {
+
+    }
+
+    public static YangInstanceIdentifierInterner create() {
+        return new YangInstanceIdentifierInterner();
+    }
+
+    /**
+     * Return the canonical instance of an identifier.
+     *
+     * @param identifier Identifier to intern
+     * @return Canonical instance equal to the identifier
+     */
+    @Nonnull public YangInstanceIdentifier intern(@Nonnull final YangInstanceIdentifier identifier) {
+        if (identifier.isEmpty()) {
+            return YangInstanceIdentifier.EMPTY;
+        }
+        if (canonical.containsKey(identifier)) {
+            return identifier;
+        }
+
+        // Collect path arguments up to the nearest canonical ancestor
+        final Deque<PathArgument> args = new ArrayDeque<>();
+        YangInstanceIdentifier current = identifier;
+        while (current instanceof StackedYangInstanceIdentifier && !canonical.containsKey(current)) {
+            args.push(current.getLastPathArgument());
+            current = current.getParent();
+        }
+        if (!current.isEmpty() && !canonical.containsKey(current)) {
+            final List<PathArgument> fixed = current.getPathArguments();
+            for (int i = fixed.size() - 1; i >= 0; --i) {
+                args.push(fixed.get(i));
+            }
+            current = YangInstanceIdentifier.EMPTY;
+        }
+
+        for (PathArgument arg : args) {
+            current = child(current, arg);
+        }
+        return current;
+    }
+
+    /**
+     * Return the canonical instance of a child identifier. This is equivalent to, but faster than
+     * {@code intern(parent.node(arg))} when the parent is already canonical.
+     *
+     * @param parent Parent identifier
+     * @param arg Path argument of the child
+     * @return Canonical instance of the child
+     */
+    @Nonnull public YangInstanceIdentifier node(@Nonnull final YangInstanceIdentifier parent,
+            @Nonnull final PathArgument arg) {
+        return child(intern(parent), Preconditions.checkNotNull(arg));
+    }
+
+    private YangInstanceIdentifier child(final YangInstanceIdentifier canonicalParent, final PathArgument arg) {
+        final YangInstanceIdentifier ret = interner.intern(canonicalParent.node(arg));
+        canonical.putIfAbsent(ret, Boolean.TRUE);
+        return ret;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * Map keyed by {@link YangInstanceIdentifier}s, organized as a trie of {@link PathArgument}s. In addition to exact
+ * lookups, it efficiently finds entries whose keys are prefixes of an identifier and entries whose keys lie in the
+ * subtree of an identifier, in time proportional to the length of the identifier and the number of matching
+ * entries rather than the size of the map.
+ *
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <V> Value type
+ */
+@Beta
+public final class YangInstanceIdentifierTrieMap<V> {
+    private static final class Node<V> {
+        private Map<PathArgument, Node<V>> children;
+        private YangInstanceIdentifier key;
+        private V value;
+
+        Node<V> getChild(final PathArgument arg) {
+            return children == null ? null : children.get(arg);
+        }
+
+        Node<V> ensureChild(final PathArgument arg) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+
+            Node<V> ret = children.get(arg);
+            if (ret == null) {
+                ret = new Node<>();
+                children.put(arg, ret);
+            }
+            return ret;
+        }
+
+        boolean isUnused() {
+            return value == null && (children == null || children.isEmpty());
+        }
+
+        Entry<YangInstanceIdentifier, V> toEntry() {
+            return new SimpleImmutableEntry<>(key, value);
+        }
+    }
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    private YangInstanceIdentifierTrieMap() {
+
+    }
+
+    public static <V> YangInstanceIdentifierTrieMap<V> create() {
+        return new YangInstanceIdentifierTrieMap<>();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Associate a value with an identifier.
+     *
+     * @param key Identifier
+     * @param value Value
+     * @return Previous value associated with the identifier, or null if there was none
+     */
+    @Nullable public V put(@Nonnull final YangInstanceIdentifier key, @Nonnull final V value) {
+        Preconditions.checkNotNull(value);
+        Node<V> node = root;
+        for (PathArgument arg : key.getPathArguments()) {
+            node = node.ensureChild(arg);
+        }
+
+        final V ret = node.value;
+        if (ret == null) {
+            size++;
+        }
+        node.key = key;
+        node.value = value;
+        return ret;
+    }
+
+    /**
+     * Return the value associated with an identifier.
+     *
+     * @param key Identifier
+     * @return Associated value, or null if there is none
+     */
+    @Nullable public V get(@Nonnull final YangInstanceIdentifier key) {
+        final Node<V> node = findNode(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Remove the value associated with an identifier.
+     *
+     * @param key Identifier
+     * @return Removed value, or null if there was none
+     */
+    @Nullable public V remove(@Nonnull final YangInstanceIdentifier key) {
+        final List<PathArgument> args = key.getPathArguments();
+        final Deque<Node<V>> path = new ArrayDeque<>(args.size() + 1);
+        Node<V> node = root;
+        path.push(node);
+        for (PathArgument arg : args) {
+            node = node.getChild(arg);
+            if (node == null) {
+                return null;
+            }
+            path.push(node);
+        }
+
+        final V ret = node.value;
+        if (ret == null) {
+            return null;
+        }
+        node.key = null;
+        node.value = null;
+        size--;
+
+        // Prune nodes which are no longer needed
+        for (int i = args.size() - 1; i >= 0; --i) {
+            final Node<V> child = path.pop();
+            if (!child.isUnused()) {
+                break;
+            }
+            path.peek().children.remove(args.get(i));
+        }
+        return ret;
+    }
+
+    /**
+     * Find the entry with the longest key which is a prefix of, or equal to, an identifier.
+     *
+     * @param path Identifier
+     * @return Matching entry, or absent if no key is a prefix of the identifier
+     */
+    @Nonnull public Optional<Entry<YangInstanceIdentifier, V>> longestPrefix(
+            @Nonnull final YangInstanceIdentifier path) {
+        Node<V> node = root;
+        Node<V> found = root.value != null ? root : null;
+        for (PathArgument arg : path.getPathArguments()) {
+            node = node.getChild(arg);
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                found = node;
+            }
+        }
+        return found == null ? Optional.absent() : Optional.of(found.toEntry());
+    }
+
+    /**
+     * Return all entries whose keys are prefixes of, or equal to, an identifier.
+     *
+     * @param path Identifier
+     * @return Matching entries, ordered from the shortest key to the longest
+     */
+    @Nonnull public Map<YangInstanceIdentifier, V> prefixes(@Nonnull final YangInstanceIdentifier path) {
+        final Map<YangInstanceIdentifier, V> ret = new LinkedHashMap<>();
+        Node<V> node = root;
+        if (node.value != null) {
+            ret.put(node.key, node.value);
+        }
+        for (PathArgument arg : path.getPathArguments()) {
+            node = node.getChild(arg);
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                ret.put(node.key, node.value);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Return all entries whose keys lie in the subtree rooted at an identifier, including the identifier itself.
+     *
+     * @param path Identifier
+     * @return Matching entries, parents preceding their children
+     */
+    @Nonnull public Map<YangInstanceIdentifier, V> subtree(@Nonnull final YangInstanceIdentifier path) {
+        final Node<V> start = findNode(path);
+        if (start == null) {
+            return new LinkedHashMap<>();
+        }
+
+        final Map<YangInstanceIdentifier, V> ret = new LinkedHashMap<>();
+        final List<Node<V>> queue = new ArrayList<>();
+        queue.add(start);
+        for (int i = 0; i < queue.size(); ++i) {
+            final Node<V> node = queue.get(i);
+            if (node.value != null) {
+                ret.put(node.key, node.value);
+            }
+            if (node.children != null) {
+                queue.addAll(node.children.values());
+            }
+        }
+        return ret;
+    }
+
+    private Node<V> findNode(final YangInstanceIdentifier key) {
+        Node<V> node = root;
+        for (PathArgument arg : key.getPathArguments()) {
+            node = node.getChild(arg);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * A {@link TipProducingDataTreeTip} which is capable of preparing a batch of modifications in one go. This allows
+ * users with high transaction rates to amortize the cost of updating the data tree across multiple modifications,
+ * as the resulting candidate can be committed with a single update of the tree.
+ */
+@Beta
+public interface BatchingDataTreeTip extends TipProducingDataTreeTip {
+    /**
+     * Validate and prepare a batch of modifications for commit. Modifications are validated and applied in iteration
+     * order, each of them observing the effects of its predecessors. The returned candidate reflects the combined
+     * effect of all modifications, as observed between the state of this tip and the state after the last
+     * modification has been applied.
+     *
+     * <p>
+     * If any of the modifications fails to validate, this method throws and none of the modifications are reflected
+     * in the returned candidate. Callers who need to identify the offending modification can fall back to validating
+     * modifications individually via {@link #validate(DataTreeModification)}.
+     *
+     * @param modifications
+     *                  Data tree modifications, in the order in which they are to be applied.
+     * @return candidate data tree
+     * @throws DataValidationFailedException
+     *                  If any of the modifications is not valid.
+     * @throws IllegalArgumentException
+     *                  If any of the modifications has not been produced by this tree or has not been sealed.
+     */
+    DataTreeCandidateTip validateAndPrepare(Iterable<? extends DataTreeModification> modifications)
+            throws DataValidationFailedException;
+}
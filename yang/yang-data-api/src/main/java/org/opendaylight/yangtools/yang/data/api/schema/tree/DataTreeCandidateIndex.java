@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * Index of subscriptions to parts of a data tree, which matches {@link DataTreeCandidate}s to the subscriptions
+ * they affect. Subscriptions are organized as a tree of path arguments, which is walked together with the candidate,
+ * so that the cost of matching is proportional to the size of the parts of the candidate which are covered by some
+ * subscription, not to the number of subscriptions multiplied by the number of changes.
+ *
+ * <p>
+ * Subscription paths may be wildcarded: a {@link NodeIdentifier} at a position where the data tree has list entries
+ * or leaf-list entries matches all entries of that list or leaf-list, regardless of their keys or values.
+ *
+ * <p>
+ * Each affected subscription is reported with the part of the candidate relevant to it. If the subscription path
+ * lies within the candidate, it receives a candidate rooted at the subscription path, with wildcards resolved to the
+ * concrete entries which were modified. If the candidate lies within the subscription path, it receives the entire
+ * candidate.
+ *
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <T> Subscriber type
+ */
+@Beta
+public final class DataTreeCandidateIndex<T> {
+    private static final class IndexNode<T> {
+        // NodeIdentifiers, which also match list entries and leaf-list entries as wildcards
+        private final Map<QName, IndexNode<T>> byName = new HashMap<>(4);
+        // All other path arguments, which match exactly
+        private final Map<PathArgument, IndexNode<T>> exact = new HashMap<>(4);
+        private final List<T> subscribers = new ArrayList<>(1);
+
+        IndexNode<T> getChild(final PathArgument arg) {
+            return arg instanceof NodeIdentifier ? byName.get(arg.getNodeType()) : exact.get(arg);
+        }
+
+        IndexNode<T> ensureChild(final PathArgument arg) {
+            IndexNode<T> ret = getChild(arg);
+            if (ret == null) {
+                ret = new IndexNode<>();
+                if (arg instanceof NodeIdentifier) {
+                    byName.put(arg.getNodeType(), ret);
+                } else {
+                    exact.put(arg, ret);
+                }
+            }
+            return ret;
+        }
+
+        void removeChild(final PathArgument arg) {
+            if (arg instanceof NodeIdentifier) {
+                byName.remove(arg.getNodeType());
+            } else {
+                exact.remove(arg);
+            }
+        }
+
+        boolean hasChildren() {
+            return !byName.isEmpty() || !exact.isEmpty();
+        }
+
+        boolean isUnused() {
+            return subscribers.isEmpty() && !hasChildren();
+        }
+
+        /**
+         * Add index nodes matching a data tree path argument.
+         */
+        void addMatches(final PathArgument arg, final List<IndexNode<T>> matches) {
+            if (arg instanceof NodeIdentifier) {
+                addIfPresent(byName.get(arg.getNodeType()), matches);
+                return;
+            }
+
+            addIfPresent(exact.get(arg), matches);
+            if (arg instanceof NodeIdentifierWithPredicates || arg instanceof NodeWithValue) {
+                addIfPresent(byName.get(arg.getNodeType()), matches);
+            }
+        }
+
+        private static <T> void addIfPresent(final IndexNode<T> node, final List<IndexNode<T>> matches) {
+            if (node != null) {
+                matches.add(node);
+            }
+        }
+    }
+
+    private final IndexNode<T> root = new IndexNode<>();
+    private int size;
+
+    private DataTreeCandidateIndex() {
+
+    }
+
+    public static <T> DataTreeCandidateIndex<T> create() {
+        return new DataTreeCandidateIndex<>();
+    }
+
+    /**
+     * Return the number of subscriptions in this index.
+     *
+     * @return Number of subscriptions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Subscribe to changes at or below a path.
+     *
+     * @param path Subscription path, possibly wildcarded
+     * @param subscriber Subscriber
+     */
+    public void subscribe(@Nonnull final YangInstanceIdentifier path, @Nonnull final T subscriber) {
+        Preconditions.checkNotNull(subscriber);
+        IndexNode<T> node = root;
+        for (PathArgument arg : path.getPathArguments()) {
+            node = node.ensureChild(arg);
+        }
+        node.subscribers.add(subscriber);
+        size++;
+    }
+
+    /**
+     * Remove a subscription previously added via {@link #subscribe(YangInstanceIdentifier, Object)}.
+     *
+     * @param path Subscription path
+     * @param subscriber Subscriber
+     * @return True if the subscription was found and removed
+     */
+    public boolean unsubscribe(@Nonnull final YangInstanceIdentifier path, @Nonnull final T subscriber) {
+        final List<PathArgument> args = path.getPathArguments();
+        final Deque<IndexNode<T>> nodes = new ArrayDeque<>(args.size() + 1);
+        IndexNode<T> node = root;
+        nodes.push(node);
+        for (PathArgument arg : args) {
+            node = node.getChild(arg);
+            if (node == null) {
+                return false;
+            }
+            nodes.push(node);
+        }
+
+        if (!node.subscribers.remove(subscriber)) {
+            return false;
+        }
+        size--;
+
+        // Prune nodes which are no longer needed
+        for (int i = args.size() - 1; i >= 0; --i) {
+            if (!nodes.pop().isUnused()) {
+                break;
+            }
+            nodes.peek().removeChild(args.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Match a candidate against subscriptions, reporting each affected subscription with the relevant part of the
+     * candidate. A subscriber is reported multiple times if it has multiple affected subscriptions, or if a wildcarded
+     * subscription matches multiple modified entries.
+     *
+     * @param candidate Data tree candidate
+     * @param consumer Consumer of subscribers and their candidates
+     */
+    public void dispatch(@Nonnull final DataTreeCandidate candidate,
+            @Nonnull final BiConsumer<? super T, DataTreeCandidate> consumer) {
+        final DataTreeCandidateNode rootNode = candidate.getRootNode();
+        if (rootNode.getModificationType() == ModificationType.UNMODIFIED) {
+            return;
+        }
+
+        // Walk down to the candidate root, reporting subscriptions which cover the entire candidate
+        List<IndexNode<T>> current = Collections.singletonList(root);
+        for (PathArgument arg : candidate.getRootPath().getPathArguments()) {
+            final List<IndexNode<T>> next = new ArrayList<>(current.size());
+            for (IndexNode<T> node : current) {
+                notify(node, candidate, consumer);
+                node.addMatches(arg, next);
+            }
+            if (next.isEmpty()) {
+                return;
+            }
+            current = next;
+        }
+
+        walk(candidate.getRootPath(), rootNode, current, consumer);
+    }
+
+    /**
+     * Match a candidate against subscriptions.
+     *
+     * @param candidate Data tree candidate
+     * @return Affected subscribers and the parts of the candidate relevant to them
+     * @see #dispatch(DataTreeCandidate, BiConsumer)
+     */
+    @Nonnull public ListMultimap<T, DataTreeCandidate> match(@Nonnull final DataTreeCandidate candidate) {
+        final ListMultimap<T, DataTreeCandidate> ret = ArrayListMultimap.create();
+        dispatch(candidate, ret::put);
+        return ret;
+    }
+
+    private void walk(final YangInstanceIdentifier path, final DataTreeCandidateNode node,
+            final List<IndexNode<T>> matches, final BiConsumer<? super T, DataTreeCandidate> consumer) {
+        boolean descend = false;
+        DataTreeCandidate candidate = null;
+        for (IndexNode<T> match : matches) {
+            if (!match.subscribers.isEmpty()) {
+                if (candidate == null) {
+                    candidate = DataTreeCandidates.newDataTreeCandidate(path, node);
+                }
+                notify(match, candidate, consumer);
+            }
+            descend |= match.hasChildren();
+        }
+        if (!descend) {
+            return;
+        }
+
+        for (DataTreeCandidateNode child : node.getChildNodes()) {
+            if (child.getModificationType() == ModificationType.UNMODIFIED) {
+                continue;
+            }
+
+            final PathArgument arg = child.getIdentifier();
+            final List<IndexNode<T>> childMatches = new ArrayList<>(1);
+            for (IndexNode<T> match : matches) {
+                match.addMatches(arg, childMatches);
+            }
+            if (!childMatches.isEmpty()) {
+                walk(path.node(arg), child, childMatches, consumer);
+            }
+        }
+    }
+
+    private static <T> void notify(final IndexNode<T> node, final DataTreeCandidate candidate,
+            final BiConsumer<? super T, DataTreeCandidate> consumer) {
+        for (T subscriber : node.subscribers) {
+            consumer.accept(subscriber, candidate);
+        }
+    }
+}
@@ -8,8 +8,11 @@
 package org.opendaylight.yangtools.yang.data.api.schema.tree;
 
 import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
 
 /**
  * DataTree configuration class.
@@ -19,6 +22,8 @@ import org.opendaylight.yangtools.concepts.Immutable;
  * <li>treeType</li>
  * <li>enable/disable unique indexes and unique constraint validation</li>
  * <li>enable/disable mandatory nodes validation</li>
+ * <li>parallel application of modifications touching a large number of children</li>
+ * <li>must/when constraint validation of modified nodes</li>
  * </ul>
  *
  * TreeConfig can be easily extended in order to support further data tree
@@ -36,19 +41,24 @@ import org.opendaylight.yangtools.concepts.Immutable;
 @Beta
 public class DataTreeConfiguration implements Immutable {
     public static final DataTreeConfiguration DEFAULT_CONFIGURATION = new DataTreeConfiguration(TreeType.CONFIGURATION,
-            false, true);
+            false, true, 0, null);
     public static final DataTreeConfiguration DEFAULT_OPERATIONAL = new DataTreeConfiguration(TreeType.OPERATIONAL,
-            false, true);
+            false, true, 0, null);
 
     private final TreeType treeType;
     private final boolean uniqueIndexes;
     private final boolean mandatoryNodesValidation;
+    private final int parallelApplyThreshold;
+    private final XPathSchemaContextFactory constraintXPathFactory;
 
     private DataTreeConfiguration(final TreeType treeType, final boolean uniqueIndexes,
-            final boolean mandatoryNodesValidation) {
+            final boolean mandatoryNodesValidation, final int parallelApplyThreshold,
+            @Nullable final XPathSchemaContextFactory constraintXPathFactory) {
         this.treeType = Preconditions.checkNotNull(treeType);
         this.uniqueIndexes = uniqueIndexes;
         this.mandatoryNodesValidation = mandatoryNodesValidation;
+        this.parallelApplyThreshold = parallelApplyThreshold;
+        this.constraintXPathFactory = constraintXPathFactory;
     }
 
     public TreeType getTreeType() {
@@ -63,6 +73,32 @@ public class DataTreeConfiguration implements Immutable {
         return mandatoryNodesValidation;
     }
 
+    /**
+     * Return the minimum number of child modifications a single node has to have before they are applied in parallel.
+     *
+     * @return Parallel apply threshold, 0 if parallel apply is disabled.
+     */
+    public int getParallelApplyThreshold() {
+        return parallelApplyThreshold;
+    }
+
+    public boolean isParallelApplyEnabled() {
+        return parallelApplyThreshold > 0;
+    }
+
+    /**
+     * Return the XPath implementation used to evaluate must and when constraints of modified nodes.
+     *
+     * @return XPath schema context factory, or {@link Optional#absent()} if constraint validation is disabled.
+     */
+    public Optional<XPathSchemaContextFactory> getConstraintXPathFactory() {
+        return Optional.fromNullable(constraintXPathFactory);
+    }
+
+    public boolean isConstraintValidationEnabled() {
+        return constraintXPathFactory != null;
+    }
+
     public static DataTreeConfiguration getDefault(final TreeType treeType) {
         Preconditions.checkNotNull(treeType);
         switch (treeType) {
@@ -71,7 +107,7 @@ public class DataTreeConfiguration implements Immutable {
         case OPERATIONAL:
             return DEFAULT_OPERATIONAL;
         default:
-            return new DataTreeConfiguration(treeType, false, true);
+            return new DataTreeConfiguration(treeType, false, true, 0, null);
         }
     }
 
@@ -79,6 +115,8 @@ public class DataTreeConfiguration implements Immutable {
         private final TreeType treeType;
         private boolean uniqueIndexes;
         private boolean mandatoryNodesValidation;
+        private int parallelApplyThreshold;
+        private XPathSchemaContextFactory constraintXPathFactory;
 
         public Builder(final TreeType treeType) {
             this.treeType = Preconditions.checkNotNull(treeType);
@@ -94,8 +132,36 @@ public class DataTreeConfiguration implements Immutable {
             return this;
         }
 
+        /**
+         * Enable parallel application of child modifications. When a single node has at least the specified number of
+         * modified children, their subtrees are applied concurrently using the common {@link java.util.concurrent.ForkJoinPool}.
+         *
+         * @param parallelApplyThreshold Minimum number of modified children, 0 to disable parallel apply
+         * @return This builder
+         * @throws IllegalArgumentException if the threshold is negative
+         */
+        public Builder setParallelApplyThreshold(final int parallelApplyThreshold) {
+            Preconditions.checkArgument(parallelApplyThreshold >= 0, "Invalid parallel apply threshold %s",
+                parallelApplyThreshold);
+            this.parallelApplyThreshold = parallelApplyThreshold;
+            return this;
+        }
+
+        /**
+         * Enable validation of must and when constraints. When enabled, validation evaluates the constraints attached
+         * to every node affected by a modification, using expressions compiled by the specified factory.
+         *
+         * @param constraintXPathFactory XPath implementation, null to disable constraint validation
+         * @return This builder
+         */
+        public Builder setConstraintXPathFactory(@Nullable final XPathSchemaContextFactory constraintXPathFactory) {
+            this.constraintXPathFactory = constraintXPathFactory;
+            return this;
+        }
+
         public DataTreeConfiguration build() {
-            return new DataTreeConfiguration(treeType, uniqueIndexes, mandatoryNodesValidation);
+            return new DataTreeConfiguration(treeType, uniqueIndexes, mandatoryNodesValidation, parallelApplyThreshold,
+                constraintXPathFactory);
         }
     }
 }
\ No newline at end of file
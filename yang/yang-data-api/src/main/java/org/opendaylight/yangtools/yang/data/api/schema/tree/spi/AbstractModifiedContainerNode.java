@@ -9,8 +9,6 @@ package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 
 import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.common.base.Preconditions;
-import java.util.Map;
-import org.opendaylight.yangtools.util.MapAdaptor;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 
@@ -18,11 +16,11 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
  * A container node which has been modified. It tracks the subtree version and all modified children.
  */
 abstract class AbstractModifiedContainerNode extends AbstractContainerNode {
-    private final Map<PathArgument, TreeNode> children;
+    private final PersistentChildMap children;
     private final Version subtreeVersion;
 
     protected AbstractModifiedContainerNode(final NormalizedNode<?, ?> data, final Version version,
-            final Map<PathArgument, TreeNode> children, final Version subtreeVersion) {
+            final PersistentChildMap children, final Version subtreeVersion) {
         super(data, version);
         this.subtreeVersion = Preconditions.checkNotNull(subtreeVersion);
         this.children = Preconditions.checkNotNull(children);
@@ -32,8 +30,12 @@ abstract class AbstractModifiedContainerNode extends AbstractContainerNode {
         return children.get(childId);
     }
 
-    protected final Map<PathArgument, TreeNode> snapshotChildren() {
-        return MapAdaptor.getDefaultInstance().takeSnapshot(children);
+    /**
+     * Return children for use by a mutable node. Since children are held in a persistent map, this does not involve
+     * any copying.
+     */
+    protected final PersistentChildMap snapshotChildren() {
+        return children;
     }
 
     @Override
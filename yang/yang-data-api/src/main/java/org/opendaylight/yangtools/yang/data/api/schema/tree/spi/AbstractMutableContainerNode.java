@@ -9,8 +9,6 @@ package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
-import java.util.Map;
-import org.opendaylight.yangtools.util.MapAdaptor;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
@@ -21,11 +19,11 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
  */
 abstract class AbstractMutableContainerNode implements MutableTreeNode {
     private final Version version;
-    private Map<PathArgument, TreeNode> children;
+    private PersistentChildMap children;
     private NormalizedNode<?, ?> data;
     private Version subtreeVersion;
 
-    protected AbstractMutableContainerNode(final AbstractContainerNode parent, final Map<PathArgument, TreeNode> children) {
+    protected AbstractMutableContainerNode(final AbstractContainerNode parent, final PersistentChildMap children) {
         this.data = parent.getData();
         this.version = parent.getVersion();
         this.subtreeVersion = parent.getSubtreeVersion();
@@ -52,12 +50,12 @@ abstract class AbstractMutableContainerNode implements MutableTreeNode {
 
     @Override
     public final void addChild(final TreeNode child) {
-        children.put(child.getIdentifier(), child);
+        children = children.with(child);
     }
 
     @Override
     public final void removeChild(final PathArgument id) {
-        children.remove(id);
+        children = children.without(id);
     }
 
     @Override
@@ -78,14 +76,14 @@ abstract class AbstractMutableContainerNode implements MutableTreeNode {
          * => more materialization can happen
          */
         if (!version.equals(subtreeVersion)) {
-            final Map<PathArgument, TreeNode> newChildren = MapAdaptor.getDefaultInstance().optimize(children);
+            // Children are persistent, hence they can be handed over to the sealed node as they are
             final int dataSize = getData().getValue().size();
-            if (dataSize != newChildren.size()) {
-                Verify.verify(dataSize > newChildren.size(), "Detected %s modified children, data has only %s",
-                    newChildren.size(), dataSize);
-                ret = new LazyContainerNode(data, version, newChildren, subtreeVersion);
+            if (dataSize != children.size()) {
+                Verify.verify(dataSize > children.size(), "Detected %s modified children, data has only %s",
+                    children.size(), dataSize);
+                ret = new LazyContainerNode(data, version, children, subtreeVersion);
             } else {
-                ret = new MaterializedContainerNode(data, version, newChildren, subtreeVersion);
+                ret = new MaterializedContainerNode(data, version, children, subtreeVersion);
             }
         } else {
             ret = new SimpleContainerNode(data, version);
@@ -10,8 +10,6 @@ package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 import com.google.common.base.MoreObjects.ToStringHelper;
 import com.google.common.base.Optional;
 import com.google.common.collect.Collections2;
-import java.util.Map;
-import org.opendaylight.yangtools.util.MapAdaptor;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 
@@ -21,17 +19,17 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
  */
 final class LazyContainerNode extends AbstractModifiedContainerNode {
     LazyContainerNode(final NormalizedNode<?, ?> data, final Version version, final Version subtreeVersion) {
-        this(data, version, MapAdaptor.getDefaultInstance().<PathArgument, TreeNode>initialSnapshot(1), subtreeVersion);
+        this(data, version, PersistentChildMap.empty(), subtreeVersion);
     }
 
-    LazyContainerNode(final NormalizedNode<?, ?> data, final Version version, final Map<PathArgument, TreeNode> children,
+    LazyContainerNode(final NormalizedNode<?, ?> data, final Version version, final PersistentChildMap children,
             final Version subtreeVersion) {
         super(data, version, children, subtreeVersion);
     }
 
     @Override
     public MutableTreeNode mutable() {
-        final Map<PathArgument, TreeNode> snapshot = snapshotChildren();
+        final PersistentChildMap snapshot = snapshotChildren();
         if (snapshot.size() == castData().getValue().size()) {
             return new MaterializedMutableContainerNode(this, snapshot);
         }
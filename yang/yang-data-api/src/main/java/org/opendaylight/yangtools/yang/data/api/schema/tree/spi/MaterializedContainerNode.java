@@ -8,7 +8,6 @@
 package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 
 import com.google.common.base.Optional;
-import java.util.Map;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 
@@ -17,7 +16,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
  */
 final class MaterializedContainerNode extends AbstractModifiedContainerNode {
     protected MaterializedContainerNode(final NormalizedNode<?, ?> data, final Version version,
-            final Map<PathArgument, TreeNode> children, final Version subtreeVersion) {
+            final PersistentChildMap children, final Version subtreeVersion) {
         super(data, version, children, subtreeVersion);
     }
 
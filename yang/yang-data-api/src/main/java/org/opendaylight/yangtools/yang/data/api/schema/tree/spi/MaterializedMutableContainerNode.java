@@ -8,11 +8,10 @@
 package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 
 import com.google.common.base.Optional;
-import java.util.Map;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 
 final class MaterializedMutableContainerNode extends AbstractMutableContainerNode {
-    MaterializedMutableContainerNode(final AbstractContainerNode parent, final Map<PathArgument, TreeNode> children) {
+    MaterializedMutableContainerNode(final AbstractContainerNode parent, final PersistentChildMap children) {
         super(parent, children);
     }
 
@@ -0,0 +1,413 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
+
+import java.util.AbstractMap;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * Persistent map of {@link TreeNode} children, indexed by their {@link TreeNode#getIdentifier()}. It is implemented
+ * as a hash array mapped trie: updates via {@link #with(TreeNode)} and {@link #without(PathArgument)} copy only the
+ * trie nodes on the path to the affected child and share everything else with the original map, hence they run in
+ * O(log32 n) and taking a snapshot amounts to retaining a reference.
+ *
+ * <p>
+ * Since the key of each mapping is available from the child itself, trie nodes store only the children, without
+ * separate key references. This class is immutable and its {@link java.util.Map} view is read-only.
+ */
+final class PersistentChildMap extends AbstractMap<PathArgument, TreeNode> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    // Maximum trie depth: ceil(32 / BITS) bitmap levels plus a collision node
+    private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS + 1;
+
+    private static final PersistentChildMap EMPTY = new PersistentChildMap(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentChildMap(final Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static PersistentChildMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Return a map which contains the specified child in addition to children of this map. Any child with the same
+     * identifier is replaced.
+     *
+     * @param child Child node
+     * @return Updated map, or this map if it already contains the specified child.
+     */
+    PersistentChildMap with(final TreeNode child) {
+        final PathArgument id = child.getIdentifier();
+        final int hash = hash(id);
+        final TreeNode existing = root.find(id, hash, 0);
+        if (existing == child) {
+            return this;
+        }
+
+        return new PersistentChildMap(root.put(child, id, hash, 0), existing == null ? size + 1 : size);
+    }
+
+    /**
+     * Return a map which does not contain a child with the specified identifier.
+     *
+     * @param id Child identifier
+     * @return Updated map, or this map if it does not contain a corresponding child.
+     */
+    PersistentChildMap without(final PathArgument id) {
+        final Node newRoot = root.remove(id, hash(id), 0);
+        if (newRoot == root) {
+            return this;
+        }
+
+        return newRoot == null ? EMPTY : new PersistentChildMap(newRoot, size - 1);
+    }
+
+    @Override
+    public TreeNode get(final Object key) {
+        if (!(key instanceof PathArgument)) {
+            return null;
+        }
+
+        final PathArgument id = (PathArgument) key;
+        return root.find(id, hash(id), 0);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Entry<PathArgument, TreeNode>> entrySet() {
+        return new AbstractSet<Entry<PathArgument, TreeNode>>() {
+            @Override
+            public Iterator<Entry<PathArgument, TreeNode>> iterator() {
+                return new EntryIterator(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static int hash(final PathArgument id) {
+        final int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int fragment(final int hash, final int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    /**
+     * A trie node. Its slots hold either {@link TreeNode} children or subordinate trie nodes.
+     */
+    private abstract static class Node {
+        abstract Object[] slots();
+
+        abstract TreeNode find(PathArgument id, int hash, int shift);
+
+        abstract Node put(TreeNode child, PathArgument id, int hash, int shift);
+
+        /**
+         * Remove a child.
+         *
+         * @return This node if the child is not present, null if the resulting node would be empty, an updated node
+         *         otherwise.
+         */
+        abstract Node remove(PathArgument id, int hash, int shift);
+
+        /**
+         * Return the only child of this node, if this node holds exactly one child and no other trie nodes. Parent
+         * nodes use this to collapse paths which no longer branch.
+         */
+        final TreeNode singleChild() {
+            final Object[] slots = slots();
+            return slots.length == 1 && slots[0] instanceof TreeNode ? (TreeNode) slots[0] : null;
+        }
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final Object[] slots;
+        private final int bitmap;
+
+        BitmapNode(final int bitmap, final Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        @Override
+        Object[] slots() {
+            return slots;
+        }
+
+        private int index(final int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        TreeNode find(final PathArgument id, final int hash, final int shift) {
+            final int bit = 1 << fragment(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+
+            final Object slot = slots[index(bit)];
+            if (slot instanceof Node) {
+                return ((Node) slot).find(id, hash, shift + BITS);
+            }
+
+            final TreeNode child = (TreeNode) slot;
+            return id.equals(child.getIdentifier()) ? child : null;
+        }
+
+        @Override
+        Node put(final TreeNode child, final PathArgument id, final int hash, final int shift) {
+            final int bit = 1 << fragment(hash, shift);
+            final int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                final Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = child;
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                return new BitmapNode(bitmap | bit, newSlots);
+            }
+
+            final Object slot = slots[index];
+            final Object newSlot;
+            if (slot instanceof Node) {
+                newSlot = ((Node) slot).put(child, id, hash, shift + BITS);
+            } else {
+                final TreeNode existing = (TreeNode) slot;
+                final PathArgument existingId = existing.getIdentifier();
+                newSlot = id.equals(existingId) ? child
+                        : merge(existing, hash(existingId), child, hash, shift + BITS);
+            }
+
+            final Object[] newSlots = slots.clone();
+            newSlots[index] = newSlot;
+            return new BitmapNode(bitmap, newSlots);
+        }
+
+        @Override
+        Node remove(final PathArgument id, final int hash, final int shift) {
+            final int bit = 1 << fragment(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+
+            final int index = index(bit);
+            final Object slot = slots[index];
+            if (slot instanceof Node) {
+                final Node node = (Node) slot;
+                final Node newNode = node.remove(id, hash, shift + BITS);
+                if (newNode == node) {
+                    return this;
+                }
+                if (newNode == null) {
+                    return removeSlot(bit, index);
+                }
+
+                final TreeNode single = newNode.singleChild();
+                final Object[] newSlots = slots.clone();
+                newSlots[index] = single != null ? single : newNode;
+                return new BitmapNode(bitmap, newSlots);
+            }
+
+            return id.equals(((TreeNode) slot).getIdentifier()) ? removeSlot(bit, index) : this;
+        }
+
+        private Node removeSlot(final int bit, final int index) {
+            if (slots.length == 1) {
+                return null;
+            }
+
+            final Object[] newSlots = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, newSlots, 0, index);
+            System.arraycopy(slots, index + 1, newSlots, index, newSlots.length - index);
+            return new BitmapNode(bitmap & ~bit, newSlots);
+        }
+
+        private static Node merge(final TreeNode first, final int firstHash, final TreeNode second,
+                final int secondHash, final int shift) {
+            if (firstHash == secondHash) {
+                return new CollisionNode(firstHash, new Object[] { first, second });
+            }
+
+            final int firstFrag = fragment(firstHash, shift);
+            final int secondFrag = fragment(secondHash, shift);
+            if (firstFrag == secondFrag) {
+                return new BitmapNode(1 << firstFrag,
+                    new Object[] { merge(first, firstHash, second, secondHash, shift + BITS) });
+            }
+
+            final Object[] slots = firstFrag < secondFrag ? new Object[] { first, second }
+                : new Object[] { second, first };
+            return new BitmapNode((1 << firstFrag) | (1 << secondFrag), slots);
+        }
+    }
+
+    /**
+     * A trie node holding children whose identifiers have the same hash.
+     */
+    private static final class CollisionNode extends Node {
+        private final Object[] children;
+        private final int hash;
+
+        CollisionNode(final int hash, final Object[] children) {
+            this.hash = hash;
+            this.children = children;
+        }
+
+        @Override
+        Object[] slots() {
+            return children;
+        }
+
+        private int indexOf(final PathArgument id) {
+            for (int i = 0; i < children.length; ++i) {
+                if (id.equals(((TreeNode) children[i]).getIdentifier())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        TreeNode find(final PathArgument id, final int hash, final int shift) {
+            if (this.hash != hash) {
+                return null;
+            }
+
+            final int index = indexOf(id);
+            return index == -1 ? null : (TreeNode) children[index];
+        }
+
+        @Override
+        Node put(final TreeNode child, final PathArgument id, final int hash, final int shift) {
+            if (this.hash != hash) {
+                // Push this node one level down and retry
+                return new BitmapNode(1 << fragment(this.hash, shift), new Object[] { this })
+                        .put(child, id, hash, shift);
+            }
+
+            final int index = indexOf(id);
+            final Object[] newChildren;
+            if (index == -1) {
+                newChildren = new Object[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, children.length);
+                newChildren[children.length] = child;
+            } else {
+                newChildren = children.clone();
+                newChildren[index] = child;
+            }
+            return new CollisionNode(hash, newChildren);
+        }
+
+        @Override
+        Node remove(final PathArgument id, final int hash, final int shift) {
+            if (this.hash != hash) {
+                return this;
+            }
+
+            final int index = indexOf(id);
+            if (index == -1) {
+                return this;
+            }
+            if (children.length == 1) {
+                return null;
+            }
+
+            // A single remaining child is collapsed into the parent via singleChild()
+            final Object[] newChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+            return new CollisionNode(hash, newChildren);
+        }
+    }
+
+    /**
+     * Depth-first iterator over trie nodes. Maximum trie depth is bounded, hence it uses a fixed-size stack.
+     */
+    private static final class EntryIterator implements Iterator<Entry<PathArgument, TreeNode>> {
+        private final Object[][] stack = new Object[MAX_DEPTH][];
+        private final int[] offsets = new int[MAX_DEPTH];
+        private int depth;
+        private TreeNode next;
+
+        EntryIterator(final Node root) {
+            stack[0] = root.slots();
+            advance();
+        }
+
+        private void advance() {
+            while (depth >= 0) {
+                final Object[] slots = stack[depth];
+                final int offset = offsets[depth];
+                if (offset == slots.length) {
+                    --depth;
+                    continue;
+                }
+
+                offsets[depth] = offset + 1;
+                final Object slot = slots[offset];
+                if (slot instanceof TreeNode) {
+                    next = (TreeNode) slot;
+                    return;
+                }
+
+                ++depth;
+                stack[depth] = ((Node) slot).slots();
+                offsets[depth] = 0;
+            }
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<PathArgument, TreeNode> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            final TreeNode ret = next;
+            advance();
+            return new SimpleImmutableEntry<>(ret.getIdentifier(), ret);
+        }
+    }
+}
+
@@ -7,9 +7,6 @@
  */
 package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
 
-import java.util.HashMap;
-import java.util.Map;
-import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
 import org.opendaylight.yangtools.yang.data.api.schema.OrderedNodeContainer;
@@ -42,9 +39,9 @@ public final class TreeNodeFactory {
     private static AbstractContainerNode createNodeRecursively(final Version version, final NormalizedNode<?, ?> data,
         final Iterable<NormalizedNode<?, ?>> children) {
 
-        final Map<PathArgument, TreeNode> map = new HashMap<>();
+        PersistentChildMap map = PersistentChildMap.empty();
         for (NormalizedNode<?, ?> child : children) {
-            map.put(child.getIdentifier(), TreeNodeFactory.createTreeNodeRecursively(child, version));
+            map = map.with(TreeNodeFactory.createTreeNodeRecursively(child, version));
         }
 
         return new MaterializedContainerNode(data, version, map, version);
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+
+public class YangInstanceIdentifierInternerTest {
+    private static final QName NODE1 = QName.create("test", "2014-05-28", "node1");
+    private static final QName NODE2 = QName.create("test", "2014-05-28", "node2");
+    private static final QName NODE3 = QName.create("test", "2014-05-28", "node3");
+    private static final QName KEY = QName.create("test", "2014-05-28", "key");
+
+    @Test
+    public void testIntern() {
+        final YangInstanceIdentifierInterner interner = YangInstanceIdentifierInterner.create();
+        assertSame(YangInstanceIdentifier.EMPTY, interner.intern(YangInstanceIdentifier.create()));
+
+        final YangInstanceIdentifier fixed = YangInstanceIdentifier.create(new NodeIdentifier(NODE1),
+            new NodeIdentifier(NODE2), new NodeIdentifierWithPredicates(NODE3, KEY, "a"));
+        final YangInstanceIdentifier stacked = YangInstanceIdentifier.of(NODE1).node(NODE2)
+                .node(new NodeIdentifierWithPredicates(NODE3, KEY, "a"));
+        assertNotSame(fixed, stacked);
+
+        final YangInstanceIdentifier canonical = interner.intern(fixed);
+        assertEquals(fixed, canonical);
+        assertSame(canonical, interner.intern(stacked));
+        assertSame(canonical, interner.intern(canonical));
+
+        // Parent chain is shared
+        assertSame(interner.intern(YangInstanceIdentifier.of(NODE1).node(NODE2)), canonical.getParent());
+        assertSame(interner.intern(YangInstanceIdentifier.of(NODE1)), canonical.getParent().getParent());
+    }
+
+    @Test
+    public void testNode() {
+        final YangInstanceIdentifierInterner interner = YangInstanceIdentifierInterner.create();
+        final YangInstanceIdentifier parent = interner.intern(YangInstanceIdentifier.of(NODE1));
+
+        final YangInstanceIdentifier first = interner.node(parent, new NodeIdentifierWithPredicates(NODE3, KEY, "a"));
+        final YangInstanceIdentifier second = interner.node(YangInstanceIdentifier.of(NODE1),
+            new NodeIdentifierWithPredicates(NODE3, KEY, "a"));
+        assertSame(first, second);
+        assertSame(parent, first.getParent());
+
+        final YangInstanceIdentifier other = interner.node(parent, new NodeIdentifierWithPredicates(NODE3, KEY, "b"));
+        assertNotSame(first, other);
+        assertSame(parent, other.getParent());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+
+public class YangInstanceIdentifierTrieMapTest {
+    private static final QName NODE1 = QName.create("test", "2014-05-28", "node1");
+    private static final QName NODE2 = QName.create("test", "2014-05-28", "node2");
+    private static final QName NODE3 = QName.create("test", "2014-05-28", "node3");
+    private static final QName KEY = QName.create("test", "2014-05-28", "key");
+
+    private static final YangInstanceIdentifier ID1 = YangInstanceIdentifier.of(NODE1);
+    private static final YangInstanceIdentifier ID12 = ID1.node(NODE2);
+    private static final YangInstanceIdentifier ID123A = ID12.node(new NodeIdentifierWithPredicates(NODE3, KEY, "a"));
+    private static final YangInstanceIdentifier ID123B = ID12.node(new NodeIdentifierWithPredicates(NODE3, KEY, "b"));
+
+    @Test
+    public void testPutGetRemove() {
+        final YangInstanceIdentifierTrieMap<String> map = YangInstanceIdentifierTrieMap.create();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(ID12, "12"));
+        assertNull(map.put(ID123A, "123a"));
+        assertEquals("12", map.put(ID12.toOptimized(), "12'"));
+        assertEquals(2, map.size());
+
+        assertEquals("12'", map.get(ID12));
+        assertEquals("123a", map.get(ID123A.toOptimized()));
+        assertNull(map.get(ID1));
+        assertNull(map.get(ID123B));
+
+        assertNull(map.remove(ID1));
+        assertNull(map.remove(ID123B));
+        assertEquals("12'", map.remove(ID12));
+        assertNull(map.get(ID12));
+        assertEquals("123a", map.get(ID123A));
+        assertEquals("123a", map.remove(ID123A));
+        assertTrue(map.isEmpty());
+        assertTrue(map.subtree(YangInstanceIdentifier.EMPTY).isEmpty());
+    }
+
+    @Test
+    public void testPrefixes() {
+        final YangInstanceIdentifierTrieMap<String> map = YangInstanceIdentifierTrieMap.create();
+        assertFalse(map.longestPrefix(ID123A).isPresent());
+
+        map.put(YangInstanceIdentifier.EMPTY, "root");
+        map.put(ID12, "12");
+        map.put(ID123B, "123b");
+
+        assertEquals(ID12, map.longestPrefix(ID123A).get().getKey());
+        assertEquals("12", map.longestPrefix(ID123A).get().getValue());
+        assertEquals("123b", map.longestPrefix(ID123B).get().getValue());
+        assertEquals("root", map.longestPrefix(ID1).get().getValue());
+
+        assertEquals(ImmutableList.of("root", "12"), ImmutableList.copyOf(map.prefixes(ID123A).values()));
+        assertEquals(ImmutableList.of("root", "12", "123b"), ImmutableList.copyOf(map.prefixes(ID123B).values()));
+    }
+
+    @Test
+    public void testSubtree() {
+        final YangInstanceIdentifierTrieMap<String> map = YangInstanceIdentifierTrieMap.create();
+        map.put(ID1, "1");
+        map.put(ID123A, "123a");
+        map.put(ID123B, "123b");
+        map.put(YangInstanceIdentifier.of(NODE2), "2");
+
+        assertEquals(ImmutableSet.of("1", "123a", "123b"), ImmutableSet.copyOf(map.subtree(ID1).values()));
+        assertEquals("1", map.subtree(ID1).values().iterator().next());
+        assertEquals(ImmutableSet.of("123a", "123b"), ImmutableSet.copyOf(map.subtree(ID12).values()));
+        assertEquals(ImmutableSet.of(ID123B), map.subtree(ID123B).keySet());
+        assertEquals(4, map.subtree(YangInstanceIdentifier.EMPTY).size());
+        assertTrue(map.subtree(ID1.node(NODE3)).isEmpty());
+    }
+}
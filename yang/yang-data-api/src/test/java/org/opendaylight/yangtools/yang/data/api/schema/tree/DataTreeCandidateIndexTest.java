@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+public class DataTreeCandidateIndexTest {
+    private static final QName CONT = QName.create("foo", "2016-01-01", "cont");
+    private static final QName LIST = QName.create(CONT, "list");
+    private static final QName KEY = QName.create(CONT, "key");
+    private static final QName LEAF = QName.create(CONT, "leaf");
+
+    private static final NodeIdentifier CONT_ID = new NodeIdentifier(CONT);
+    private static final NodeIdentifier LIST_ID = new NodeIdentifier(LIST);
+    private static final NodeIdentifier LEAF_ID = new NodeIdentifier(LEAF);
+    private static final NodeIdentifierWithPredicates ENTRY_A = new NodeIdentifierWithPredicates(LIST, KEY, "a");
+    private static final NodeIdentifierWithPredicates ENTRY_B = new NodeIdentifierWithPredicates(LIST, KEY, "b");
+    private static final NodeIdentifierWithPredicates ENTRY_C = new NodeIdentifierWithPredicates(LIST, KEY, "c");
+
+    private static final YangInstanceIdentifier CONT_PATH = YangInstanceIdentifier.create(CONT_ID);
+    private static final YangInstanceIdentifier LIST_PATH = CONT_PATH.node(LIST_ID);
+
+    private DataTreeCandidateNode leafA;
+    private DataTreeCandidateNode entryA;
+    private DataTreeCandidateNode entryB;
+    private DataTreeCandidateNode list;
+    private DataTreeCandidateNode cont;
+
+    @Before
+    public void setUp() {
+        leafA = mockNode(LEAF_ID, ModificationType.WRITE);
+        entryA = mockNode(ENTRY_A, ModificationType.SUBTREE_MODIFIED, leafA);
+        entryB = mockNode(ENTRY_B, ModificationType.DELETE);
+        final DataTreeCandidateNode entryC = mockNode(ENTRY_C, ModificationType.UNMODIFIED);
+        list = mockNode(LIST_ID, ModificationType.SUBTREE_MODIFIED, entryA, entryB, entryC);
+        cont = mockNode(CONT_ID, ModificationType.SUBTREE_MODIFIED, list);
+    }
+
+    @Test
+    public void testExactAndWildcardSubscriptions() {
+        final DataTreeCandidateIndex<String> index = DataTreeCandidateIndex.create();
+        index.subscribe(CONT_PATH, "cont");
+        index.subscribe(LIST_PATH.node(ENTRY_A).node(LEAF_ID), "leafA");
+        index.subscribe(LIST_PATH.node(LIST_ID), "entries");
+        index.subscribe(LIST_PATH.node(LIST_ID).node(LEAF_ID), "leaves");
+        index.subscribe(LIST_PATH.node(ENTRY_C), "entryC");
+        index.subscribe(YangInstanceIdentifier.create(new NodeIdentifier(QName.create(CONT, "other"))), "other");
+        assertEquals(6, index.size());
+
+        final ListMultimap<String, DataTreeCandidate> result = index.match(
+            DataTreeCandidates.newDataTreeCandidate(CONT_PATH, cont));
+        assertEquals(5, result.size());
+
+        assertCandidate(CONT_PATH, cont, result.get("cont"));
+        assertCandidate(LIST_PATH.node(ENTRY_A).node(LEAF_ID), leafA, result.get("leafA"));
+        assertCandidate(LIST_PATH.node(ENTRY_A).node(LEAF_ID), leafA, result.get("leaves"));
+
+        final List<DataTreeCandidate> entries = result.get("entries");
+        assertEquals(2, entries.size());
+        assertEquals(LIST_PATH.node(ENTRY_A), entries.get(0).getRootPath());
+        assertSame(entryA, entries.get(0).getRootNode());
+        assertEquals(LIST_PATH.node(ENTRY_B), entries.get(1).getRootPath());
+        assertSame(entryB, entries.get(1).getRootNode());
+
+        assertFalse(result.containsKey("entryC"));
+        assertFalse(result.containsKey("other"));
+    }
+
+    @Test
+    public void testCandidateBelowSubscription() {
+        final DataTreeCandidateIndex<String> index = DataTreeCandidateIndex.create();
+        index.subscribe(YangInstanceIdentifier.EMPTY, "root");
+        index.subscribe(CONT_PATH, "cont");
+        index.subscribe(LIST_PATH.node(LIST_ID), "entries");
+        index.subscribe(LIST_PATH.node(ENTRY_B), "entryB");
+
+        final DataTreeCandidate candidate = DataTreeCandidates.newDataTreeCandidate(LIST_PATH.node(ENTRY_A), entryA);
+        final ListMultimap<String, DataTreeCandidate> result = index.match(candidate);
+        assertEquals(3, result.size());
+        assertSame(candidate, result.get("root").get(0));
+        assertSame(candidate, result.get("cont").get(0));
+        assertCandidate(LIST_PATH.node(ENTRY_A), entryA, result.get("entries"));
+        assertFalse(result.containsKey("entryB"));
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        final DataTreeCandidateIndex<String> index = DataTreeCandidateIndex.create();
+        final YangInstanceIdentifier leafPath = LIST_PATH.node(LIST_ID).node(LEAF_ID);
+        index.subscribe(leafPath, "leaves");
+        index.subscribe(LIST_PATH, "list");
+
+        assertFalse(index.unsubscribe(leafPath, "list"));
+        assertFalse(index.unsubscribe(LIST_PATH.node(ENTRY_A), "leaves"));
+        assertTrue(index.unsubscribe(leafPath, "leaves"));
+        assertEquals(1, index.size());
+
+        final ListMultimap<String, DataTreeCandidate> result = index.match(
+            DataTreeCandidates.newDataTreeCandidate(CONT_PATH, cont));
+        assertEquals(1, result.size());
+        assertCandidate(LIST_PATH, list, result.get("list"));
+
+        assertTrue(index.unsubscribe(LIST_PATH, "list"));
+        assertEquals(0, index.size());
+        assertTrue(index.match(DataTreeCandidates.newDataTreeCandidate(CONT_PATH, cont)).isEmpty());
+    }
+
+    @Test
+    public void testUnmodifiedCandidate() {
+        final DataTreeCandidateIndex<String> index = DataTreeCandidateIndex.create();
+        index.subscribe(YangInstanceIdentifier.EMPTY, "root");
+        final DataTreeCandidateNode unmodified = mockNode(CONT_ID, ModificationType.UNMODIFIED);
+        assertTrue(index.match(DataTreeCandidates.newDataTreeCandidate(CONT_PATH, unmodified)).isEmpty());
+    }
+
+    private static void assertCandidate(final YangInstanceIdentifier expectedPath,
+            final DataTreeCandidateNode expectedNode, final List<DataTreeCandidate> candidates) {
+        assertEquals(1, candidates.size());
+        assertEquals(expectedPath, candidates.get(0).getRootPath());
+        assertSame(expectedNode, candidates.get(0).getRootNode());
+    }
+
+    private static DataTreeCandidateNode mockNode(final PathArgument identifier, final ModificationType type,
+            final DataTreeCandidateNode... children) {
+        final DataTreeCandidateNode node = mock(DataTreeCandidateNode.class);
+        doReturn(identifier).when(node).getIdentifier();
+        doReturn(type).when(node).getModificationType();
+        doReturn(ImmutableList.copyOf(children)).when(node).getChildNodes();
+        return node;
+    }
+}
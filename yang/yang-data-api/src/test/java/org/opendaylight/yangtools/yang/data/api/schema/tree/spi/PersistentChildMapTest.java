@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.api.schema.tree.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+public class PersistentChildMapTest {
+    private static final QName BASE = QName.create("urn:opendaylight:test", "2016-10-15", "base");
+
+    /**
+     * Path argument with a controlled hash code, used to force hash collisions.
+     */
+    private static final class CollidingId implements PathArgument {
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+        private final int hash;
+
+        CollidingId(final int id, final int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public QName getNodeType() {
+            return BASE;
+        }
+
+        @Override
+        public String toRelativeString(final PathArgument previous) {
+            return toString();
+        }
+
+        @Override
+        public int compareTo(final PathArgument o) {
+            return Integer.compare(id, ((CollidingId) o).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CollidingId && id == ((CollidingId) obj).id;
+        }
+
+        @Override
+        public String toString() {
+            return "id" + id;
+        }
+    }
+
+    private static TreeNode child(final PathArgument id) {
+        final TreeNode child = mock(TreeNode.class);
+        doReturn(id).when(child).getIdentifier();
+        return child;
+    }
+
+    private static NodeIdentifier nodeId(final int i) {
+        return new NodeIdentifier(QName.create(BASE, "child" + i));
+    }
+
+    private static void assertContents(final Map<PathArgument, TreeNode> expected, final PersistentChildMap map) {
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<PathArgument, TreeNode> e : expected.entrySet()) {
+            assertSame(e.getValue(), map.get(e.getKey()));
+        }
+        assertEquals(expected, new HashMap<>(map));
+    }
+
+    @Test
+    public void testWithWithout() {
+        final Map<PathArgument, TreeNode> expected = new HashMap<>();
+        PersistentChildMap map = PersistentChildMap.empty();
+        for (int i = 0; i < 10000; ++i) {
+            final TreeNode child = child(nodeId(i));
+            expected.put(child.getIdentifier(), child);
+            map = map.with(child);
+        }
+        assertContents(expected, map);
+
+        final PersistentChildMap full = map;
+        for (int i = 0; i < 10000; i += 2) {
+            expected.remove(nodeId(i));
+            map = map.without(nodeId(i));
+        }
+        assertContents(expected, map);
+        assertEquals(10000, full.size());
+        assertTrue(full.containsKey(nodeId(0)));
+
+        for (int i = 1; i < 10000; i += 2) {
+            map = map.without(nodeId(i));
+        }
+        assertTrue(map.isEmpty());
+        assertSame(PersistentChildMap.empty(), map);
+    }
+
+    @Test
+    public void testReplaceAndNoop() {
+        final TreeNode first = child(nodeId(1));
+        final PersistentChildMap map = PersistentChildMap.empty().with(first);
+        assertSame(map, map.with(first));
+        assertSame(map, map.without(nodeId(2)));
+        assertNull(map.get("not a path argument"));
+
+        final TreeNode second = child(nodeId(1));
+        final PersistentChildMap replaced = map.with(second);
+        assertEquals(1, replaced.size());
+        assertSame(second, replaced.get(nodeId(1)));
+        assertSame(first, map.get(nodeId(1)));
+    }
+
+    @Test
+    public void testCollisions() {
+        final Map<PathArgument, TreeNode> expected = new HashMap<>();
+        PersistentChildMap map = PersistentChildMap.empty();
+        for (int i = 0; i < 100; ++i) {
+            // Groups of ten children share a hash, groups differ only in their upper bits
+            final TreeNode child = child(new CollidingId(i, (i / 10) << 28));
+            expected.put(child.getIdentifier(), child);
+            map = map.with(child);
+        }
+        assertContents(expected, map);
+        assertNull(map.get(new CollidingId(100, 0)));
+
+        for (int i = 0; i < 100; i += 3) {
+            expected.remove(new CollidingId(i, (i / 10) << 28));
+            map = map.without(new CollidingId(i, (i / 10) << 28));
+        }
+        assertContents(expected, map);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+/**
+ * Constants shared between {@link NormalizedNodeDataOutput} and {@link NormalizedNodeDataInput}. These define
+ * the on-wire format and must not be changed without bumping {@link #STREAM_VERSION}.
+ */
+final class BinaryTokens {
+    /**
+     * Stream header, written once at the start of each stream.
+     */
+    static final int STREAM_MAGIC = 0x4C594E42;
+    static final byte STREAM_VERSION = 1;
+
+    /**
+     * Node events, each corresponding to a {@link
+     * org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter} method.
+     */
+    static final byte END_NODE = 0;
+    static final byte LEAF = 1;
+    static final byte LEAF_SET = 2;
+    static final byte ORDERED_LEAF_SET = 3;
+    static final byte LEAF_SET_ENTRY = 4;
+    static final byte CONTAINER = 5;
+    static final byte UNKEYED_LIST = 6;
+    static final byte UNKEYED_LIST_ITEM = 7;
+    static final byte MAP = 8;
+    static final byte MAP_ENTRY = 9;
+    static final byte ORDERED_MAP = 10;
+    static final byte CHOICE = 11;
+    static final byte AUGMENTATION = 12;
+    static final byte ANYXML = 13;
+    static final byte YANG_MODELED_ANYXML = 14;
+
+    /**
+     * Value types.
+     */
+    static final byte VALUE_NULL = 0;
+    static final byte VALUE_STRING = 1;
+    static final byte VALUE_FALSE = 2;
+    static final byte VALUE_TRUE = 3;
+    static final byte VALUE_BYTE = 4;
+    static final byte VALUE_SHORT = 5;
+    static final byte VALUE_INT = 6;
+    static final byte VALUE_LONG = 7;
+    static final byte VALUE_BIG_INTEGER = 8;
+    static final byte VALUE_BIG_DECIMAL = 9;
+    static final byte VALUE_BINARY = 10;
+    static final byte VALUE_QNAME = 11;
+    static final byte VALUE_INSTANCE_IDENTIFIER = 12;
+    static final byte VALUE_BITS = 13;
+
+    /**
+     * Path argument types.
+     */
+    static final byte PATH_NODE_IDENTIFIER = 0;
+    static final byte PATH_NODE_IDENTIFIER_WITH_PREDICATES = 1;
+    static final byte PATH_NODE_WITH_VALUE = 2;
+    static final byte PATH_AUGMENTATION_IDENTIFIER = 3;
+
+    /**
+     * Data tree candidate node modifications. Unmodified nodes are not present in the stream, while appeared and
+     * disappeared nodes are encoded as subtree modifications, as that is how they are applied.
+     */
+    static final byte CANDIDATE_END = 0;
+    static final byte CANDIDATE_WRITE = 1;
+    static final byte CANDIDATE_DELETE = 2;
+    static final byte CANDIDATE_SUBTREE_MODIFIED = 3;
+
+    /**
+     * QName encoding flags, stored in the header of a {@link org.opendaylight.yangtools.concepts.WritableObjects}
+     * long. A reference carries the index of a previously-defined QName. A definition carries the index of
+     * a previously-defined module, followed by the local name. A definition with a new module carries no index and
+     * is followed by the namespace, the revision and the local name.
+     */
+    static final int QNAME_REF = 0x10;
+    static final int QNAME_DEF = 0x20;
+    static final int QNAME_DEF_MODULE = 0x30;
+
+    private BinaryTokens() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+import com.google.common.base.Preconditions;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DataInput} reading directly from a {@link ByteBuffer}. Attempts to read past the limit of the buffer
+ * result in an {@link EOFException}.
+ */
+final class ByteBufferDataInput implements DataInput {
+    private final ByteBuffer buffer;
+
+    ByteBufferDataInput(final ByteBuffer buffer) {
+        this.buffer = Preconditions.checkNotNull(buffer);
+    }
+
+    private ByteBuffer ensure(final int bytes) throws EOFException {
+        if (buffer.remaining() < bytes) {
+            throw new EOFException("Attempted to read " + bytes + " bytes, only " + buffer.remaining() + " remain");
+        }
+        return buffer;
+    }
+
+    @Override
+    public void readFully(final byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(final byte[] b, final int off, final int len) throws IOException {
+        ensure(len).get(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(final int n) {
+        final int skip = Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skip);
+        return skip;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return ensure(Byte.BYTES).get() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return ensure(Byte.BYTES).get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return ensure(Short.BYTES).getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return ensure(Character.BYTES).getChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return ensure(Integer.BYTES).getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return ensure(Long.BYTES).getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return ensure(Float.BYTES).getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return ensure(Double.BYTES).getDouble();
+    }
+
+    @Override
+    public String readLine() {
+        // Same semantics as DataInputStream.readLine(): each byte is a character, lines end with '\n', '\r' or "\r\n"
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        while (buffer.hasRemaining()) {
+            final char c = (char) (buffer.get() & 0xFF);
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+                    buffer.get();
+                }
+                break;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.DataOutput;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DataOutput} writing directly into a {@link ByteBuffer}. Running out of space in the buffer results in
+ * a {@link java.nio.BufferOverflowException}.
+ */
+final class ByteBufferDataOutput implements DataOutput {
+    private final ByteBuffer buffer;
+
+    ByteBufferDataOutput(final ByteBuffer buffer) {
+        this.buffer = Preconditions.checkNotNull(buffer);
+    }
+
+    @Override
+    public void write(final int b) {
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] b) {
+        buffer.put(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+        buffer.put(b, off, len);
+    }
+
+    @Override
+    public void writeBoolean(final boolean v) {
+        buffer.put(v ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeByte(final int v) {
+        buffer.put((byte) v);
+    }
+
+    @Override
+    public void writeShort(final int v) {
+        buffer.putShort((short) v);
+    }
+
+    @Override
+    public void writeChar(final int v) {
+        buffer.putChar((char) v);
+    }
+
+    @Override
+    public void writeInt(final int v) {
+        buffer.putInt(v);
+    }
+
+    @Override
+    public void writeLong(final long v) {
+        buffer.putLong(v);
+    }
+
+    @Override
+    public void writeFloat(final float v) {
+        buffer.putFloat(v);
+    }
+
+    @Override
+    public void writeDouble(final double v) {
+        buffer.putDouble(v);
+    }
+
+    @Override
+    public void writeBytes(final String s) {
+        final int len = s.length();
+        for (int i = 0; i < len; ++i) {
+            buffer.put((byte) s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(final String s) {
+        final int len = s.length();
+        for (int i = 0; i < len; ++i) {
+            buffer.putChar(s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(final String s) {
+        // Not used by our format, hence we do not bother with an efficient implementation
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeUTF(s);
+        buffer.put(out.toByteArray());
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModificationCursor;
+
+/**
+ * Utility methods for streaming {@link DataTreeCandidate}s in binary form. Only the effective modification of each
+ * {@link DataTreeCandidateNode} is recorded: deleted nodes are identified by their {@link PathArgument}, written
+ * nodes carry their new data and modified nodes recurse into their modified children. Before-images and unmodified
+ * nodes are never emitted.
+ *
+ * <p>The encoded form is applied directly to a {@link DataTreeModificationCursor}, hence the only data instantiated
+ * on the receiving side are the nodes being written.
+ */
+@Beta
+public final class DataTreeCandidateCodec {
+    private DataTreeCandidateCodec() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Write a {@link DataTreeCandidate} into a {@link ByteBuffer}, starting at its current position.
+     *
+     * @param buffer Target buffer
+     * @param candidate Candidate to write
+     * @throws IOException if the candidate contains data which cannot be encoded
+     * @throws java.nio.BufferOverflowException if the buffer does not have sufficient space
+     */
+    public static void writeDataTreeCandidate(final ByteBuffer buffer, final DataTreeCandidate candidate)
+            throws IOException {
+        writeDataTreeCandidate(new ByteBufferDataOutput(buffer), candidate);
+    }
+
+    /**
+     * Write a {@link DataTreeCandidate} into a {@link DataOutput}.
+     *
+     * @param output Data output
+     * @param candidate Candidate to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeDataTreeCandidate(final DataOutput output, final DataTreeCandidate candidate)
+            throws IOException {
+        final NormalizedNodeDataOutput writer = NormalizedNodeDataOutput.create(output);
+        final YangInstanceIdentifier rootPath = candidate.getRootPath();
+        writer.writeYangInstanceIdentifier(rootPath);
+
+        final DataTreeCandidateNode root = candidate.getRootNode();
+        if (!rootPath.isEmpty()) {
+            writeNodeBody(output, writer, root);
+            return;
+        }
+
+        // The root of the data tree cannot be written nor deleted through a cursor, hence we emit its children
+        switch (root.getModificationType()) {
+        case DELETE:
+            throw new IllegalArgumentException("Can not delete root.");
+        case APPEARED:
+        case DISAPPEARED:
+        case SUBTREE_MODIFIED:
+        case WRITE:
+            output.writeByte(BinaryTokens.CANDIDATE_SUBTREE_MODIFIED);
+            writeChildren(output, writer, root.getChildNodes());
+            break;
+        case UNMODIFIED:
+            output.writeByte(BinaryTokens.CANDIDATE_END);
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported modification " + root.getModificationType());
+        }
+    }
+
+    /**
+     * Read a {@link DataTreeCandidate} from a {@link ByteBuffer}, starting at its current position, and apply it
+     * to a {@link CursorAwareDataTreeModification}.
+     *
+     * @param buffer Source buffer
+     * @param modification Modification to which the candidate should be applied
+     * @return Root path of the candidate
+     * @throws IOException if the buffer does not contain a valid candidate
+     */
+    public static YangInstanceIdentifier applyToModification(final ByteBuffer buffer,
+            final CursorAwareDataTreeModification modification) throws IOException {
+        try (DataTreeModificationCursor cursor = modification.createCursor(YangInstanceIdentifier.EMPTY)) {
+            return applyToCursor(buffer, cursor);
+        }
+    }
+
+    /**
+     * Read a {@link DataTreeCandidate} from a {@link ByteBuffer}, starting at its current position, and apply it
+     * to a {@link DataTreeModificationCursor} positioned at the root of the data tree.
+     *
+     * @param buffer Source buffer
+     * @param cursor Cursor to which the candidate should be applied
+     * @return Root path of the candidate
+     * @throws IOException if the buffer does not contain a valid candidate
+     */
+    public static YangInstanceIdentifier applyToCursor(final ByteBuffer buffer,
+            final DataTreeModificationCursor cursor) throws IOException {
+        return applyToCursor(new ByteBufferDataInput(buffer), cursor);
+    }
+
+    /**
+     * Read a {@link DataTreeCandidate} from a {@link DataInput} and apply it to a {@link DataTreeModificationCursor}
+     * positioned at the root of the data tree.
+     *
+     * @param input Data input
+     * @param cursor Cursor to which the candidate should be applied
+     * @return Root path of the candidate
+     * @throws IOException if an I/O error occurs or the input does not contain a valid candidate
+     */
+    public static YangInstanceIdentifier applyToCursor(final DataInput input, final DataTreeModificationCursor cursor)
+            throws IOException {
+        Preconditions.checkNotNull(cursor);
+        final NormalizedNodeDataInput reader = NormalizedNodeDataInput.create(input);
+        final YangInstanceIdentifier rootPath = reader.readYangInstanceIdentifier();
+        final byte type = input.readByte();
+
+        if (rootPath.isEmpty()) {
+            switch (type) {
+            case BinaryTokens.CANDIDATE_END:
+                break;
+            case BinaryTokens.CANDIDATE_SUBTREE_MODIFIED:
+                applyChildren(input, reader, cursor);
+                break;
+            default:
+                throw new IOException("Unexpected root modification " + type);
+            }
+            return rootPath;
+        }
+
+        final List<PathArgument> parentPath = rootPath.getParent().getPathArguments();
+        if (!parentPath.isEmpty()) {
+            cursor.enter(parentPath);
+        }
+        applyNode(input, reader, cursor, type, rootPath.getLastPathArgument());
+        if (!parentPath.isEmpty()) {
+            cursor.exit(parentPath.size());
+        }
+        return rootPath;
+    }
+
+    private static void writeNodeBody(final DataOutput output, final NormalizedNodeDataOutput writer,
+            final DataTreeCandidateNode node) throws IOException {
+        switch (node.getModificationType()) {
+        case DELETE:
+            output.writeByte(BinaryTokens.CANDIDATE_DELETE);
+            break;
+        case APPEARED:
+        case DISAPPEARED:
+        case SUBTREE_MODIFIED:
+            output.writeByte(BinaryTokens.CANDIDATE_SUBTREE_MODIFIED);
+            writeChildren(output, writer, node.getChildNodes());
+            break;
+        case UNMODIFIED:
+            output.writeByte(BinaryTokens.CANDIDATE_END);
+            break;
+        case WRITE:
+            output.writeByte(BinaryTokens.CANDIDATE_WRITE);
+            writer.writeNormalizedNode(node.getDataAfter().get());
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported modification " + node.getModificationType());
+        }
+    }
+
+    private static void writeChildren(final DataOutput output, final NormalizedNodeDataOutput writer,
+            final Collection<DataTreeCandidateNode> children) throws IOException {
+        for (DataTreeCandidateNode child : children) {
+            switch (child.getModificationType()) {
+            case DELETE:
+                output.writeByte(BinaryTokens.CANDIDATE_DELETE);
+                writer.writePathArgument(child.getIdentifier());
+                break;
+            case APPEARED:
+            case DISAPPEARED:
+            case SUBTREE_MODIFIED:
+                final Collection<DataTreeCandidateNode> grandChildren = child.getChildNodes();
+                if (!grandChildren.isEmpty()) {
+                    output.writeByte(BinaryTokens.CANDIDATE_SUBTREE_MODIFIED);
+                    writer.writePathArgument(child.getIdentifier());
+                    writeChildren(output, writer, grandChildren);
+                }
+                break;
+            case UNMODIFIED:
+                // No-op
+                break;
+            case WRITE:
+                output.writeByte(BinaryTokens.CANDIDATE_WRITE);
+                writer.writePathArgument(child.getIdentifier());
+                writer.writeNormalizedNode(child.getDataAfter().get());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported modification " + child.getModificationType());
+            }
+        }
+        output.writeByte(BinaryTokens.CANDIDATE_END);
+    }
+
+    private static void applyNode(final DataInput input, final NormalizedNodeDataInput reader,
+            final DataTreeModificationCursor cursor, final byte type, final PathArgument identifier)
+            throws IOException {
+        switch (type) {
+        case BinaryTokens.CANDIDATE_END:
+            // Unmodified root, no-op
+            break;
+        case BinaryTokens.CANDIDATE_DELETE:
+            cursor.delete(identifier);
+            break;
+        case BinaryTokens.CANDIDATE_SUBTREE_MODIFIED:
+            cursor.enter(identifier);
+            applyChildren(input, reader, cursor);
+            cursor.exit();
+            break;
+        case BinaryTokens.CANDIDATE_WRITE:
+            cursor.write(identifier, reader.readNormalizedNode());
+            break;
+        default:
+            throw new IOException("Unhandled modification " + type);
+        }
+    }
+
+    private static void applyChildren(final DataInput input, final NormalizedNodeDataInput reader,
+            final DataTreeModificationCursor cursor) throws IOException {
+        for (byte type = input.readByte(); type != BinaryTokens.CANDIDATE_END; type = input.readByte()) {
+            applyNode(input, reader, cursor, type, reader.readPathArgument());
+        }
+    }
+}
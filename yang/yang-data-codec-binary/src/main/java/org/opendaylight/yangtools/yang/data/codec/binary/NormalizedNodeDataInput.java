@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.dom.DOMSource;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Counterpart to {@link NormalizedNodeDataOutput}, reading its binary representation from a {@link DataInput}.
+ * Objects have to be read in the same order in which they were written, as definitions of {@link QName}s are shared
+ * across the entire stream.
+ *
+ * <p>Instances of this class are not thread-safe and are expected to be used for a single stream.
+ */
+@Beta
+public final class NormalizedNodeDataInput {
+    // Sizes read from the stream are not trusted, hence they do not size allocations beyond this limit
+    private static final int MAX_INITIAL_CAPACITY = 65536;
+
+    private final List<QNameModule> modules = new ArrayList<>();
+    private final List<QName> qnames = new ArrayList<>();
+    private final DataInput input;
+
+    private NormalizedNodeDataInput(final DataInput input) {
+        this.input = Preconditions.checkNotNull(input);
+    }
+
+    /**
+     * Create a new input, reading and verifying the stream header from specified {@link DataInput}.
+     *
+     * @param input Data input
+     * @return A new input
+     * @throws IOException if an I/O error occurs or the stream header is not recognized
+     * @throws NullPointerException if input is null
+     */
+    public static NormalizedNodeDataInput create(final DataInput input) throws IOException {
+        final NormalizedNodeDataInput ret = new NormalizedNodeDataInput(input);
+        final int magic = input.readInt();
+        if (magic != BinaryTokens.STREAM_MAGIC) {
+            throw new IOException(String.format("Unrecognized stream magic 0x%08X", magic));
+        }
+        final byte version = input.readByte();
+        if (version != BinaryTokens.STREAM_VERSION) {
+            throw new IOException("Unsupported stream version " + version);
+        }
+        return ret;
+    }
+
+    /**
+     * Read a complete {@link NormalizedNode} from the stream.
+     *
+     * @return Normalized node
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public NormalizedNode<?, ?> readNormalizedNode() throws IOException {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        streamNormalizedNode(ImmutableNormalizedNodeStreamWriter.from(result));
+        return result.getResult();
+    }
+
+    /**
+     * Read a single {@link NormalizedNode} from the stream, emitting its events into
+     * a {@link NormalizedNodeStreamWriter} rather than instantiating it.
+     *
+     * @param writer Writer to receive events
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public void streamNormalizedNode(final NormalizedNodeStreamWriter writer) throws IOException {
+        final byte token = input.readByte();
+        if (token == BinaryTokens.END_NODE) {
+            throw new IOException("Unexpected end of node");
+        }
+        streamNode(writer, token);
+    }
+
+    /**
+     * Read a {@link YangInstanceIdentifier} from the stream.
+     *
+     * @return Instance identifier
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public YangInstanceIdentifier readYangInstanceIdentifier() throws IOException {
+        final int size = readSize();
+        final List<PathArgument> args = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+        for (int i = 0; i < size; ++i) {
+            args.add(readPathArgument());
+        }
+        return YangInstanceIdentifier.create(args);
+    }
+
+    /**
+     * Read a {@link PathArgument} from the stream.
+     *
+     * @return Path argument
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public PathArgument readPathArgument() throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+        case BinaryTokens.PATH_NODE_IDENTIFIER:
+            return NodeIdentifier.create(readQName());
+        case BinaryTokens.PATH_NODE_IDENTIFIER_WITH_PREDICATES:
+            return readNodeIdentifierWithPredicates();
+        case BinaryTokens.PATH_NODE_WITH_VALUE:
+            return new NodeWithValue<>(readQName(), readValue());
+        case BinaryTokens.PATH_AUGMENTATION_IDENTIFIER:
+            return readAugmentationIdentifier();
+        default:
+            throw new IOException("Unhandled path argument type " + type);
+        }
+    }
+
+    /**
+     * Read a {@link QName} from the stream.
+     *
+     * @return QName
+     * @throws IOException if an I/O error occurs or the stream is malformed
+     */
+    public QName readQName() throws IOException {
+        final byte header = WritableObjects.readLongHeader(input);
+        final int flags = WritableObjects.longHeaderFlags(header);
+        final long index = WritableObjects.readLongBody(input, header);
+
+        final QNameModule module;
+        switch (flags) {
+        case BinaryTokens.QNAME_REF:
+            return lookup(qnames, index);
+        case BinaryTokens.QNAME_DEF:
+            module = lookup(modules, index);
+            break;
+        case BinaryTokens.QNAME_DEF_MODULE:
+            final String namespace = readString();
+            final String revision = readString();
+            try {
+                module = QNameModule.create(URI.create(namespace),
+                    revision.isEmpty() ? null : QName.parseRevision(revision)).intern();
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid module " + namespace + " revision " + revision, e);
+            }
+            modules.add(module);
+            break;
+        default:
+            throw new IOException("Unhandled QName flags " + flags);
+        }
+
+        final String localName = readString();
+        final QName qname;
+        try {
+            qname = QName.create(module, localName).intern();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid local name " + localName, e);
+        }
+        qnames.add(qname);
+        return qname;
+    }
+
+    private void streamNode(final NormalizedNodeStreamWriter writer, final byte token) throws IOException {
+        switch (token) {
+        case BinaryTokens.LEAF:
+            writer.leafNode(readNodeIdentifier(), readValue());
+            return;
+        case BinaryTokens.LEAF_SET_ENTRY:
+            writer.leafSetEntryNode(readQName(), readValue());
+            return;
+        case BinaryTokens.ANYXML:
+            writer.anyxmlNode(readNodeIdentifier(), readDOMSource());
+            return;
+        case BinaryTokens.LEAF_SET:
+            writer.startLeafSet(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.ORDERED_LEAF_SET:
+            writer.startOrderedLeafSet(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.CONTAINER:
+            writer.startContainerNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.UNKEYED_LIST:
+            writer.startUnkeyedList(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.UNKEYED_LIST_ITEM:
+            writer.startUnkeyedListItem(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.MAP:
+            writer.startMapNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.MAP_ENTRY:
+            writer.startMapEntryNode(readNodeIdentifierWithPredicates(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.ORDERED_MAP:
+            writer.startOrderedMapNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.CHOICE:
+            writer.startChoiceNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        case BinaryTokens.AUGMENTATION:
+            writer.startAugmentationNode(readAugmentationIdentifier());
+            break;
+        case BinaryTokens.YANG_MODELED_ANYXML:
+            // The target writer needs to be told about the schema via nextDataSchemaNode()
+            writer.startYangModeledAnyXmlNode(readNodeIdentifier(), NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            break;
+        default:
+            throw new IOException("Unhandled node token " + token);
+        }
+
+        for (byte child = input.readByte(); child != BinaryTokens.END_NODE; child = input.readByte()) {
+            streamNode(writer, child);
+        }
+        writer.endNode();
+    }
+
+    private NodeIdentifier readNodeIdentifier() throws IOException {
+        return NodeIdentifier.create(readQName());
+    }
+
+    private NodeIdentifierWithPredicates readNodeIdentifierWithPredicates() throws IOException {
+        final QName nodeType = readQName();
+        final int size = readSize();
+        if (size == 1) {
+            return new NodeIdentifierWithPredicates(nodeType, readQName(), readValue());
+        }
+
+        final ImmutableMap.Builder<QName, Object> keyValues = ImmutableMap.builder();
+        for (int i = 0; i < size; ++i) {
+            keyValues.put(readQName(), readValue());
+        }
+        return new NodeIdentifierWithPredicates(nodeType, keyValues.build());
+    }
+
+    private AugmentationIdentifier readAugmentationIdentifier() throws IOException {
+        final int size = readSize();
+        final ImmutableSet.Builder<QName> childNames = ImmutableSet.builder();
+        for (int i = 0; i < size; ++i) {
+            childNames.add(readQName());
+        }
+        return new AugmentationIdentifier(childNames.build());
+    }
+
+    private Object readValue() throws IOException {
+        final byte type = input.readByte();
+        switch (type) {
+        case BinaryTokens.VALUE_NULL:
+            return null;
+        case BinaryTokens.VALUE_STRING:
+            return readString();
+        case BinaryTokens.VALUE_FALSE:
+            return Boolean.FALSE;
+        case BinaryTokens.VALUE_TRUE:
+            return Boolean.TRUE;
+        case BinaryTokens.VALUE_BYTE:
+            return input.readByte();
+        case BinaryTokens.VALUE_SHORT:
+            return (short) readSigned();
+        case BinaryTokens.VALUE_INT:
+            return (int) readSigned();
+        case BinaryTokens.VALUE_LONG:
+            return readSigned();
+        case BinaryTokens.VALUE_BIG_INTEGER:
+            return new BigInteger(readBytes());
+        case BinaryTokens.VALUE_BIG_DECIMAL:
+            final int scale = (int) readSigned();
+            return new BigDecimal(new BigInteger(readBytes()), scale);
+        case BinaryTokens.VALUE_BINARY:
+            return readBytes();
+        case BinaryTokens.VALUE_QNAME:
+            return readQName();
+        case BinaryTokens.VALUE_INSTANCE_IDENTIFIER:
+            return readYangInstanceIdentifier();
+        case BinaryTokens.VALUE_BITS:
+            final int size = readSize();
+            final ImmutableSet.Builder<String> bits = ImmutableSet.builder();
+            for (int i = 0; i < size; ++i) {
+                bits.add(readString());
+            }
+            return bits.build();
+        default:
+            throw new IOException("Unhandled value type " + type);
+        }
+    }
+
+    private DOMSource readDOMSource() throws IOException {
+        final Document doc;
+        try {
+            doc = newDocumentBuilderFactory().newDocumentBuilder().parse(
+                new InputSource(new StringReader(readString())));
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Failed to parse anyxml value", e);
+        }
+        return new DOMSource(doc.getDocumentElement());
+    }
+
+    /**
+     * Create a factory for parsing anyxml values. These come from the peer which produced the stream, hence DTDs and
+     * external entities are not allowed.
+     */
+    private static DocumentBuilderFactory newDocumentBuilderFactory() throws ParserConfigurationException {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+        factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        return factory;
+    }
+
+    private static <T> T lookup(final List<T> dictionary, final long index) throws IOException {
+        if (index < 0 || index >= dictionary.size()) {
+            throw new IOException("Invalid dictionary reference " + index + ", have " + dictionary.size());
+        }
+        return dictionary.get((int) index);
+    }
+
+    private long readSigned() throws IOException {
+        final long value = WritableObjects.readLong(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readSize() throws IOException {
+        final long size = WritableObjects.readLong(input);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid size " + size);
+        }
+        return (int) size;
+    }
+
+    private byte[] readBytes() throws IOException {
+        final int size = readSize();
+        if (size <= MAX_INITIAL_CAPACITY) {
+            final byte[] bytes = new byte[size];
+            input.readFully(bytes);
+            return bytes;
+        }
+
+        // The size comes from the stream, hence the buffer grows only as data is actually read, so that a corrupted
+        // size results in an EOFException rather than a huge allocation
+        byte[] bytes = new byte[MAX_INITIAL_CAPACITY];
+        int read = 0;
+        while (read < size) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(size, 2L * bytes.length));
+            }
+            input.readFully(bytes, read, bytes.length - read);
+            read = bytes.length;
+        }
+        return bytes;
+    }
+
+    private String readString() throws IOException {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+}
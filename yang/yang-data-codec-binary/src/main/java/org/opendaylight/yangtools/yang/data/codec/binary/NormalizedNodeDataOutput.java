@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeWriter;
+
+/**
+ * A {@link NormalizedNodeStreamWriter} which emits a compact binary representation of the events it receives into
+ * a {@link DataOutput}. The resulting stream can be read back using {@link NormalizedNodeDataInput}.
+ *
+ * <p>Each {@link QName} and {@link QNameModule} is written out in full only the first time it is encountered, all
+ * subsequent occurrences are encoded as a back-reference to its first definition. Integral values and lengths are
+ * encoded via {@link WritableObjects#writeLong(DataOutput, long, int)}, hence small values occupy one or two bytes.
+ *
+ * <p>Instances of this class are not thread-safe and are expected to be used for a single stream.
+ */
+@Beta
+public final class NormalizedNodeDataOutput implements NormalizedNodeStreamWriter {
+    private final Map<QNameModule, Integer> moduleDictionary = new HashMap<>();
+    private final Map<QName, Integer> qnameDictionary = new HashMap<>();
+    private final DataOutput output;
+
+    private NormalizedNodeWriter normalizedNodeWriter;
+
+    private NormalizedNodeDataOutput(final DataOutput output) {
+        this.output = Preconditions.checkNotNull(output);
+    }
+
+    /**
+     * Create a new output, writing the stream header into specified {@link DataOutput}.
+     *
+     * @param output Data output
+     * @return A new output
+     * @throws IOException if an I/O error occurs
+     * @throws NullPointerException if output is null
+     */
+    public static NormalizedNodeDataOutput create(final DataOutput output) throws IOException {
+        final NormalizedNodeDataOutput ret = new NormalizedNodeDataOutput(output);
+        output.writeInt(BinaryTokens.STREAM_MAGIC);
+        output.writeByte(BinaryTokens.STREAM_VERSION);
+        return ret;
+    }
+
+    /**
+     * Write a complete {@link NormalizedNode} into the stream.
+     *
+     * @param node Node to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeNormalizedNode(final NormalizedNode<?, ?> node) throws IOException {
+        if (normalizedNodeWriter == null) {
+            normalizedNodeWriter = NormalizedNodeWriter.forStreamWriter(this);
+        }
+        normalizedNodeWriter.write(node);
+    }
+
+    /**
+     * Write a {@link YangInstanceIdentifier} into the stream.
+     *
+     * @param identifier Identifier to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeYangInstanceIdentifier(final YangInstanceIdentifier identifier) throws IOException {
+        final List<PathArgument> args = identifier.getPathArguments();
+        writeSize(args.size());
+        for (PathArgument arg : args) {
+            writePathArgument(arg);
+        }
+    }
+
+    /**
+     * Write a {@link PathArgument} into the stream.
+     *
+     * @param pathArgument Path argument to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writePathArgument(final PathArgument pathArgument) throws IOException {
+        if (pathArgument instanceof NodeIdentifier) {
+            output.writeByte(BinaryTokens.PATH_NODE_IDENTIFIER);
+            writeQName(pathArgument.getNodeType());
+        } else if (pathArgument instanceof NodeIdentifierWithPredicates) {
+            output.writeByte(BinaryTokens.PATH_NODE_IDENTIFIER_WITH_PREDICATES);
+            writeNodeIdentifierWithPredicates((NodeIdentifierWithPredicates) pathArgument);
+        } else if (pathArgument instanceof NodeWithValue) {
+            output.writeByte(BinaryTokens.PATH_NODE_WITH_VALUE);
+            writeQName(pathArgument.getNodeType());
+            writeValue(((NodeWithValue<?>) pathArgument).getValue());
+        } else if (pathArgument instanceof AugmentationIdentifier) {
+            output.writeByte(BinaryTokens.PATH_AUGMENTATION_IDENTIFIER);
+            writeAugmentationIdentifier((AugmentationIdentifier) pathArgument);
+        } else {
+            throw new IllegalArgumentException("Unhandled path argument " + pathArgument);
+        }
+    }
+
+    /**
+     * Write a {@link QName} into the stream.
+     *
+     * @param qname QName to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeQName(final QName qname) throws IOException {
+        final Integer qnameIndex = qnameDictionary.get(qname);
+        if (qnameIndex != null) {
+            WritableObjects.writeLong(output, qnameIndex, BinaryTokens.QNAME_REF);
+            return;
+        }
+
+        final QNameModule module = qname.getModule();
+        final Integer moduleIndex = moduleDictionary.get(module);
+        if (moduleIndex != null) {
+            WritableObjects.writeLong(output, moduleIndex, BinaryTokens.QNAME_DEF);
+        } else {
+            WritableObjects.writeLong(output, 0, BinaryTokens.QNAME_DEF_MODULE);
+            writeString(module.getNamespace().toString());
+            final String revision = module.getFormattedRevision();
+            writeString(revision != null ? revision : "");
+            moduleDictionary.put(module, moduleDictionary.size());
+        }
+
+        writeString(qname.getLocalName());
+        qnameDictionary.put(qname, qnameDictionary.size());
+    }
+
+    @Override
+    public void leafNode(final NodeIdentifier name, final Object value) throws IOException {
+        startNode(BinaryTokens.LEAF, name);
+        writeValue(value);
+    }
+
+    @Override
+    public void startLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.LEAF_SET, name);
+    }
+
+    @Override
+    public void startOrderedLeafSet(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.ORDERED_LEAF_SET, name);
+    }
+
+    @Override
+    public void leafSetEntryNode(final QName name, final Object value) throws IOException {
+        output.writeByte(BinaryTokens.LEAF_SET_ENTRY);
+        writeQName(name);
+        writeValue(value);
+    }
+
+    @Override
+    public void startContainerNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.CONTAINER, name);
+    }
+
+    @Override
+    public void startUnkeyedList(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.UNKEYED_LIST, name);
+    }
+
+    @Override
+    public void startUnkeyedListItem(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.UNKEYED_LIST_ITEM, name);
+    }
+
+    @Override
+    public void startMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.MAP, name);
+    }
+
+    @Override
+    public void startMapEntryNode(final NodeIdentifierWithPredicates identifier, final int childSizeHint)
+            throws IOException {
+        output.writeByte(BinaryTokens.MAP_ENTRY);
+        writeNodeIdentifierWithPredicates(identifier);
+    }
+
+    @Override
+    public void startOrderedMapNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.ORDERED_MAP, name);
+    }
+
+    @Override
+    public void startChoiceNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.CHOICE, name);
+    }
+
+    @Override
+    public void startAugmentationNode(final AugmentationIdentifier identifier) throws IOException {
+        output.writeByte(BinaryTokens.AUGMENTATION);
+        writeAugmentationIdentifier(identifier);
+    }
+
+    @Override
+    public void anyxmlNode(final NodeIdentifier name, final Object value) throws IOException {
+        Preconditions.checkArgument(value instanceof DOMSource, "Unsupported anyxml value %s", value);
+        startNode(BinaryTokens.ANYXML, name);
+
+        final StringWriter writer = new StringWriter();
+        try {
+            final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.transform((DOMSource) value, new StreamResult(writer));
+        } catch (TransformerException e) {
+            throw new IOException("Failed to serialize anyxml value of " + name, e);
+        }
+        writeString(writer.toString());
+    }
+
+    @Override
+    public void startYangModeledAnyXmlNode(final NodeIdentifier name, final int childSizeHint) throws IOException {
+        startNode(BinaryTokens.YANG_MODELED_ANYXML, name);
+    }
+
+    @Override
+    public void endNode() throws IOException {
+        output.writeByte(BinaryTokens.END_NODE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (output instanceof Closeable) {
+            ((Closeable) output).close();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (output instanceof Flushable) {
+            ((Flushable) output).flush();
+        }
+    }
+
+    private void startNode(final byte token, final NodeIdentifier name) throws IOException {
+        output.writeByte(token);
+        writeQName(name.getNodeType());
+    }
+
+    private void writeNodeIdentifierWithPredicates(final NodeIdentifierWithPredicates identifier) throws IOException {
+        writeQName(identifier.getNodeType());
+
+        final Map<QName, Object> keyValues = identifier.getKeyValues();
+        writeSize(keyValues.size());
+        for (Entry<QName, Object> entry : keyValues.entrySet()) {
+            writeQName(entry.getKey());
+            writeValue(entry.getValue());
+        }
+    }
+
+    private void writeAugmentationIdentifier(final AugmentationIdentifier identifier) throws IOException {
+        final Set<QName> childNames = identifier.getPossibleChildNames();
+        writeSize(childNames.size());
+        for (QName qname : childNames) {
+            writeQName(qname);
+        }
+    }
+
+    private void writeValue(final Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(BinaryTokens.VALUE_NULL);
+        } else if (value instanceof String) {
+            output.writeByte(BinaryTokens.VALUE_STRING);
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? BinaryTokens.VALUE_TRUE : BinaryTokens.VALUE_FALSE);
+        } else if (value instanceof Byte) {
+            output.writeByte(BinaryTokens.VALUE_BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            output.writeByte(BinaryTokens.VALUE_SHORT);
+            writeSigned((Short) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(BinaryTokens.VALUE_INT);
+            writeSigned((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(BinaryTokens.VALUE_LONG);
+            writeSigned((Long) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(BinaryTokens.VALUE_BIG_INTEGER);
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            final BigDecimal decimal = (BigDecimal) value;
+            output.writeByte(BinaryTokens.VALUE_BIG_DECIMAL);
+            writeSigned(decimal.scale());
+            writeBytes(decimal.unscaledValue().toByteArray());
+        } else if (value instanceof byte[]) {
+            output.writeByte(BinaryTokens.VALUE_BINARY);
+            writeBytes((byte[]) value);
+        } else if (value instanceof QName) {
+            output.writeByte(BinaryTokens.VALUE_QNAME);
+            writeQName((QName) value);
+        } else if (value instanceof YangInstanceIdentifier) {
+            output.writeByte(BinaryTokens.VALUE_INSTANCE_IDENTIFIER);
+            writeYangInstanceIdentifier((YangInstanceIdentifier) value);
+        } else if (value instanceof Set) {
+            final Set<?> bits = (Set<?>) value;
+            output.writeByte(BinaryTokens.VALUE_BITS);
+            writeSize(bits.size());
+            for (Object bit : bits) {
+                Preconditions.checkArgument(bit instanceof String, "Unsupported bit %s in %s", bit, value);
+                writeString((String) bit);
+            }
+        } else {
+            throw new IllegalArgumentException("Unhandled value type " + value.getClass());
+        }
+    }
+
+    private void writeSigned(final long value) throws IOException {
+        // Zig-zag encoding, so small negative values remain short
+        WritableObjects.writeLong(output, (value << 1) ^ (value >> 63));
+    }
+
+    private void writeSize(final int size) throws IOException {
+        WritableObjects.writeLong(output, size);
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        writeSize(bytes.length);
+        output.write(bytes);
+    }
+
+    private void writeString(final String str) throws IOException {
+        writeBytes(str.getBytes(StandardCharsets.UTF_8));
+    }
+}
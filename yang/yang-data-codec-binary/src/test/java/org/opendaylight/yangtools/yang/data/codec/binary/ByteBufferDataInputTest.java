@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class ByteBufferDataInputTest {
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testReadLineLikeDataInputStream() throws IOException {
+        final byte[] bytes = "first\nsecond\r\nthird\r\rlast\u00e9".getBytes(StandardCharsets.ISO_8859_1);
+        final DataInputStream expected = new DataInputStream(new ByteArrayInputStream(bytes));
+        final ByteBufferDataInput actual = new ByteBufferDataInput(ByteBuffer.wrap(bytes));
+
+        String line;
+        do {
+            line = expected.readLine();
+            assertEquals(line, actual.readLine());
+        } while (line != null);
+        assertNull(actual.readLine());
+    }
+
+    @Test
+    public void testReadLineFollowedByInt() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.put("ab\r\n".getBytes(StandardCharsets.US_ASCII)).putInt(42).flip();
+
+        final ByteBufferDataInput input = new ByteBufferDataInput(buffer);
+        assertEquals("ab", input.readLine());
+        assertEquals(42, input.readInt());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.CursorAwareDataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+
+public class DataTreeCandidateCodecTest {
+    private static final QName TOP = QName.create("urn:opendaylight:test:binary:candidate", "2016-10-15", "top");
+    private static final QName ITEM = QName.create(TOP, "item");
+    private static final QName ID = QName.create(TOP, "id");
+    private static final QName NAME = QName.create(TOP, "name");
+    private static final QName INNER = QName.create(TOP, "inner");
+    private static final QName VALUE = QName.create(TOP, "value");
+    private static final QName TAGS = QName.create(TOP, "tags");
+
+    private static final YangInstanceIdentifier TOP_PATH = YangInstanceIdentifier.of(TOP);
+    private static final YangInstanceIdentifier ITEM_PATH = TOP_PATH.node(ITEM);
+    private static final YangInstanceIdentifier INNER_PATH = TOP_PATH.node(INNER);
+    private static final YangInstanceIdentifier VALUE_PATH = INNER_PATH.node(VALUE);
+
+    private static SchemaContext SCHEMA_CONTEXT;
+
+    private DataTree leader;
+    private DataTree follower;
+
+    @BeforeClass
+    public static void beforeClass() throws ReactorException {
+        SCHEMA_CONTEXT = YangInferencePipeline.RFC6020_REACTOR.newBuild().buildEffective(Collections.singletonList(
+            DataTreeCandidateCodecTest.class.getResourceAsStream("/candidate-test.yang")));
+    }
+
+    @Before
+    public void setUp() throws DataValidationFailedException {
+        leader = createTree();
+        follower = createTree();
+    }
+
+    private static DataTree createTree() throws DataValidationFailedException {
+        final DataTree tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(SCHEMA_CONTEXT);
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TOP_PATH, ImmutableNodes.containerNode(TOP));
+        mod.write(ITEM_PATH, ImmutableNodes.mapNodeBuilder(ITEM).withChild(item(1)).withChild(item(2)).build());
+        mod.write(INNER_PATH, ImmutableNodes.containerNode(INNER));
+        mod.write(VALUE_PATH, ImmutableNodes.leafNode(VALUE, "initial"));
+        commit(tree, mod);
+        return tree;
+    }
+
+    private static YangInstanceIdentifier itemPath(final int id) {
+        return YangInstanceIdentifier.builder(ITEM_PATH).nodeWithKey(ITEM, ID, id).build();
+    }
+
+    private static MapEntryNode item(final int id) {
+        return ImmutableNodes.mapEntryBuilder(ITEM, ID, id).withChild(ImmutableNodes.leafNode(NAME, "item-" + id))
+                .build();
+    }
+
+    private static DataTreeCandidate commit(final DataTree tree, final DataTreeModification mod)
+            throws DataValidationFailedException {
+        mod.ready();
+        tree.validate(mod);
+        final DataTreeCandidate candidate = tree.prepare(mod);
+        tree.commit(candidate);
+        return candidate;
+    }
+
+    private void replicate(final DataTreeCandidate candidate) throws IOException, DataValidationFailedException {
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        DataTreeCandidateCodec.writeDataTreeCandidate(buffer, candidate);
+        buffer.flip();
+
+        final DataTreeModification mod = follower.takeSnapshot().newModification();
+        assertEquals(candidate.getRootPath(),
+            DataTreeCandidateCodec.applyToModification(buffer, (CursorAwareDataTreeModification) mod));
+        assertFalse(buffer.hasRemaining());
+        commit(follower, mod);
+
+        assertEquals(leader.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY),
+            follower.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY));
+    }
+
+    @Test
+    public void testSubtreeModification() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(itemPath(3), item(3));
+        mod.delete(itemPath(1));
+        mod.merge(itemPath(2).node(NAME), ImmutableNodes.leafNode(NAME, "renamed"));
+        mod.write(VALUE_PATH, ImmutableNodes.leafNode(VALUE, "updated"));
+        mod.write(INNER_PATH.node(TAGS), Builders.leafSetBuilder().withNodeIdentifier(new NodeIdentifier(TAGS))
+            .withChild(Builders.leafSetEntryBuilder().withNodeIdentifier(new NodeWithValue<>(TAGS, "tag"))
+                .withValue("tag").build()).build());
+
+        replicate(commit(leader, mod));
+        assertFalse(follower.takeSnapshot().readNode(itemPath(1)).isPresent());
+        assertTrue(follower.takeSnapshot().readNode(itemPath(3)).isPresent());
+    }
+
+    @Test
+    public void testRootWrite() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(YangInstanceIdentifier.EMPTY, Builders.containerBuilder()
+            .withNodeIdentifier(new NodeIdentifier(SCHEMA_CONTEXT.getQName()))
+            .withChild(Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TOP))
+                .withChild(ImmutableNodes.mapNodeBuilder(ITEM).withChild(item(4)).build()).build())
+            .build());
+
+        replicate(commit(leader, mod));
+        assertFalse(follower.takeSnapshot().readNode(INNER_PATH).isPresent());
+    }
+
+    @Test
+    public void testRootedCandidate() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(INNER_PATH, ImmutableNodes.containerNode(INNER));
+        commit(leader, mod);
+
+        replicate(DataTreeCandidates.fromNormalizedNode(INNER_PATH, ImmutableNodes.containerNode(INNER)));
+        assertFalse(follower.takeSnapshot().readNode(VALUE_PATH).isPresent());
+    }
+
+    @Test
+    public void testUnmodified() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        replicate(commit(leader, mod));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testBufferOverflow() throws Exception {
+        final DataTreeModification mod = leader.takeSnapshot().newModification();
+        mod.write(itemPath(3), item(3));
+        DataTreeCandidateCodec.writeDataTreeCandidate(ByteBuffer.allocate(16), commit(leader, mod));
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.dom.DOMSource;
+import org.junit.Test;
+import org.opendaylight.yangtools.concepts.WritableObjects;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.CollectionNodeBuilder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+public class NormalizedNodeDataStreamTest {
+    private static final String NS = "urn:opendaylight:test:binary";
+    private static final String REV = "2016-10-15";
+
+    private static final QName TOP = QName.create(NS, REV, "top");
+    private static final QName LIST = QName.create(NS, REV, "list");
+    private static final QName ID = QName.create(NS, REV, "id");
+    private static final QName NAME = QName.create(NS, REV, "name");
+    private static final QName VALUE = QName.create(NS, REV, "value");
+    private static final QName LEAF_LIST = QName.create(NS, REV, "leaf-list");
+    private static final QName UNKEYED = QName.create(NS, REV, "unkeyed");
+    private static final QName CHOICE = QName.create(NS, REV, "choice");
+    private static final QName CASE_LEAF = QName.create(NS, REV, "case-leaf");
+    private static final QName AUG_LEAF = QName.create("urn:opendaylight:test:binary:aug", "aug-leaf");
+
+    private static ContainerNode createTestContainer(final int entries) {
+        final CollectionNodeBuilder<MapEntryNode, MapNode> listBuilder = ImmutableNodes.mapNodeBuilder(LIST);
+        for (int i = 0; i < entries; ++i) {
+            listBuilder.withChild(ImmutableNodes.mapEntryBuilder(LIST, ID, i)
+                .withChild(ImmutableNodes.leafNode(NAME, "name-" + i))
+                .withChild(ImmutableNodes.leafNode(VALUE, (long) -i))
+                .build());
+        }
+
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TOP))
+            .withChild(listBuilder.build())
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "string"), "foo \u00e9"))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "boolean"), Boolean.TRUE))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "byte"), (byte) -5))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "short"), (short) 300))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "int"), Integer.MIN_VALUE))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "long"), Long.MAX_VALUE))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "big-integer"),
+                new BigInteger("18446744073709551615")))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "decimal"), new BigDecimal("-3.1415")))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "identityref"), AUG_LEAF))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "bits"), ImmutableSet.of("one", "three")))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "empty"), null))
+            .withChild(ImmutableNodes.leafNode(QName.create(TOP, "instance-identifier"),
+                YangInstanceIdentifier.builder().node(TOP).node(LIST).nodeWithKey(LIST, ID, 5).build()))
+            .withChild(Builders.orderedLeafSetBuilder().withNodeIdentifier(new NodeIdentifier(LEAF_LIST))
+                .withChild(Builders.leafSetEntryBuilder().withNodeIdentifier(new NodeWithValue<>(LEAF_LIST, "b"))
+                    .withValue("b").build())
+                .withChild(Builders.leafSetEntryBuilder().withNodeIdentifier(new NodeWithValue<>(LEAF_LIST, "a"))
+                    .withValue("a").build())
+                .build())
+            .withChild(Builders.unkeyedListBuilder().withNodeIdentifier(new NodeIdentifier(UNKEYED))
+                .withChild(Builders.unkeyedListEntryBuilder().withNodeIdentifier(new NodeIdentifier(UNKEYED))
+                    .withChild(ImmutableNodes.leafNode(NAME, "unkeyed")).build())
+                .build())
+            .withChild(Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(CHOICE))
+                .withChild(ImmutableNodes.leafNode(CASE_LEAF, 42)).build())
+            .withChild(Builders.augmentationBuilder()
+                .withNodeIdentifier(new AugmentationIdentifier(ImmutableSet.of(AUG_LEAF)))
+                .withChild(ImmutableNodes.leafNode(AUG_LEAF, "augmented")).build())
+            .build();
+    }
+
+    private static byte[] writeNode(final NormalizedNode<?, ?> node) throws IOException {
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        NormalizedNodeDataOutput.create(out).writeNormalizedNode(node);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testNormalizedNodeRoundTrip() throws IOException {
+        final ContainerNode node = createTestContainer(10);
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.create(ByteStreams.newDataInput(
+            writeNode(node)));
+        assertEquals(node, input.readNormalizedNode());
+    }
+
+    @Test
+    public void testBinaryValueRoundTrip() throws IOException {
+        final byte[] bytes = new byte[] { 1, 2, 3, -1 };
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.create(ByteStreams.newDataInput(
+            writeNode(ImmutableNodes.leafNode(VALUE, bytes))));
+        assertArrayEquals(bytes, (byte[]) ((LeafNode<?>) input.readNormalizedNode()).getValue());
+    }
+
+    @Test
+    public void testYangInstanceIdentifierRoundTrip() throws IOException {
+        final YangInstanceIdentifier first = YangInstanceIdentifier.builder().node(TOP).node(LIST)
+                .nodeWithKey(LIST, ImmutableMap.<QName, Object>of(ID, 1, NAME, "one")).node(LEAF_LIST)
+                .node(new NodeWithValue<>(LEAF_LIST, "leaf-value"))
+                .node(new AugmentationIdentifier(ImmutableSet.of(AUG_LEAF))).node(AUG_LEAF).build();
+        final YangInstanceIdentifier second = YangInstanceIdentifier.builder().node(TOP).node(LIST)
+                .nodeWithKey(LIST, ID, 2).build();
+
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        final NormalizedNodeDataOutput output = NormalizedNodeDataOutput.create(out);
+        output.writeYangInstanceIdentifier(first);
+        output.writeYangInstanceIdentifier(second);
+        output.writeYangInstanceIdentifier(YangInstanceIdentifier.EMPTY);
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.create(ByteStreams.newDataInput(
+            out.toByteArray()));
+        assertEquals(first, input.readYangInstanceIdentifier());
+
+        final YangInstanceIdentifier readSecond = input.readYangInstanceIdentifier();
+        assertEquals(second, readSecond);
+        assertTrue(readSecond.getLastPathArgument() instanceof NodeIdentifierWithPredicates);
+        assertEquals(YangInstanceIdentifier.EMPTY, input.readYangInstanceIdentifier());
+    }
+
+    @Test
+    public void testQNameBackReferences() throws IOException {
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        final NormalizedNodeDataOutput output = NormalizedNodeDataOutput.create(out);
+        output.writeQName(TOP);
+        final int definitionSize = out.toByteArray().length;
+        output.writeQName(TOP);
+        output.writeQName(LIST);
+
+        // A back-reference takes two bytes, a definition in a known module only the local name
+        final byte[] bytes = out.toByteArray();
+        assertEquals(definitionSize + 2 + 2 + LIST.getLocalName().length(), bytes.length);
+
+        final NormalizedNodeDataInput input = NormalizedNodeDataInput.create(ByteStreams.newDataInput(bytes));
+        final QName top = input.readQName();
+        assertEquals(TOP, top);
+        assertSame(top, input.readQName());
+        assertEquals(LIST, input.readQName());
+    }
+
+    @Test
+    public void testCompactness() throws IOException {
+        final ContainerNode node = createTestContainer(1000);
+        final byte[] bytes = writeNode(node);
+
+        // Each entry carries four QNames, none of which should be spelled out after the first entry
+        assertTrue(bytes.length < 1000 * 4 * NS.length());
+        assertEquals(node, NormalizedNodeDataInput.create(ByteStreams.newDataInput(bytes)).readNormalizedNode());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidHeader() throws IOException {
+        final ByteArrayDataInput in = ByteStreams.newDataInput(new byte[] { 0, 1, 2, 3, 4 });
+        NormalizedNodeDataInput.create(in);
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnexpectedEndNode() throws IOException {
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeInt(BinaryTokens.STREAM_MAGIC);
+        out.writeByte(BinaryTokens.STREAM_VERSION);
+        out.writeByte(BinaryTokens.END_NODE);
+        NormalizedNodeDataInput.create(ByteStreams.newDataInput(out.toByteArray())).readNormalizedNode();
+    }
+
+    @Test
+    public void testAnyxmlDoctypeRejected() throws Exception {
+        final Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        final Element element = doc.createElement("a");
+        element.setTextContent(Strings.repeat("x", 100));
+        doc.appendChild(element);
+        final byte[] bytes = writeNode(Builders.anyXmlBuilder().withNodeIdentifier(new NodeIdentifier(TOP))
+            .withValue(new DOMSource(element)).build());
+
+        // Replace the serialized document with one of the same length, declaring an external entity
+        final String serialized = new String(bytes, StandardCharsets.UTF_8);
+        final int start = serialized.indexOf("<?xml");
+        final String xxe = Strings.padEnd("<!DOCTYPE a [<!ENTITY e SYSTEM \"file:///etc/passwd\">]><a>&e;</a>",
+            serialized.length() - start, ' ');
+        System.arraycopy(xxe.getBytes(StandardCharsets.UTF_8), 0, bytes, start, xxe.length());
+
+        try {
+            NormalizedNodeDataInput.create(ByteStreams.newDataInput(bytes)).readNormalizedNode();
+            fail("Document with a DTD should have been rejected");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof SAXException);
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void testOversizedStringLength() throws IOException {
+        final ByteArrayDataOutput out = newStream();
+        WritableObjects.writeLong(out, 0, BinaryTokens.QNAME_DEF_MODULE);
+        WritableObjects.writeLong(out, Integer.MAX_VALUE);
+        out.write(new byte[100000]);
+        NormalizedNodeDataInput.create(newInput(out)).readQName();
+    }
+
+    @Test(expected = EOFException.class)
+    public void testOversizedPathLength() throws IOException {
+        final ByteArrayDataOutput out = newStream();
+        WritableObjects.writeLong(out, Integer.MAX_VALUE);
+        NormalizedNodeDataInput.create(newInput(out)).readYangInstanceIdentifier();
+    }
+
+    @Test
+    public void testInvalidModule() throws IOException {
+        final ByteArrayDataOutput out = newStream();
+        WritableObjects.writeLong(out, 0, BinaryTokens.QNAME_DEF_MODULE);
+        writeString(out, "urn:test");
+        writeString(out, "not-a-revision");
+        writeString(out, "name");
+
+        try {
+            NormalizedNodeDataInput.create(ByteStreams.newDataInput(out.toByteArray())).readQName();
+            fail("Invalid revision should have been rejected");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    private static ByteArrayDataOutput newStream() {
+        final ByteArrayDataOutput out = ByteStreams.newDataOutput();
+        out.writeInt(BinaryTokens.STREAM_MAGIC);
+        out.writeByte(BinaryTokens.STREAM_VERSION);
+        return out;
+    }
+
+    private static DataInputStream newInput(final ByteArrayDataOutput out) {
+        // Unlike ByteArrayDataInput, this reports the end of input as EOFException
+        return new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static void writeString(final ByteArrayDataOutput out, final String str) throws IOException {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        WritableObjects.writeLong(out, bytes.length);
+        out.write(bytes);
+    }
+}
@@ -10,11 +10,10 @@ package org.opendaylight.yangtools.yang.data.codec.gson;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.impl.codec.TypeDefinitionAwareCodec;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
@@ -34,6 +33,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Factory for creating JSON equivalents of codecs. Each instance of this object is bound to
  * a particular {@link SchemaContext}, but can be reused by multiple {@link JSONNormalizedNodeStreamWriter}s.
+ *
+ * <p>Codecs are instantiated on first use and retained for the lifetime of the factory, hence each leaf and leaf-list
+ * schema node is compiled into a codec exactly once.
  */
 @Beta
 public final class JSONCodecFactory {
@@ -56,22 +58,7 @@ public final class JSONCodecFactory {
         }
     };
 
-    private final LoadingCache<DataSchemaNode, JSONCodec<?>> codecs =
-            CacheBuilder.newBuilder().softValues().build(new CacheLoader<DataSchemaNode, JSONCodec<?>>() {
-        @Override
-        public JSONCodec<?> load(final DataSchemaNode key) throws Exception {
-            final TypeDefinition<?> type;
-            if (key instanceof LeafSchemaNode) {
-                type = ((LeafSchemaNode) key).getType();
-            } else if (key instanceof LeafListSchemaNode) {
-                type = ((LeafListSchemaNode) key).getType();
-            } else {
-                throw new IllegalArgumentException("Not supported node type " + key.getClass().getName());
-            }
-            return createCodec(key,type);
-        }
-    });
-
+    private final ConcurrentMap<DataSchemaNode, JSONCodec<?>> codecs = new ConcurrentHashMap<>();
     private final SchemaContext schemaContext;
     private final JSONCodec<?> iidCodec;
 
@@ -143,7 +130,23 @@ public final class JSONCodecFactory {
     }
 
     JSONCodec<?> codecFor(final DataSchemaNode schema) {
-        return codecs.getUnchecked(schema);
+        final JSONCodec<?> existing = codecs.get(schema);
+        if (existing != null) {
+            return existing;
+        }
+
+        final TypeDefinition<?> type;
+        if (schema instanceof LeafSchemaNode) {
+            type = ((LeafSchemaNode) schema).getType();
+        } else if (schema instanceof LeafListSchemaNode) {
+            type = ((LeafListSchemaNode) schema).getType();
+        } else {
+            throw new IllegalArgumentException("Not supported node type " + schema.getClass().getName());
+        }
+
+        final JSONCodec<?> created = createCodec(schema, type);
+        final JSONCodec<?> raced = codecs.putIfAbsent(schema, created);
+        return raced != null ? raced : created;
     }
 
     JSONCodec<?> codecFor(final DataSchemaNode schema, final TypeDefinition<?> unionSubType) {
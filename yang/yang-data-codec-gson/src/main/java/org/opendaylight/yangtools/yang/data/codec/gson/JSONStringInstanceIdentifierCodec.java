@@ -21,11 +21,18 @@ import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
 final class JSONStringInstanceIdentifierCodec extends AbstractModuleStringInstanceIdentifierCodec
         implements JSONCodec<YangInstanceIdentifier> {
+    /*
+     * Prefixes are module names, hence identifiers do not depend on where they appear and can be cached.
+     */
+    private static final int MAXIMUM_CACHED_IDENTIFIERS = 8192;
+    private static final int MAXIMUM_CACHED_TEMPLATES = 1024;
+
     private final DataSchemaContextTree dataContextTree;
     private final JSONCodecFactory codecFactory;
     private final SchemaContext context;
 
     JSONStringInstanceIdentifierCodec(final SchemaContext context, final JSONCodecFactory jsonCodecFactory) {
+        super(MAXIMUM_CACHED_IDENTIFIERS, MAXIMUM_CACHED_TEMPLATES);
         this.context = Preconditions.checkNotNull(context);
         this.dataContextTree = DataSchemaContextTree.from(context);
         this.codecFactory = Preconditions.checkNotNull(jsonCodecFactory);
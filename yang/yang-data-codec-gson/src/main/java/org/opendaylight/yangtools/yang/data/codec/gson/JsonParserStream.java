@@ -13,6 +13,7 @@ import com.google.gson.JsonIOException;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.MalformedJsonException;
 import java.io.Closeable;
 import java.io.EOFException;
@@ -24,6 +25,7 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
 import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
@@ -31,6 +33,7 @@ import org.opendaylight.yangtools.yang.data.util.CompositeNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafListEntryNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafListNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.MapEntryContext;
 import org.opendaylight.yangtools.yang.data.util.ListEntryNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ListNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ParserStreamUtils;
@@ -39,8 +42,11 @@ import org.opendaylight.yangtools.yang.data.util.SimpleNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.model.api.AnyXmlSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
 import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
@@ -50,6 +56,15 @@ import org.opendaylight.yangtools.yang.model.api.YangModeledAnyXmlSchemaNode;
 /**
  * This class parses JSON elements from a GSON JsonReader. It disallows multiple elements of the same name unlike the
  * default GSON JsonParser.
+ *
+ * <p>{@link #parse(JsonReader)} emits events into the {@link NormalizedNodeStreamWriter} as soon as each node has
+ * been identified, hence memory usage does not grow with the size of the input. Input is buffered only where the
+ * stream writer requires it to be reordered:
+ * <ul>
+ *   <li>members of a keyed list entry which precede the last key leaf are held until the entry's key is known,</li>
+ *   <li>members which belong to a choice or an augmentation are held until their parent object ends, as all
+ *       members of a choice or an augmentation have to be emitted under a single node.</li>
+ * </ul>
  */
 @Beta
 public final class JsonParserStream implements Closeable, Flushable {
@@ -87,11 +102,16 @@ public final class JsonParserStream implements Closeable, Flushable {
         reader.setLenient(true);
         boolean isEmpty = true;
         try {
-            reader.peek();
+            final JsonToken token = reader.peek();
             isEmpty = false;
-            final CompositeNodeDataWithSchema compositeNodeDataWithSchema = new CompositeNodeDataWithSchema(parentNode);
-            read(reader, compositeNodeDataWithSchema);
-            compositeNodeDataWithSchema.write(writer);
+            if (token == JsonToken.BEGIN_OBJECT) {
+                streamObject(reader, parentNode, null);
+            } else {
+                final CompositeNodeDataWithSchema compositeNodeDataWithSchema =
+                        new CompositeNodeDataWithSchema(parentNode);
+                read(reader, compositeNodeDataWithSchema);
+                compositeNodeDataWithSchema.write(writer);
+            }
 
             return this;
         } catch (final EOFException e) {
@@ -174,24 +194,7 @@ public final class JsonParserStream implements Closeable, Flushable {
                 }
                 namesakes.add(jsonElementName);
 
-                final Deque<DataSchemaNode> childDataSchemaNodes =
-                        ParserStreamUtils.findSchemaNodeByNameAndNamespace(parentSchema, localName, getCurrentNamespace());
-                if (childDataSchemaNodes.isEmpty()) {
-                    throw new IllegalStateException("Schema for node with name " + localName + " and namespace "
-                            + getCurrentNamespace() + " doesn't exist.");
-                }
-
-                final AbstractNodeDataWithSchema newChild = ((CompositeNodeDataWithSchema) parent).addChild(childDataSchemaNodes);
-                /*
-                 * FIXME:anyxml data shouldn't be skipped but should be loaded somehow.
-                 * will be able to load anyxml which conforms to YANG data using these
-                 * parser, for other anyxml will be harder.
-                 */
-                if (newChild instanceof AnyXmlNodeDataWithSchema) {
-                    in.skipValue();
-                } else {
-                    read(in, newChild);
-                }
+                readChild(in, (CompositeNodeDataWithSchema) parent, findChildSchemaNodes(parentSchema, localName));
                 removeNamespace();
             }
             in.endObject();
@@ -204,6 +207,171 @@ public final class JsonParserStream implements Closeable, Flushable {
         }
     }
 
+    private AbstractNodeDataWithSchema readChild(final JsonReader in, final CompositeNodeDataWithSchema parent,
+            final Deque<DataSchemaNode> childDataSchemaNodes) throws IOException {
+        final AbstractNodeDataWithSchema newChild = parent.addChild(childDataSchemaNodes);
+        /*
+         * FIXME:anyxml data shouldn't be skipped but should be loaded somehow.
+         * will be able to load anyxml which conforms to YANG data using these
+         * parser, for other anyxml will be harder.
+         */
+        if (newChild instanceof AnyXmlNodeDataWithSchema) {
+            in.skipValue();
+        } else {
+            read(in, newChild);
+        }
+        return newChild;
+    }
+
+    private Deque<DataSchemaNode> findChildSchemaNodes(final DataSchemaNode parentSchema, final String localName) {
+        final Deque<DataSchemaNode> childDataSchemaNodes =
+                ParserStreamUtils.findSchemaNodeByNameAndNamespace(parentSchema, localName, getCurrentNamespace());
+        if (childDataSchemaNodes.isEmpty()) {
+            throw new IllegalStateException("Schema for node with name " + localName + " and namespace "
+                    + getCurrentNamespace() + " doesn't exist.");
+        }
+        return childDataSchemaNodes;
+    }
+
+    /**
+     * Stream the members of a JSON object. Members which need to be reordered are buffered and emitted once the
+     * object ends.
+     *
+     * @param in JSON reader positioned at the beginning of the object
+     * @param schema Schema of the node corresponding to the object
+     * @param entry Context of the map entry corresponding to the object, null if the object is not a map entry
+     */
+    private void streamObject(final JsonReader in, final DataSchemaNode schema, final MapEntryContext entry)
+            throws IOException {
+        final DataSchemaNode parentSchema = schema instanceof YangModeledAnyXmlSchemaNode
+                ? ((YangModeledAnyXmlSchemaNode) schema).getSchemaOfAnyXmlData() : schema;
+        final CompositeNodeDataWithSchema deferred = new CompositeNodeDataWithSchema(schema);
+        final Set<String> namesakes = new HashSet<>();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            final String jsonElementName = in.nextName();
+            final NamespaceAndName namespaceAndName = resolveNamespace(jsonElementName, parentSchema);
+            final String localName = namespaceAndName.getName();
+            addNamespace(namespaceAndName.getUri());
+            if (!namesakes.add(jsonElementName)) {
+                throw new JsonSyntaxException("Duplicate name " + jsonElementName + " in JSON input.");
+            }
+
+            final Deque<DataSchemaNode> childDataSchemaNodes = findChildSchemaNodes(parentSchema, localName);
+            if (ParserStreamUtils.isGroupedChild(schema, childDataSchemaNodes)) {
+                readChild(in, deferred, childDataSchemaNodes);
+            } else if (entry != null && !entry.isStarted()) {
+                entry.childRead(readChild(in, entry.getPendingData(), childDataSchemaNodes));
+            } else {
+                streamChild(in, schema, childDataSchemaNodes);
+            }
+            removeNamespace();
+        }
+        in.endObject();
+
+        if (entry != null) {
+            entry.checkStarted();
+        }
+        deferred.write(writer);
+    }
+
+    private void streamChild(final JsonReader in, final DataSchemaNode parentSchema,
+            final Deque<DataSchemaNode> childDataSchemaNodes) throws IOException {
+        final DataSchemaNode schema = childDataSchemaNodes.peek();
+        final JsonToken token = in.peek();
+
+        if (token == JsonToken.BEGIN_OBJECT
+                && (schema instanceof ContainerSchemaNode || schema instanceof YangModeledAnyXmlSchemaNode)) {
+            writer.nextDataSchemaNode(schema);
+            if (schema instanceof ContainerSchemaNode) {
+                writer.startContainerNode(NodeIdentifier.create(schema.getQName()),
+                    NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            } else {
+                writer.startYangModeledAnyXmlNode(NodeIdentifier.create(schema.getQName()),
+                    NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            }
+            streamObject(in, schema, null);
+            writer.endNode();
+        } else if (schema instanceof ListSchemaNode
+                && (token == JsonToken.BEGIN_ARRAY || token == JsonToken.BEGIN_OBJECT)) {
+            streamList(in, (ListSchemaNode) schema, token);
+        } else if (schema instanceof LeafListSchemaNode && token == JsonToken.BEGIN_ARRAY) {
+            streamLeafList(in, (LeafListSchemaNode) schema);
+        } else {
+            // Leaves, anyxmls and malformed input: these are buffered, reporting any errors
+            final CompositeNodeDataWithSchema parent = new CompositeNodeDataWithSchema(parentSchema);
+            readChild(in, parent, childDataSchemaNodes);
+            parent.write(writer);
+        }
+    }
+
+    private void streamList(final JsonReader in, final ListSchemaNode schema, final JsonToken token)
+            throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.getKeyDefinition().isEmpty()) {
+            writer.startUnkeyedList(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else if (schema.isUserOrdered()) {
+            writer.startOrderedMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+
+        /*
+         * This allows parsing of lists with one entry, which are sometimes serialized without wrapping array, just
+         * like read() does.
+         */
+        if (token == JsonToken.BEGIN_OBJECT) {
+            streamListEntry(in, schema);
+        } else {
+            in.beginArray();
+            while (in.hasNext()) {
+                streamListEntry(in, schema);
+            }
+            in.endArray();
+        }
+        writer.endNode();
+    }
+
+    private void streamListEntry(final JsonReader in, final ListSchemaNode schema) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            final ListEntryNodeDataWithSchema entry = new ListEntryNodeDataWithSchema(schema);
+            read(in, entry);
+            entry.write(writer);
+            return;
+        }
+
+        if (schema.getKeyDefinition().isEmpty()) {
+            writer.nextDataSchemaNode(schema);
+            writer.startUnkeyedListItem(NodeIdentifier.create(schema.getQName()),
+                NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            streamObject(in, schema, null);
+        } else {
+            streamObject(in, schema, new MapEntryContext(writer, schema));
+        }
+        writer.endNode();
+    }
+
+    private void streamLeafList(final JsonReader in, final LeafListSchemaNode schema) throws IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.isUserOrdered()) {
+            writer.startOrderedLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+
+        in.beginArray();
+        while (in.hasNext()) {
+            final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(schema);
+            read(in, entry);
+            entry.write(writer);
+        }
+        in.endArray();
+        writer.endNode();
+    }
+
     private static boolean isArray(final AbstractNodeDataWithSchema parent) {
         return parent instanceof ListNodeDataWithSchema || parent instanceof LeafListNodeDataWithSchema;
     }
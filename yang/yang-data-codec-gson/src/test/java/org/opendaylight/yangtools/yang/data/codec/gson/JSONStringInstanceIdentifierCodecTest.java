@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadModules;
+
+import com.google.common.cache.CacheStats;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class JSONStringInstanceIdentifierCodecTest {
+    private static final String LIST_ENTRY =
+            "/complexjson:cont1/complexjson:lst11[complexjson:key111='%s'][complexjson:lf111=\"%s\"]/complexjson:lf113";
+    private static final String LEAF_LIST_ENTRY = "/complexjson:cont1/complexjson:lflst11[.='%s']";
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void initialization() throws Exception {
+        schemaContext = loadModules("/complexjson/yang");
+    }
+
+    @Test
+    public void testCachedIdentifiers() {
+        final JSONStringInstanceIdentifierCodec codec = newCodec();
+
+        final String first = String.format(LIST_ENTRY, "a", "b");
+        final YangInstanceIdentifier firstId = codec.deserialize(first);
+        assertEquals("/complexjson:cont1/complexjson:lst11[complexjson:key111='a'][complexjson:lf111='b']"
+                + "/complexjson:lf113", codec.serialize(firstId));
+        assertSame(firstId, codec.deserialize(first));
+
+        // Same template, different values
+        final String second = String.format(LIST_ENTRY, "c\"d", "e]f'");
+        final YangInstanceIdentifier secondId = codec.deserialize(second);
+        assertEquals(newCodec().deserialize(second), secondId);
+
+        final String value = String.format(LEAF_LIST_ENTRY, "x");
+        assertEquals(newCodec().deserialize(value), codec.deserialize(value));
+        assertEquals(newCodec().deserialize(String.format(LEAF_LIST_ENTRY, "y")),
+            codec.deserialize(String.format(LEAF_LIST_ENTRY, "y")));
+
+        final CacheStats identifierStats = codec.getIdentifierCacheStats().get();
+        assertEquals(1, identifierStats.hitCount());
+        assertEquals(4, identifierStats.missCount());
+        final CacheStats templateStats = codec.getTemplateCacheStats().get();
+        assertEquals(2, templateStats.hitCount());
+        assertEquals(2, templateStats.missCount());
+    }
+
+    @Test
+    public void testInvalidIdentifiers() {
+        final JSONStringInstanceIdentifierCodec codec = newCodec();
+        assertInvalid(codec, "/complexjson:cont1/complexjson:lst11");
+        assertInvalid(codec, "/complexjson:cont1/complexjson:lst11[complexjson:key111='a]");
+        assertInvalid(codec, "/complexjson:cont1/complexjson:lst11[complexjson:key111='a'][complexjson:lf111='b']"
+                + "/complexjson:lf113/");
+
+        // Failures are not cached
+        assertInvalid(codec, "/complexjson:cont1/complexjson:lst11");
+        assertEquals(0, codec.getIdentifierCacheStats().get().hitCount());
+    }
+
+    private static JSONStringInstanceIdentifierCodec newCodec() {
+        return new JSONStringInstanceIdentifierCodec(schemaContext, JSONCodecFactory.create(schemaContext));
+    }
+
+    private static void assertInvalid(final JSONStringInstanceIdentifierCodec codec, final String data) {
+        try {
+            codec.deserialize(data);
+            fail("Identifier " + data + " should have been rejected");
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            // Expected
+        }
+    }
+}
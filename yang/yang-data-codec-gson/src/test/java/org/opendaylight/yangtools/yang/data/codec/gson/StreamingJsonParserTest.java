@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.gson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.codec.gson.TestUtils.loadModules;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+public class StreamingJsonParserTest {
+    private static final QName CONT_1 = QName.create("ns:complex:json", "2014-08-11", "cont1");
+    private static final QName LST_11 = QName.create(CONT_1, "lst11");
+    private static final QName KEY_111 = QName.create(CONT_1, "key111");
+    private static final QName LF_111 = QName.create(CONT_1, "lf111");
+    private static final QName LF_113 = QName.create(CONT_1, "lf113");
+
+    private static SchemaContext schemaContext;
+
+    @BeforeClass
+    public static void initialization() throws Exception {
+        schemaContext = loadModules("/complexjson/yang");
+    }
+
+    private static String entry(final int i) {
+        return "{\"lf113\":\"value " + i + "\",\"key111\":\"key " + i + "\",\"lf111\":\"lf " + i + "\"}";
+    }
+
+    private static String document(final int entries) {
+        final StringBuilder sb = new StringBuilder("{\"complexjson:cont1\":{\"lst11\":[");
+        for (int i = 0; i < entries; ++i) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append(entry(i));
+        }
+        return sb.append("],\"lf11\":5}}").toString();
+    }
+
+    /**
+     * Records the identifiers of started map entries, delegating all events to a backing writer.
+     */
+    private static NormalizedNodeStreamWriter recordingWriter(final NormalizedNodeStreamWriter delegate,
+            final List<Object> startedEntries) {
+        return (NormalizedNodeStreamWriter) Proxy.newProxyInstance(StreamingJsonParserTest.class.getClassLoader(),
+            new Class<?>[] { NormalizedNodeStreamWriter.class }, new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                    if ("startMapEntryNode".equals(method.getName())) {
+                        startedEntries.add(args[0]);
+                    }
+                    return method.invoke(delegate, args);
+                }
+            });
+    }
+
+    private static void parse(final String json, final NormalizedNodeStreamWriter streamWriter) {
+        JsonParserStream.create(streamWriter, schemaContext).parse(new JsonReader(new StringReader(json)));
+    }
+
+    @Test
+    public void testEntriesWithTrailingKeys() {
+        final NormalizedNodeResult result = new NormalizedNodeResult();
+        final List<Object> startedEntries = new ArrayList<>();
+        parse(document(100), recordingWriter(ImmutableNormalizedNodeStreamWriter.from(result), startedEntries));
+        assertEquals(100, startedEntries.size());
+
+        final Map<QName, Object> keys = new LinkedHashMap<>();
+        keys.put(KEY_111, "key 0");
+        keys.put(LF_111, "lf 0");
+        final NodeIdentifierWithPredicates firstEntry = new NodeIdentifierWithPredicates(LST_11, keys);
+        assertEquals(firstEntry, startedEntries.get(0));
+
+        final ContainerNode cont1 = (ContainerNode) result.getResult();
+        final MapNode lst11 = (MapNode) cont1.getChild(new NodeIdentifier(LST_11)).get();
+        assertEquals(100, lst11.getValue().size());
+        assertEquals(ImmutableNodes.leafNode(LF_113, "value 0"),
+            lst11.getChild(firstEntry).get().getChild(new NodeIdentifier(LF_113)).get());
+    }
+
+    @Test
+    public void testEventsPrecedeEndOfInput() {
+        final String json = document(100);
+        final List<Object> startedEntries = new ArrayList<>();
+        try {
+            parse(json.substring(0, json.length() / 2), recordingWriter(
+                ImmutableNormalizedNodeStreamWriter.from(new NormalizedNodeResult()), startedEntries));
+            fail("Truncated input should have been rejected");
+        } catch (JsonSyntaxException e) {
+            // Entries seen before the end of input have already been emitted
+            assertTrue(startedEntries.size() > 40);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingKey() {
+        parse("{\"complexjson:cont1\":{\"lst11\":[{\"key111\":\"key\",\"lf113\":\"value\"}]}}",
+            ImmutableNormalizedNodeStreamWriter.from(new NormalizedNodeResult()));
+    }
+}
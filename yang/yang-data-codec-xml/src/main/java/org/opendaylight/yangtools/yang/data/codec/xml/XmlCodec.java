@@ -8,12 +8,26 @@
 
 package org.opendaylight.yangtools.yang.data.codec.xml;
 
+import javax.xml.namespace.NamespaceContext;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 import org.opendaylight.yangtools.concepts.Codec;
 
 interface XmlCodec<T> extends Codec<String, T> {
 
+    /**
+     * Deserialize the text content of an element. Prefixes contained in the text, such as those of identityref and
+     * instance-identifier values, are resolved in the namespace context of the element. The default implementation
+     * ignores the namespace context, which is appropriate for types whose values do not contain prefixes.
+     *
+     * @param input text content of the element
+     * @param namespaceContext namespace context of the element
+     * @return deserialized value
+     */
+    default T deserialize(final String input, final NamespaceContext namespaceContext) {
+        return deserialize(input);
+    }
+
     /**
      * Serialize specified value with specified XMLStreamWriter.
      *
@@ -11,12 +11,12 @@ package org.opendaylight.yangtools.yang.data.codec.xml;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.Map.Entry;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.concurrent.ThreadSafe;
+import javax.xml.XMLConstants;
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
@@ -37,6 +37,14 @@ import org.opendaylight.yangtools.yang.model.util.SchemaContextUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Factory for creating XML equivalents of codecs. Each instance of this object is bound to a particular
+ * {@link SchemaContext}.
+ *
+ * <p>The codec of each leaf and leaf-list schema node is created exactly once, on first use, and is retained for the
+ * lifetime of the factory. Codecs are not bound to any particular {@link NamespaceContext}, the namespace context of
+ * an element is passed to {@link XmlCodec#deserialize(String, NamespaceContext)} when its content is parsed.
+ */
 @Beta
 @ThreadSafe
 public final class XmlCodecFactory {
@@ -61,24 +69,24 @@ public final class XmlCodecFactory {
         }
     };
 
-    private final LoadingCache<Entry<DataSchemaNode, NamespaceContext>, XmlCodec<?>> codecs =
-            CacheBuilder.newBuilder().softValues().build(
-                    new CacheLoader<Entry<DataSchemaNode, NamespaceContext>, XmlCodec<?>>() {
-                @Override
-                public XmlCodec<?> load(final Entry<DataSchemaNode, NamespaceContext> schemaNodeAndNamespaceCtxPair)
-                        throws Exception {
-                    final DataSchemaNode schemaNode = schemaNodeAndNamespaceCtxPair.getKey();
-                    final TypeDefinition<?> type;
-                    if (schemaNode instanceof LeafSchemaNode) {
-                        type = ((LeafSchemaNode) schemaNode).getType();
-                    } else if (schemaNode instanceof LeafListSchemaNode) {
-                        type = ((LeafListSchemaNode) schemaNode).getType();
-                    } else {
-                        throw new IllegalArgumentException("Not supported node type " + schemaNode.getClass().getName());
-                    }
-                    return createCodec(schemaNode,type, schemaNodeAndNamespaceCtxPair.getValue());
-                }
-            });
+    private static final NamespaceContext EMPTY_NAMESPACE_CONTEXT = new NamespaceContext() {
+        @Override
+        public String getNamespaceURI(final String prefix) {
+            return XMLConstants.NULL_NS_URI;
+        }
+
+        @Override
+        public String getPrefix(final String namespaceURI) {
+            return null;
+        }
+
+        @Override
+        public Iterator<?> getPrefixes(final String namespaceURI) {
+            return Collections.emptyIterator();
+        }
+    };
+
+    private final ConcurrentMap<DataSchemaNode, XmlCodec<?>> codecs = new ConcurrentHashMap<>();
 
     private final SchemaContext schemaContext;
 
@@ -110,11 +118,15 @@ public final class XmlCodecFactory {
 
     private XmlCodec<?> createReferencedTypeCodec(final DataSchemaNode schema, final LeafrefTypeDefinition type,
                                                   final NamespaceContext namespaceContext) {
+        return createCodec(schema, resolveLeafref(schema, type), namespaceContext);
+    }
+
+    private TypeDefinition<?> resolveLeafref(final DataSchemaNode schema, final LeafrefTypeDefinition type) {
         // FIXME: Verify if this does indeed support leafref of leafref
         final TypeDefinition<?> referencedType =
                 SchemaContextUtil.getBaseTypeForLeafRef(type, getSchemaContext(), schema);
         Verify.verifyNotNull(referencedType, "Unable to find base type for leafref node '%s'.", schema.getPath());
-        return createCodec(schema, referencedType, namespaceContext);
+        return referencedType;
     }
 
     public XmlCodec<QName> createIdentityrefTypeCodec(final DataSchemaNode schema,
@@ -154,8 +166,30 @@ public final class XmlCodecFactory {
         return schemaContext;
     }
 
-    XmlCodec<?> codecFor(final DataSchemaNode schema, final NamespaceContext namespaceContext) {
-        return codecs.getUnchecked(new SimpleImmutableEntry<>(schema, namespaceContext));
+    XmlCodec<?> codecFor(final DataSchemaNode schema) {
+        XmlCodec<?> codec = codecs.get(schema);
+        if (codec == null) {
+            codec = compileCodec(schema);
+            final XmlCodec<?> raced = codecs.putIfAbsent(schema, codec);
+            if (raced != null) {
+                codec = raced;
+            }
+        }
+        return codec;
+    }
+
+    private XmlCodec<?> compileCodec(final DataSchemaNode schema) {
+        final TypeDefinition<?> type;
+        if (schema instanceof LeafSchemaNode) {
+            type = ((LeafSchemaNode) schema).getType();
+        } else if (schema instanceof LeafListSchemaNode) {
+            type = ((LeafListSchemaNode) schema).getType();
+        } else {
+            throw new IllegalArgumentException("Not supported node type " + schema.getClass().getName());
+        }
+
+        // Codecs are bound to the namespace context of each element when deserializing
+        return createCodec(schema, type, EMPTY_NAMESPACE_CONTEXT);
     }
 
     XmlCodec<?> codecFor(final DataSchemaNode schema, final TypeDefinition<?> unionSubType,
@@ -10,17 +10,19 @@ package org.opendaylight.yangtools.yang.data.codec.xml;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
-import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
 import javax.annotation.concurrent.NotThreadSafe;
+import javax.xml.XMLConstants;
 import javax.xml.namespace.NamespaceContext;
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.Location;
@@ -28,6 +30,7 @@ import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.dom.DOMSource;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
 import org.opendaylight.yangtools.yang.data.util.AbstractNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.AnyXmlNodeDataWithSchema;
@@ -35,26 +38,41 @@ import org.opendaylight.yangtools.yang.data.util.CompositeNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafListEntryNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafListNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.LeafNodeDataWithSchema;
+import org.opendaylight.yangtools.yang.data.util.MapEntryContext;
 import org.opendaylight.yangtools.yang.data.util.ListEntryNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ListNodeDataWithSchema;
 import org.opendaylight.yangtools.yang.data.util.ParserStreamUtils;
 import org.opendaylight.yangtools.yang.data.util.RpcAsContainer;
 import org.opendaylight.yangtools.yang.data.util.SimpleNodeDataWithSchema;
-import org.opendaylight.yangtools.yang.model.api.AnyXmlSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.RpcDefinition;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.api.SchemaNode;
 import org.opendaylight.yangtools.yang.model.api.YangModeledAnyXmlSchemaNode;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.xml.sax.InputSource;
+import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 
 /**
  * This class provides functionality for parsing an XML source containing YANG-modeled data. It disallows multiple
  * instances of the same element except for leaf-list and list entries. It also expects that the YANG-modeled data in
  * the XML source are wrapped in a root element.
+ *
+ * <p>Nodes are emitted into the {@link NormalizedNodeStreamWriter} as soon as they are read from the XML source,
+ * hence memory usage does not grow with the size of the input. Input is buffered only where the stream writer
+ * requires it to be reordered:
+ * <ul>
+ *   <li>members of a keyed list entry which precede the last key leaf are held until the entry's key is known,</li>
+ *   <li>members which belong to a choice or an augmentation are held until their parent element ends, as all
+ *       members of a choice or an augmentation have to be emitted under a single node.</li>
+ * </ul>
+ *
+ * <p>Anyxml content is converted directly from StAX events into a {@link DOMSource}, without being serialized and
+ * parsed again.
  */
 @Beta
 @NotThreadSafe
@@ -70,6 +88,7 @@ public final class XmlParserStream implements Closeable, Flushable {
     private final NormalizedNodeStreamWriter writer;
     private final XmlCodecFactory codecs;
     private final DataSchemaNode parentNode;
+    private DocumentBuilder documentBuilder;
 
     private XmlParserStream(final NormalizedNodeStreamWriter writer, final SchemaContext schemaContext,
                              final DataSchemaNode parentNode) {
@@ -113,46 +132,122 @@ public final class XmlParserStream implements Closeable, Flushable {
     public XmlParserStream parse(final XMLStreamReader reader) throws XMLStreamException, URISyntaxException,
             IOException, ParserConfigurationException, SAXException {
         if (reader.hasNext()) {
-            final CompositeNodeDataWithSchema compositeNodeDataWithSchema = new CompositeNodeDataWithSchema(parentNode);
             reader.nextTag();
-            read(reader, compositeNodeDataWithSchema, reader.getLocalName());
-            compositeNodeDataWithSchema.write(writer);
+            streamChildren(reader, parentNode, null);
         }
 
         return this;
     }
 
-    private static String readAnyXmlValue(final XMLStreamReader in) throws XMLStreamException {
-        final StringBuilder sb = new StringBuilder();
-        final String anyXmlElementName = in.getLocalName();
-        sb.append('<').append(anyXmlElementName).append(" xmlns=\"").append(in.getNamespaceURI()).append("\">");
+    /**
+     * Stream the children of an element. Children which need to be reordered are buffered and emitted once the
+     * element ends.
+     *
+     * @param in StAX reader positioned at the start of the element, it is left positioned at its end
+     * @param schema Schema of the node corresponding to the element
+     * @param entry Context of the map entry corresponding to the element, null if the element is not a map entry
+     */
+    private void streamChildren(final XMLStreamReader in, final DataSchemaNode schema, final MapEntryContext entry)
+            throws XMLStreamException, URISyntaxException, ParserConfigurationException, IOException {
+        final CompositeNodeDataWithSchema deferred = new CompositeNodeDataWithSchema(schema);
+        readChildren(in, schema, childDataSchemaNodes -> {
+            if (ParserStreamUtils.isGroupedChild(schema, childDataSchemaNodes)) {
+                readChild(in, deferred, childDataSchemaNodes);
+            } else if (entry != null && !entry.isStarted()) {
+                entry.childRead(readChild(in, entry.getPendingData(), childDataSchemaNodes));
+            } else {
+                streamChild(in, schema, childDataSchemaNodes);
+            }
+        });
 
-        while (in.hasNext()) {
-            final int eventType = in.next();
+        if (entry != null) {
+            entry.checkStarted();
+        }
+        deferred.write(writer);
+    }
 
-            if (eventType == XMLStreamConstants.START_ELEMENT) {
-                sb.append('<').append(in.getLocalName()).append('>');
-            } else if (eventType == XMLStreamConstants.END_ELEMENT) {
-                sb.append("</").append(in.getLocalName()).append('>');
+    private void streamChild(final XMLStreamReader in, final DataSchemaNode parentSchema,
+            final Deque<DataSchemaNode> childDataSchemaNodes)
+            throws XMLStreamException, URISyntaxException, ParserConfigurationException, IOException {
+        final DataSchemaNode schema = childDataSchemaNodes.peek();
+        if (schema instanceof ContainerSchemaNode || schema instanceof YangModeledAnyXmlSchemaNode) {
+            writer.nextDataSchemaNode(schema);
+            if (schema instanceof ContainerSchemaNode) {
+                writer.startContainerNode(NodeIdentifier.create(schema.getQName()),
+                    NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            } else {
+                writer.startYangModeledAnyXmlNode(NodeIdentifier.create(schema.getQName()),
+                    NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+            }
+            streamChildren(in, schema, null);
+            writer.endNode();
+            in.nextTag();
+        } else if (schema instanceof ListSchemaNode) {
+            streamList(in, (ListSchemaNode) schema);
+        } else if (schema instanceof LeafListSchemaNode) {
+            streamLeafList(in, (LeafListSchemaNode) schema);
+        } else {
+            // Leaves and anyxmls are simple values, which are emitted as soon as they are read
+            final CompositeNodeDataWithSchema parent = new CompositeNodeDataWithSchema(parentSchema);
+            readChild(in, parent, childDataSchemaNodes);
+            parent.write(writer);
+        }
+    }
 
-                if (in.getLocalName().equals(anyXmlElementName)) {
-                    break;
-                }
+    private void streamList(final XMLStreamReader in, final ListSchemaNode schema)
+            throws XMLStreamException, URISyntaxException, ParserConfigurationException, IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.getKeyDefinition().isEmpty()) {
+            writer.startUnkeyedList(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else if (schema.isUserOrdered()) {
+            writer.startOrderedMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startMapNode(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
 
-            } else if (eventType == XMLStreamConstants.CHARACTERS) {
-                sb.append(in.getText());
+        while (isEntryOf(in, schema)) {
+            if (schema.getKeyDefinition().isEmpty()) {
+                writer.nextDataSchemaNode(schema);
+                writer.startUnkeyedListItem(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+                streamChildren(in, schema, null);
+            } else {
+                streamChildren(in, schema, new MapEntryContext(writer, schema));
             }
+            writer.endNode();
+            in.nextTag();
         }
-
-        return sb.toString();
+        writer.endNode();
     }
 
-    private void read(final XMLStreamReader in, final AbstractNodeDataWithSchema parent, final String rootElement)
-            throws XMLStreamException, URISyntaxException, ParserConfigurationException, SAXException, IOException {
-        if (!in.hasNext()) {
-            return;
+    private void streamLeafList(final XMLStreamReader in, final LeafListSchemaNode schema)
+            throws XMLStreamException, URISyntaxException, ParserConfigurationException, IOException {
+        final NodeIdentifier identifier = NodeIdentifier.create(schema.getQName());
+        writer.nextDataSchemaNode(schema);
+        if (schema.isUserOrdered()) {
+            writer.startOrderedLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        } else {
+            writer.startLeafSet(identifier, NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        }
+
+        while (isEntryOf(in, schema)) {
+            final LeafListEntryNodeDataWithSchema entry = new LeafListEntryNodeDataWithSchema(schema);
+            read(in, entry);
+            entry.write(writer);
         }
+        writer.endNode();
+    }
 
+    /**
+     * Read an element into a buffered node.
+     *
+     * @param in StAX reader positioned at the start of the element, it is left positioned at the next tag after
+     *           the element. For lists and leaf-lists the element is the first entry and all consecutive entries
+     *           are read.
+     * @param parent Node corresponding to the element
+     */
+    private void read(final XMLStreamReader in, final AbstractNodeDataWithSchema parent)
+            throws XMLStreamException, URISyntaxException, ParserConfigurationException, IOException {
         if (parent instanceof LeafNodeDataWithSchema || parent instanceof LeafListEntryNodeDataWithSchema) {
             setValue(parent, in.getElementText().trim(), in.getNamespaceContext());
             in.nextTag();
@@ -160,93 +255,149 @@ public final class XmlParserStream implements Closeable, Flushable {
         }
 
         if (parent instanceof LeafListNodeDataWithSchema || parent instanceof ListNodeDataWithSchema) {
-            String xmlElementName = in.getLocalName();
-            while (xmlElementName.equals(parent.getSchema().getQName().getLocalName())) {
-                read(in, newEntryNode(parent), rootElement);
-                xmlElementName = in.getLocalName();
+            while (isEntryOf(in, parent.getSchema())) {
+                read(in, newEntryNode(parent));
             }
-
             return;
         }
 
         if (parent instanceof AnyXmlNodeDataWithSchema) {
-            setValue(parent, readAnyXmlValue(in), in.getNamespaceContext());
+            setValue(parent, readAnyXmlValue(in));
             in.nextTag();
             return;
         }
 
-        switch (in.nextTag()) {
+        final CompositeNodeDataWithSchema composite = (CompositeNodeDataWithSchema) parent;
+        readChildren(in, parent.getSchema(), childDataSchemaNodes -> readChild(in, composite, childDataSchemaNodes));
+        in.nextTag();
+    }
+
+    private AbstractNodeDataWithSchema readChild(final XMLStreamReader in, final CompositeNodeDataWithSchema parent,
+            final Deque<DataSchemaNode> childDataSchemaNodes)
+            throws XMLStreamException, URISyntaxException, ParserConfigurationException, IOException {
+        final AbstractNodeDataWithSchema newChild = parent.addChild(childDataSchemaNodes);
+        read(in, newChild);
+        return newChild;
+    }
+
+    /**
+     * Resolve the schema of each child element of an element and pass it to a {@link ChildHandler}.
+     *
+     * @param in StAX reader positioned at the start of the element, it is left positioned at its end
+     * @param schema Schema of the node corresponding to the element
+     * @param handler Handler invoked for each child with the reader positioned at its start. It needs to leave the
+     *                reader positioned at the next tag after the child.
+     */
+    private static void readChildren(final XMLStreamReader in, final DataSchemaNode schema,
+            final ChildHandler handler)
+            throws XMLStreamException, URISyntaxException, ParserConfigurationException, IOException {
+        final DataSchemaNode parentSchema = schema instanceof YangModeledAnyXmlSchemaNode
+                ? ((YangModeledAnyXmlSchemaNode) schema).getSchemaOfAnyXmlData() : schema;
+        final Set<String> namesakes = new HashSet<>();
+
+        in.nextTag();
+        while (in.isStartElement()) {
+            final String xmlElementName = in.getLocalName();
+            if (!namesakes.add(xmlElementName)) {
+                final Location loc = in.getLocation();
+                throw new IllegalStateException(String.format(
+                        "Duplicate element \"%s\" in XML input at: line %s column %s", xmlElementName,
+                        loc.getLineNumber(), loc.getColumnNumber()));
+            }
+
+            final String xmlElementNamespace = Strings.nullToEmpty(in.getNamespaceURI());
+            final Deque<DataSchemaNode> childDataSchemaNodes =
+                    ParserStreamUtils.findSchemaNodeByNameAndNamespace(parentSchema, xmlElementName,
+                            new URI(xmlElementNamespace));
+
+            Preconditions.checkState(!childDataSchemaNodes.isEmpty(),
+                    "Schema for node with name %s and namespace %s doesn't exist.",
+                    xmlElementName, xmlElementNamespace);
+
+            handler.handleChild(childDataSchemaNodes);
+        }
+    }
+
+    private static boolean isEntryOf(final XMLStreamReader in, final DataSchemaNode schema) {
+        return in.isStartElement() && schema.getQName().getLocalName().equals(in.getLocalName());
+    }
+
+    /**
+     * Build a DOM element from the StAX events of an anyxml element.
+     *
+     * @param in StAX reader positioned at the start of the element, it is left positioned at its end
+     * @return DOMSource holding the element
+     */
+    private DOMSource readAnyXmlValue(final XMLStreamReader in)
+            throws XMLStreamException, ParserConfigurationException {
+        if (documentBuilder == null) {
+            documentBuilder = FACTORY.newDocumentBuilder();
+        }
+
+        final Document doc = documentBuilder.newDocument();
+        Node current = doc;
+        int depth = 0;
+        do {
+            switch (in.getEventType()) {
             case XMLStreamConstants.START_ELEMENT:
-                final Set<String> namesakes = new HashSet<>();
-                while (in.hasNext()) {
-                    final String xmlElementName = in.getLocalName();
-                    if (rootElement.equals(xmlElementName)) {
-                        break;
-                    }
-
-                    DataSchemaNode parentSchema = parent.getSchema();
-
-                    final String parentSchemaName = parentSchema.getQName().getLocalName();
-                    if (parentSchemaName.equals(xmlElementName) && in.getEventType() == XMLStreamConstants.END_ELEMENT) {
-                        in.nextTag();
-                        break;
-                    }
-
-                    if (parentSchema instanceof YangModeledAnyXmlSchemaNode) {
-                        parentSchema = ((YangModeledAnyXmlSchemaNode) parentSchema).getSchemaOfAnyXmlData();
-                    }
-
-                    if (!namesakes.add(xmlElementName)) {
-                        final Location loc = in.getLocation();
-                        throw new IllegalStateException(String.format(
-                                "Duplicate element \"%s\" in XML input at: line %s column %s", xmlElementName,
-                                loc.getLineNumber(), loc.getColumnNumber()));
-                    }
-
-                    final String xmlElementNamespace = in.getNamespaceURI();
-                    final Deque<DataSchemaNode> childDataSchemaNodes =
-                            ParserStreamUtils.findSchemaNodeByNameAndNamespace(parentSchema, xmlElementName,
-                                    new URI(xmlElementNamespace));
-
-                    Preconditions.checkState(!childDataSchemaNodes.isEmpty(),
-                            "Schema for node with name %s and namespace %s doesn't exist.",
-                            xmlElementName, xmlElementNamespace);
-
-                    read(in, ((CompositeNodeDataWithSchema) parent).addChild(childDataSchemaNodes), rootElement);
-                }
+                final Element element = createElement(doc, in);
+                current.appendChild(element);
+                current = element;
+                depth++;
                 break;
             case XMLStreamConstants.END_ELEMENT:
-                in.nextTag();
+                current = current.getParentNode();
+                depth--;
                 break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                current.appendChild(doc.createTextNode(in.getText()));
+                break;
+            default:
+                // Comments and processing instructions are not retained
+                break;
+            }
+        } while (depth != 0 && in.hasNext() && in.next() != XMLStreamConstants.END_DOCUMENT);
+
+        doc.normalize();
+        return new DOMSource(doc.getDocumentElement());
+    }
+
+    private static Element createElement(final Document doc, final XMLStreamReader in) {
+        final Element element = doc.createElementNS(Strings.emptyToNull(in.getNamespaceURI()),
+            qualifiedName(in.getPrefix(), in.getLocalName()));
+
+        for (int i = 0; i < in.getNamespaceCount(); ++i) {
+            final String prefix = in.getNamespacePrefix(i);
+            element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                Strings.isNullOrEmpty(prefix) ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ':'
+                    + prefix, Strings.nullToEmpty(in.getNamespaceURI(i)));
+        }
+        for (int i = 0; i < in.getAttributeCount(); ++i) {
+            element.setAttributeNS(Strings.emptyToNull(in.getAttributeNamespace(i)),
+                qualifiedName(in.getAttributePrefix(i), in.getAttributeLocalName(i)), in.getAttributeValue(i));
         }
+        return element;
     }
 
-    private void setValue(final AbstractNodeDataWithSchema parent, final String value, final NamespaceContext nsContext)
-            throws ParserConfigurationException, SAXException, IOException {
+    private static String qualifiedName(final String prefix, final String localName) {
+        return Strings.isNullOrEmpty(prefix) ? localName : prefix + ':' + localName;
+    }
+
+    private static void setValue(final AbstractNodeDataWithSchema parent, final Object value) {
         Preconditions.checkArgument(parent instanceof SimpleNodeDataWithSchema, "Node %s is not a simple type",
                 parent.getSchema().getQName());
         final SimpleNodeDataWithSchema parentSimpleNode = (SimpleNodeDataWithSchema) parent;
         Preconditions.checkArgument(parentSimpleNode.getValue() == null, "Node '%s' has already set its value to '%s'",
                 parentSimpleNode.getSchema().getQName(), parentSimpleNode.getValue());
 
-        parentSimpleNode.setValue(translateValueByType(value, parentSimpleNode.getSchema(), nsContext));
+        parentSimpleNode.setValue(value);
     }
 
-    private Object translateValueByType(final String value, final DataSchemaNode node, final NamespaceContext namespaceCtx)
-            throws IOException, SAXException, ParserConfigurationException {
-        if (node instanceof AnyXmlSchemaNode) {
-            /*
-             *  FIXME: Figure out some YANG extension dispatch, which will
-             *  reuse JSON parsing or XML parsing - anyxml is not well-defined in
-             * JSON.
-             */
-            final Document doc = FACTORY.newDocumentBuilder().parse(new InputSource(new StringReader(value)));
-            doc.normalize();
-
-            return new DOMSource(doc.getDocumentElement());
-        } else {
-            return codecs.codecFor(node, namespaceCtx).deserialize(value);
-        }
+    private void setValue(final AbstractNodeDataWithSchema parent, final String value,
+            final NamespaceContext nsContext) {
+        setValue(parent, codecs.codecFor(parent.getSchema()).deserialize(value, nsContext));
     }
 
     private static AbstractNodeDataWithSchema newEntryNode(final AbstractNodeDataWithSchema parent) {
@@ -260,6 +411,15 @@ public final class XmlParserStream implements Closeable, Flushable {
         return newChild;
     }
 
+    /**
+     * Callback invoked by {@link XmlParserStream#readChildren(XMLStreamReader, DataSchemaNode, ChildHandler)} for
+     * each child element.
+     */
+    private interface ChildHandler {
+        void handleChild(Deque<DataSchemaNode> childDataSchemaNodes)
+                throws XMLStreamException, URISyntaxException, ParserConfigurationException, IOException;
+    }
+
     @Override
     public void close() throws IOException {
         writer.flush();
@@ -40,6 +40,16 @@ final class XmlStringIdentityrefCodec extends ModuleStringIdentityrefCodec imple
         }
     }
 
+    @Override
+    public QName deserialize(final String input, final NamespaceContext namespaceContext) {
+        if (namespaceContext == this.namespaceContext) {
+            return deserialize(input);
+        }
+
+        // Binding to the namespace context of the element only captures references, no schema lookups are repeated
+        return new XmlStringIdentityrefCodec(context, parentModuleQname, namespaceContext).deserialize(input);
+    }
+
     /**
      * Serialize QName with specified XMLStreamWriter.
      *
@@ -37,6 +37,24 @@ final class XmlStringInstanceIdentifierCodec  extends AbstractModuleStringInstan
         this.namespaceContext = Preconditions.checkNotNull(namespaceContext);
     }
 
+    private XmlStringInstanceIdentifierCodec(final XmlStringInstanceIdentifierCodec codec,
+                                             final NamespaceContext namespaceContext) {
+        this.context = codec.context;
+        this.dataContextTree = codec.dataContextTree;
+        this.codecFactory = codec.codecFactory;
+        this.namespaceContext = Preconditions.checkNotNull(namespaceContext);
+    }
+
+    @Override
+    public YangInstanceIdentifier deserialize(final String input, final NamespaceContext namespaceContext) {
+        if (namespaceContext == this.namespaceContext) {
+            return deserialize(input);
+        }
+
+        // Binding to the namespace context of the element only captures references, no schema lookups are repeated
+        return new XmlStringInstanceIdentifierCodec(this, namespaceContext).deserialize(input);
+    }
+
     @Override
     protected Module moduleForPrefix(final String prefix) {
         final String prefixedNS = namespaceContext.getNamespaceURI(prefix);
@@ -58,8 +76,8 @@ final class XmlStringInstanceIdentifierCodec  extends AbstractModuleStringInstan
     protected Object deserializeKeyValue(final DataSchemaNode schemaNode, final String value) {
         Preconditions.checkNotNull(schemaNode, "schemaNode cannot be null");
         Preconditions.checkArgument(schemaNode instanceof LeafSchemaNode, "schemaNode must be of type LeafSchemaNode");
-        final XmlCodec<?> objectXmlCodec = codecFactory.codecFor(schemaNode, namespaceContext);
-        return objectXmlCodec.deserialize(value);
+        final XmlCodec<?> objectXmlCodec = codecFactory.codecFor(schemaNode);
+        return objectXmlCodec.deserialize(value, namespaceContext);
     }
 
     /**
@@ -34,6 +34,12 @@ final class XmlStringUnionCodec extends AbstractStringUnionCodec implements XmlC
         this.namespaceContext = Preconditions.checkNotNull(namespaceContext);
     }
 
+    @Override
+    public Object deserialize(final String input, final NamespaceContext namespaceContext) {
+        // Member codecs are retained by this codec, they are only invoked in the namespace context of the element
+        return deserialize(input, (codec, value) -> ((XmlCodec<?>) codec).deserialize(value, namespaceContext));
+    }
+
     @Override
     public void serializeToWriter(XMLStreamWriter writer, Object value) throws XMLStreamException {
         writer.writeCharacters(serialize(value));
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.dom.DOMSource;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.data.impl.schema.NormalizedNodeResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+import org.w3c.dom.Element;
+
+public class StreamingXmlParserTest {
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    private static SchemaContext bazContext;
+    private static SchemaContext fooContext;
+
+    @BeforeClass
+    public static void initialization() throws Exception {
+        bazContext = YangInferencePipeline.RFC6020_REACTOR.newBuild().buildEffective(Collections.singletonList(
+            StreamingXmlParserTest.class.getResourceAsStream("/baz.yang")));
+        fooContext = YangInferencePipeline.RFC6020_REACTOR.newBuild().buildEffective(Collections.singletonList(
+            StreamingXmlParserTest.class.getResourceAsStream("/foo.yang")));
+    }
+
+    private static String document(final int entries) {
+        final StringBuilder sb = new StringBuilder("<root xmlns=\"baz-namespace\"><outer-container><my-container-1>");
+        for (int i = 0; i < entries; ++i) {
+            sb.append("<my-keyed-list><my-leaf-in-list-1>value ").append(i)
+                .append("</my-leaf-in-list-1><my-key-leaf>key ").append(i).append("</my-key-leaf></my-keyed-list>");
+        }
+        return sb.append("<my-leaf-1>leaf</my-leaf-1></my-container-1></outer-container></root>").toString();
+    }
+
+    /**
+     * Records the arguments of invocations of a particular method, delegating all events to a backing writer.
+     */
+    private static NormalizedNodeStreamWriter recordingWriter(final String methodName,
+            final List<Object[]> recorded) {
+        final NormalizedNodeStreamWriter delegate = ImmutableNormalizedNodeStreamWriter.from(
+            new NormalizedNodeResult());
+        return (NormalizedNodeStreamWriter) Proxy.newProxyInstance(StreamingXmlParserTest.class.getClassLoader(),
+            new Class<?>[] { NormalizedNodeStreamWriter.class }, new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                    if (methodName.equals(method.getName())) {
+                        recorded.add(args);
+                    }
+                    return method.invoke(delegate, args);
+                }
+            });
+    }
+
+    private static void parse(final SchemaContext context, final String xml,
+            final NormalizedNodeStreamWriter streamWriter) throws Exception {
+        final XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(xml));
+        XmlParserStream.create(streamWriter, context).parse(reader);
+    }
+
+    @Test
+    public void testEntriesWithTrailingKeys() throws Exception {
+        final List<Object[]> recorded = new ArrayList<>();
+        parse(bazContext, document(100), recordingWriter("startMapEntryNode", recorded));
+        assertEquals(100, recorded.size());
+
+        final NodeIdentifierWithPredicates first = (NodeIdentifierWithPredicates) recorded.get(0)[0];
+        assertEquals(Collections.singletonList("key 0"), new ArrayList<>(first.getKeyValues().values()));
+    }
+
+    @Test
+    public void testEventsPrecedeEndOfInput() throws Exception {
+        final String xml = document(100);
+        final List<Object[]> recorded = new ArrayList<>();
+        try {
+            parse(bazContext, xml.substring(0, xml.length() / 2), recordingWriter("startMapEntryNode", recorded));
+            fail("Truncated input should have been rejected");
+        } catch (XMLStreamException e) {
+            // Entries seen before the end of input have already been emitted
+            assertTrue(recorded.size() > 40);
+        }
+    }
+
+    @Test
+    public void testAnyXmlNamespaces() throws Exception {
+        final List<Object[]> recorded = new ArrayList<>();
+        parse(fooContext, "<root xmlns=\"foo-namespace\"><parent-container><anyxml-container><my-anyxml>"
+            + "<x:element xmlns:x=\"x-namespace\" x:attr=\"attr value\"><plain>text</plain></x:element>"
+            + "</my-anyxml></anyxml-container></parent-container></root>", recordingWriter("anyxmlNode", recorded));
+        assertEquals(1, recorded.size());
+
+        final Element anyxml = (Element) ((DOMSource) recorded.get(0)[1]).getNode();
+        assertEquals("foo-namespace", anyxml.getNamespaceURI());
+        assertEquals("my-anyxml", anyxml.getLocalName());
+
+        final Element element = (Element) anyxml.getFirstChild();
+        assertEquals("x-namespace", element.getNamespaceURI());
+        assertEquals("element", element.getLocalName());
+        assertEquals("attr value", element.getAttributeNS("x-namespace", "attr"));
+
+        final Element plain = (Element) element.getFirstChild();
+        assertEquals("foo-namespace", plain.getNamespaceURI());
+        assertEquals("text", plain.getTextContent());
+    }
+}
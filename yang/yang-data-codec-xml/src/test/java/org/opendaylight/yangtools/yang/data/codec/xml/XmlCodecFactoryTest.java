@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.codec.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Iterator;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.YangInferencePipeline;
+
+public class XmlCodecFactoryTest {
+    private static SchemaContext fooContext;
+
+    @BeforeClass
+    public static void initialization() throws Exception {
+        fooContext = YangInferencePipeline.RFC6020_REACTOR.newBuild().buildEffective(Collections.singletonList(
+            XmlCodecFactoryTest.class.getResourceAsStream("/foo.yang")));
+    }
+
+    private static DataSchemaNode leaf(final String localName) {
+        DataNodeContainer parent = fooContext;
+        for (String name : new String[] { "parent-container", "leaf-container" }) {
+            parent = (DataNodeContainer) child(parent, name);
+        }
+        return child(parent, localName);
+    }
+
+    private static DataSchemaNode child(final DataNodeContainer parent, final String localName) {
+        for (DataSchemaNode child : parent.getChildNodes()) {
+            if (localName.equals(child.getQName().getLocalName())) {
+                return child;
+            }
+        }
+        throw new IllegalArgumentException("No child " + localName);
+    }
+
+    private static NamespaceContext namespaceContext(final String prefix, final String namespace) {
+        return new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(final String requested) {
+                return prefix.equals(requested) ? namespace : XMLConstants.NULL_NS_URI;
+            }
+
+            @Override
+            public String getPrefix(final String namespaceURI) {
+                return namespace.equals(namespaceURI) ? prefix : null;
+            }
+
+            @Override
+            public Iterator<?> getPrefixes(final String namespaceURI) {
+                return namespace.equals(namespaceURI) ? Collections.singleton(prefix).iterator()
+                        : Collections.emptyIterator();
+            }
+        };
+    }
+
+    @Test
+    public void testCodecRetained() {
+        final XmlCodecFactory factory = XmlCodecFactory.create(fooContext);
+        for (String name : new String[] { "union-identityref-leaf", "leafref-leaf", "int32-leaf" }) {
+            assertSame(factory.codecFor(leaf(name)), factory.codecFor(leaf(name)));
+        }
+    }
+
+    @Test
+    public void testUnionResolvesPrefixesOfEachElement() {
+        final XmlCodec<?> codec = XmlCodecFactory.create(fooContext).codecFor(leaf("union-identityref-leaf"));
+        final QName identity = QName.create(leaf("union-identityref-leaf").getQName(), "ident-one");
+
+        // The same codec instance resolves different prefixes, depending on the element
+        assertEquals(identity, codec.deserialize("a:ident-one", namespaceContext("a", "foo-namespace")));
+        assertEquals(identity, codec.deserialize("b:ident-one", namespaceContext("b", "foo-namespace")));
+        assertEquals((short) 12, codec.deserialize("12", namespaceContext("a", "foo-namespace")));
+    }
+}
@@ -15,45 +15,76 @@ import static org.opendaylight.yangtools.yang.model.util.BaseTypes.UINT16_QNAME;
 import static org.opendaylight.yangtools.yang.model.util.BaseTypes.UINT32_QNAME;
 import static org.opendaylight.yangtools.yang.model.util.BaseTypes.UINT64_QNAME;
 import static org.opendaylight.yangtools.yang.model.util.BaseTypes.UINT8_QNAME;
-import com.google.common.base.CharMatcher;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Range;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.regex.Pattern;
 import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.IntegerTypeDefinition;
 import org.opendaylight.yangtools.yang.model.api.type.RangeConstraint;
 import org.opendaylight.yangtools.yang.model.api.type.UnsignedIntegerTypeDefinition;
 
+/**
+ * Base class for integer codecs. Values are scanned directly from their string representation into a primitive long,
+ * which is checked against the bounds of the Java type and against range constraints, and boxed only once it has
+ * been accepted.
+ */
 abstract class AbstractIntegerStringCodec<N extends Number & Comparable<N>, T extends TypeDefinition<T>> extends TypeDefinitionAwareCodec<N, T>{
 
-    private static final Pattern INT_PATTERN = Pattern.compile("[+-]?[1-9][0-9]*$");
-    private static final Pattern HEX_PATTERN = Pattern.compile("[+-]?0[xX][0-9a-fA-F]+");
-    private static final Pattern OCT_PATTERN = Pattern.compile("[+-]?0[1-7][0-7]*$");
-
-    // For up to two characters, this is very fast
-    private static final CharMatcher X_MATCHER = CharMatcher.anyOf("xX");
-
     private static final String INCORRECT_LEXICAL_REPRESENTATION = "Incorrect lexical representation of integer value: %s."
             + "\nAn integer value can be defined as: "
             + "\n  - a decimal number,"
             + "\n  - a hexadecimal number (prefix 0x)," + "%n  - an octal number (prefix 0)."
             + "\nSigned values are allowed. Spaces between digits are NOT allowed.";
 
+    private final long minValue;
+    private final long maxValue;
+    private final boolean unsigned;
 
+    // Minimum and maximum of each range, as primitive values
+    private final long[] rangeBounds;
     private final List<Range<N>> rangeConstraints;
 
-    protected AbstractIntegerStringCodec(final Optional<T> typeDefinition, final List<RangeConstraint> constraints , final Class<N> outputClass) {
+    /**
+     * Create a codec for a Java type whose values are represented as signed longs.
+     *
+     * @param minValue Minimum value of the Java type
+     * @param maxValue Maximum value of the Java type
+     */
+    protected AbstractIntegerStringCodec(final Optional<T> typeDefinition, final List<RangeConstraint> constraints,
+            final Class<N> outputClass, final long minValue, final long maxValue) {
+        this(typeDefinition, constraints, outputClass, minValue, maxValue, false);
+    }
+
+    /**
+     * Create a codec for a Java type whose values are represented as unsigned longs, covering the full 64 bits.
+     */
+    protected AbstractIntegerStringCodec(final Optional<T> typeDefinition, final List<RangeConstraint> constraints,
+            final Class<N> outputClass) {
+        this(typeDefinition, constraints, outputClass, 0, -1L, true);
+    }
+
+    private AbstractIntegerStringCodec(final Optional<T> typeDefinition, final List<RangeConstraint> constraints,
+            final Class<N> outputClass, final long minValue, final long maxValue, final boolean unsigned) {
         super(typeDefinition, outputClass);
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.unsigned = unsigned;
         if (constraints.isEmpty()) {
             rangeConstraints = Collections.emptyList();
+            rangeBounds = new long[0];
         } else {
             final List<Range<N>> builder = new ArrayList<>(constraints.size());
+            rangeBounds = new long[constraints.size() * 2];
+            int offset = 0;
             for (final RangeConstraint yangConstraint : constraints) {
-                builder.add(createRange(yangConstraint.getMin(), yangConstraint.getMax()));
+                final N min = convertValue(yangConstraint.getMin());
+                final N max = convertValue(yangConstraint.getMax());
+                builder.add(Range.closed(min, max));
+                rangeBounds[offset++] = min.longValue();
+                rangeBounds[offset++] = max.longValue();
             }
             rangeConstraints = builder;
         }
@@ -105,50 +136,144 @@ abstract class AbstractIntegerStringCodec<N extends Number & Comparable<N>, T ex
         }
     }
 
-    private Range<N> createRange(final Number yangMin, final Number yangMax) {
-        final N min = convertValue(yangMin);
-        final N max = convertValue(yangMax);
-        return Range.closed(min, max);
-    }
-
     @Override
     public final N deserialize(final String stringRepresentation) {
-        final int base = provideBase(stringRepresentation);
-        final N deserialized;
-        if (base == 16) {
-            deserialized = deserialize(normalizeHexadecimal(stringRepresentation),base);
+        Preconditions.checkArgument(stringRepresentation != null, "String representing integer number cannot be NULL");
+        final long value = parse(stringRepresentation);
+        validate(value);
+        return valueOf(value);
+    }
+
+    /**
+     * Scan an integer in decimal, hexadecimal or octal notation and check it fits into the Java type.
+     */
+    private long parse(final CharSequence str) {
+        final int length = str.length();
+        if (length == 1 && str.charAt(0) == '0') {
+            return 0;
+        }
+
+        int offset = 0;
+        boolean negative = false;
+        if (length != 0) {
+            final char sign = str.charAt(0);
+            if (sign == '-') {
+                negative = true;
+                offset++;
+            } else if (sign == '+') {
+                offset++;
+            }
+        }
+        if (offset == length) {
+            throw incorrectLexicalRepresentation(str);
+        }
+
+        final int radix;
+        if (str.charAt(offset) != '0') {
+            radix = 10;
+        } else if (offset + 1 < length && (str.charAt(offset + 1) == 'x' || str.charAt(offset + 1) == 'X')) {
+            radix = 16;
+            offset += 2;
         } else {
-            deserialized = deserialize(stringRepresentation,base);
+            // Octal numbers need a non-zero leading digit, too
+            radix = 8;
+            offset++;
+            if (offset == length || str.charAt(offset) == '0') {
+                throw incorrectLexicalRepresentation(str);
+            }
+        }
+        if (offset == length) {
+            throw incorrectLexicalRepresentation(str);
         }
-        validate(deserialized);
-        return deserialized;
+
+        // Accumulate the magnitude as an unsigned long
+        final long limit = Long.divideUnsigned(-1L, radix);
+        long magnitude = 0;
+        boolean overflow = false;
+        for (int i = offset; i < length; ++i) {
+            final int digit = asciiDigit(str.charAt(i), radix);
+            if (digit == -1) {
+                throw incorrectLexicalRepresentation(str);
+            }
+            if (!overflow) {
+                final long next = magnitude * radix + digit;
+                if (Long.compareUnsigned(magnitude, limit) > 0 || Long.compareUnsigned(next, magnitude * radix) < 0) {
+                    overflow = true;
+                } else {
+                    magnitude = next;
+                }
+            }
+        }
+
+        if (!overflow) {
+            if (unsigned) {
+                if (!negative || magnitude == 0) {
+                    return magnitude;
+                }
+                // Negative values are not representable, but they are not out of range of the type, either
+                throw new IllegalArgumentException("Value '-" + Long.toUnsignedString(magnitude)
+                    + "'  is not in required range " + rangeConstraints);
+            }
+            if (negative) {
+                if (Long.compareUnsigned(magnitude, -minValue) <= 0) {
+                    return -magnitude;
+                }
+            } else if (Long.compareUnsigned(magnitude, maxValue) <= 0) {
+                return magnitude;
+            }
+        }
+        throw new NumberFormatException("Value out of range. Value:\"" + str + "\" Radix:" + radix);
     }
 
+    /**
+     * Return the value of a digit. Unlike {@link Character#digit(char, int)}, only ASCII digits are recognized, as
+     * that is what YANG lexical representation allows.
+     *
+     * @return Value of the digit, or -1 if the character is not a digit in the specified radix
+     */
+    private static int asciiDigit(final char ch, final int radix) {
+        final int digit;
+        if (ch >= '0' && ch <= '9') {
+            digit = ch - '0';
+        } else if (ch >= 'a' && ch <= 'f') {
+            digit = ch - 'a' + 10;
+        } else if (ch >= 'A' && ch <= 'F') {
+            digit = ch - 'A' + 10;
+        } else {
+            return -1;
+        }
+        return digit < radix ? digit : -1;
+    }
 
-    private void validate(final N value) {
-        if (rangeConstraints.isEmpty()) {
+    private void validate(final long value) {
+        if (rangeBounds.length == 0) {
             return;
         }
-        for (final Range<N> constraint : rangeConstraints) {
-            if (constraint.contains(value)) {
+        for (int i = 0; i < rangeBounds.length; i += 2) {
+            if (compare(rangeBounds[i], value) <= 0 && compare(value, rangeBounds[i + 1]) <= 0) {
                 return;
             }
         }
-        throw new IllegalArgumentException("Value '" + value + "'  is not in required range " + rangeConstraints);
+        throw new IllegalArgumentException("Value '" + valueOf(value) + "'  is not in required range "
+            + rangeConstraints);
+    }
+
+    private int compare(final long first, final long second) {
+        return unsigned ? Long.compareUnsigned(first, second) : Long.compare(first, second);
+    }
+
+    private static NumberFormatException incorrectLexicalRepresentation(final CharSequence str) {
+        return new NumberFormatException(String.format(INCORRECT_LEXICAL_REPRESENTATION, str));
     }
 
     /**
-     * Deserializes value from supplied string representation
-     * is supplied radix.
-     *
-     * See {@link Integer#parseInt(String, int)} for in-depth
-     * description about string and radix relationship.
+     * Box a value which has been accepted by this codec. For codecs of unsigned 64-bit values, the value is treated
+     * as unsigned.
      *
-     * @param stringRepresentation String representation
-     * @param radix numeric base.
-     * @return Deserialized value.
+     * @param value Primitive value
+     * @return Boxed value.
      */
-    protected abstract N deserialize(String stringRepresentation, int radix);
+    protected abstract N valueOf(long value);
 
     protected abstract N convertValue(Number value);
 
@@ -166,27 +291,4 @@ abstract class AbstractIntegerStringCodec<N extends Number & Comparable<N>, T ex
         }
         return type.getRangeConstraints();
     }
-
-    private static int provideBase(final String integer) {
-        Preconditions.checkArgument(integer != null, "String representing integer number cannot be NULL");
-
-        if (integer.length() == 1 && integer.charAt(0) == '0') {
-            return 10;
-        } else if (INT_PATTERN.matcher(integer).matches()) {
-            return 10;
-        } else if (HEX_PATTERN.matcher(integer).matches()) {
-            return 16;
-        } else if (OCT_PATTERN.matcher(integer).matches()) {
-            return 8;
-        } else {
-            throw new NumberFormatException(String.format(INCORRECT_LEXICAL_REPRESENTATION, integer));
-        }
-    }
-
-    private static String normalizeHexadecimal(final String hexInt) {
-        Preconditions.checkArgument(hexInt != null,
-                "String representing integer number in Hexadecimal format cannot be NULL!");
-
-        return X_MATCHER.removeFrom(hexInt);
-    }
 }
@@ -7,6 +7,7 @@
  */
 package org.opendaylight.yangtools.yang.data.impl.codec;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import java.util.regex.Pattern;
@@ -15,10 +16,13 @@ import org.opendaylight.yangtools.yang.model.api.type.PatternConstraint;
 class CompiledPatternContext {
 
     private final Pattern pattern;
+    private final Optional<RegexAutomaton> automaton;
     private final String errorMessage;
 
     CompiledPatternContext(final PatternConstraint yangConstraint) {
         pattern = Pattern.compile("^" + yangConstraint.getRegularExpression() + "$");
+        // Match in linear time where possible, falling back to the pattern for unsupported constructs
+        automaton = RegexAutomaton.compile(pattern.pattern());
         final String yangMessage = yangConstraint.getErrorMessage();
         if (Strings.isNullOrEmpty(yangMessage)) {
             errorMessage = "Value %s does not match regular expression <" + pattern.pattern() + ">";
@@ -28,7 +32,8 @@ class CompiledPatternContext {
     }
 
     public void validate(final String s) {
-        Preconditions.checkArgument(pattern.matcher(s).matches(), errorMessage, s);
+        final boolean matches = automaton.isPresent() ? automaton.get().matches(s) : pattern.matcher(s).matches();
+        Preconditions.checkArgument(matches, errorMessage, s);
     }
 
 }
\ No newline at end of file
@@ -9,16 +9,86 @@ package org.opendaylight.yangtools.yang.data.impl.codec;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import org.opendaylight.yangtools.yang.data.api.codec.DecimalCodec;
 import org.opendaylight.yangtools.yang.model.api.type.DecimalTypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.RangeConstraint;
 
+/**
+ * Codec for decimal64 values. Plain decimal numbers, which make up the decimal64 lexical space, are scanned directly
+ * into an unscaled long and checked against range constraints without going through {@link BigDecimal} arithmetic.
+ * Other representations accepted by {@link BigDecimal#BigDecimal(String)}, such as exponents, are handled by it.
+ */
 final class DecimalStringCodec extends TypeDefinitionAwareCodec<BigDecimal, DecimalTypeDefinition>
         implements DecimalCodec<String> {
 
+    // Maximum number of digits which always fit into a long
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; ++i) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final List<Range<BigDecimal>> rangeConstraints;
+
+    // Minimum and maximum of each range, unscaled to rangeScale, or null if they do not fit into a long
+    private final long[] rangeBounds;
+    private final int rangeScale;
+
     private DecimalStringCodec(final Optional<DecimalTypeDefinition> typeDef) {
         super(typeDef, BigDecimal.class);
+
+        final List<RangeConstraint> constraints = typeDef.isPresent() ? typeDef.get().getRangeConstraints()
+                : Collections.emptyList();
+        final List<Range<BigDecimal>> ranges = new ArrayList<>(constraints.size());
+        int scale = 0;
+        for (RangeConstraint constraint : constraints) {
+            final Range<BigDecimal> range = Range.closed(toBigDecimal(constraint.getMin()),
+                toBigDecimal(constraint.getMax()));
+            scale = Math.max(scale, Math.max(range.lowerEndpoint().scale(), range.upperEndpoint().scale()));
+            ranges.add(range);
+        }
+        rangeConstraints = ranges;
+        rangeScale = scale;
+        rangeBounds = unscaledBounds(ranges, scale);
+    }
+
+    private static BigDecimal toBigDecimal(final Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (number instanceof Byte || number instanceof Short || number instanceof Integer || number instanceof Long) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return new BigDecimal(number.toString());
+    }
+
+    private static long[] unscaledBounds(final List<Range<BigDecimal>> ranges, final int scale) {
+        final long[] ret = new long[ranges.size() * 2];
+        int offset = 0;
+        for (Range<BigDecimal> range : ranges) {
+            for (BigDecimal bound : new BigDecimal[] { range.lowerEndpoint(), range.upperEndpoint() }) {
+                final BigInteger unscaled = bound.setScale(scale).unscaledValue();
+                if (unscaled.bitLength() >= Long.SIZE) {
+                    return null;
+                }
+                ret[offset++] = unscaled.longValue();
+            }
+        }
+        return ret;
     }
 
     static TypeDefinitionAwareCodec<?,DecimalTypeDefinition> from(final DecimalTypeDefinition normalizedType) {
@@ -33,6 +103,121 @@ final class DecimalStringCodec extends TypeDefinitionAwareCodec<BigDecimal, Deci
     @Override
     public BigDecimal deserialize(final String stringRepresentation) {
         Preconditions.checkArgument( stringRepresentation != null , "Input cannot be null" );
-        return new BigDecimal(stringRepresentation);
+
+        final int length = stringRepresentation.length();
+        int offset = 0;
+        boolean negative = false;
+        if (length != 0) {
+            final char sign = stringRepresentation.charAt(0);
+            if (sign == '-') {
+                negative = true;
+                offset++;
+            } else if (sign == '+') {
+                offset++;
+            }
+        }
+
+        /*
+         * Scan [0-9]*(\.[0-9]*)?, accumulating the value as long as it fits into a long. Only ASCII digits are
+         * allowed, as BigDecimal would also accept other Unicode digits, which are not part of YANG lexical
+         * representation.
+         */
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (int i = offset; i < length; ++i) {
+            final char ch = stringRepresentation.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                unscaled = unscaled * 10 + (ch - '0');
+                digits++;
+                if (scale != -1) {
+                    scale++;
+                }
+            } else if (ch == '.' && scale == -1) {
+                scale = 0;
+            } else if ((ch == 'e' || ch == 'E') && isAsciiExponent(stringRepresentation, i + 1)) {
+                // Exponent notation, which we leave to BigDecimal
+                return validate(new BigDecimal(stringRepresentation));
+            } else {
+                throw invalidValue(stringRepresentation);
+            }
+        }
+        if (digits == 0 || digits > MAX_LONG_DIGITS || scale == 0) {
+            // Not a valid value, too long to fit into a long or without a fraction, let BigDecimal sort it out
+            return validate(new BigDecimal(stringRepresentation));
+        }
+
+        if (negative) {
+            unscaled = -unscaled;
+        }
+        if (scale == -1) {
+            scale = 0;
+        }
+        validate(unscaled, scale);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static boolean isAsciiExponent(final String str, final int offset) {
+        for (int i = offset; i < str.length(); ++i) {
+            final char ch = str.charAt(i);
+            if ((ch < '0' || ch > '9') && ((ch != '-' && ch != '+') || i != offset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static NumberFormatException invalidValue(final String str) {
+        return new NumberFormatException("Invalid decimal value \"" + str + "\"");
+    }
+
+    private void validate(final long unscaled, final int scale) {
+        if (rangeConstraints.isEmpty()) {
+            return;
+        }
+        if (rangeBounds == null || scale > rangeScale) {
+            // Comparing needs more precision than a long provides
+            validate(BigDecimal.valueOf(unscaled, scale));
+            return;
+        }
+
+        final int shift = rangeScale - scale;
+        final long value;
+        if (unscaled == 0) {
+            value = 0;
+        } else {
+            // Overflow means the value is outside of all ranges, as they fit into a long
+            if (shift >= POWERS_OF_TEN.length) {
+                throw outOfRange(BigDecimal.valueOf(unscaled, scale));
+            }
+            try {
+                value = Math.multiplyExact(unscaled, POWERS_OF_TEN[shift]);
+            } catch (ArithmeticException e) {
+                throw outOfRange(BigDecimal.valueOf(unscaled, scale));
+            }
+        }
+
+        for (int i = 0; i < rangeBounds.length; i += 2) {
+            if (rangeBounds[i] <= value && value <= rangeBounds[i + 1]) {
+                return;
+            }
+        }
+        throw outOfRange(BigDecimal.valueOf(unscaled, scale));
+    }
+
+    private BigDecimal validate(final BigDecimal value) {
+        for (Range<BigDecimal> range : rangeConstraints) {
+            if (range.contains(value)) {
+                return value;
+            }
+        }
+        if (rangeConstraints.isEmpty()) {
+            return value;
+        }
+        throw outOfRange(value);
+    }
+
+    private IllegalArgumentException outOfRange(final BigDecimal value) {
+        return new IllegalArgumentException("Value '" + value + "'  is not in required range " + rangeConstraints);
     }
 }
@@ -15,12 +15,12 @@ import org.opendaylight.yangtools.yang.model.api.type.IntegerTypeDefinition;
 
 final class Int16StringCodec extends AbstractIntegerStringCodec<Short, IntegerTypeDefinition> implements Int16Codec<String> {
     Int16StringCodec(final Optional<IntegerTypeDefinition> typeDef) {
-        super(typeDef, extractRange(typeDef.orNull()), Short.class);
+        super(typeDef, extractRange(typeDef.orNull()), Short.class, Short.MIN_VALUE, Short.MAX_VALUE);
     }
 
     @Override
-    public Short deserialize(final String stringRepresentation, final int base) {
-        return Short.valueOf(stringRepresentation, base);
+    protected Short valueOf(final long value) {
+        return Short.valueOf((short) value);
     }
 
     @Override
@@ -15,12 +15,12 @@ import org.opendaylight.yangtools.yang.model.api.type.IntegerTypeDefinition;
 
 final class Int32StringCodec extends AbstractIntegerStringCodec<Integer, IntegerTypeDefinition> implements Int32Codec<String> {
     Int32StringCodec(final Optional<IntegerTypeDefinition> typeDef) {
-        super(typeDef, extractRange(typeDef.orNull()), Integer.class);
+        super(typeDef, extractRange(typeDef.orNull()), Integer.class, Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
     @Override
-    public Integer deserialize(final String stringRepresentation, final int base) {
-        return Integer.valueOf(stringRepresentation, base);
+    protected Integer valueOf(final long value) {
+        return Integer.valueOf((int) value);
     }
 
     @Override
@@ -16,12 +16,12 @@ import org.opendaylight.yangtools.yang.model.api.type.IntegerTypeDefinition;
 final class Int64StringCodec extends AbstractIntegerStringCodec<Long, IntegerTypeDefinition> implements Int64Codec<String> {
 
     Int64StringCodec(final Optional<IntegerTypeDefinition> typeDef) {
-        super(typeDef, extractRange(typeDef.orNull()), Long.class);
+        super(typeDef, extractRange(typeDef.orNull()), Long.class, Long.MIN_VALUE, Long.MAX_VALUE);
     }
 
     @Override
-    public Long deserialize(final String stringRepresentation, final int base) {
-        return Long.valueOf(stringRepresentation, base);
+    protected Long valueOf(final long value) {
+        return Long.valueOf(value);
     }
 
     @Override
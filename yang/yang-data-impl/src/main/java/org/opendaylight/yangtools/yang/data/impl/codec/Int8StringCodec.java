@@ -16,12 +16,12 @@ import org.opendaylight.yangtools.yang.model.api.type.IntegerTypeDefinition;
 final class Int8StringCodec extends AbstractIntegerStringCodec<Byte, IntegerTypeDefinition> implements Int8Codec<String> {
 
     Int8StringCodec(final Optional<IntegerTypeDefinition> typeDef) {
-        super(typeDef, extractRange(typeDef.orNull()), Byte.class);
+        super(typeDef, extractRange(typeDef.orNull()), Byte.class, Byte.MIN_VALUE, Byte.MAX_VALUE);
     }
 
     @Override
-    public Byte deserialize(final String stringRepresentation, final int base) {
-        return Byte.valueOf(stringRepresentation, base);
+    protected Byte valueOf(final long value) {
+        return Byte.valueOf((byte) value);
     }
 
     @Override
@@ -0,0 +1,677 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A matcher for regular expressions, which runs in time linear to the length of the input. The expression is compiled
+ * into a Thompson NFA, which is turned into a DFA lazily, as inputs are matched. DFA states and transitions on
+ * non-ASCII code points are cached up to a limit, after which the NFA is simulated directly.
+ *
+ * <p>Only a subset of {@link Pattern} syntax is supported, which covers what XSD regular expressions used by YANG
+ * patterns translate to: literals, escapes, character classes, the dot, groups, alternation and greedy quantifiers,
+ * with optional anchors at the start and end of the expression. Character classes and escapes are evaluated by
+ * {@link Pattern} itself, hence they match exactly the same characters. Expressions using other constructs, such as
+ * back references, lookaround, flags, reluctant or possessive quantifiers, nested classes or class intersections,
+ * are not compiled.
+ */
+final class RegexAutomaton {
+    private static final Logger LOG = LoggerFactory.getLogger(RegexAutomaton.class);
+    private static final int MAX_NFA_STATES = 10000;
+    private static final int MAX_DFA_STATES = 4096;
+    // Non-ASCII transitions are cached per code point, this bounds their number across all DFA states
+    private static final int MAX_OTHER_EDGES = 16384;
+    private static final int ASCII = 128;
+
+    /**
+     * Matcher of a single code point.
+     */
+    private abstract static class Atom {
+        abstract boolean matches(int codePoint);
+    }
+
+    private static final class LiteralAtom extends Atom {
+        private final int codePoint;
+
+        LiteralAtom(final int codePoint) {
+            this.codePoint = codePoint;
+        }
+
+        @Override
+        boolean matches(final int codePoint) {
+            return this.codePoint == codePoint;
+        }
+    }
+
+    private static final class ClassAtom extends Atom {
+        private final boolean[] ascii = new boolean[ASCII];
+        private final Pattern pattern;
+
+        ClassAtom(final String regex) {
+            pattern = Pattern.compile(regex);
+            for (int i = 0; i < ASCII; ++i) {
+                ascii[i] = pattern.matcher(String.valueOf((char) i)).matches();
+            }
+        }
+
+        @Override
+        boolean matches(final int codePoint) {
+            return codePoint < ASCII ? ascii[codePoint] : pattern.matcher(new String(Character.toChars(codePoint)))
+                    .matches();
+        }
+    }
+
+    /**
+     * Thrown when the expression uses an unsupported construct.
+     */
+    private static final class UnsupportedRegexException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedRegexException(final String message, final int offset) {
+            super(message + " at offset " + offset);
+        }
+    }
+
+    /**
+     * Builder of NFA states. Each state either consumes a code point matched by its atom and moves to {@code out},
+     * or is an epsilon split to {@code out} and {@code out1}, or is the final state.
+     */
+    private static final class NfaBuilder {
+        final List<Atom> atoms = new ArrayList<>();
+        final List<int[]> outs = new ArrayList<>();
+
+        int add(final Atom atom, final int out, final int out1) {
+            if (atoms.size() >= MAX_NFA_STATES) {
+                return -1;
+            }
+            atoms.add(atom);
+            outs.add(new int[] { out, out1 });
+            return atoms.size() - 1;
+        }
+    }
+
+    /**
+     * NFA fragment. States listed in {@code dangling} have unset outputs, which are patched when the fragment is
+     * concatenated. Each entry encodes a state and the index of its output.
+     */
+    private static final class Fragment {
+        final int start;
+        final List<int[]> dangling;
+
+        Fragment(final int start, final List<int[]> dangling) {
+            this.start = start;
+            this.dangling = dangling;
+        }
+    }
+
+    /**
+     * Unparsed expression tree, which is instantiated into NFA fragments. Quantified subexpressions need to be
+     * instantiated multiple times.
+     */
+    private abstract static class Node {
+        abstract Fragment build(NfaBuilder nfa) throws UnsupportedRegexException;
+    }
+
+    private static final class AtomNode extends Node {
+        private final Atom atom;
+
+        AtomNode(final Atom atom) {
+            this.atom = atom;
+        }
+
+        @Override
+        Fragment build(final NfaBuilder nfa) throws UnsupportedRegexException {
+            final int state = checkState(nfa.add(atom, -1, -1));
+            return new Fragment(state, dangling(state, 0));
+        }
+    }
+
+    private static final class SequenceNode extends Node {
+        private final List<Node> nodes;
+
+        SequenceNode(final List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        Fragment build(final NfaBuilder nfa) throws UnsupportedRegexException {
+            if (nodes.isEmpty()) {
+                return empty(nfa);
+            }
+
+            Fragment ret = nodes.get(0).build(nfa);
+            for (Node node : nodes.subList(1, nodes.size())) {
+                final Fragment next = node.build(nfa);
+                patch(nfa, ret.dangling, next.start);
+                ret = new Fragment(ret.start, next.dangling);
+            }
+            return ret;
+        }
+    }
+
+    private static final class AlternativeNode extends Node {
+        private final List<Node> alternatives;
+
+        AlternativeNode(final List<Node> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        @Override
+        Fragment build(final NfaBuilder nfa) throws UnsupportedRegexException {
+            Fragment ret = alternatives.get(0).build(nfa);
+            for (Node alternative : alternatives.subList(1, alternatives.size())) {
+                final Fragment next = alternative.build(nfa);
+                final int split = checkState(nfa.add(null, ret.start, next.start));
+                final List<int[]> dangling = new ArrayList<>(ret.dangling);
+                dangling.addAll(next.dangling);
+                ret = new Fragment(split, dangling);
+            }
+            return ret;
+        }
+    }
+
+    private static final class RepeatNode extends Node {
+        private final Node node;
+        private final int min;
+        // -1 for unbounded
+        private final int max;
+
+        RepeatNode(final Node node, final int min, final int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        Fragment build(final NfaBuilder nfa) throws UnsupportedRegexException {
+            final List<Node> parts = new ArrayList<>();
+            for (int i = 0; i < min; ++i) {
+                parts.add(node);
+            }
+
+            Fragment ret = new SequenceNode(parts).build(nfa);
+            if (max == -1) {
+                // Kleene star of the node
+                final Fragment loop = node.build(nfa);
+                final int split = checkState(nfa.add(null, loop.start, -1));
+                patch(nfa, loop.dangling, split);
+                patch(nfa, ret.dangling, split);
+                return new Fragment(ret.start, dangling(split, 1));
+            }
+
+            for (int i = min; i < max; ++i) {
+                // Optional copy of the node
+                final Fragment opt = node.build(nfa);
+                final int split = checkState(nfa.add(null, opt.start, -1));
+                patch(nfa, ret.dangling, split);
+                final List<int[]> dangling = new ArrayList<>(opt.dangling);
+                dangling.add(new int[] { split, 1 });
+                ret = new Fragment(ret.start, dangling);
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * Recursive-descent parser of the supported syntax subset.
+     */
+    private static final class Parser {
+        private final String regex;
+        private int offset;
+
+        Parser(final String regex) {
+            this.regex = regex;
+        }
+
+        Node parse() throws UnsupportedRegexException {
+            // Anchors are meaningless when matching the entire input
+            while (offset < regex.length() && regex.charAt(offset) == '^') {
+                offset++;
+            }
+
+            final Node ret = parseAlternative();
+            while (offset < regex.length() && regex.charAt(offset) == '$') {
+                offset++;
+            }
+            if (offset != regex.length()) {
+                throw new UnsupportedRegexException("Unexpected character " + regex.charAt(offset), offset);
+            }
+            return ret;
+        }
+
+        private Node parseAlternative() throws UnsupportedRegexException {
+            final List<Node> alternatives = new ArrayList<>();
+            alternatives.add(parseSequence());
+            while (offset < regex.length() && regex.charAt(offset) == '|') {
+                offset++;
+                alternatives.add(parseSequence());
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : new AlternativeNode(alternatives);
+        }
+
+        private Node parseSequence() throws UnsupportedRegexException {
+            final List<Node> nodes = new ArrayList<>();
+            while (offset < regex.length()) {
+                final char ch = regex.charAt(offset);
+                if (ch == '|' || ch == ')' || ch == '$' && isTrailingAnchor()) {
+                    break;
+                }
+                nodes.add(parseQuantifier(parseAtom()));
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new SequenceNode(nodes);
+        }
+
+        private boolean isTrailingAnchor() {
+            for (int i = offset; i < regex.length(); ++i) {
+                if (regex.charAt(i) != '$') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Node parseAtom() throws UnsupportedRegexException {
+            final char ch = regex.charAt(offset);
+            switch (ch) {
+            case '(':
+                offset++;
+                if (regex.startsWith("?:", offset)) {
+                    offset += 2;
+                } else if (regex.startsWith("?", offset)) {
+                    throw new UnsupportedRegexException("Unsupported group construct", offset);
+                }
+                final Node ret = parseAlternative();
+                if (offset >= regex.length() || regex.charAt(offset) != ')') {
+                    throw new UnsupportedRegexException("Unterminated group", offset);
+                }
+                offset++;
+                return ret;
+            case '[':
+                return new AtomNode(new ClassAtom(regex.substring(offset, offset = classEnd())));
+            case '.':
+                offset++;
+                return new AtomNode(new ClassAtom("."));
+            case '\\':
+                return new AtomNode(parseEscape());
+            case '^':
+            case '$':
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw new UnsupportedRegexException("Unsupported use of " + ch, offset);
+            default:
+                final int codePoint = regex.codePointAt(offset);
+                offset += Character.charCount(codePoint);
+                return new AtomNode(new LiteralAtom(codePoint));
+            }
+        }
+
+        private Atom parseEscape() throws UnsupportedRegexException {
+            final int start = offset;
+            if (offset + 1 >= regex.length()) {
+                throw new UnsupportedRegexException("Trailing backslash", offset);
+            }
+
+            final char ch = regex.charAt(offset + 1);
+            offset += 2;
+            switch (ch) {
+            case 'd':
+            case 'D':
+            case 's':
+            case 'S':
+            case 'w':
+            case 'W':
+            case 't':
+            case 'n':
+            case 'r':
+            case 'f':
+            case 'a':
+            case 'e':
+                return new ClassAtom(regex.substring(start, offset));
+            case 'p':
+            case 'P':
+                if (offset < regex.length() && regex.charAt(offset) == '{') {
+                    final int end = regex.indexOf('}', offset);
+                    if (end == -1) {
+                        throw new UnsupportedRegexException("Unterminated property", offset);
+                    }
+                    offset = end + 1;
+                } else {
+                    offset++;
+                }
+                return escapeAtom(start);
+            case 'u':
+                offset += 4;
+                return escapeAtom(start);
+            case 'x':
+                if (offset < regex.length() && regex.charAt(offset) == '{') {
+                    throw new UnsupportedRegexException("Unsupported hexadecimal escape", offset);
+                }
+                offset += 2;
+                return escapeAtom(start);
+            default:
+                if (Character.isLetterOrDigit(ch) || ch >= ASCII) {
+                    // Back references, boundaries, quoting and other constructs
+                    throw new UnsupportedRegexException("Unsupported escape \\" + ch, start);
+                }
+                return new LiteralAtom(ch);
+            }
+        }
+
+        private Atom escapeAtom(final int start) throws UnsupportedRegexException {
+            if (offset > regex.length()) {
+                throw new UnsupportedRegexException("Truncated escape", start);
+            }
+            return new ClassAtom(regex.substring(start, offset));
+        }
+
+        /**
+         * Find the end of a character class starting at current offset. Classes are evaluated by {@link Pattern},
+         * we only need to make sure we find the same end as it does.
+         */
+        private int classEnd() throws UnsupportedRegexException {
+            int i = offset + 1;
+            if (i < regex.length() && regex.charAt(i) == '^') {
+                i++;
+            }
+            if (i < regex.length() && regex.charAt(i) == ']') {
+                throw new UnsupportedRegexException("Unsupported leading bracket in class", i);
+            }
+
+            while (i < regex.length()) {
+                final char ch = regex.charAt(i);
+                switch (ch) {
+                case ']':
+                    return i + 1;
+                case '[':
+                    throw new UnsupportedRegexException("Unsupported nested class", i);
+                case '&':
+                    if (regex.startsWith("&&", i)) {
+                        throw new UnsupportedRegexException("Unsupported class intersection", i);
+                    }
+                    i++;
+                    break;
+                case '\\':
+                    if (i + 1 >= regex.length()) {
+                        throw new UnsupportedRegexException("Trailing backslash", i);
+                    }
+                    final char escaped = regex.charAt(i + 1);
+                    if (escaped == 'Q' || escaped == 'x' && regex.startsWith("{", i + 2)) {
+                        throw new UnsupportedRegexException("Unsupported escape in class", i);
+                    }
+                    if ((escaped == 'p' || escaped == 'P') && regex.startsWith("{", i + 2)) {
+                        final int end = regex.indexOf('}', i + 2);
+                        if (end == -1) {
+                            throw new UnsupportedRegexException("Unterminated property", i);
+                        }
+                        i = end + 1;
+                    } else {
+                        i += 2;
+                    }
+                    break;
+                default:
+                    i++;
+                }
+            }
+
+            throw new UnsupportedRegexException("Unterminated class", offset);
+        }
+
+        private Node parseQuantifier(final Node node) throws UnsupportedRegexException {
+            if (offset >= regex.length()) {
+                return node;
+            }
+
+            final int min;
+            final int max;
+            switch (regex.charAt(offset)) {
+            case '*':
+                offset++;
+                min = 0;
+                max = -1;
+                break;
+            case '+':
+                offset++;
+                min = 1;
+                max = -1;
+                break;
+            case '?':
+                offset++;
+                min = 0;
+                max = 1;
+                break;
+            case '{':
+                final int end = regex.indexOf('}', offset);
+                if (end == -1) {
+                    throw new UnsupportedRegexException("Unterminated quantifier", offset);
+                }
+                final String spec = regex.substring(offset + 1, end);
+                final int comma = spec.indexOf(',');
+                try {
+                    if (comma == -1) {
+                        min = Integer.parseInt(spec);
+                        max = min;
+                    } else {
+                        min = Integer.parseInt(spec.substring(0, comma));
+                        max = comma == spec.length() - 1 ? -1 : Integer.parseInt(spec.substring(comma + 1));
+                    }
+                } catch (NumberFormatException e) {
+                    throw new UnsupportedRegexException("Invalid quantifier " + spec, offset);
+                }
+                if (min < 0 || max != -1 && max < min || Math.max(min, max) > MAX_NFA_STATES) {
+                    throw new UnsupportedRegexException("Unsupported quantifier " + spec, offset);
+                }
+                offset = end + 1;
+                break;
+            default:
+                return node;
+            }
+
+            if (offset < regex.length()) {
+                final char next = regex.charAt(offset);
+                if (next == '?' || next == '+') {
+                    throw new UnsupportedRegexException("Unsupported reluctant or possessive quantifier", offset);
+                }
+                if (next == '*' || next == '{') {
+                    throw new UnsupportedRegexException("Unsupported nested quantifier", offset);
+                }
+            }
+            return new RepeatNode(node, min, max);
+        }
+    }
+
+    /**
+     * A DFA state, which is a set of NFA states which consume a code point, plus whether the final NFA state is
+     * part of the set. Transitions are computed lazily.
+     */
+    private static final class DfaState {
+        final int[] states;
+        final boolean accepting;
+        final AtomicReferenceArray<DfaState> ascii = new AtomicReferenceArray<>(ASCII);
+        final ConcurrentMap<Integer, DfaState> other = new ConcurrentHashMap<>();
+
+        DfaState(final int[] states, final boolean accepting) {
+            this.states = states;
+            this.accepting = accepting;
+        }
+
+        boolean isDead() {
+            return states.length == 0 && !accepting;
+        }
+    }
+
+    private final ConcurrentMap<List<Integer>, DfaState> dfaStates = new ConcurrentHashMap<>();
+    private final AtomicInteger otherEdges = new AtomicInteger();
+    private final Atom[] atoms;
+    private final int[] out;
+    private final int[] out1;
+    private final int finalState;
+    private final DfaState initial;
+    private final String regex;
+
+    private RegexAutomaton(final String regex, final NfaBuilder nfa, final int start, final int finalState) {
+        this.regex = regex;
+        this.finalState = finalState;
+        final int size = nfa.atoms.size();
+        atoms = nfa.atoms.toArray(new Atom[size]);
+        out = new int[size];
+        out1 = new int[size];
+        for (int i = 0; i < size; ++i) {
+            out[i] = nfa.outs.get(i)[0];
+            out1[i] = nfa.outs.get(i)[1];
+        }
+
+        final BitSet set = new BitSet(size);
+        addClosure(set, start);
+        initial = state(set);
+    }
+
+    /**
+     * Compile a regular expression.
+     *
+     * @param regex Regular expression in {@link Pattern} syntax
+     * @return An automaton, or absent if the expression uses unsupported constructs
+     */
+    static Optional<RegexAutomaton> compile(final String regex) {
+        final NfaBuilder nfa = new NfaBuilder();
+        try {
+            final Fragment fragment = new Parser(regex).parse().build(nfa);
+            final int finalState = checkState(nfa.add(null, -1, -1));
+            patch(nfa, fragment.dangling, finalState);
+            return Optional.of(new RegexAutomaton(regex, nfa, fragment.start, finalState));
+        } catch (UnsupportedRegexException | PatternSyntaxException e) {
+            LOG.debug("Regular expression {} cannot be compiled to an automaton", regex, e);
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * Check whether the entire input matches the expression.
+     *
+     * @param input Input string
+     * @return True if the input matches
+     */
+    boolean matches(final CharSequence input) {
+        DfaState current = initial;
+        for (int i = 0; i < input.length(); ) {
+            final int codePoint = Character.codePointAt(input, i);
+            i += Character.charCount(codePoint);
+            current = next(current, codePoint);
+            if (current.isDead()) {
+                return false;
+            }
+        }
+        return current.accepting;
+    }
+
+    private DfaState next(final DfaState current, final int codePoint) {
+        DfaState ret = codePoint < ASCII ? current.ascii.get(codePoint) : current.other.get(codePoint);
+        if (ret == null) {
+            final BitSet set = new BitSet(atoms.length);
+            for (int state : current.states) {
+                if (atoms[state].matches(codePoint)) {
+                    addClosure(set, out[state]);
+                }
+            }
+
+            ret = state(set);
+            if (dfaStates.size() < MAX_DFA_STATES) {
+                if (codePoint < ASCII) {
+                    current.ascii.set(codePoint, ret);
+                } else if (otherEdges.get() < MAX_OTHER_EDGES && current.other.putIfAbsent(codePoint, ret) == null) {
+                    otherEdges.incrementAndGet();
+                }
+            }
+        }
+        return ret;
+    }
+
+    @VisibleForTesting
+    int otherEdgeCount() {
+        return otherEdges.get();
+    }
+
+    private DfaState state(final BitSet set) {
+        final int[] states = set.stream().filter(s -> atoms[s] != null).toArray();
+        final boolean accepting = set.get(finalState);
+        if (dfaStates.size() >= MAX_DFA_STATES) {
+            // Cache is full, simulate the NFA
+            final DfaState existing = dfaStates.get(key(states, accepting));
+            return existing != null ? existing : new DfaState(states, accepting);
+        }
+        return dfaStates.computeIfAbsent(key(states, accepting), k -> new DfaState(states, accepting));
+    }
+
+    private static List<Integer> key(final int[] states, final boolean accepting) {
+        final Integer[] ret = new Integer[states.length + 1];
+        for (int i = 0; i < states.length; ++i) {
+            ret[i] = states[i];
+        }
+        ret[states.length] = accepting ? 1 : 0;
+        return Arrays.asList(ret);
+    }
+
+    /**
+     * Add a state and all states reachable from it via epsilon transitions.
+     */
+    private void addClosure(final BitSet set, final int state) {
+        if (state == -1 || set.get(state)) {
+            return;
+        }
+        set.set(state);
+        if (atoms[state] == null && state != finalState) {
+            addClosure(set, out[state]);
+            addClosure(set, out1[state]);
+        }
+    }
+
+    private static int checkState(final int state) throws UnsupportedRegexException {
+        if (state == -1) {
+            throw new UnsupportedRegexException("Expression is too large", 0);
+        }
+        return state;
+    }
+
+    private static List<int[]> dangling(final int state, final int index) {
+        final List<int[]> ret = new ArrayList<>(1);
+        ret.add(new int[] { state, index });
+        return ret;
+    }
+
+    private static Fragment empty(final NfaBuilder nfa) throws UnsupportedRegexException {
+        final int split = checkState(nfa.add(null, -1, -1));
+        return new Fragment(split, dangling(split, 0));
+    }
+
+    private static void patch(final NfaBuilder nfa, final List<int[]> dangling, final int target) {
+        for (int[] entry : dangling) {
+            nfa.outs.get(entry[0])[entry[1]] = target;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RegexAutomaton{regex=" + regex + ", nfaStates=" + atoms.length + ", dfaStates=" + dfaStates.size()
+                + ", otherEdges=" + otherEdges.get() + "}";
+    }
+}
@@ -16,12 +16,12 @@ import org.opendaylight.yangtools.yang.model.api.type.UnsignedIntegerTypeDefinit
 final class Uint16StringCodec extends AbstractIntegerStringCodec<Integer, UnsignedIntegerTypeDefinition> implements
         Uint16Codec<String> {
     Uint16StringCodec(final Optional<UnsignedIntegerTypeDefinition> typeDef) {
-        super(typeDef, extractRange(typeDef.orNull()), Integer.class);
+        super(typeDef, extractRange(typeDef.orNull()), Integer.class, Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
     @Override
-    public Integer deserialize(final String stringRepresentation, final int base) {
-        return Integer.valueOf(stringRepresentation, base);
+    protected Integer valueOf(final long value) {
+        return Integer.valueOf((int) value);
     }
 
     @Override
@@ -17,12 +17,12 @@ final class Uint32StringCodec extends AbstractIntegerStringCodec<Long, UnsignedI
         Uint32Codec<String> {
 
     Uint32StringCodec(final Optional<UnsignedIntegerTypeDefinition> typeDef) {
-        super(typeDef, extractRange(typeDef.orNull()), Long.class);
+        super(typeDef, extractRange(typeDef.orNull()), Long.class, Long.MIN_VALUE, Long.MAX_VALUE);
     }
 
     @Override
-    public Long deserialize(final String stringRepresentation, final int base) {
-        return Long.valueOf(stringRepresentation, base);
+    protected Long valueOf(final long value) {
+        return Long.valueOf(value);
     }
 
     @Override
@@ -17,13 +17,16 @@ import org.opendaylight.yangtools.yang.model.api.type.UnsignedIntegerTypeDefinit
 final class Uint64StringCodec extends AbstractIntegerStringCodec<BigInteger, UnsignedIntegerTypeDefinition> implements
         Uint64Codec<String> {
 
+    private static final BigInteger UNSIGNED_OFFSET = BigInteger.ONE.shiftLeft(Long.SIZE);
+
     Uint64StringCodec(final Optional<UnsignedIntegerTypeDefinition> typeDef) {
         super(typeDef, extractRange(typeDef.orNull()), BigInteger.class);
     }
 
     @Override
-    public BigInteger deserialize(final String stringRepresentation, final int base) {
-        return new BigInteger(stringRepresentation, base);
+    protected BigInteger valueOf(final long value) {
+        final BigInteger ret = BigInteger.valueOf(value);
+        return value >= 0 ? ret : ret.add(UNSIGNED_OFFSET);
     }
 
     @Override
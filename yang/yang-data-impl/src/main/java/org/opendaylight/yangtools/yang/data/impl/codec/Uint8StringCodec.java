@@ -17,7 +17,7 @@ final class Uint8StringCodec extends AbstractIntegerStringCodec<Short, UnsignedI
         Uint8Codec<String> {
 
     Uint8StringCodec(final Optional<UnsignedIntegerTypeDefinition> typeDef) {
-        super(typeDef, extractRange(typeDef.orNull()), Short.class);
+        super(typeDef, extractRange(typeDef.orNull()), Short.class, Short.MIN_VALUE, Short.MAX_VALUE);
     }
 
     @Override
@@ -26,8 +26,8 @@ final class Uint8StringCodec extends AbstractIntegerStringCodec<Short, UnsignedI
     }
 
     @Override
-    public Short deserialize(final String stringRepresentation, final int base) {
-        return Short.valueOf(stringRepresentation, base);
+    protected Short valueOf(final long value) {
+        return Short.valueOf((short) value);
     }
 
     @Override
@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.leafref;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multiset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.AugmentationNode;
+import org.opendaylight.yangtools.yang.data.api.schema.ChoiceNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Leafref validator which maintains indexes of the data it has seen, so that validating a {@link DataTreeCandidate}
+ * costs time proportional to the size of the candidate rather than the size of the data tree.
+ *
+ * <p>
+ * For each leafref target path the validator keeps counts of the values present in the data tree, and a reverse
+ * index of leafref nodes referring to each value. A candidate is validated by checking leafref nodes it writes against
+ * the value counts and checking referrers of target values which it removes. Leafrefs with path predicates depend on
+ * other nodes than their source and target, hence candidates touching them, their targets or any of the nodes their
+ * predicates refer to are validated by {@link LeafRefValidatation}.
+ *
+ * <p>
+ * Each candidate is expected to be validated via {@link #validate(DataTreeCandidate)} and, once it has been applied
+ * to the data tree, reported via {@link #commit(DataTreeCandidate)}. Instances are not thread-safe, callers are
+ * expected to serialize access, just as they serialize commits to the data tree.
+ */
+@Beta
+public final class IncrementalLeafRefValidator {
+    private static final Logger LOG = LoggerFactory.getLogger(IncrementalLeafRefValidator.class);
+
+    /**
+     * Values present at a particular leafref target path and the leafref nodes referring to them.
+     */
+    private static final class Target {
+        private final Multiset<Object> values = HashMultiset.create();
+        private final Multimap<Object, YangInstanceIdentifier> referrers = HashMultimap.create();
+        private final List<QName> path;
+        private boolean predicatedReferrers;
+
+        Target(final List<QName> path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * A leafref pointing to a target.
+     */
+    private static final class Reference {
+        private final Target target;
+        private final boolean predicated;
+
+        Reference(final Target target, final boolean predicated) {
+            this.target = target;
+            this.predicated = predicated;
+        }
+    }
+
+    /**
+     * Node of the schema trie, indexed by QNames of data nodes. Choices, cases and augmentations are transparent.
+     */
+    private static final class IndexNode {
+        private final Map<QName, IndexNode> children = new HashMap<>();
+        private Target target;
+        private Reference reference;
+        // Node is referenced from a leafref path predicate, either as a key or as a path key expression
+        private boolean predicateInput;
+
+        IndexNode ensureChild(final QName qname) {
+            IndexNode child = children.get(qname);
+            if (child == null) {
+                child = new IndexNode();
+                children.put(qname, child);
+            }
+            return child;
+        }
+    }
+
+    /**
+     * Changes a candidate makes to a single target.
+     */
+    private static final class TargetDelta {
+        private final Multiset<Object> addedValues = HashMultiset.create();
+        private final Multiset<Object> removedValues = HashMultiset.create();
+        private final Multimap<Object, YangInstanceIdentifier> addedReferrers = HashMultimap.create();
+        private final Multimap<Object, YangInstanceIdentifier> removedReferrers = HashMultimap.create();
+
+        int countAfter(final Target target, final Object value) {
+            return target.values.count(value) - removedValues.count(value) + addedValues.count(value);
+        }
+    }
+
+    /**
+     * Changes a candidate makes to all targets.
+     */
+    private static final class Delta {
+        private final Map<Target, TargetDelta> targets = new HashMap<>();
+        private boolean predicated;
+
+        TargetDelta forTarget(final Target target) {
+            TargetDelta ret = targets.get(target);
+            if (ret == null) {
+                ret = new TargetDelta();
+                targets.put(target, ret);
+            }
+            return ret;
+        }
+
+        void record(final IndexNode index, final Object value, final YangInstanceIdentifier path,
+                final boolean added) {
+            predicated |= index.predicateInput;
+            if (index.target != null) {
+                final TargetDelta delta = forTarget(index.target);
+                if (added) {
+                    delta.addedValues.add(value);
+                } else {
+                    delta.removedValues.add(value);
+                    predicated |= index.target.predicatedReferrers;
+                }
+            }
+            if (index.reference != null) {
+                final TargetDelta delta = forTarget(index.reference.target);
+                if (added) {
+                    delta.addedReferrers.put(value, path);
+                    predicated |= index.reference.predicated;
+                } else {
+                    delta.removedReferrers.put(value, path);
+                }
+            }
+        }
+    }
+
+    private final LeafRefContext rootLeafRefCtx;
+    private final IndexNode root;
+
+    private IncrementalLeafRefValidator(final LeafRefContext rootLeafRefCtx, final IndexNode root) {
+        this.rootLeafRefCtx = rootLeafRefCtx;
+        this.root = root;
+    }
+
+    /**
+     * Create a validator for an empty data tree.
+     *
+     * @param rootLeafRefCtx Root leafref context
+     * @return A new validator
+     */
+    public static IncrementalLeafRefValidator create(final LeafRefContext rootLeafRefCtx) {
+        final IndexNode root = new IndexNode();
+        addReferencingNodes(rootLeafRefCtx, root, new HashMap<>());
+        return new IncrementalLeafRefValidator(rootLeafRefCtx, root);
+    }
+
+    /**
+     * Create a validator for a data tree with existing data. The data is indexed, but not validated.
+     *
+     * @param rootLeafRefCtx Root leafref context
+     * @param rootData Data tree root node
+     * @return A new validator
+     */
+    public static IncrementalLeafRefValidator create(final LeafRefContext rootLeafRefCtx,
+            final NormalizedNode<?, ?> rootData) {
+        final IncrementalLeafRefValidator ret = create(rootLeafRefCtx);
+        final Delta delta = new Delta();
+        collectChildren(delta, ret.root, YangInstanceIdentifier.EMPTY, rootData, true);
+        apply(delta);
+        return ret;
+    }
+
+    private static void addReferencingNodes(final LeafRefContext ctx, final IndexNode root,
+            final Map<List<QName>, Target> targets) {
+        for (final LeafRefContext child : ctx.getReferencingChilds().values()) {
+            if (child.isReferencing()) {
+                addReference(child, root, targets);
+            }
+            addReferencingNodes(child, root, targets);
+        }
+    }
+
+    private static void addReference(final LeafRefContext ctx, final IndexNode root,
+            final Map<List<QName>, Target> targets) {
+        final List<QName> sourcePath = new ArrayList<>();
+        for (final QNameWithPredicate qname : LeafRefUtils.schemaPathToLeafRefPath(ctx.getCurrentNodePath(),
+                ctx.getLeafRefContextModule()).getPathFromRoot()) {
+            sourcePath.add(qname.getQName());
+        }
+
+        final ImmutableList.Builder<QName> builder = ImmutableList.builder();
+        IndexNode stepNode = root;
+        boolean predicated = false;
+        for (final QNameWithPredicate qname : ctx.getAbsoluteLeafRefTargetPath().getPathFromRoot()) {
+            builder.add(qname.getQName());
+            stepNode = stepNode.ensureChild(qname.getQName());
+            for (final QNamePredicate predicate : qname.getQNamePredicates()) {
+                predicated = true;
+                stepNode.ensureChild(predicate.getIdentifier()).predicateInput = true;
+                addPredicateInput(root, sourcePath, predicate.getPathKeyExpression());
+            }
+        }
+
+        final List<QName> targetPath = builder.build();
+        Target target = targets.get(targetPath);
+        if (target == null) {
+            target = new Target(targetPath);
+            targets.put(targetPath, target);
+
+            IndexNode targetNode = root;
+            for (final QName qname : targetPath) {
+                targetNode = targetNode.ensureChild(qname);
+            }
+            targetNode.target = target;
+        }
+        target.predicatedReferrers |= predicated;
+
+        IndexNode sourceNode = root;
+        for (final QName qname : sourcePath) {
+            sourceNode = sourceNode.ensureChild(qname);
+        }
+        sourceNode.reference = new Reference(target, predicated);
+    }
+
+    /**
+     * Mark the node a predicate path key expression resolves to. The expression is relative to the leafref node,
+     * its leading '..' steps walk up from the leafref node itself.
+     */
+    private static void addPredicateInput(final IndexNode root, final List<QName> sourcePath,
+            final LeafRefPath keyExpression) {
+        final List<QName> inputPath = new ArrayList<>(sourcePath);
+        for (final QNameWithPredicate qname : keyExpression.getPathFromRoot()) {
+            if (qname.equals(QNameWithPredicate.UP_PARENT)) {
+                if (inputPath.isEmpty()) {
+                    LOG.debug("Predicate path {} escapes data tree root from {}", keyExpression, sourcePath);
+                    return;
+                }
+                inputPath.remove(inputPath.size() - 1);
+            } else {
+                inputPath.add(qname.getQName());
+            }
+        }
+
+        IndexNode inputNode = root;
+        for (final QName qname : inputPath) {
+            inputNode = inputNode.ensureChild(qname);
+        }
+        inputNode.predicateInput = true;
+    }
+
+    /**
+     * Validate leafrefs affected by a candidate.
+     *
+     * @param candidate Data tree candidate
+     * @throws LeafRefDataValidationFailedException if the candidate would leave a leafref without its target
+     */
+    public void validate(final DataTreeCandidate candidate) throws LeafRefDataValidationFailedException {
+        final Delta delta = computeDelta(candidate);
+        if (delta.predicated) {
+            LOG.debug("Candidate at {} touches leafrefs with predicates, performing full validation",
+                candidate.getRootPath());
+            final Optional<NormalizedNode<?, ?>> after = candidate.getRootNode().getDataAfter();
+            if (candidate.getRootPath().isEmpty() && after.isPresent()) {
+                // A change to a predicate input can invalidate leafrefs outside of the candidate's modified subtrees
+                LeafRefValidatation.validateReferences(after.get(), rootLeafRefCtx);
+            } else {
+                LeafRefValidatation.validate(candidate, rootLeafRefCtx);
+            }
+            return;
+        }
+
+        final List<String> errors = new ArrayList<>();
+        for (final Entry<Target, TargetDelta> e : delta.targets.entrySet()) {
+            final Target target = e.getKey();
+            final TargetDelta targetDelta = e.getValue();
+
+            for (final Entry<Object, YangInstanceIdentifier> referrer : targetDelta.addedReferrers.entries()) {
+                if (targetDelta.countAfter(target, referrer.getKey()) <= 0) {
+                    errors.add(String.format("Invalid leafref value [%s] of LEAFREF node: %s leafRef target path: %s",
+                        referrer.getKey(), referrer.getValue(), target.path));
+                }
+            }
+
+            for (final Object value : targetDelta.removedValues.elementSet()) {
+                if (targetDelta.countAfter(target, value) > 0) {
+                    continue;
+                }
+                for (final YangInstanceIdentifier referrer : target.referrers.get(value)) {
+                    if (!targetDelta.removedReferrers.containsEntry(value, referrer)) {
+                        errors.add(String.format("Invalid leafref value [%s] of LEAFREF node: %s by removal of "
+                                + "leafref TARGET values at: %s", value, referrer, target.path));
+                    }
+                }
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            final StringBuilder message = new StringBuilder();
+            for (final String error : errors) {
+                message.append(error);
+            }
+            throw new LeafRefDataValidationFailedException(message.toString(), errors.size());
+        }
+    }
+
+    /**
+     * Update indexes with the changes of a candidate which has been applied to the data tree.
+     *
+     * @param candidate Committed data tree candidate
+     */
+    public void commit(final DataTreeCandidate candidate) {
+        apply(computeDelta(candidate));
+    }
+
+    private static void apply(final Delta delta) {
+        for (final Entry<Target, TargetDelta> e : delta.targets.entrySet()) {
+            final Target target = e.getKey();
+            final TargetDelta targetDelta = e.getValue();
+
+            for (final Multiset.Entry<Object> value : targetDelta.removedValues.entrySet()) {
+                target.values.remove(value.getElement(), value.getCount());
+            }
+            for (final Multiset.Entry<Object> value : targetDelta.addedValues.entrySet()) {
+                target.values.add(value.getElement(), value.getCount());
+            }
+            for (final Entry<Object, YangInstanceIdentifier> referrer : targetDelta.removedReferrers.entries()) {
+                target.referrers.remove(referrer.getKey(), referrer.getValue());
+            }
+            target.referrers.putAll(targetDelta.addedReferrers);
+        }
+    }
+
+    private Delta computeDelta(final DataTreeCandidate candidate) {
+        final Delta delta = new Delta();
+        IndexNode index = root;
+        for (final PathArgument arg : candidate.getRootPath().getPathArguments()) {
+            index = childIndex(index, arg);
+            if (index == null) {
+                LOG.debug("Candidate at {} does not affect any leafrefs", candidate.getRootPath());
+                return delta;
+            }
+        }
+
+        processNode(delta, index, candidate.getRootPath(), candidate.getRootNode());
+        return delta;
+    }
+
+    private static IndexNode childIndex(final IndexNode index, final PathArgument arg) {
+        if (!(arg instanceof NodeIdentifier)) {
+            // Augmentations and entries of lists and leaf-lists share their index with their parent
+            return index;
+        }
+        return index.children.get(arg.getNodeType());
+    }
+
+    private static IndexNode childIndex(final IndexNode index, final NormalizedNode<?, ?> data) {
+        if (data instanceof ChoiceNode || data instanceof AugmentationNode || data instanceof MapEntryNode
+                || data instanceof UnkeyedListEntryNode || data instanceof LeafSetEntryNode) {
+            return index;
+        }
+        return index.children.get(data.getNodeType());
+    }
+
+    private static void processNode(final Delta delta, final IndexNode index, final YangInstanceIdentifier path,
+            final DataTreeCandidateNode node) {
+        final Optional<NormalizedNode<?, ?>> before = node.getDataBefore();
+        final Optional<NormalizedNode<?, ?>> after = node.getDataAfter();
+        if (before.isPresent() && after.isPresent() && before.get() instanceof NormalizedNodeContainer
+                && after.get() instanceof NormalizedNodeContainer) {
+            // Both states are present, descend into modified children only
+            for (final DataTreeCandidateNode child : node.getChildNodes()) {
+                if (child.getModificationType() != ModificationType.UNMODIFIED) {
+                    final IndexNode childIndex = childIndex(index, child.getDataAfter().or(child.getDataBefore()).get());
+                    if (childIndex != null) {
+                        processNode(delta, childIndex, path.node(child.getIdentifier()), child);
+                    }
+                }
+            }
+            return;
+        }
+
+        if (before.isPresent()) {
+            collect(delta, index, path, before.get(), false);
+        }
+        if (after.isPresent()) {
+            collect(delta, index, path, after.get(), true);
+        }
+    }
+
+    private static void collect(final Delta delta, final IndexNode index, final YangInstanceIdentifier path,
+            final NormalizedNode<?, ?> data, final boolean added) {
+        if (data instanceof LeafNode || data instanceof LeafSetEntryNode) {
+            delta.record(index, data.getValue(), path, added);
+        } else {
+            collectChildren(delta, index, path, data, added);
+        }
+    }
+
+    private static void collectChildren(final Delta delta, final IndexNode index, final YangInstanceIdentifier path,
+            final NormalizedNode<?, ?> data, final boolean added) {
+        if (data instanceof DataContainerNode) {
+            for (final DataContainerChild<? extends PathArgument, ?> child : ((DataContainerNode<?>) data).getValue()) {
+                final IndexNode childIndex = childIndex(index, child);
+                if (childIndex != null) {
+                    collect(delta, childIndex, path.node(child.getIdentifier()), child, added);
+                }
+            }
+        } else if (data instanceof NormalizedNodeContainer) {
+            // Lists and leaf-lists: entries share the index of the list
+            if (index.children.isEmpty() && index.target == null && index.reference == null
+                    && !index.predicateInput) {
+                return;
+            }
+            for (final NormalizedNode<?, ?> entry : ((NormalizedNodeContainer<?, ?, ?>) data).getValue()) {
+                collect(delta, index, path.node(entry.getIdentifier()), entry, added);
+            }
+        }
+    }
+}
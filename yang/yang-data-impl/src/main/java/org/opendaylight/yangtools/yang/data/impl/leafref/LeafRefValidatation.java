@@ -35,6 +35,7 @@ import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
 import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListEntryNode;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidates;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
 import org.opendaylight.yangtools.yang.model.api.SchemaPath;
 import org.slf4j.Logger;
@@ -49,14 +50,30 @@ public class LeafRefValidatation {
     private final Set<LeafRefContext> validatedLeafRefCtx = new HashSet<>();
     private final List<String> errorsMessages = new ArrayList<>();
     private final DataTreeCandidate tree;
+    private final boolean validateTargets;
 
-    private LeafRefValidatation(final DataTreeCandidate tree) {
+    private LeafRefValidatation(final DataTreeCandidate tree, final boolean validateTargets) {
         this.tree = tree;
+        this.validateTargets = validateTargets;
     }
 
     public static void validate(final DataTreeCandidate tree, final LeafRefContext rootLeafRefCtx)
             throws LeafRefDataValidationFailedException {
-        new LeafRefValidatation(tree).validate0(rootLeafRefCtx);
+        new LeafRefValidatation(tree, true).validate0(rootLeafRefCtx);
+    }
+
+    /**
+     * Validate all leafrefs present in a data tree. Only leafref nodes are checked, as each of them is reported when
+     * its target is missing, checking target nodes would report the same leafrefs again.
+     *
+     * @param root Data tree root node
+     * @param rootLeafRefCtx Root leafref context
+     * @throws LeafRefDataValidationFailedException if some leafref is missing its target
+     */
+    static void validateReferences(final NormalizedNode<?, ?> root, final LeafRefContext rootLeafRefCtx)
+            throws LeafRefDataValidationFailedException {
+        new LeafRefValidatation(DataTreeCandidates.fromNormalizedNode(YangInstanceIdentifier.EMPTY, root), false)
+            .validate0(rootLeafRefCtx);
     }
 
     private void validate0(final LeafRefContext rootLeafRefCtx) throws LeafRefDataValidationFailedException {
@@ -128,7 +145,7 @@ public class LeafRefValidatation {
         final QName childQName = childNode.getIdentifier().getNodeType();
         LeafRefContext childReferencingCtx = referencingCtx.getReferencingChildByName(childQName);
         if (childReferencingCtx == null) {
-            final NormalizedNode<?, ?> data = childNode.getDataAfter().get();
+            final NormalizedNode<?, ?> data = childNode.getDataAfter().or(childNode.getDataBefore()).get();
             if (data instanceof MapEntryNode || data instanceof UnkeyedListEntryNode) {
                 childReferencingCtx = referencingCtx;
             }
@@ -146,7 +163,7 @@ public class LeafRefValidatation {
         final QName childQName = childNode.getIdentifier().getNodeType();
         LeafRefContext childReferencedByCtx = referencedByCtx.getReferencedChildByName(childQName);
         if (childReferencedByCtx == null) {
-            final NormalizedNode<?, ?> data = childNode.getDataAfter().get();
+            final NormalizedNode<?, ?> data = childNode.getDataAfter().or(childNode.getDataBefore()).get();
             if (data instanceof MapEntryNode || data instanceof UnkeyedListEntryNode) {
                 childReferencedByCtx = referencedByCtx;
             }
@@ -305,6 +322,10 @@ public class LeafRefValidatation {
 
     private void validateLeafRefTargetNodeData(final NormalizedNode<?, ?> leaf, final LeafRefContext
             referencedByCtx, final ModificationType modificationType) {
+        if (!validateTargets) {
+            return;
+        }
+
         final Map<LeafRefContext, Set<?>> leafRefsValues = new HashMap<>();
         if (validatedLeafRefCtx.contains(referencedByCtx)) {
             leafRefTargetNodeDataLog(leaf, referencedByCtx, modificationType, leafRefsValues, null);
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.AbstractModifiedNodeBasedCandidateNode.canHaveChildren;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.AbstractModifiedNodeBasedCandidateNode.childMeta;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.AbstractModifiedNodeBasedCandidateNode.getContainer;
+import static org.opendaylight.yangtools.yang.data.impl.schema.tree.AbstractModifiedNodeBasedCandidateNode.optionalData;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Collections2;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nonnull;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+
+/**
+ * A {@link DataTreeCandidateNode} combining the effects of multiple {@link ModifiedNode}s, which have been applied
+ * in sequence. The modification type is derived from the before- and after-image, while the modifications are used
+ * to determine which children need to be examined.
+ */
+abstract class AbstractCompoundCandidateNode implements DataTreeCandidateNode {
+    private final List<ModifiedNode> mods;
+    private final TreeNode newMeta;
+    private final TreeNode oldMeta;
+    private final ModificationType modType;
+
+    protected AbstractCompoundCandidateNode(final List<ModifiedNode> mods, final TreeNode oldMeta,
+            final TreeNode newMeta) {
+        this.mods = Preconditions.checkNotNull(mods);
+        this.newMeta = newMeta;
+        this.oldMeta = oldMeta;
+        this.modType = resolveModificationType(mods, oldMeta, newMeta);
+    }
+
+    private static ModificationType resolveModificationType(final List<ModifiedNode> mods, final TreeNode oldMeta,
+            final TreeNode newMeta) {
+        if (oldMeta == newMeta) {
+            return ModificationType.UNMODIFIED;
+        }
+
+        // If any of the modifications has replaced this node, the delta has to be computed from data
+        boolean replaced = false;
+        for (final ModifiedNode mod : mods) {
+            final ModificationType type = mod.getModificationType();
+            if (type == ModificationType.WRITE || type == ModificationType.DELETE) {
+                replaced = true;
+                break;
+            }
+        }
+
+        if (oldMeta == null) {
+            return replaced ? ModificationType.WRITE : ModificationType.APPEARED;
+        }
+        if (newMeta == null) {
+            return replaced ? ModificationType.DELETE : ModificationType.DISAPPEARED;
+        }
+        return replaced ? ModificationType.WRITE : ModificationType.SUBTREE_MODIFIED;
+    }
+
+    protected final TreeNode getNewMeta() {
+        return newMeta;
+    }
+
+    protected final TreeNode getOldMeta() {
+        return oldMeta;
+    }
+
+    private Map<PathArgument, List<ModifiedNode>> childMods() {
+        final Map<PathArgument, List<ModifiedNode>> ret = new LinkedHashMap<>();
+        for (final ModifiedNode mod : mods) {
+            for (final ModifiedNode child : mod.getChildren()) {
+                List<ModifiedNode> list = ret.get(child.getIdentifier());
+                if (list == null) {
+                    list = new ArrayList<>(mods.size());
+                    ret.put(child.getIdentifier(), list);
+                }
+                list.add(child);
+            }
+        }
+        return ret;
+    }
+
+    private ChildNode childNode(final PathArgument id, final List<ModifiedNode> childMods) {
+        return new ChildNode(id, childMods, childMeta(oldMeta, id), childMeta(newMeta, id));
+    }
+
+    private ChildNode childNode(final Entry<PathArgument, List<ModifiedNode>> entry) {
+        return childNode(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    @Nonnull
+    public final Collection<DataTreeCandidateNode> getChildNodes() {
+        switch (modType) {
+        case APPEARED:
+        case DISAPPEARED:
+        case SUBTREE_MODIFIED:
+            return Collections2.transform(childMods().entrySet(), this::childNode);
+        case UNMODIFIED:
+            if (canHaveChildren(oldMeta, newMeta)) {
+                return Collections2.transform(getContainer(newMeta != null ? newMeta : oldMeta).getValue(),
+                    AbstractRecursiveCandidateNode::unmodifiedNode);
+            } else {
+                return Collections.emptyList();
+            }
+        case DELETE:
+        case WRITE:
+            if (canHaveChildren(oldMeta, newMeta)) {
+                return AbstractDataTreeCandidateNode.deltaChildren(getContainer(oldMeta), getContainer(newMeta));
+            } else {
+                return Collections.emptyList();
+            }
+        default:
+            throw new IllegalArgumentException("Unhandled modification type " + modType);
+        }
+    }
+
+    @Override
+    @Nonnull
+    public final ModificationType getModificationType() {
+        return modType;
+    }
+
+    @Override
+    @Nonnull
+    public final Optional<NormalizedNode<?, ?>> getDataAfter() {
+        return optionalData(newMeta);
+    }
+
+    @Override
+    @Nonnull
+    public final Optional<NormalizedNode<?, ?>> getDataBefore() {
+        return optionalData(oldMeta);
+    }
+
+    @Override
+    public final DataTreeCandidateNode getModifiedChild(final PathArgument identifier) {
+        switch (modType) {
+        case APPEARED:
+        case DISAPPEARED:
+        case SUBTREE_MODIFIED:
+            final List<ModifiedNode> childMods = new ArrayList<>(mods.size());
+            for (final ModifiedNode mod : mods) {
+                final Optional<ModifiedNode> childMod = mod.getChild(identifier);
+                if (childMod.isPresent()) {
+                    childMods.add(childMod.get());
+                }
+            }
+            return childMods.isEmpty() ? null : childNode(identifier, childMods);
+        case UNMODIFIED:
+            if (canHaveChildren(oldMeta, newMeta)) {
+                final Optional<NormalizedNode<?, ?>> maybeChild =
+                        getContainer(newMeta != null ? newMeta : oldMeta).getChild(identifier);
+                return maybeChild.isPresent() ? AbstractRecursiveCandidateNode.unmodifiedNode(maybeChild.get())
+                        : null;
+            } else {
+                return null;
+            }
+        case DELETE:
+        case WRITE:
+            if (canHaveChildren(oldMeta, newMeta)) {
+                return AbstractDataTreeCandidateNode.deltaChild(getContainer(oldMeta), getContainer(newMeta),
+                    identifier);
+            } else {
+                return null;
+            }
+        default:
+            throw new IllegalArgumentException("Unhandled modification type " + modType);
+        }
+    }
+
+    private static final class ChildNode extends AbstractCompoundCandidateNode {
+        private final PathArgument identifier;
+
+        ChildNode(final PathArgument identifier, final List<ModifiedNode> mods, final TreeNode oldMeta,
+                final TreeNode newMeta) {
+            super(mods, oldMeta, newMeta);
+            this.identifier = Preconditions.checkNotNull(identifier);
+        }
+
+        @Override
+        @Nonnull
+        public PathArgument getIdentifier() {
+            return identifier;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{mods = " + this.mods + ", oldMeta = " + this.oldMeta
+                + ", newMeta = " + this.newMeta + "}";
+    }
+}
@@ -8,18 +8,40 @@
 package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.Preconditions;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 
 abstract class AbstractDataTreeCandidate extends AbstractDataTreeTip implements DataTreeCandidateTip {
+    private final XPathConstraintValidation constraintValidation;
     private final YangInstanceIdentifier rootPath;
 
-    protected AbstractDataTreeCandidate(final YangInstanceIdentifier rootPath) {
+    protected AbstractDataTreeCandidate(final YangInstanceIdentifier rootPath,
+            @Nullable final XPathConstraintValidation constraintValidation) {
         this.rootPath = Preconditions.checkNotNull(rootPath);
+        this.constraintValidation = constraintValidation;
     }
 
     @Override
     public final YangInstanceIdentifier getRootPath() {
         return rootPath;
     }
+
+    /**
+     * Return the root node this candidate was prepared against. The data tree can commit this candidate only if its
+     * root is still this node.
+     *
+     * @return Before-image root node, may not be null.
+     */
+    abstract TreeNode getBeforeRoot();
+
+    /**
+     * Candidates validate modifications chained on top of them with the constraint validation of the tip they were
+     * prepared from.
+     */
+    @Override
+    final XPathConstraintValidation getConstraintValidation() {
+        return constraintValidation;
+    }
 }
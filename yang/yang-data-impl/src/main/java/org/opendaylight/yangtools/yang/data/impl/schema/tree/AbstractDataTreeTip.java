@@ -9,16 +9,19 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BatchingDataTreeTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
-import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeTip;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
 
-abstract class AbstractDataTreeTip implements DataTreeTip {
+abstract class AbstractDataTreeTip implements BatchingDataTreeTip {
     private static final YangInstanceIdentifier PUBLIC_ROOT_PATH = YangInstanceIdentifier.create(Collections.emptyList());
 
     /**
@@ -28,31 +31,113 @@ abstract class AbstractDataTreeTip implements DataTreeTip {
      */
     @Nonnull protected abstract TreeNode getTipRoot();
 
+    /**
+     * Return the must/when constraint validation applicable to modifications of this tip.
+     *
+     * @return Constraint validation, or null if constraints are not validated.
+     */
+    @Nullable XPathConstraintValidation getConstraintValidation() {
+        return null;
+    }
+
+    private void validateConstraints(final ModifiedNode root, final TreeNode beforeRoot, final TreeNode afterRoot)
+            throws DataValidationFailedException {
+        final XPathConstraintValidation constraintValidation = getConstraintValidation();
+        if (constraintValidation != null) {
+            constraintValidation.validate(new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, root, beforeRoot,
+                afterRoot, null).getRootNode(), afterRoot.getData());
+        }
+    }
+
+    private static InMemoryDataTreeModification checkedCast(final DataTreeModification modification) {
+        Preconditions.checkArgument(modification instanceof InMemoryDataTreeModification, "Invalid modification class %s", modification.getClass());
+        return (InMemoryDataTreeModification)modification;
+    }
+
     @Override
     public final void validate(final DataTreeModification modification) throws DataValidationFailedException {
-        Preconditions.checkArgument(modification instanceof InMemoryDataTreeModification, "Invalid modification class %s", modification.getClass());
-        final InMemoryDataTreeModification m = (InMemoryDataTreeModification)modification;
+        final InMemoryDataTreeModification m = checkedCast(modification);
         Preconditions.checkArgument(m.isSealed(), "Attempted to verify unsealed modification %s", m);
 
-        m.getStrategy().checkApplicable(PUBLIC_ROOT_PATH, m.getRootModification(), Optional.of(getTipRoot()), m.getVersion());
+        final TreeNode currentRoot = getTipRoot();
+        m.getStrategy().checkApplicable(PUBLIC_ROOT_PATH, m.getRootModification(), Optional.of(currentRoot), m.getVersion());
+
+        if (getConstraintValidation() != null && m.getRootModification().getOperation() != LogicalOperation.NONE) {
+            final Optional<TreeNode> newRoot = m.getStrategy().apply(m.getRootModification(),
+                Optional.of(currentRoot), m.getVersion());
+            Preconditions.checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s", modification);
+            validateConstraints(m.getRootModification(), currentRoot, newRoot.get());
+            m.setValidatedRoot(currentRoot, newRoot.get());
+        }
     }
 
     @Override
     public final DataTreeCandidateTip prepare(final DataTreeModification modification) {
-        Preconditions.checkArgument(modification instanceof InMemoryDataTreeModification, "Invalid modification class %s", modification.getClass());
-        final InMemoryDataTreeModification m = (InMemoryDataTreeModification)modification;
+        final InMemoryDataTreeModification m = checkedCast(modification);
         Preconditions.checkArgument(m.isSealed(), "Attempted to prepare unsealed modification %s", m);
 
         final ModifiedNode root = m.getRootModification();
 
         final TreeNode currentRoot = getTipRoot();
         if (root.getOperation() == LogicalOperation.NONE) {
-            return new NoopDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot);
+            return new NoopDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot, getConstraintValidation());
+        }
+
+        // Reuse the result of validation, if the modification has been validated against this root
+        final TreeNode validatedRoot = m.getValidatedRoot(currentRoot);
+        if (validatedRoot != null) {
+            return new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot, validatedRoot,
+                getConstraintValidation());
         }
 
         final Optional<TreeNode> newRoot = m.getStrategy().apply(m.getRootModification(),
             Optional.of(currentRoot), m.getVersion());
         Preconditions.checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s", modification);
-        return new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot, newRoot.get());
+        return new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, root, currentRoot, newRoot.get(),
+            getConstraintValidation());
+    }
+
+    @Override
+    public final DataTreeCandidateTip validateAndPrepare(final Iterable<? extends DataTreeModification> modifications)
+            throws DataValidationFailedException {
+        final TreeNode beforeRoot = getTipRoot();
+        final List<ModifiedNode> roots = new ArrayList<>();
+
+        /*
+         * Each modification is validated against the root produced by its predecessor, hence the batch evolves
+         * a private tip without touching the data tree. Modifications which do not do anything are skipped, so they
+         * do not have to be visited when the compound candidate is being inspected.
+         */
+        TreeNode currentRoot = beforeRoot;
+        for (final DataTreeModification modification : modifications) {
+            final InMemoryDataTreeModification m = checkedCast(modification);
+            Preconditions.checkArgument(m.isSealed(), "Attempted to prepare unsealed modification %s", m);
+
+            final ModifiedNode root = m.getRootModification();
+            if (root.getOperation() == LogicalOperation.NONE) {
+                continue;
+            }
+
+            final Optional<TreeNode> current = Optional.of(currentRoot);
+            m.getStrategy().checkApplicable(PUBLIC_ROOT_PATH, root, current, m.getVersion());
+
+            final Optional<TreeNode> newRoot = m.getStrategy().apply(root, current, m.getVersion());
+            Preconditions.checkState(newRoot.isPresent(), "Apply strategy failed to produce root node for modification %s", modification);
+            validateConstraints(root, currentRoot, newRoot.get());
+            currentRoot = newRoot.get();
+            roots.add(root);
+        }
+
+        final XPathConstraintValidation constraintValidation = getConstraintValidation();
+        switch (roots.size()) {
+        case 0:
+            return new NoopDataTreeCandidate(PUBLIC_ROOT_PATH, beforeRoot, constraintValidation);
+        case 1:
+            return new InMemoryDataTreeCandidate(PUBLIC_ROOT_PATH, roots.get(0), beforeRoot, currentRoot,
+                constraintValidation);
+        default:
+            return new CompoundDataTreeCandidate(PUBLIC_ROOT_PATH, roots, beforeRoot, currentRoot,
+                constraintValidation);
+        }
     }
 }
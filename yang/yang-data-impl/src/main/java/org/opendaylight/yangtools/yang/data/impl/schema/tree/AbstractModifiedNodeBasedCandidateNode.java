@@ -45,7 +45,7 @@ abstract class AbstractModifiedNodeBasedCandidateNode implements DataTreeCandida
         return oldMeta;
     }
 
-    private static TreeNode childMeta(final TreeNode parent, final PathArgument id) {
+    static TreeNode childMeta(final TreeNode parent, final PathArgument id) {
         if (parent != null) {
             return parent.getChild(id).orNull();
         } else {
@@ -53,7 +53,7 @@ abstract class AbstractModifiedNodeBasedCandidateNode implements DataTreeCandida
         }
     }
 
-    private static boolean canHaveChildren(@Nullable final TreeNode oldMeta, @Nullable final TreeNode newMeta) {
+    static boolean canHaveChildren(@Nullable final TreeNode oldMeta, @Nullable final TreeNode newMeta) {
         if (oldMeta != null) {
             return oldMeta.getData() instanceof NormalizedNodeContainer;
         }
@@ -64,7 +64,7 @@ abstract class AbstractModifiedNodeBasedCandidateNode implements DataTreeCandida
     }
 
     @SuppressWarnings("unchecked")
-    private static NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> getContainer(@Nullable final TreeNode meta) {
+    static NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>> getContainer(@Nullable final TreeNode meta) {
         return (meta == null ? null : (NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>)meta.getData());
     }
 
@@ -110,7 +110,7 @@ abstract class AbstractModifiedNodeBasedCandidateNode implements DataTreeCandida
         return Verify.verifyNotNull(mod.getModificationType(), "Node %s does not have resolved modification type", mod);
     }
 
-    private static Optional<NormalizedNode<?, ?>> optionalData(final TreeNode meta) {
+    static Optional<NormalizedNode<?, ?>> optionalData(final TreeNode meta) {
         if (meta != null) {
             return Optional.of(meta.getData());
         } else {
@@ -13,6 +13,8 @@ import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
 import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -31,13 +33,58 @@ import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.NormalizedNo
 
 abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareApplyOperation {
 
+    /**
+     * Fork/join task applying a contiguous range of child modifications. Each child modification targets a disjoint
+     * subtree, hence they can be applied concurrently as long as the results are merged into the parent sequentially.
+     */
+    @SuppressWarnings("serial")
+    private final class ChildApplyTask extends RecursiveAction {
+        private final ModifiedNode[] mods;
+        private final Optional<TreeNode>[] results;
+        private final Version version;
+        private final int granularity;
+        private final int from;
+        private final int to;
+
+        ChildApplyTask(final ModifiedNode[] mods, final Optional<TreeNode>[] results, final Version version,
+                final int granularity, final int from, final int to) {
+            this.mods = mods;
+            this.results = results;
+            this.version = version;
+            this.granularity = granularity;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= granularity) {
+                for (int i = from; i < to; ++i) {
+                    final ModifiedNode mod = mods[i];
+                    results[i] = resolveChildOperation(mod.getIdentifier()).apply(mod, results[i], version);
+                }
+                return;
+            }
+
+            final int mid = (from + to) >>> 1;
+            invokeAll(new ChildApplyTask(mods, results, version, granularity, from, mid),
+                new ChildApplyTask(mods, results, version, granularity, mid, to));
+        }
+    }
+
     private final Class<? extends NormalizedNode<?, ?>> nodeClass;
     private final boolean verifyChildrenStructure;
+    // Written data needs to be walked only to reach unique constraints of nested lists
+    private final boolean checkWrittenChildren;
+    private final int parallelApplyThreshold;
 
     protected AbstractNodeContainerModificationStrategy(final Class<? extends NormalizedNode<?, ?>> nodeClass,
             final DataTreeConfiguration treeConfig) {
         this.nodeClass = Preconditions.checkNotNull(nodeClass , "nodeClass");
         this.verifyChildrenStructure = (treeConfig.getTreeType() == TreeType.CONFIGURATION);
+        this.checkWrittenChildren = treeConfig.isUniqueIndexEnabled();
+        this.parallelApplyThreshold = treeConfig.isParallelApplyEnabled() ? treeConfig.getParallelApplyThreshold()
+                : Integer.MAX_VALUE;
     }
 
     @SuppressWarnings("rawtypes")
@@ -130,7 +177,10 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private TreeNode mutateChildren(final MutableTreeNode meta, final NormalizedNodeContainerBuilder data,
-            final Version nodeVersion, final Iterable<ModifiedNode> modifications) {
+            final Version nodeVersion, final Collection<ModifiedNode> modifications) {
+        if (modifications.size() >= parallelApplyThreshold) {
+            return mutateChildrenParallel(meta, data, nodeVersion, modifications);
+        }
 
         for (final ModifiedNode mod : modifications) {
             final YangInstanceIdentifier.PathArgument id = mod.getIdentifier();
@@ -151,6 +201,42 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
         return meta.seal();
     }
 
+    /**
+     * Parallel version of {@link #mutateChildren(MutableTreeNode, NormalizedNodeContainerBuilder, Version, Collection)}.
+     * Child subtrees are applied concurrently, then the results are folded into the parent in modification order,
+     * so the outcome is indistinguishable from the sequential version.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private TreeNode mutateChildrenParallel(final MutableTreeNode meta, final NormalizedNodeContainerBuilder data,
+            final Version nodeVersion, final Collection<ModifiedNode> modifications) {
+        final ModifiedNode[] mods = modifications.toArray(new ModifiedNode[modifications.size()]);
+
+        // Results are initialized to current children, which are then replaced by the results of apply
+        final Optional<TreeNode>[] results = new Optional[mods.length];
+        for (int i = 0; i < mods.length; ++i) {
+            results[i] = meta.getChild(mods[i].getIdentifier());
+        }
+
+        final int granularity = Math.max(1, mods.length / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        new ChildApplyTask(mods, results, nodeVersion, granularity, 0, mods.length).invoke();
+
+        for (int i = 0; i < mods.length; ++i) {
+            final Optional<TreeNode> result = results[i];
+            if (result.isPresent()) {
+                final TreeNode tn = result.get();
+                meta.addChild(tn);
+                data.addChild(tn.getData());
+            } else {
+                final PathArgument id = mods[i].getIdentifier();
+                meta.removeChild(id);
+                data.removeChild(id);
+            }
+        }
+
+        meta.setData(data.build());
+        return meta.seal();
+    }
+
     @Override
     protected TreeNode applyMerge(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
         /*
@@ -312,6 +398,57 @@ abstract class AbstractNodeContainerModificationStrategy extends SchemaAwareAppl
         if (current.isPresent()) {
             checkChildPreconditions(path, modification, current.get(), version);
         }
+
+        // Children of the merged value are expanded into modifications only when the merge is applied, check those
+        // which have not been expanded yet
+        if (checkWrittenChildren && modification instanceof ModifiedNode) {
+            final NormalizedNode<?, ?> value = ((ModifiedNode) modification).getWrittenValue();
+            if (value != null) {
+                checkWrittenChildren(path, value, current, (ModifiedNode) modification);
+            }
+        }
+    }
+
+    @Override
+    protected void checkWriteApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        super.checkWriteApplicable(path, modification, current, version);
+
+        // Sealed writes carry their entire subtree in their value
+        if (checkWrittenChildren && modification instanceof ModifiedNode) {
+            final NormalizedNode<?, ?> value = ((ModifiedNode) modification).getWrittenValue();
+            if (value != null) {
+                checkWrittenChildren(path, value, Optional.absent(), (ModifiedNode) modification);
+            }
+        }
+    }
+
+    @Override
+    void checkWrittenData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final Optional<TreeNode> current) throws DataValidationFailedException {
+        if (checkWrittenChildren) {
+            checkWrittenChildren(path, data, current, null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void checkWrittenChildren(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final Optional<TreeNode> current, final ModifiedNode modification) throws DataValidationFailedException {
+        for (final NormalizedNode<?, ?> child : ((NormalizedNodeContainer<?, ?, NormalizedNode<?, ?>>) data)
+                .getValue()) {
+            final PathArgument childId = child.getIdentifier();
+            if (modification != null && modification.getChild(childId).isPresent()) {
+                // Covered by checkChildPreconditions()
+                continue;
+            }
+
+            final Optional<ModificationApplyOperation> childOp = getChild(childId);
+            if (childOp.isPresent()) {
+                final Optional<TreeNode> childMeta = current.isPresent() ? current.get().getChild(childId)
+                        : Optional.absent();
+                childOp.get().checkWrittenData(path.node(childId), child, childMeta);
+            }
+        }
     }
 
     protected boolean verifyChildrenStructure() {
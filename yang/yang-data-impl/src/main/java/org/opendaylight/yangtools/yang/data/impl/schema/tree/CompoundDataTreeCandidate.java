@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+
+/**
+ * Candidate produced by {@link AbstractDataTreeTip#validateAndPrepare(Iterable)} when more than one modification
+ * has had an effect. It presents the combined effect of all modifications in the batch and is committed by
+ * a single update of the data tree state.
+ */
+final class CompoundDataTreeCandidate extends AbstractDataTreeCandidate {
+
+    private static final class RootNode extends AbstractCompoundCandidateNode {
+        RootNode(final List<ModifiedNode> mods, final TreeNode oldMeta, final TreeNode newMeta) {
+            super(mods, oldMeta, newMeta);
+        }
+
+        @Override
+        @Nonnull
+        public PathArgument getIdentifier() {
+            throw new IllegalStateException("Attempted to get identifier of the root node");
+        }
+    }
+
+    private final RootNode root;
+
+    CompoundDataTreeCandidate(final YangInstanceIdentifier rootPath, final List<ModifiedNode> modificationRoots,
+            final TreeNode beforeRoot, final TreeNode afterRoot,
+            @Nullable final XPathConstraintValidation constraintValidation) {
+        super(rootPath, constraintValidation);
+        this.root = new RootNode(ImmutableList.copyOf(modificationRoots), beforeRoot, afterRoot);
+    }
+
+    @Override
+    @Nonnull
+    protected TreeNode getTipRoot() {
+        return root.getNewMeta();
+    }
+
+    @Override
+    TreeNode getBeforeRoot() {
+        return root.getOldMeta();
+    }
+
+    @Override
+    public DataTreeCandidateNode getRootNode() {
+        return root;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("rootPath", getRootPath()).add("rootNode", getRootNode()).toString();
+    }
+}
@@ -87,10 +87,23 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducing
             rootNode = SchemaAwareApplyOperation.from(rootSchemaNode, treeConfig);
         }
 
+        final XPathConstraintValidation constraintValidation;
+        if (treeConfig.isConstraintValidationEnabled()) {
+            if (rootPath.isEmpty()) {
+                constraintValidation = XPathConstraintValidation.create(newSchemaContext,
+                    treeConfig.getConstraintXPathFactory().get());
+            } else {
+                LOG.warn("Constraint validation is not supported for tree rooted at {}, not enabling it", rootPath);
+                constraintValidation = null;
+            }
+        } else {
+            constraintValidation = null;
+        }
+
         DataTreeState currentState, newState;
         do {
             currentState = state;
-            newState = currentState.withSchemaContext(newSchemaContext, rootNode);
+            newState = currentState.withSchemaContext(newSchemaContext, rootNode, constraintValidation);
         } while (!STATE_UPDATER.compareAndSet(this, currentState, newState));
     }
 
@@ -104,8 +117,8 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducing
         if (candidate instanceof NoopDataTreeCandidate) {
             return;
         }
-        Preconditions.checkArgument(candidate instanceof InMemoryDataTreeCandidate, "Invalid candidate class %s", candidate.getClass());
-        final InMemoryDataTreeCandidate c = (InMemoryDataTreeCandidate)candidate;
+        Preconditions.checkArgument(candidate instanceof AbstractDataTreeCandidate, "Invalid candidate class %s", candidate.getClass());
+        final AbstractDataTreeCandidate c = (AbstractDataTreeCandidate)candidate;
 
         if (LOG.isTraceEnabled()) {
             LOG.trace("Data Tree is {}", NormalizedNodes.toStringTree(c.getTipRoot().getData()));
@@ -153,4 +166,9 @@ final class InMemoryDataTree extends AbstractDataTreeTip implements TipProducing
     protected TreeNode getTipRoot() {
         return state.getRoot();
     }
+
+    @Override
+    XPathConstraintValidation getConstraintValidation() {
+        return state.getConstraintValidation();
+    }
 }
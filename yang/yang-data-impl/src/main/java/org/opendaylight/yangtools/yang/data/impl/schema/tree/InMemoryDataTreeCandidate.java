@@ -9,6 +9,7 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.MoreObjects;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
@@ -31,8 +32,9 @@ final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
     private final RootNode root;
 
     InMemoryDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
-            final TreeNode beforeRoot, final TreeNode afterRoot) {
-        super(rootPath);
+            final TreeNode beforeRoot, final TreeNode afterRoot,
+            @Nullable final XPathConstraintValidation constraintValidation) {
+        super(rootPath, constraintValidation);
         this.root = new RootNode(modificationRoot, beforeRoot, afterRoot);
     }
 
@@ -42,6 +44,7 @@ final class InMemoryDataTreeCandidate extends AbstractDataTreeCandidate {
         return root.getNewMeta();
     }
 
+    @Override
     TreeNode getBeforeRoot() {
         return root.getOldMeta();
     }
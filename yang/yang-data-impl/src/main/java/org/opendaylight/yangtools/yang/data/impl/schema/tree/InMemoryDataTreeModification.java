@@ -9,10 +9,12 @@ package org.opendaylight.yangtools.yang.data.impl.schema.tree;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Collection;
 import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.common.QName;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
@@ -40,6 +42,9 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
 
     private volatile int sealed = 0;
 
+    // Root this modification was last validated against, and the root it produced
+    private volatile Entry<TreeNode, TreeNode> validatedRoot;
+
     InMemoryDataTreeModification(final InMemoryDataTreeSnapshot snapshot, final RootModificationApplyOperation resolver) {
         this.snapshot = Preconditions.checkNotNull(snapshot);
         this.strategyTree = Preconditions.checkNotNull(resolver).snapshot();
@@ -65,6 +70,25 @@ final class InMemoryDataTreeModification extends AbstractCursorAware implements
         return strategyTree;
     }
 
+    /**
+     * Remember the result of applying this modification during validation, so it does not need to be applied again
+     * when it is prepared against the same root.
+     */
+    void setValidatedRoot(final TreeNode beforeRoot, final TreeNode afterRoot) {
+        validatedRoot = new SimpleImmutableEntry<>(beforeRoot, afterRoot);
+    }
+
+    /**
+     * Return the result of applying this modification during validation.
+     *
+     * @param beforeRoot Root the modification is being applied to
+     * @return Resulting root, or null if this modification has not been validated against the specified root
+     */
+    @Nullable TreeNode getValidatedRoot(final TreeNode beforeRoot) {
+        final Entry<TreeNode, TreeNode> local = validatedRoot;
+        return local != null && local.getKey() == beforeRoot ? local.getValue() : null;
+    }
+
     @Override
     public void write(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data) {
         checkSealed();
@@ -179,4 +179,10 @@ final class MinMaxElementsValidation extends SchemaAwareApplyOperation {
     void recursivelyVerifyStructure(NormalizedNode<?, ?> value) {
         delegate.recursivelyVerifyStructure(value);
     }
+
+    @Override
+    void checkWrittenData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final Optional<TreeNode> current) throws DataValidationFailedException {
+        delegate.checkWrittenData(path, data, current);
+    }
 }
@@ -107,4 +107,19 @@ abstract class ModificationApplyOperation implements StoreTreeNode<ModificationA
     public abstract Optional<ModificationApplyOperation> getChild(PathArgument child);
 
     abstract void recursivelyVerifyStructure(NormalizedNode<?, ?> value);
+
+    /**
+     * Check data which is written or merged as part of an ancestor's value, hence it is not covered by a modification
+     * of its own and is not seen by {@link #checkApplicable(YangInstanceIdentifier, NodeModification, Optional,
+     * Version)}. The default implementation does nothing.
+     *
+     * @param path Path to the data
+     * @param data Data being written or merged
+     * @param current Current node the data is merged into, absent if the data replaces it
+     * @throws DataValidationFailedException if the data is not valid
+     */
+    void checkWrittenData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final Optional<TreeNode> current) throws DataValidationFailedException {
+        // No-op
+    }
 }
@@ -12,6 +12,7 @@ import com.google.common.base.Preconditions;
 import java.util.Collection;
 import java.util.Collections;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
@@ -62,9 +63,15 @@ final class NoopDataTreeCandidate extends AbstractDataTreeCandidate {
     };
     private final TreeNode afterRoot;
 
-    protected NoopDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot, final TreeNode afterRoot) {
-        super(rootPath);
+    protected NoopDataTreeCandidate(final YangInstanceIdentifier rootPath, final ModifiedNode modificationRoot,
+            final TreeNode afterRoot, @Nullable final XPathConstraintValidation constraintValidation) {
+        this(rootPath, afterRoot, constraintValidation);
         Preconditions.checkArgument(modificationRoot.getOperation() == LogicalOperation.NONE);
+    }
+
+    NoopDataTreeCandidate(final YangInstanceIdentifier rootPath, final TreeNode afterRoot,
+            @Nullable final XPathConstraintValidation constraintValidation) {
+        super(rootPath, constraintValidation);
         this.afterRoot = Preconditions.checkNotNull(afterRoot);
     }
 
@@ -78,4 +85,9 @@ final class NoopDataTreeCandidate extends AbstractDataTreeCandidate {
     protected TreeNode getTipRoot() {
         return afterRoot;
     }
+
+    @Override
+    TreeNode getBeforeRoot() {
+        return afterRoot;
+    }
 }
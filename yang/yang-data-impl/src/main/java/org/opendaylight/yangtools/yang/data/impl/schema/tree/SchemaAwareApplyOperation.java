@@ -81,15 +81,20 @@ abstract class SchemaAwareApplyOperation extends ModificationApplyOperation {
 
     private static SchemaAwareApplyOperation fromListSchemaNode(final ListSchemaNode schemaNode, final DataTreeConfiguration treeConfig) {
         final List<QName> keyDefinition = schemaNode.getKeyDefinition();
-        final SchemaAwareApplyOperation op;
         if (keyDefinition == null || keyDefinition.isEmpty()) {
-            op = new UnkeyedListModificationStrategy(schemaNode, treeConfig);
-        } else if (schemaNode.isUserOrdered()) {
+            return MinMaxElementsValidation.from(new UnkeyedListModificationStrategy(schemaNode, treeConfig),
+                schemaNode);
+        }
+
+        final SchemaAwareApplyOperation op;
+        if (schemaNode.isUserOrdered()) {
             op =  new OrderedMapModificationStrategy(schemaNode, treeConfig);
         } else {
             op = new UnorderedMapModificationStrategy(schemaNode, treeConfig);
         }
-        return MinMaxElementsValidation.from(op, schemaNode);
+
+        // Unique constraints are checked last, so the node they attach their indexes to is the one being applied
+        return UniqueConstraintValidation.from(MinMaxElementsValidation.from(op, schemaNode), schemaNode, treeConfig);
     }
 
     private static SchemaAwareApplyOperation fromLeafListSchemaNode(final LeafListSchemaNode schemaNode, final DataTreeConfiguration treeConfig) {
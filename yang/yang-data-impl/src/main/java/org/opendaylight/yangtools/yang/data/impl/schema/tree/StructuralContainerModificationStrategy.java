@@ -110,6 +110,12 @@ final class StructuralContainerModificationStrategy extends ModificationApplyOpe
         delegate.recursivelyVerifyStructure(value);
     }
 
+    @Override
+    void checkWrittenData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final Optional<TreeNode> current) throws DataValidationFailedException {
+        delegate.checkWrittenData(path, data, current);
+    }
+
     @Override
     ChildTrackingPolicy getChildPolicy() {
         return delegate.getChildPolicy();
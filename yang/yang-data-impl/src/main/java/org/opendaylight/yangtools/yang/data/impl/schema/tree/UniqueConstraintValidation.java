@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodeContainer;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.TreeNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.Version;
+import org.opendaylight.yangtools.yang.data.impl.codec.TypeDefinitionAwareCodec;
+import org.opendaylight.yangtools.yang.data.impl.schema.SchemaUtils;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ContainerSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.UniqueConstraint;
+import org.opendaylight.yangtools.yang.model.api.stmt.SchemaNodeIdentifier.Relative;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforcement of YANG 'unique' statements of a keyed list. Each statement is backed by a {@link UniqueIndex}, which
+ * is maintained alongside the list's {@link TreeNode}. Validation updates the current node's indexes with the entries
+ * touched by the modification, hence its cost is proportional to the number of modified entries, not to the size of
+ * the list. Indexes are rebuilt from data only when the list is replaced or its current node has not been validated
+ * by this instance.
+ *
+ * <p>
+ * Leaves which are not present in an entry are substituted by their default values, as long as the default applies
+ * regardless of other data, i.e. the leaf is not part of a choice or a presence container. Leaf values are compared
+ * only when all referenced leaves are present in an entry or substituted by a default.
+ *
+ * <p>
+ * Lists which are written or merged as part of an enclosing node's value are validated via
+ * {@link #checkWrittenData(YangInstanceIdentifier, NormalizedNode, Optional)}.
+ */
+final class UniqueConstraintValidation extends SchemaAwareApplyOperation {
+    private static final Logger LOG = LoggerFactory.getLogger(UniqueConstraintValidation.class);
+
+    /**
+     * A leaf referenced by a unique statement.
+     */
+    private static final class UniqueLeaf {
+        // Path relative to a list entry
+        private final YangInstanceIdentifier path;
+        // Default value, null if there is none or it does not apply unconditionally
+        private final Object defaultValue;
+
+        UniqueLeaf(final YangInstanceIdentifier path, final Object defaultValue) {
+            this.path = Preconditions.checkNotNull(path);
+            this.defaultValue = defaultValue;
+        }
+
+        Object valueOf(final NormalizedNode<?, ?> entry, final NormalizedNode<?, ?> fallback) {
+            Optional<NormalizedNode<?, ?>> leaf = NormalizedNodes.findNode(entry, path);
+            if (!leaf.isPresent() && fallback != null) {
+                leaf = NormalizedNodes.findNode(fallback, path);
+            }
+            return leaf.isPresent() ? leaf.get().getValue() : defaultValue;
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+
+    private final SchemaAwareApplyOperation delegate;
+    // Leaves referenced by each unique statement
+    private final List<List<UniqueLeaf>> constraints;
+    // Indexes attached to list nodes which have been validated by this instance
+    private final Cache<TreeNode, List<UniqueIndex>> indexes = CacheBuilder.newBuilder().weakKeys().build();
+
+    private UniqueConstraintValidation(final SchemaAwareApplyOperation delegate,
+            final List<List<UniqueLeaf>> constraints) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.constraints = Preconditions.checkNotNull(constraints);
+    }
+
+    static SchemaAwareApplyOperation from(final SchemaAwareApplyOperation delegate, final ListSchemaNode schema,
+            final DataTreeConfiguration treeConfig) {
+        if (!treeConfig.isUniqueIndexEnabled()) {
+            return delegate;
+        }
+        final Collection<UniqueConstraint> uniques = schema.getUniqueConstraints();
+        if (uniques.isEmpty()) {
+            return delegate;
+        }
+
+        final ImmutableList.Builder<List<UniqueLeaf>> builder = ImmutableList.builder();
+        for (UniqueConstraint unique : uniques) {
+            builder.add(ImmutableList.copyOf(Collections2.transform(unique.getTag(),
+                tag -> resolveLeaf(schema, tag))));
+        }
+        return new UniqueConstraintValidation(delegate, builder.build());
+    }
+
+    /**
+     * Translate a descendant schema node identifier to the data path of the corresponding leaf. Choice nodes and
+     * augmentations are present in data, whereas cases are not.
+     */
+    private static UniqueLeaf resolveLeaf(final ListSchemaNode schema, final Relative tag) {
+        final List<PathArgument> path = new ArrayList<>();
+        DataSchemaNode parent = schema;
+        DataNodeContainer container = schema;
+        // Defaults of leaves in choices and presence containers apply only if the choice or container is present
+        boolean conditional = false;
+
+        final Iterator<QName> it = tag.getPathFromRoot().iterator();
+        while (it.hasNext()) {
+            final QName qname = it.next();
+            Preconditions.checkArgument(container != null, "Unique constraint %s of %s descends into non-container",
+                tag, schema.getQName());
+            final DataSchemaNode child = container.getDataChildByName(qname);
+            Preconditions.checkArgument(child != null, "Unique constraint %s of %s refers to unknown node %s", tag,
+                schema.getQName(), qname);
+
+            if (child.isAugmenting()) {
+                final AugmentationSchema augmentation = SchemaUtils.findCorrespondingAugment(parent, child);
+                if (augmentation != null) {
+                    path.add(SchemaUtils.getNodeIdentifierForAugmentation(augmentation));
+                }
+            }
+            path.add(NodeIdentifier.create(qname));
+
+            if (child instanceof ChoiceSchemaNode) {
+                Preconditions.checkArgument(it.hasNext(), "Unique constraint %s of %s refers to a choice", tag,
+                    schema.getQName());
+                final ChoiceCaseNode caze = ((ChoiceSchemaNode) child).getCaseNodeByName(it.next());
+                Preconditions.checkArgument(caze != null, "Unique constraint %s of %s refers to unknown case", tag,
+                    schema.getQName());
+                parent = caze;
+                container = caze;
+                conditional = true;
+            } else {
+                if (child instanceof ContainerSchemaNode && ((ContainerSchemaNode) child).isPresenceContainer()) {
+                    conditional = true;
+                }
+                parent = child;
+                container = child instanceof DataNodeContainer ? (DataNodeContainer) child : null;
+            }
+        }
+
+        final YangInstanceIdentifier leafPath = YangInstanceIdentifier.create(path);
+        return new UniqueLeaf(leafPath, conditional ? null : defaultValue(parent));
+    }
+
+    private static Object defaultValue(final DataSchemaNode node) {
+        if (!(node instanceof LeafSchemaNode)) {
+            return null;
+        }
+        final LeafSchemaNode leaf = (LeafSchemaNode) node;
+        final String str = leaf.getDefault();
+        if (str == null) {
+            return null;
+        }
+
+        final TypeDefinitionAwareCodec<Object, ?> codec = TypeDefinitionAwareCodec.from(leaf.getType());
+        if (codec == null) {
+            LOG.debug("No codec for default value {} of {}, not substituting it", str, leaf.getQName());
+            return null;
+        }
+        try {
+            return codec.deserialize(str);
+        } catch (IllegalArgumentException e) {
+            LOG.debug("Failed to interpret default value {} of {}, not substituting it", str, leaf.getQName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Return the values of leaves referenced by a unique statement.
+     *
+     * @param entry List entry
+     * @param fallback Entry providing leaves not present in entry, as when entry is merged into it, may be null
+     * @return Combined values, or null if any of the leaves is not present and has no default.
+     */
+    private static Object uniqueValues(final List<UniqueLeaf> leaves, final NormalizedNode<?, ?> entry,
+            final NormalizedNode<?, ?> fallback) {
+        if (leaves.size() == 1) {
+            return leaves.get(0).valueOf(entry, fallback);
+        }
+
+        final Object[] values = new Object[leaves.size()];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = leaves.get(i).valueOf(entry, fallback);
+            if (values[i] == null) {
+                return null;
+            }
+        }
+        return Arrays.asList(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<NormalizedNode<?, ?>> findEntry(final NormalizedNode<?, ?> list, final PathArgument id) {
+        return ((NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) list).getChild(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<NormalizedNode<?, ?>> entries(final NormalizedNode<?, ?> list) {
+        return ((NormalizedNodeContainer<?, PathArgument, NormalizedNode<?, ?>>) list).getValue();
+    }
+
+    /**
+     * Return indexes of a list node which is part of the data tree. If the node has not been validated by this
+     * instance, they are built from its data.
+     */
+    private List<UniqueIndex> indexesOf(final TreeNode list) {
+        final List<UniqueIndex> existing = indexes.getIfPresent(list);
+        if (existing != null) {
+            return existing;
+        }
+
+        LOG.debug("Building unique indexes of {}", list.getIdentifier());
+        final List<UniqueIndex> ret = new ArrayList<>(constraints.size());
+        for (List<UniqueLeaf> leaves : constraints) {
+            final UniqueIndex.Updater updater = UniqueIndex.empty().update();
+            for (NormalizedNode<?, ?> entry : entries(list.getData())) {
+                final Object values = uniqueValues(leaves, entry, null);
+                if (values != null && updater.add(values, entry.getIdentifier()) != null) {
+                    // Existing data has not been validated, there is nothing we can do about it
+                    LOG.debug("Entry {} of {} violates unique constraint {}", entry.getIdentifier(),
+                        list.getIdentifier(), leaves);
+                }
+            }
+            ret.add(updater.build());
+        }
+
+        indexes.put(list, ret);
+        return ret;
+    }
+
+    private void checkUnique(final YangInstanceIdentifier path, final NodeModification nodeMod,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        if (!(nodeMod instanceof ModifiedNode)) {
+            LOG.debug("Could not validate {}, does not implement expected class {}", nodeMod, ModifiedNode.class);
+            return;
+        }
+
+        final ModifiedNode modification = (ModifiedNode) nodeMod;
+        final Optional<TreeNode> maybeApplied = delegate.apply(modification, current, version);
+        if (!maybeApplied.isPresent()) {
+            return;
+        }
+
+        final TreeNode applied = maybeApplied.get();
+        final NormalizedNode<?, ?> after = applied.getData();
+
+        // Replaced lists are indexed from scratch, otherwise only entries with child modifications can change. Note
+        // that applying a merge has expanded merged entries into child modifications.
+        final List<UniqueIndex> base;
+        final NormalizedNode<?, ?> before;
+        final Collection<PathArgument> changed;
+        if (current.isPresent() && modification.getOperation() != LogicalOperation.WRITE) {
+            base = indexesOf(current.get());
+            before = current.get().getData();
+            changed = Collections2.transform(modification.getChildren(), ModifiedNode::getIdentifier);
+        } else {
+            base = null;
+            before = null;
+            changed = Collections2.transform(entries(after), NormalizedNode::getIdentifier);
+        }
+
+        final List<UniqueIndex> updated = updateIndexes(path, base, before, after, changed, false);
+
+        // Attach the indexes to the resulting node and stash it, so that it is picked up during apply operation.
+        indexes.put(applied, updated);
+        modification.setValidatedNode(this, current, applied);
+    }
+
+    /**
+     * Update indexes with changed entries.
+     *
+     * @param base Indexes of the list before the change, null if the list is indexed from scratch
+     * @param before List data before the change, null if the list is indexed from scratch
+     * @param after List data after the change, or data merged into before
+     * @param changed Identifiers of changed entries
+     * @param merge True if entries in after are merged into their counterparts in before
+     * @return Updated indexes
+     * @throws DataValidationFailedException if a changed entry violates a unique constraint
+     */
+    private List<UniqueIndex> updateIndexes(final YangInstanceIdentifier path, final List<UniqueIndex> base,
+            final NormalizedNode<?, ?> before, final NormalizedNode<?, ?> after,
+            final Collection<PathArgument> changed, final boolean merge) throws DataValidationFailedException {
+        final List<UniqueIndex> updated = new ArrayList<>(constraints.size());
+        for (int i = 0; i < constraints.size(); ++i) {
+            final List<UniqueLeaf> leaves = constraints.get(i);
+            final UniqueIndex.Updater updater = (base != null ? base.get(i) : UniqueIndex.empty()).update();
+
+            // Remove previous values first, so entries can swap values within a single modification
+            if (before != null) {
+                for (PathArgument id : changed) {
+                    final Optional<NormalizedNode<?, ?>> entry = findEntry(before, id);
+                    if (entry.isPresent()) {
+                        final Object values = uniqueValues(leaves, entry.get(), null);
+                        if (values != null) {
+                            updater.remove(values, id);
+                        }
+                    }
+                }
+            }
+
+            for (PathArgument id : changed) {
+                final Optional<NormalizedNode<?, ?>> entry = findEntry(after, id);
+                if (entry.isPresent()) {
+                    final NormalizedNode<?, ?> fallback = merge ? findEntry(before, id).orNull() : null;
+                    final Object values = uniqueValues(leaves, entry.get(), fallback);
+                    if (values != null) {
+                        final PathArgument conflict = updater.add(values, id);
+                        if (conflict != null) {
+                            throw new DataValidationFailedException(path, String.format(
+                                "%s violates unique constraint on %s, values %s are already used by %s", id, leaves,
+                                values, conflict));
+                        }
+                    }
+                }
+            }
+
+            updated.add(updater.build());
+        }
+        return updated;
+    }
+
+    @Override
+    void checkWrittenData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final Optional<TreeNode> current) throws DataValidationFailedException {
+        // Written data replaces the list, merged data is merged into its entries. The resulting indexes are not
+        // attached to any node, as the list is not modified directly.
+        final Collection<PathArgument> changed = Collections2.transform(entries(data), NormalizedNode::getIdentifier);
+        if (current.isPresent()) {
+            updateIndexes(path, indexesOf(current.get()), current.get().getData(), data, changed, true);
+        } else {
+            updateIndexes(path, null, null, data, changed, false);
+        }
+        delegate.checkWrittenData(path, data, current);
+    }
+
+    @Override
+    protected void checkTouchApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkTouchApplicable(path, modification, current, version);
+        checkUnique(path, modification, current, version);
+    }
+
+    @Override
+    protected void checkMergeApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkMergeApplicable(path, modification, current, version);
+        checkUnique(path, modification, current, version);
+    }
+
+    @Override
+    protected void checkWriteApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        delegate.checkWriteApplicable(path, modification, current, version);
+        checkUnique(path, modification, current, version);
+    }
+
+    @Override
+    public Optional<ModificationApplyOperation> getChild(final PathArgument child) {
+        return delegate.getChild(child);
+    }
+
+    @Override
+    protected void verifyStructure(final NormalizedNode<?, ?> modification, final boolean verifyChildren) {
+        delegate.verifyStructure(modification, verifyChildren);
+    }
+
+    @Override
+    protected TreeNode applyMerge(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, Optional.of(currentMeta));
+        return validated != null ? validated : delegate.applyMerge(modification, currentMeta, version);
+    }
+
+    @Override
+    protected TreeNode applyTouch(final ModifiedNode modification, final TreeNode currentMeta, final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, Optional.of(currentMeta));
+        return validated != null ? validated : delegate.applyTouch(modification, currentMeta, version);
+    }
+
+    @Override
+    protected TreeNode applyWrite(final ModifiedNode modification, final Optional<TreeNode> currentMeta,
+            final Version version) {
+        final TreeNode validated = modification.getValidatedNode(this, currentMeta);
+        return validated != null ? validated : delegate.applyWrite(modification, currentMeta, version);
+    }
+
+    @Override
+    protected ChildTrackingPolicy getChildPolicy() {
+        return delegate.getChildPolicy();
+    }
+
+    @Override
+    void mergeIntoModifiedNode(final ModifiedNode node, final NormalizedNode<?, ?> value, final Version version) {
+        delegate.mergeIntoModifiedNode(node, value, version);
+    }
+
+    @Override
+    void recursivelyVerifyStructure(final NormalizedNode<?, ?> value) {
+        delegate.recursivelyVerifyStructure(value);
+    }
+}
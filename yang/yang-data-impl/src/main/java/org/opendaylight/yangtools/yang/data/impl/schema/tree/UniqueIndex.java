@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.concepts.Immutable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+
+/**
+ * Secondary index of a single YANG 'unique' statement, mapping the combined values of the referenced leaves to the
+ * list entry which holds them.
+ *
+ * <p>
+ * Indexes are immutable, so that concurrent modifications can be validated against the same base. An updated index
+ * is a layer holding the changes on top of its base index. A layer is merged with its base once it grows to half of
+ * the size of the base, hence lookups traverse a logarithmic number of layers and each update is amortized over
+ * a logarithmic number of merges, irrespective of the size of the list.
+ */
+final class UniqueIndex implements Immutable {
+    private static final UniqueIndex EMPTY = new UniqueIndex(null, new HashMap<>());
+
+    private final UniqueIndex base;
+    // Maps values to their owning entry. Null values mask mappings present in the base index.
+    private final Map<Object, PathArgument> layer;
+
+    private UniqueIndex(final UniqueIndex base, final Map<Object, PathArgument> layer) {
+        this.base = base;
+        this.layer = layer;
+    }
+
+    static UniqueIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Return the list entry which holds specified values.
+     *
+     * @param values Combined leaf values
+     * @return Owning entry identifier, or null if no entry holds these values.
+     */
+    @Nullable PathArgument lookup(final Object values) {
+        UniqueIndex index = this;
+        do {
+            final PathArgument owner = index.layer.get(values);
+            if (owner != null || index.layer.containsKey(values)) {
+                return owner;
+            }
+            index = index.base;
+        } while (index != null);
+
+        return null;
+    }
+
+    Updater update() {
+        return new Updater(this);
+    }
+
+    /**
+     * Mutable accumulator of changes to a particular index.
+     */
+    static final class Updater {
+        private final Map<Object, PathArgument> changes = new HashMap<>();
+        private final UniqueIndex base;
+
+        private Updater(final UniqueIndex base) {
+            this.base = Preconditions.checkNotNull(base);
+        }
+
+        @Nullable PathArgument lookup(final Object values) {
+            final PathArgument owner = changes.get(values);
+            return owner != null || changes.containsKey(values) ? owner : base.lookup(values);
+        }
+
+        /**
+         * Remove a mapping, if it is owned by the specified entry.
+         *
+         * @param values Combined leaf values
+         * @param owner Entry identifier
+         */
+        void remove(final Object values, final PathArgument owner) {
+            if (owner.equals(lookup(values))) {
+                changes.put(values, null);
+            }
+        }
+
+        /**
+         * Add a mapping, unless the values are already owned by some other entry.
+         *
+         * @param values Combined leaf values
+         * @param owner Entry identifier
+         * @return Conflicting owner, or null if the mapping has been added.
+         */
+        @Nullable PathArgument add(final Object values, final PathArgument owner) {
+            final PathArgument existing = lookup(values);
+            if (existing != null) {
+                return existing.equals(owner) ? null : existing;
+            }
+
+            changes.put(values, owner);
+            return null;
+        }
+
+        UniqueIndex build() {
+            if (changes.isEmpty()) {
+                return base;
+            }
+
+            UniqueIndex parent = base;
+            Map<Object, PathArgument> layer = changes;
+            while (parent != EMPTY && layer.size() * 2 >= parent.layer.size()) {
+                final Map<Object, PathArgument> merged = new HashMap<>(parent.layer);
+                merged.putAll(layer);
+                layer = merged;
+                parent = parent.base;
+            }
+
+            if (parent == EMPTY) {
+                // Nothing left to mask
+                layer.values().removeIf(owner -> owner == null);
+            }
+            return new UniqueIndex(parent, layer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        int layers = 0;
+        for (UniqueIndex index = this; index != null; index = index.base) {
+            ++layers;
+        }
+        return MoreObjects.toStringHelper(this).add("layers", layers).add("top", layer.size()).toString();
+    }
+}
@@ -13,6 +13,8 @@ import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdent
 import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.UnkeyedListNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.IncorrectDataStructureException;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
 import org.opendaylight.yangtools.yang.data.api.schema.tree.spi.MutableTreeNode;
@@ -26,9 +28,11 @@ import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
 final class UnkeyedListModificationStrategy extends SchemaAwareApplyOperation {
 
     private final Optional<ModificationApplyOperation> entryStrategy;
+    private final boolean checkWrittenChildren;
 
     UnkeyedListModificationStrategy(final ListSchemaNode schema, final DataTreeConfiguration treeConfig) {
         entryStrategy = Optional.of(new UnkeyedListItemModificationStrategy(schema, treeConfig));
+        checkWrittenChildren = treeConfig.isUniqueIndexEnabled();
     }
 
     @Override
@@ -136,6 +140,29 @@ final class UnkeyedListModificationStrategy extends SchemaAwareApplyOperation {
         throw new IncorrectDataStructureException(path, "Subtree modification is not allowed.");
     }
 
+    @Override
+    protected void checkWriteApplicable(final YangInstanceIdentifier path, final NodeModification modification,
+            final Optional<TreeNode> current, final Version version) throws DataValidationFailedException {
+        super.checkWriteApplicable(path, modification, current, version);
+        if (modification instanceof ModifiedNode) {
+            final NormalizedNode<?, ?> value = ((ModifiedNode) modification).getWrittenValue();
+            if (value != null) {
+                checkWrittenData(path, value, Optional.absent());
+            }
+        }
+    }
+
+    @Override
+    void checkWrittenData(final YangInstanceIdentifier path, final NormalizedNode<?, ?> data,
+            final Optional<TreeNode> current) throws DataValidationFailedException {
+        if (checkWrittenChildren) {
+            // Unkeyed lists are always replaced, hence entries are never merged into current data
+            for (final UnkeyedListEntryNode entry : ((UnkeyedListNode) data).getValue()) {
+                entryStrategy.get().checkWrittenData(path.node(entry.getIdentifier()), entry, Optional.absent());
+            }
+        }
+    }
+
     @Override
     void mergeIntoModifiedNode(final ModifiedNode node, final NormalizedNode<?, ?> value, final Version version) {
         // Unkeyed lists are always replaced
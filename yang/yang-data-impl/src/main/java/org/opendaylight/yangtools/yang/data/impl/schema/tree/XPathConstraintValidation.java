@@ -0,0 +1,540 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import com.google.common.base.Converter;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.xml.xpath.XPathExpressionException;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNodes;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.PrefixConverters;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathBooleanResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNodesetResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNumberResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathStringResult;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextNode;
+import org.opendaylight.yangtools.yang.data.util.DataSchemaContextTree;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ConstraintDefinition;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.MustDefinition;
+import org.opendaylight.yangtools.yang.model.api.RevisionAwareXPath;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enforcement of YANG 'must' and 'when' statements. Only the nodes affected by a modification are checked: nodes
+ * which have been written, together with their descendants, and nodes which have modified children.
+ *
+ * <p>
+ * Constraints which may reference data outside of the subtree of the node they are attached to are indexed by their
+ * {@link XPathExpression#getApexPath()}. Such a constraint would not be re-evaluated when the data it references
+ * changes, hence if a modification touches data at or below any of these apexes, all constraints in the tree are
+ * evaluated. Paths are compared in terms of data nodes, without telling apart entries of a list.
+ *
+ * <p>
+ * 'when' statements of choices, cases and augmentations are evaluated in the context of the closest ancestor data
+ * node, as specified by RFC 6020 section 7.19.5.
+ *
+ * <p>
+ * Expressions are compiled on first use and cached for each schema node, so a single instance should be retained for
+ * as long as its {@link SchemaContext} is in use. Expressions which fail to compile fail validation of every node
+ * they apply to.
+ */
+final class XPathConstraintValidation {
+    private static final class Constraint {
+        private final XPathExpression expression;
+        private final Exception compileFailure;
+        private final String description;
+        // Data path of the apex if the constraint may reference data outside of its node, null otherwise
+        private final List<QName> externalApex;
+
+        Constraint(final XPathExpression expression, final String description, final List<QName> externalApex) {
+            this.expression = Preconditions.checkNotNull(expression);
+            this.description = Preconditions.checkNotNull(description);
+            this.externalApex = externalApex;
+            this.compileFailure = null;
+        }
+
+        Constraint(final Exception compileFailure, final String description) {
+            this.compileFailure = Preconditions.checkNotNull(compileFailure);
+            this.description = Preconditions.checkNotNull(description);
+            this.externalApex = null;
+            this.expression = null;
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(XPathConstraintValidation.class);
+
+    // Keyed by DataSchemaNode for data nodes, ChoiceSchemaNode, ChoiceCaseNode or AugmentationSchema for mixins
+    private final ConcurrentMap<Object, List<Constraint>> constraints = new ConcurrentHashMap<>();
+    private final ConcurrentMap<QNameModule, Converter<String, QNameModule>> prefixes = new ConcurrentHashMap<>();
+    private final SchemaContext schemaContext;
+    private final DataSchemaContextTree contextTree;
+    private final XPathSchemaContext xpathContext;
+
+    // Apexes of all constraints which may reference data outside of their node, collected on first use
+    private volatile Set<List<QName>> externalApexes;
+
+    private XPathConstraintValidation(final SchemaContext schemaContext, final XPathSchemaContext xpathContext) {
+        this.schemaContext = Preconditions.checkNotNull(schemaContext);
+        this.xpathContext = Preconditions.checkNotNull(xpathContext);
+        this.contextTree = DataSchemaContextTree.from(schemaContext);
+    }
+
+    static XPathConstraintValidation create(final SchemaContext schemaContext,
+            final XPathSchemaContextFactory factory) {
+        return new XPathConstraintValidation(schemaContext, factory.createContext(schemaContext));
+    }
+
+    /**
+     * Check constraints of nodes affected by a modification.
+     *
+     * @param rootNode Candidate node of the data tree root
+     * @param dataAfter Data tree root after the modification has been applied
+     * @throws DataValidationFailedException if a must or when condition of an affected node does not hold
+     */
+    void validate(final DataTreeCandidateNode rootNode, final NormalizedNode<?, ?> dataAfter)
+            throws DataValidationFailedException {
+        final XPathDocument document = xpathContext.createDocument(dataAfter);
+        final Set<List<QName>> apexes = externalApexes();
+        final List<List<QName>> changes = apexes.isEmpty() ? null : new ArrayList<>();
+        validateChildren(document, rootNode, contextTree.getRoot(), YangInstanceIdentifier.EMPTY,
+            YangInstanceIdentifier.EMPTY, null, changes);
+
+        if (changes != null && intersects(changes, apexes)) {
+            LOG.debug("Modification affects constraints of unmodified nodes, validating the entire tree");
+            validateChildren(document, DataTreeCandidateNodes.fromNormalizedNode(dataAfter), contextTree.getRoot(),
+                YangInstanceIdentifier.EMPTY, YangInstanceIdentifier.EMPTY, null, null);
+        }
+    }
+
+    private static boolean intersects(final List<List<QName>> changes, final Set<List<QName>> apexes) {
+        for (List<QName> change : changes) {
+            for (List<QName> apex : apexes) {
+                if (isPrefix(apex, change) || isPrefix(change, apex)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPrefix(final List<QName> prefix, final List<QName> path) {
+        return prefix.size() <= path.size() && prefix.equals(path.subList(0, prefix.size()));
+    }
+
+    /**
+     * Validate modified children of a node.
+     *
+     * @param contextPath Path of the closest data node, which is the node itself unless it is a mixin
+     * @param contextSchema Schema of the closest data node, null for the data tree root
+     * @param changes List to which data paths of modified subtrees are added, null if they need not be recorded
+     */
+    private void validateChildren(final XPathDocument document, final DataTreeCandidateNode node,
+            final DataSchemaContextNode<?> schema, final YangInstanceIdentifier path,
+            final YangInstanceIdentifier contextPath, final DataSchemaNode contextSchema,
+            final List<List<QName>> changes) throws DataValidationFailedException {
+        final DataSchemaNode parentSchema = schema.getDataSchemaNode();
+        final Set<ChoiceCaseNode> cases = parentSchema instanceof ChoiceSchemaNode ? new HashSet<>(2) : null;
+
+        for (DataTreeCandidateNode child : node.getChildNodes()) {
+            final ModificationType modificationType = child.getModificationType();
+            if (modificationType == ModificationType.UNMODIFIED) {
+                continue;
+            }
+
+            final PathArgument arg = child.getIdentifier();
+            final YangInstanceIdentifier childPath = path.node(arg);
+            final DataSchemaContextNode<?> childSchema = schema.getChild(arg);
+            if (childSchema == null) {
+                LOG.debug("Node {} not found in schema, not validating its constraints", childPath);
+                continue;
+            }
+
+            // Descendants of a modified subtree are covered by its path
+            final List<List<QName>> childChanges;
+            if (changes != null && modificationType != ModificationType.SUBTREE_MODIFIED) {
+                changes.add(dataPathOf(childPath));
+                childChanges = null;
+            } else {
+                childChanges = changes;
+            }
+            if (!isAffected(child)) {
+                continue;
+            }
+
+            if (cases != null) {
+                final ChoiceCaseNode caze = findCase((ChoiceSchemaNode) parentSchema, arg);
+                if (caze != null && cases.add(caze)) {
+                    checkWhen(document, childPath, contextPath, contextSchema, caze, caze.getQName(),
+                        caze.getConstraints().getWhenCondition());
+                }
+            }
+
+            if (!childSchema.isMixin()) {
+                final DataSchemaNode dataSchema = childSchema.getDataSchemaNode();
+                if (dataSchema != null) {
+                    for (Constraint constraint : constraintsOf(dataSchema)) {
+                        checkConstraint(document, childPath, childPath, constraint);
+                    }
+                }
+                validateChildren(document, child, childSchema, childPath, childPath, dataSchema, childChanges);
+                continue;
+            }
+
+            if (arg instanceof AugmentationIdentifier) {
+                final AugmentationSchema augmentation = findAugmentation(parentSchema,
+                    (AugmentationIdentifier) arg);
+                if (augmentation != null && !augmentation.getChildNodes().isEmpty()) {
+                    checkWhen(document, childPath, contextPath, contextSchema, augmentation,
+                        augmentation.getChildNodes().iterator().next().getQName(), augmentation.getWhenCondition());
+                }
+            } else if (childSchema.getDataSchemaNode() instanceof ChoiceSchemaNode) {
+                final ChoiceSchemaNode choice = (ChoiceSchemaNode) childSchema.getDataSchemaNode();
+                checkWhen(document, childPath, contextPath, contextSchema, choice, choice.getQName(),
+                    choice.getConstraints().getWhenCondition());
+            }
+
+            // Lists and leaf-lists carry their constraints on entries
+            validateChildren(document, child, childSchema, childPath, contextPath, contextSchema, childChanges);
+        }
+    }
+
+    /**
+     * Return the QNames of data nodes on a data path, skipping mixins.
+     */
+    private List<QName> dataPathOf(final YangInstanceIdentifier path) {
+        final List<QName> ret = new ArrayList<>();
+        DataSchemaContextNode<?> node = contextTree.getRoot();
+        for (PathArgument arg : path.getPathArguments()) {
+            node = node.getChild(arg);
+            if (node == null) {
+                break;
+            }
+            if (!node.isMixin()) {
+                ret.add(arg.getNodeType());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Return the QNames of data nodes on a schema path, skipping choices and cases. Paths which omit choices and
+     * cases are accepted as well.
+     *
+     * @return Data node QNames, or null if the path cannot be resolved
+     */
+    private List<QName> dataPathOf(final SchemaPath path) {
+        final List<QName> ret = new ArrayList<>();
+        Object node = schemaContext;
+        for (QName qname : path.getPathFromRoot()) {
+            final DataSchemaNode child;
+            if (node instanceof ChoiceSchemaNode) {
+                child = ((ChoiceSchemaNode) node).getCaseNodeByName(qname);
+            } else if (node instanceof DataNodeContainer) {
+                child = findDataChild((DataNodeContainer) node, qname);
+            } else {
+                child = null;
+            }
+            if (child == null) {
+                return null;
+            }
+
+            if (!(child instanceof ChoiceSchemaNode) && !(child instanceof ChoiceCaseNode)) {
+                ret.add(qname);
+            }
+            node = child;
+        }
+        return ret;
+    }
+
+    private static DataSchemaNode findDataChild(final DataNodeContainer container, final QName qname) {
+        final DataSchemaNode child = container.getDataChildByName(qname);
+        if (child != null) {
+            return child;
+        }
+
+        for (DataSchemaNode node : container.getChildNodes()) {
+            if (node instanceof ChoiceSchemaNode) {
+                for (ChoiceCaseNode caze : ((ChoiceSchemaNode) node).getCases()) {
+                    final DataSchemaNode found = findDataChild(caze, qname);
+                    if (found != null) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private Set<List<QName>> externalApexes() {
+        Set<List<QName>> ret = externalApexes;
+        if (ret == null) {
+            final Set<List<QName>> apexes = new HashSet<>();
+            collectApexes(apexes, schemaContext, null);
+            ret = ImmutableSet.copyOf(apexes);
+            externalApexes = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * Collect external apexes of constraints in a subtree of the schema.
+     *
+     * @param contextSchema Schema of the closest data node, null for the data tree root
+     */
+    private void collectApexes(final Set<List<QName>> apexes, final DataNodeContainer container,
+            final DataSchemaNode contextSchema) {
+        if (container instanceof AugmentationTarget) {
+            for (AugmentationSchema augmentation : ((AugmentationTarget) container).getAvailableAugmentations()) {
+                if (!augmentation.getChildNodes().isEmpty()) {
+                    addApexes(apexes, whenOf(augmentation, augmentation.getChildNodes().iterator().next().getQName(),
+                        contextSchema, augmentation.getWhenCondition()));
+                }
+            }
+        }
+
+        for (DataSchemaNode child : container.getChildNodes()) {
+            if (child instanceof ChoiceSchemaNode) {
+                final ChoiceSchemaNode choice = (ChoiceSchemaNode) child;
+                addApexes(apexes, whenOf(choice, choice.getQName(), contextSchema,
+                    choice.getConstraints().getWhenCondition()));
+                for (ChoiceCaseNode caze : choice.getCases()) {
+                    addApexes(apexes, whenOf(caze, caze.getQName(), contextSchema,
+                        caze.getConstraints().getWhenCondition()));
+                    collectApexes(apexes, caze, contextSchema);
+                }
+            } else {
+                addApexes(apexes, constraintsOf(child));
+                if (child instanceof DataNodeContainer) {
+                    collectApexes(apexes, (DataNodeContainer) child, child);
+                }
+            }
+        }
+    }
+
+    private static void addApexes(final Set<List<QName>> apexes, final List<Constraint> constraints) {
+        for (Constraint constraint : constraints) {
+            if (constraint.externalApex != null) {
+                apexes.add(constraint.externalApex);
+            }
+        }
+    }
+
+    private static boolean isAffected(final DataTreeCandidateNode node) {
+        switch (node.getModificationType()) {
+        case APPEARED:
+        case SUBTREE_MODIFIED:
+        case WRITE:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static ChoiceCaseNode findCase(final ChoiceSchemaNode choice, final PathArgument arg) {
+        final QName qname = arg instanceof AugmentationIdentifier
+                ? Iterables.getFirst(((AugmentationIdentifier) arg).getPossibleChildNames(), null) : arg.getNodeType();
+        for (ChoiceCaseNode caze : choice.getCases()) {
+            if (caze.getDataChildByName(qname) != null) {
+                return caze;
+            }
+        }
+        return null;
+    }
+
+    private static AugmentationSchema findAugmentation(final DataSchemaNode target, final AugmentationIdentifier arg) {
+        if (target instanceof AugmentationTarget) {
+            for (AugmentationSchema augmentation : ((AugmentationTarget) target).getAvailableAugmentations()) {
+                final Set<QName> childNames = new HashSet<>();
+                for (DataSchemaNode child : augmentation.getChildNodes()) {
+                    childNames.add(child.getQName());
+                }
+                if (childNames.equals(arg.getPossibleChildNames())) {
+                    return augmentation;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check the 'when' condition of a choice, case or augmentation, which does not have a data node of its own.
+     */
+    private void checkWhen(final XPathDocument document, final YangInstanceIdentifier path,
+            final YangInstanceIdentifier contextPath, final DataSchemaNode contextSchema, final Object key,
+            final QName qname, final RevisionAwareXPath when) throws DataValidationFailedException {
+        for (Constraint constraint : whenOf(key, qname, contextSchema, when)) {
+            checkConstraint(document, path, contextPath, constraint);
+        }
+    }
+
+    private List<Constraint> whenOf(final Object key, final QName qname, final DataSchemaNode contextSchema,
+            final RevisionAwareXPath when) {
+        if (when == null) {
+            return ImmutableList.of();
+        }
+
+        return constraints.computeIfAbsent(key, unused -> {
+            final ImmutableList.Builder<Constraint> builder = ImmutableList.builder();
+            // A choice, case or augmentation is not a data node, hence whatever it references is external to it
+            compileConstraint(builder, qname, contextSchema == null ? SchemaPath.ROOT : contextSchema.getPath(), when,
+                "when condition \"" + when + "\"", false);
+            return builder.build();
+        });
+    }
+
+    /**
+     * Check a constraint.
+     *
+     * @param path Path reported on failure
+     * @param contextPath Path of the XPath context node
+     */
+    private static void checkConstraint(final XPathDocument document, final YangInstanceIdentifier path,
+            final YangInstanceIdentifier contextPath, final Constraint constraint)
+                    throws DataValidationFailedException {
+        if (constraint.compileFailure != null) {
+            throw new DataValidationFailedException(path, "Failed to compile " + constraint.description,
+                constraint.compileFailure);
+        }
+
+        final Optional<? extends XPathResult<?>> result;
+        try {
+            result = constraint.expression.evaluate(document, contextPath);
+        } catch (XPathExpressionException e) {
+            throw new DataValidationFailedException(path, "Failed to evaluate " + constraint.description, e);
+        }
+
+        if (!result.isPresent() || !toBoolean(result.get())) {
+            throw new DataValidationFailedException(path, constraint.description + " is not satisfied");
+        }
+    }
+
+    // XPath boolean() conversion
+    private static boolean toBoolean(final XPathResult<?> result) {
+        if (result instanceof XPathBooleanResult) {
+            return ((XPathBooleanResult) result).getValue();
+        }
+        if (result instanceof XPathNumberResult) {
+            final double value = ((XPathNumberResult) result).getValue().doubleValue();
+            return value != 0 && !Double.isNaN(value);
+        }
+        if (result instanceof XPathStringResult) {
+            return !((XPathStringResult) result).getValue().isEmpty();
+        }
+        if (result instanceof XPathNodesetResult) {
+            return !((XPathNodesetResult) result).getValue().isEmpty();
+        }
+        throw new IllegalStateException("Unhandled result " + result);
+    }
+
+    private List<Constraint> constraintsOf(final DataSchemaNode schema) {
+        return constraints.computeIfAbsent(schema, key -> compileConstraints(schema));
+    }
+
+    private List<Constraint> compileConstraints(final DataSchemaNode schema) {
+        final ConstraintDefinition definition = schema.getConstraints();
+        if (definition == null) {
+            return ImmutableList.of();
+        }
+
+        final ImmutableList.Builder<Constraint> builder = ImmutableList.builder();
+        final RevisionAwareXPath when = definition.getWhenCondition();
+        if (when != null) {
+            compileConstraint(builder, schema.getQName(), schema.getPath(), when, "when condition \"" + when + "\"",
+                true);
+        }
+        for (MustDefinition must : definition.getMustConstraints()) {
+            final String message = must.getErrorMessage();
+            compileConstraint(builder, schema.getQName(), schema.getPath(), must.getXpath(),
+                message != null && !message.isEmpty() ? message : "must condition \"" + must.getXpath() + "\"",
+                true);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Compile an expression defined by the module of a QName, evaluated in the context of a schema node.
+     *
+     * @param dataNode True if the constraint is attached to the data node at the context path, which is re-evaluated
+     *                 whenever its subtree is modified
+     */
+    private void compileConstraint(final ImmutableList.Builder<Constraint> builder, final QName qname,
+            final SchemaPath contextPath, final RevisionAwareXPath xpath, final String description,
+            final boolean dataNode) {
+        final Converter<String, QNameModule> converter = prefixesOf(qname);
+        if (converter == null) {
+            LOG.warn("Module of {} not found, cannot compile {}", qname, description);
+            builder.add(new Constraint(new IllegalStateException("Module of " + qname + " not found"),
+                description));
+            return;
+        }
+
+        final XPathExpression expression;
+        try {
+            expression = xpathContext.compileExpression(contextPath, converter, xpath.toString());
+        } catch (XPathExpressionException | IllegalArgumentException e) {
+            LOG.warn("Failed to compile {} of {}", description, contextPath, e);
+            builder.add(new Constraint(e, description));
+            return;
+        }
+
+        final List<QName> resolvedApex = dataPathOf(expression.getApexPath());
+        final List<QName> apex = resolvedApex != null ? ImmutableList.copyOf(resolvedApex) : ImmutableList.of();
+        final List<QName> context = dataNode ? dataPathOf(contextPath) : null;
+        builder.add(new Constraint(expression, description, context != null && isPrefix(context, apex) ? null : apex));
+    }
+
+    private Converter<String, QNameModule> prefixesOf(final QName qname) {
+        final Converter<String, QNameModule> existing = prefixes.get(qname.getModule());
+        if (existing != null) {
+            return existing;
+        }
+
+        final Module module = schemaContext.findModuleByNamespaceAndRevision(qname.getNamespace(),
+            qname.getRevision());
+        if (module == null) {
+            return null;
+        }
+
+        final Converter<String, QNameModule> created = PrefixConverters.create(schemaContext, module);
+        final Converter<String, QNameModule> raced = prefixes.putIfAbsent(qname.getModule(), created);
+        return raced != null ? raced : created;
+    }
+}
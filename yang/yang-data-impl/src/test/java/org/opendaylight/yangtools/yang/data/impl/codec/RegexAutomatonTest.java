@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class RegexAutomatonTest {
+    private static final String IPV4 = "^(([0-9]|[1-9][0-9]|1[0-9][0-9]|2[0-4][0-9]|25[0-5])\\.){3}"
+            + "([0-9]|[1-9][0-9]|1[0-9][0-9]|2[0-4][0-9]|25[0-5])(%[\\p{N}\\p{L}]+)?$";
+    private static final String IPV6 = "^((:|[0-9a-fA-F]{0,4}):)([0-9a-fA-F]{0,4}:){0,5}((([0-9a-fA-F]{0,4}:)?"
+            + "(:|[0-9a-fA-F]{0,4}))|(((25[0-5]|2[0-4][0-9]|[01]?[0-9]?[0-9])\\.){3}"
+            + "(25[0-5]|2[0-4][0-9]|[01]?[0-9]?[0-9])))(%[\\p{N}\\p{L}]+)?$";
+    private static final String MAC = "^[0-9a-fA-F]{2}(:[0-9a-fA-F]{2}){5}$";
+
+    @Test
+    public void testMatchesLikePattern() {
+        assertSameMatches(IPV4, "0.0.0.0", "192.168.1.1", "255.255.255.255", "256.1.1.1", "1.1.1", "1.1.1.1%eth0",
+            "1.1.1.1%", "01.1.1.1", "", "1.1.1.1\n");
+        assertSameMatches(IPV6, "::", "::1", "fe80::1%eth0", "2001:db8::ff00:42:8329", "::ffff:192.0.2.128",
+            "2001:db8::g", "1:2:3:4:5:6:7:8:9", ":");
+        assertSameMatches(MAC, "00:11:22:33:44:55", "aa:BB:cc:DD:ee:FF", "00:11:22:33:44", "00-11-22-33-44-55",
+            "00:11:22:33:44:55:66");
+        assertSameMatches("[a-z]+(\\.[a-z]+)*|\\d{2,4}|x?", "", "x", "abc.def", "abc.", "12", "12345", "ab.c1");
+        assertSameMatches("\\p{InBasicLatin}*\u00e9.", "abc\u00e9z", "\u00e9", "\u00e9\n", "\u00e9\ud83d\ude00",
+            "\ud83d\ude00");
+        assertSameMatches("[^\\s]{1,3}\\*", "ab*", "a b*", "*", "abcd*");
+        assertSameMatches("(a|b|)*c", "c", "ababc", "abca", "aaac");
+    }
+
+    @Test
+    public void testUnsupportedConstructs() {
+        assertUnsupported("(a)\\1");
+        assertUnsupported("(?i)abc");
+        assertUnsupported("a(?=b)");
+        assertUnsupported("a*?");
+        assertUnsupported("a++");
+        assertUnsupported("\\bab");
+        assertUnsupported("[a-z&&[^x]]");
+        assertUnsupported("[[a]b]");
+        assertUnsupported("a^b");
+        assertUnsupported("a{2");
+        assertUnsupported("(ab");
+    }
+
+    @Test
+    public void testLongInput() {
+        final RegexAutomaton automaton = RegexAutomaton.compile("(a|aa)*b").get();
+        final String input = Strings.repeat("a", 100000);
+        assertFalse(automaton.matches(input));
+        assertTrue(automaton.matches(input + "b"));
+    }
+
+    @Test
+    public void testManyDistinctCodePoints() {
+        final RegexAutomaton automaton = RegexAutomaton.compile("[^a]*\\p{L}").get();
+        final StringBuilder sb = new StringBuilder();
+        for (int codePoint = 0x100; codePoint < 0x30000; ++codePoint) {
+            if (Character.isLetter(codePoint)) {
+                sb.appendCodePoint(codePoint);
+            }
+        }
+        final String input = sb.toString();
+        assertTrue(automaton.matches(input));
+        assertFalse(automaton.matches(input + "a1"));
+        assertTrue(automaton.otherEdgeCount() <= 16384);
+
+        // Transitions which are no longer cached still match correctly
+        assertTrue(automaton.matches(input));
+    }
+
+    private static void assertSameMatches(final String regex, final String... inputs) {
+        final Pattern pattern = Pattern.compile(regex);
+        final Optional<RegexAutomaton> automaton = RegexAutomaton.compile(regex);
+        assertTrue(automaton.isPresent());
+        for (String input : inputs) {
+            assertEquals(regex + " on " + input, pattern.matcher(input).matches(), automaton.get().matches(input));
+        }
+    }
+
+    private static void assertUnsupported(final String regex) {
+        assertFalse(regex, RegexAutomaton.compile(regex).isPresent());
+    }
+}
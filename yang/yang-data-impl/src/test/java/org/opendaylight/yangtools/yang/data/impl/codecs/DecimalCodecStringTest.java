@@ -10,12 +10,17 @@ package org.opendaylight.yangtools.yang.data.impl.codecs;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 import java.math.BigDecimal;
 import org.junit.Test;
 import org.opendaylight.yangtools.yang.data.api.codec.DecimalCodec;
 import org.opendaylight.yangtools.yang.model.api.SchemaPath;
 import org.opendaylight.yangtools.yang.model.api.type.DecimalTypeDefinition;
+import org.opendaylight.yangtools.yang.model.util.BaseConstraints;
 import org.opendaylight.yangtools.yang.model.util.type.BaseTypes;
+import org.opendaylight.yangtools.yang.model.util.type.RangeRestrictedTypeBuilder;
+import org.opendaylight.yangtools.yang.model.util.type.RestrictedTypes;
 
 /**
  * Unit tests for DecimalCodecString.
@@ -48,4 +53,32 @@ public class DecimalCodecStringTest {
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, null);
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDeserializeWithRange() {
+        final RangeRestrictedTypeBuilder<DecimalTypeDefinition> builder =
+                RestrictedTypes.newDecima64Builder(getType(), mock(SchemaPath.class));
+        builder.setRangeAlternatives(ImmutableList.of(BaseConstraints.newRangeConstraint(new BigDecimal("-1.5"),
+            new BigDecimal("10"), Optional.absent(), Optional.absent())));
+        DecimalCodec<String> codec = TypeDefinitionAwareCodecTestHelper.getCodec(builder.build(), DecimalCodec.class);
+
+        assertEquals("deserialize", new BigDecimal("-1.50"), codec.deserialize("-1.50"));
+        assertEquals("deserialize", new BigDecimal("10"), codec.deserialize("10"));
+        assertEquals("deserialize", new BigDecimal("+9.999"), codec.deserialize("+9.999"));
+        assertEquals("deserialize", new BigDecimal("1E1"), codec.deserialize("1E1"));
+
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "-1.51");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "10.001");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "1234567890123456789");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "1.1E1");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "-");
+
+        // Only ASCII digits are allowed
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "\u0661.\u0665");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "\uff11");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "1E\u0661");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec,
+            "\u0661234567890123456789");
+    }
 }
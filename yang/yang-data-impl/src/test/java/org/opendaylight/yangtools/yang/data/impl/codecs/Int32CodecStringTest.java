@@ -48,6 +48,12 @@ public class Int32CodecStringTest {
         assertEquals("deserialize", codec.deserialize(integer), Integer.valueOf(integer, 10));
         assertEquals("deserialize", codec.deserialize(negInteger), Integer.valueOf(negInteger, 10));
 
+        // Only ASCII digits are allowed
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "\u0661\u0662\u0663");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "\uff11\uff12");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "0x\uff21");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "0\u0661");
+
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "1o");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, null);
@@ -48,6 +48,17 @@ public class Int8CodecStringTest {
         assertEquals("deserialize", codec.deserialize(integer), Byte.valueOf(integer, 10));
         assertEquals("deserialize", codec.deserialize(negInteger), Byte.valueOf(negInteger, 10));
 
+        assertEquals("deserialize", Byte.valueOf(Byte.MIN_VALUE), codec.deserialize("-128"));
+        assertEquals("deserialize", Byte.valueOf(Byte.MAX_VALUE), codec.deserialize("0x7f"));
+        assertEquals("deserialize", Byte.valueOf((byte) 0), codec.deserialize("0"));
+
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "128");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "-0x81");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "00");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "-0");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "0x");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "08");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "+");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "1o");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, null);
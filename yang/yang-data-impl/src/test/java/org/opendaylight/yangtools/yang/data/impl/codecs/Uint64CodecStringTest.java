@@ -43,6 +43,11 @@ public class Uint64CodecStringTest {
         assertEquals("deserialize", codec.deserialize(octal), new BigInteger(octal, 8));
         assertEquals("deserialize", codec.deserialize(integer), new BigInteger(integer, 10));
 
+        assertEquals("deserialize", new BigInteger("18446744073709551615"), codec.deserialize("18446744073709551615"));
+        assertEquals("deserialize", new BigInteger("18446744073709551615"), codec.deserialize("0xFFFFFFFFFFFFFFFF"));
+
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "18446744073709551616");
+        TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "-1");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "12345o");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, "");
         TypeDefinitionAwareCodecTestHelper.deserializeWithExpectedIllegalArgEx(codec, null);
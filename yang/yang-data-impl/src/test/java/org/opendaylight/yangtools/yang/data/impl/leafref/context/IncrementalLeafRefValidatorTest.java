@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.leafref.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.net.URISyntaxException;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.TestUtils;
+import org.opendaylight.yangtools.yang.data.impl.leafref.IncrementalLeafRefValidator;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefContext;
+import org.opendaylight.yangtools.yang.data.impl.leafref.LeafRefDataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.ListNodeBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class IncrementalLeafRefValidatorTest {
+    private static final QName BASE = QName.create("leafref.incremental", "2016-10-15", "base");
+    private static final QName INTERFACES = QName.create(BASE, "interfaces");
+    private static final QName INTERFACE = QName.create(BASE, "interface");
+    private static final QName NAME = QName.create(BASE, "name");
+    private static final QName PROFILES = QName.create(BASE, "profiles");
+    private static final QName PROFILE = QName.create(BASE, "profile");
+    private static final QName MTU = QName.create(BASE, "mtu");
+    private static final QName BINDINGS = QName.create(BASE, "bindings");
+    private static final QName BINDING = QName.create(BASE, "binding");
+    private static final QName ID = QName.create(BASE, "id");
+    private static final QName BACKUP = QName.create(BASE, "backup");
+
+    private static final YangInstanceIdentifier INTERFACE_PATH = YangInstanceIdentifier.of(INTERFACES)
+            .node(INTERFACE);
+    private static final YangInstanceIdentifier BINDING_PATH = YangInstanceIdentifier.of(BINDINGS).node(BINDING);
+
+    private static SchemaContext context;
+    private static LeafRefContext rootLeafRefContext;
+
+    private TipProducingDataTree dataTree;
+    private IncrementalLeafRefValidator validator;
+
+    @BeforeClass
+    public static void init() throws FileNotFoundException, ReactorException, URISyntaxException {
+        context = TestUtils.parseYangSources(new File(IncrementalLeafRefValidatorTest.class.getResource(
+                "/leafref-incremental/leafref-incremental.yang").toURI()));
+        rootLeafRefContext = LeafRefContext.create(context);
+    }
+
+    @Before
+    public void setUp() throws LeafRefDataValidationFailedException {
+        dataTree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        dataTree.setSchemaContext(context);
+        validator = IncrementalLeafRefValidator.create(rootLeafRefContext);
+
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(YangInstanceIdentifier.of(INTERFACES), ImmutableNodes.containerNode(INTERFACES));
+        modification.write(INTERFACE_PATH, ImmutableNodes.mapNodeBuilder(INTERFACE)
+            .withChild(iface("eth0")).withChild(iface("eth1")).build());
+        modification.write(YangInstanceIdentifier.of(PROFILES), ImmutableNodes.containerNode(PROFILES));
+        modification.write(YangInstanceIdentifier.of(PROFILES).node(PROFILE), ImmutableNodes.mapNodeBuilder(PROFILE)
+            .withChild(profile("default", 1500)).withChild(profile("jumbo", 9000)).build());
+        modification.write(YangInstanceIdentifier.of(BINDINGS), ImmutableNodes.containerNode(BINDINGS));
+        modification.write(BINDING_PATH, ImmutableNodes.mapNodeBuilder(BINDING).build());
+        commit(modification);
+    }
+
+    private static MapEntryNode iface(final String name) {
+        return ImmutableNodes.mapEntry(INTERFACE, NAME, name);
+    }
+
+    private static MapEntryNode profile(final String name, final int mtu) {
+        return ImmutableNodes.mapEntryBuilder(PROFILE, NAME, name).withChild(leafNode(MTU, mtu)).build();
+    }
+
+    private static MapEntryNode binding(final int id, final String iface, final String... backups) {
+        final DataContainerNodeBuilder<NodeIdentifierWithPredicates, MapEntryNode> builder =
+                ImmutableNodes.mapEntryBuilder(BINDING, ID, id).withChild(leafNode(INTERFACE, iface));
+        if (backups.length != 0) {
+            final NodeIdentifier backupId = new NodeIdentifier(BACKUP);
+            final ListNodeBuilder<String, LeafSetEntryNode<String>> leafSet = Builders.<String>leafSetBuilder()
+                    .withNodeIdentifier(backupId);
+            for (final String backup : backups) {
+                leafSet.withChildValue(backup);
+            }
+            builder.withChild(leafSet.build());
+        }
+        return builder.build();
+    }
+
+    private static YangInstanceIdentifier interfacePath(final String name) {
+        return INTERFACE_PATH.node(new NodeIdentifierWithPredicates(INTERFACE, NAME, name));
+    }
+
+    private static YangInstanceIdentifier bindingPath(final int id) {
+        return BINDING_PATH.node(new NodeIdentifierWithPredicates(BINDING, ID, id));
+    }
+
+    private DataTreeCandidate prepare(final DataTreeModification modification) {
+        modification.ready();
+        return dataTree.prepare(modification);
+    }
+
+    private void commit(final DataTreeModification modification) throws LeafRefDataValidationFailedException {
+        final DataTreeCandidate candidate = prepare(modification);
+        validator.validate(candidate);
+        dataTree.commit(candidate);
+        validator.commit(candidate);
+    }
+
+    private void assertValidationFails(final DataTreeModification modification, final int errors) {
+        try {
+            validator.validate(prepare(modification));
+            fail("Validation should have failed");
+        } catch (LeafRefDataValidationFailedException e) {
+            assertEquals(errors, e.getValidationsErrorsCount());
+        }
+    }
+
+    @Test
+    public void testReferringWrites() throws LeafRefDataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(1), binding(1, "eth0", "eth1"));
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(2), binding(2, "eth2", "eth0", "eth3"));
+        assertValidationFails(modification, 2);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(2), binding(2, "eth2"));
+        modification.write(interfacePath("eth2"), iface("eth2"));
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(2).node(INTERFACE), leafNode(INTERFACE, "eth4"));
+        assertValidationFails(modification, 1);
+    }
+
+    @Test
+    public void testTargetRemoval() throws LeafRefDataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(1), binding(1, "eth0"));
+        modification.write(bindingPath(2), binding(2, "eth1", "eth0"));
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.delete(interfacePath("eth0"));
+        assertValidationFails(modification, 2);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.delete(interfacePath("eth0"));
+        modification.delete(bindingPath(1));
+        modification.delete(bindingPath(2).node(BACKUP).node(new NodeWithValue<>(BACKUP, "eth0")));
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.delete(YangInstanceIdentifier.of(INTERFACES));
+        assertValidationFails(modification, 1);
+    }
+
+    @Test
+    public void testExistingData() throws LeafRefDataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(1), binding(1, "eth1"));
+        commit(modification);
+
+        validator = IncrementalLeafRefValidator.create(rootLeafRefContext,
+            dataTree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get());
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.delete(interfacePath("eth1"));
+        assertValidationFails(modification, 1);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.delete(interfacePath("eth0"));
+        commit(modification);
+    }
+
+    @Test
+    public void testPredicatedLeafRef() throws LeafRefDataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(1), ImmutableNodes.mapEntryBuilder(BINDING, ID, 1)
+            .withChild(leafNode(PROFILE, "default")).withChild(leafNode(MTU, 1500)).build());
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(2), ImmutableNodes.mapEntryBuilder(BINDING, ID, 2)
+            .withChild(leafNode(PROFILE, "default")).withChild(leafNode(MTU, 9000)).build());
+        assertValidationFails(modification, 1);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.delete(YangInstanceIdentifier.of(PROFILES).node(PROFILE).node(
+            new NodeIdentifierWithPredicates(PROFILE, NAME, "default")));
+        assertValidationFails(modification, 1);
+    }
+
+    @Test
+    public void testPredicateInputChange() throws LeafRefDataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(1), ImmutableNodes.mapEntryBuilder(BINDING, ID, 1)
+            .withChild(leafNode(PROFILE, "default")).withChild(leafNode(MTU, 1500)).build());
+        commit(modification);
+
+        // Neither the leafref nor its target changes, but the predicate now selects a profile without mtu 1500
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(1).node(PROFILE), leafNode(PROFILE, "jumbo"));
+        assertValidationFails(modification, 1);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(bindingPath(1).node(PROFILE), leafNode(PROFILE, "jumbo"));
+        modification.write(bindingPath(1).node(MTU), leafNode(MTU, 9000));
+        commit(modification);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BatchingDataTreeTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeSnapshot;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+
+public class BatchedDataTreeCommitTest {
+    private static final YangInstanceIdentifier OUTER_LIST_1_PATH = outerListEntryPath(1);
+    private static final YangInstanceIdentifier OUTER_LIST_2_PATH = outerListEntryPath(2);
+
+    private TipProducingDataTree tree;
+
+    @Before
+    public void setUp() throws Exception {
+        tree = InMemoryDataTreeFactory.getInstance().create(TreeType.OPERATIONAL);
+        tree.setSchemaContext(TestModel.createTestContext());
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        mod.write(TestModel.OUTER_LIST_PATH, ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        mod.write(TestModel.INNER_CONTAINER_PATH, ImmutableNodes.containerNode(TestModel.INNER_CONTAINER_QNAME));
+        mod.write(TestModel.INNER_VALUE_PATH, ImmutableNodes.leafNode(TestModel.VALUE_QNAME, "initial"));
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+    }
+
+    private static YangInstanceIdentifier outerListEntryPath(final int id) {
+        return YangInstanceIdentifier.builder(TestModel.OUTER_LIST_PATH)
+                .nodeWithKey(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id).build();
+    }
+
+    private static MapEntryNode outerListEntry(final int id) {
+        return ImmutableNodes.mapEntry(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id);
+    }
+
+    private BatchingDataTreeTip batchingTree() {
+        assertTrue(tree instanceof BatchingDataTreeTip);
+        return (BatchingDataTreeTip) tree;
+    }
+
+    @Test
+    public void testIndependentModifications() throws DataValidationFailedException {
+        final DataTreeSnapshot snapshot = tree.takeSnapshot();
+
+        final DataTreeModification mod1 = snapshot.newModification();
+        mod1.write(OUTER_LIST_1_PATH, outerListEntry(1));
+        mod1.ready();
+
+        final DataTreeModification mod2 = snapshot.newModification();
+        mod2.write(OUTER_LIST_2_PATH, outerListEntry(2));
+        mod2.ready();
+
+        final DataTreeModification mod3 = snapshot.newModification();
+        mod3.write(TestModel.INNER_VALUE_PATH, ImmutableNodes.leafNode(TestModel.VALUE_QNAME, "updated"));
+        mod3.ready();
+
+        final DataTreeCandidate candidate = batchingTree().validateAndPrepare(ImmutableList.of(mod1, mod2, mod3));
+        tree.commit(candidate);
+
+        final DataTreeSnapshot after = tree.takeSnapshot();
+        assertTrue(after.readNode(OUTER_LIST_1_PATH).isPresent());
+        assertTrue(after.readNode(OUTER_LIST_2_PATH).isPresent());
+        assertEquals("updated", after.readNode(TestModel.INNER_VALUE_PATH).get().getValue());
+
+        final DataTreeCandidateNode root = candidate.getRootNode();
+        assertEquals(ModificationType.SUBTREE_MODIFIED, root.getModificationType());
+
+        final DataTreeCandidateNode test = root.getModifiedChild(TestModel.TEST_PATH.getLastPathArgument());
+        assertNotNull(test);
+        assertEquals(ModificationType.SUBTREE_MODIFIED, test.getModificationType());
+        assertEquals(2, test.getChildNodes().size());
+
+        final DataTreeCandidateNode outerList = test.getModifiedChild(new NodeIdentifier(TestModel.OUTER_LIST_QNAME));
+        assertNotNull(outerList);
+        assertEquals(ModificationType.SUBTREE_MODIFIED, outerList.getModificationType());
+        assertEquals(2, outerList.getChildNodes().size());
+        for (DataTreeCandidateNode entry : outerList.getChildNodes()) {
+            assertEquals(ModificationType.WRITE, entry.getModificationType());
+            assertFalse(entry.getDataBefore().isPresent());
+            assertTrue(entry.getDataAfter().isPresent());
+        }
+
+        final DataTreeCandidateNode value = test.getModifiedChild(new NodeIdentifier(TestModel.INNER_CONTAINER_QNAME))
+                .getModifiedChild(new NodeIdentifier(TestModel.VALUE_QNAME));
+        assertEquals(ModificationType.WRITE, value.getModificationType());
+        assertEquals("initial", value.getDataBefore().get().getValue());
+        assertEquals("updated", value.getDataAfter().get().getValue());
+    }
+
+    @Test
+    public void testChainedModifications() throws DataValidationFailedException {
+        final DataTreeModification mod1 = tree.takeSnapshot().newModification();
+        mod1.write(OUTER_LIST_1_PATH, outerListEntry(1));
+        mod1.write(TestModel.INNER_VALUE_PATH, ImmutableNodes.leafNode(TestModel.VALUE_QNAME, "updated"));
+        mod1.ready();
+
+        final DataTreeModification mod2 = mod1.newModification();
+        mod2.delete(TestModel.INNER_VALUE_PATH);
+        mod2.ready();
+
+        final DataTreeCandidate candidate = batchingTree().validateAndPrepare(ImmutableList.of(mod1, mod2));
+        tree.commit(candidate);
+
+        final DataTreeSnapshot after = tree.takeSnapshot();
+        assertTrue(after.readNode(OUTER_LIST_1_PATH).isPresent());
+        assertFalse(after.readNode(TestModel.INNER_VALUE_PATH).isPresent());
+
+        final DataTreeCandidateNode value = candidate.getRootNode()
+                .getModifiedChild(TestModel.TEST_PATH.getLastPathArgument())
+                .getModifiedChild(new NodeIdentifier(TestModel.INNER_CONTAINER_QNAME))
+                .getModifiedChild(new NodeIdentifier(TestModel.VALUE_QNAME));
+        assertEquals(ModificationType.DELETE, value.getModificationType());
+        assertEquals("initial", value.getDataBefore().get().getValue());
+        assertFalse(value.getDataAfter().isPresent());
+    }
+
+    @Test
+    public void testConflictingModifications() throws DataValidationFailedException {
+        final DataTreeSnapshot snapshot = tree.takeSnapshot();
+        final NormalizedNode<?, ?> before = snapshot.readNode(YangInstanceIdentifier.EMPTY).get();
+
+        final DataTreeModification mod1 = snapshot.newModification();
+        mod1.write(TestModel.INNER_VALUE_PATH, ImmutableNodes.leafNode(TestModel.VALUE_QNAME, "first"));
+        mod1.ready();
+
+        final DataTreeModification mod2 = snapshot.newModification();
+        mod2.write(TestModel.INNER_VALUE_PATH, ImmutableNodes.leafNode(TestModel.VALUE_QNAME, "second"));
+        mod2.ready();
+
+        try {
+            batchingTree().validateAndPrepare(ImmutableList.of(mod1, mod2));
+            fail("Conflicting batch should have failed to validate");
+        } catch (DataValidationFailedException e) {
+            assertEquals(TestModel.INNER_VALUE_PATH, e.getPath());
+        }
+
+        assertSame(before, tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get());
+    }
+
+    @Test
+    public void testEmptyBatch() throws DataValidationFailedException {
+        final NormalizedNode<?, ?> before = tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get();
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.ready();
+
+        tree.commit(batchingTree().validateAndPrepare(Collections.<DataTreeModification>emptyList()));
+        final DataTreeCandidate candidate = batchingTree().validateAndPrepare(ImmutableList.of(mod));
+        assertEquals(ModificationType.UNMODIFIED, candidate.getRootNode().getModificationType());
+        tree.commit(candidate);
+
+        assertSame(before, tree.takeSnapshot().readNode(YangInstanceIdentifier.EMPTY).get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStaleBatch() throws DataValidationFailedException {
+        final DataTreeSnapshot snapshot = tree.takeSnapshot();
+
+        final DataTreeModification mod1 = snapshot.newModification();
+        mod1.write(OUTER_LIST_1_PATH, outerListEntry(1));
+        mod1.ready();
+
+        final DataTreeModification mod2 = snapshot.newModification();
+        mod2.write(OUTER_LIST_2_PATH, outerListEntry(2));
+        mod2.ready();
+
+        final DataTreeCandidate candidate = batchingTree().validateAndPrepare(ImmutableList.of(mod1, mod2));
+
+        final DataTreeModification concurrent = tree.takeSnapshot().newModification();
+        concurrent.write(TestModel.INNER_VALUE_PATH, ImmutableNodes.leafNode(TestModel.VALUE_QNAME, "concurrent"));
+        concurrent.ready();
+        tree.commit(tree.prepare(concurrent));
+
+        tree.commit(candidate);
+    }
+
+    @Test
+    public void testKeyedChildLookup() throws DataValidationFailedException {
+        final DataTreeSnapshot snapshot = tree.takeSnapshot();
+
+        final DataTreeModification mod1 = snapshot.newModification();
+        mod1.write(OUTER_LIST_1_PATH, outerListEntry(1));
+        mod1.ready();
+
+        final DataTreeModification mod2 = snapshot.newModification();
+        mod2.write(OUTER_LIST_2_PATH, outerListEntry(2));
+        mod2.ready();
+
+        final DataTreeCandidate candidate = batchingTree().validateAndPrepare(ImmutableList.of(mod1, mod2));
+        final DataTreeCandidateNode outerList = candidate.getRootNode()
+                .getModifiedChild(TestModel.TEST_PATH.getLastPathArgument())
+                .getModifiedChild(new NodeIdentifier(TestModel.OUTER_LIST_QNAME));
+
+        final NodeIdentifierWithPredicates key = (NodeIdentifierWithPredicates) OUTER_LIST_2_PATH.getLastPathArgument();
+        final DataTreeCandidateNode entry = outerList.getModifiedChild(key);
+        assertNotNull(entry);
+        assertEquals(key, entry.getIdentifier());
+        assertEquals(ModificationType.WRITE, entry.getModificationType());
+    }
+}
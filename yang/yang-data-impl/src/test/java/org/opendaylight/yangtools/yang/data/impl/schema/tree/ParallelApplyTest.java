@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidate;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.ModificationType;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class ParallelApplyTest {
+    private static final int ENTRY_COUNT = 1000;
+
+    private static SchemaContext SCHEMA_CONTEXT;
+
+    private DataTree serialTree;
+    private DataTree parallelTree;
+
+    @BeforeClass
+    public static void beforeClass() throws ReactorException {
+        SCHEMA_CONTEXT = TestModel.createTestContext();
+    }
+
+    @Before
+    public void setUp() throws DataValidationFailedException {
+        serialTree = createTree(DataTreeConfiguration.DEFAULT_OPERATIONAL);
+        parallelTree = createTree(new DataTreeConfiguration.Builder(TreeType.OPERATIONAL)
+            .setMandatoryNodesValidation(true).setParallelApplyThreshold(16).build());
+    }
+
+    private static DataTree createTree(final DataTreeConfiguration config) throws DataValidationFailedException {
+        final DataTree tree = InMemoryDataTreeFactory.getInstance().create(config);
+        tree.setSchemaContext(SCHEMA_CONTEXT);
+
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        mod.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        mod.write(TestModel.OUTER_LIST_PATH, ImmutableNodes.mapNodeBuilder(TestModel.OUTER_LIST_QNAME).build());
+        mod.ready();
+        tree.validate(mod);
+        tree.commit(tree.prepare(mod));
+        return tree;
+    }
+
+    private static YangInstanceIdentifier entryPath(final int id) {
+        return YangInstanceIdentifier.builder(TestModel.OUTER_LIST_PATH)
+                .nodeWithKey(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, id).build();
+    }
+
+    private static DataTreeCandidate writeEntries(final DataTree tree) throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            mod.write(entryPath(i), ImmutableNodes.mapEntryBuilder(TestModel.OUTER_LIST_QNAME, TestModel.ID_QNAME, i)
+                .withChild(ImmutableNodes.leafNode(TestModel.TWO_QNAME, "two-" + i)).build());
+        }
+        mod.ready();
+        tree.validate(mod);
+
+        final DataTreeCandidate candidate = tree.prepare(mod);
+        tree.commit(candidate);
+        return candidate;
+    }
+
+    private static DataTreeCandidate deleteOddEntries(final DataTree tree) throws DataValidationFailedException {
+        final DataTreeModification mod = tree.takeSnapshot().newModification();
+        for (int i = 1; i < ENTRY_COUNT; i += 2) {
+            mod.delete(entryPath(i));
+        }
+        mod.ready();
+        tree.validate(mod);
+
+        final DataTreeCandidate candidate = tree.prepare(mod);
+        tree.commit(candidate);
+        return candidate;
+    }
+
+    private static NormalizedNode<?, ?> readOuterList(final DataTree tree) {
+        return tree.takeSnapshot().readNode(TestModel.OUTER_LIST_PATH).get();
+    }
+
+    private static DataTreeCandidateNode outerListCandidate(final DataTreeCandidate candidate) {
+        return candidate.getRootNode().getModifiedChild(TestModel.TEST_PATH.getLastPathArgument())
+                .getModifiedChild(new NodeIdentifier(TestModel.OUTER_LIST_QNAME));
+    }
+
+    @Test
+    public void testParallelWrite() throws DataValidationFailedException {
+        writeEntries(serialTree);
+        final DataTreeCandidate candidate = writeEntries(parallelTree);
+
+        final NormalizedNode<?, ?> outerList = readOuterList(parallelTree);
+        assertEquals(ENTRY_COUNT, ((MapNode) outerList).getValue().size());
+        assertEquals(readOuterList(serialTree), outerList);
+
+        final DataTreeCandidateNode listNode = outerListCandidate(candidate);
+        assertEquals(ModificationType.SUBTREE_MODIFIED, listNode.getModificationType());
+        assertEquals(ENTRY_COUNT, listNode.getChildNodes().size());
+        for (DataTreeCandidateNode entry : listNode.getChildNodes()) {
+            assertEquals(ModificationType.WRITE, entry.getModificationType());
+        }
+    }
+
+    @Test
+    public void testParallelDelete() throws DataValidationFailedException {
+        writeEntries(serialTree);
+        writeEntries(parallelTree);
+        deleteOddEntries(serialTree);
+        final DataTreeCandidate candidate = deleteOddEntries(parallelTree);
+
+        final NormalizedNode<?, ?> outerList = readOuterList(parallelTree);
+        assertEquals(ENTRY_COUNT / 2, ((MapNode) outerList).getValue().size());
+        assertEquals(readOuterList(serialTree), outerList);
+        assertTrue(parallelTree.takeSnapshot().readNode(entryPath(0)).isPresent());
+        assertFalse(parallelTree.takeSnapshot().readNode(entryPath(1)).isPresent());
+
+        for (DataTreeCandidateNode entry : outerListCandidate(candidate).getChildNodes()) {
+            assertEquals(ModificationType.DELETE, entry.getModificationType());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeThreshold() {
+        new DataTreeConfiguration.Builder(TreeType.OPERATIONAL).setParallelApplyThreshold(-1);
+    }
+}
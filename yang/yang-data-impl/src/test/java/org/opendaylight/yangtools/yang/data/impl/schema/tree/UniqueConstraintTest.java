@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.impl.schema.tree;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeAttrBuilder;
+import org.opendaylight.yangtools.yang.data.impl.schema.builder.api.DataContainerNodeBuilder;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.parser.spi.meta.ReactorException;
+
+public class UniqueConstraintTest {
+    private static final QName ENTRY_QNAME = QName.create(TestModel.TEST_QNAME, "entry");
+    private static final QName ID_QNAME = QName.create(TestModel.TEST_QNAME, "id");
+    private static final QName NAME_QNAME = QName.create(TestModel.TEST_QNAME, "name");
+    private static final QName ADDRESS_QNAME = QName.create(TestModel.TEST_QNAME, "address");
+    private static final QName IP_QNAME = QName.create(TestModel.TEST_QNAME, "ip");
+    private static final QName PORT_QNAME = QName.create(TestModel.TEST_QNAME, "port");
+    private static final QName HOST_QNAME = QName.create(TestModel.TEST_QNAME, "host");
+    private static final QName ZONE_QNAME = QName.create(TestModel.TEST_QNAME, "zone");
+    private static final YangInstanceIdentifier ENTRY_PATH = TestModel.TEST_PATH.node(ENTRY_QNAME);
+
+    private SchemaContext schemaContext;
+
+    @Before
+    public void prepare() throws ReactorException {
+        schemaContext = TestModel.createTestContext("/unique-constraint-test.yang");
+        assertNotNull("Schema context must not be null.", schemaContext);
+    }
+
+    private InMemoryDataTree initDataTree(final boolean uniqueIndexes) throws DataValidationFailedException {
+        final InMemoryDataTree inMemoryDataTree = (InMemoryDataTree) InMemoryDataTreeFactory.getInstance().create(
+                new DataTreeConfiguration.Builder(TreeType.CONFIGURATION).setUniqueIndexes(uniqueIndexes).build());
+        inMemoryDataTree.setSchemaContext(schemaContext);
+
+        final DataTreeModification modification = inMemoryDataTree.takeSnapshot().newModification();
+        modification.write(TestModel.TEST_PATH, ImmutableNodes.containerNode(TestModel.TEST_QNAME));
+        modification.write(ENTRY_PATH, ImmutableNodes.mapNodeBuilder(ENTRY_QNAME).build());
+        commit(inMemoryDataTree, modification);
+        return inMemoryDataTree;
+    }
+
+    private static void commit(final InMemoryDataTree dataTree, final DataTreeModification modification)
+            throws DataValidationFailedException {
+        modification.ready();
+        dataTree.validate(modification);
+        dataTree.commit(dataTree.prepare(modification));
+    }
+
+    private static void assertValidationFails(final InMemoryDataTree dataTree,
+            final DataTreeModification modification) {
+        modification.ready();
+        try {
+            dataTree.validate(modification);
+            fail("Modification should have been rejected");
+        } catch (DataValidationFailedException e) {
+            assertTrue(e.getMessage().contains("unique constraint"));
+        }
+    }
+
+    private static NodeIdentifierWithPredicates entryId(final long id) {
+        return new NodeIdentifierWithPredicates(ENTRY_QNAME, ID_QNAME, id);
+    }
+
+    private static MapEntryNode entry(final long id, final String name) {
+        return ImmutableNodes.mapEntryBuilder(ENTRY_QNAME, ID_QNAME, id).withChild(leafNode(NAME_QNAME, name)).build();
+    }
+
+    private static MapEntryNode entry(final long id, final String ip, final Integer port) {
+        final DataContainerNodeAttrBuilder<NodeIdentifier, ContainerNode> address = Builders.containerBuilder()
+                .withNodeIdentifier(new NodeIdentifier(ADDRESS_QNAME)).withChild(leafNode(IP_QNAME, ip));
+        if (port != null) {
+            address.withChild(leafNode(PORT_QNAME, port));
+        }
+        return ImmutableNodes.mapEntryBuilder(ENTRY_QNAME, ID_QNAME, id).withChild(address.build()).build();
+    }
+
+    private static MapEntryNode hostEntry(final long id, final String host, final String zone) {
+        final DataContainerNodeBuilder<NodeIdentifierWithPredicates, MapEntryNode> builder =
+                ImmutableNodes.mapEntryBuilder(ENTRY_QNAME, ID_QNAME, id).withChild(leafNode(HOST_QNAME, host));
+        if (zone != null) {
+            builder.withChild(leafNode(ZONE_QNAME, zone));
+        }
+        return builder.build();
+    }
+
+    private static ContainerNode testContainer(final MapEntryNode... entries) {
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(TestModel.TEST_QNAME))
+                .withChild(ImmutableNodes.mapNodeBuilder(ENTRY_QNAME).withValue(Arrays.asList(entries)).build())
+                .build();
+    }
+
+    private static void writeEntry(final DataTreeModification modification, final MapEntryNode entry) {
+        modification.write(ENTRY_PATH.node(entry.getIdentifier()), entry);
+    }
+
+    @Test
+    public void testDistinctValues() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "a"));
+        writeEntry(modification, entry(2, "b"));
+        writeEntry(modification, entry(3, "10.0.0.1", 80));
+        writeEntry(modification, entry(4, "10.0.0.1", 81));
+        commit(dataTree, modification);
+    }
+
+    @Test
+    public void testDuplicateInSingleModification() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "a"));
+        writeEntry(modification, entry(2, "a"));
+        assertValidationFails(dataTree, modification);
+    }
+
+    @Test
+    public void testDuplicateAgainstCommitted() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "10.0.0.1", 80));
+        commit(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.merge(ENTRY_PATH.node(entryId(2)), entry(2, "10.0.0.1", 80));
+        assertValidationFails(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.merge(ENTRY_PATH.node(entryId(2)), entry(2, "10.0.0.2", 80));
+        commit(dataTree, modification);
+    }
+
+    @Test
+    public void testSwapValues() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "a"));
+        writeEntry(modification, entry(2, "b"));
+        commit(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(ENTRY_PATH.node(entryId(1)).node(NAME_QNAME), leafNode(NAME_QNAME, "b"));
+        modification.write(ENTRY_PATH.node(entryId(2)).node(NAME_QNAME), leafNode(NAME_QNAME, "a"));
+        commit(dataTree, modification);
+    }
+
+    @Test
+    public void testDeleteReleasesValues() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "a"));
+        commit(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.delete(ENTRY_PATH.node(entryId(1)));
+        writeEntry(modification, entry(2, "a"));
+        commit(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "a"));
+        assertValidationFails(dataTree, modification);
+    }
+
+    @Test
+    public void testIncompleteValues() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "10.0.0.1", null));
+        writeEntry(modification, entry(2, "10.0.0.1", null));
+        commit(dataTree, modification);
+    }
+
+    @Test
+    public void testManyCommits() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        for (int i = 0; i < 100; ++i) {
+            final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+            writeEntry(modification, entry(i, "name " + i));
+            commit(dataTree, modification);
+        }
+
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(100, "name 3"));
+        assertValidationFails(dataTree, modification);
+    }
+
+    @Test
+    public void testDefaultValues() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, hostEntry(1, "h", null));
+        writeEntry(modification, hostEntry(2, "h", "other"));
+        commit(dataTree, modification);
+
+        // Absent zone of the first entry is its default
+        modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, hostEntry(3, "h", "default"));
+        assertValidationFails(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, hostEntry(3, "h", null));
+        assertValidationFails(dataTree, modification);
+    }
+
+    @Test
+    public void testEnclosingContainerWrite() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(TestModel.TEST_PATH, testContainer(entry(1, "a"), entry(2, "a")));
+        assertValidationFails(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(TestModel.TEST_PATH, testContainer(entry(1, "a"), entry(2, "b")));
+        commit(dataTree, modification);
+    }
+
+    @Test
+    public void testEnclosingContainerMerge() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(true);
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "a"));
+        commit(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.merge(TestModel.TEST_PATH, testContainer(entry(2, "a")));
+        assertValidationFails(dataTree, modification);
+
+        // Merged entries keep the leaves they do not override
+        modification = dataTree.takeSnapshot().newModification();
+        modification.merge(TestModel.TEST_PATH, testContainer(hostEntry(1, "h", null), hostEntry(2, "h", "other")));
+        commit(dataTree, modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.merge(TestModel.TEST_PATH, testContainer(hostEntry(3, "x", null), entry(3, "a")));
+        assertValidationFails(dataTree, modification);
+    }
+
+    @Test
+    public void testIndexesDisabled() throws DataValidationFailedException {
+        final InMemoryDataTree dataTree = initDataTree(false);
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        writeEntry(modification, entry(1, "a"));
+        writeEntry(modification, entry(2, "a"));
+        commit(dataTree, modification);
+    }
+}
@@ -0,0 +1,827 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+
+/**
+ * A node of a compiled XPath expression plan. Evaluation yields one of the XPath 1.0 types, represented as
+ * {@link List} of {@link NodeRef}s for node-sets, {@link String}, {@link Double} and {@link Boolean}.
+ */
+abstract class CompiledExpr {
+    enum Type {
+        NODESET,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+    }
+
+    enum Operator {
+        EQ,
+        NE,
+        LT,
+        LE,
+        GT,
+        GE,
+        AND,
+        OR,
+        PLUS,
+        MINUS,
+        MULTIPLY,
+        DIV,
+        MOD,
+    }
+
+    enum Function {
+        BOOLEAN(Type.BOOLEAN),
+        CONCAT(Type.STRING),
+        CONTAINS(Type.BOOLEAN),
+        COUNT(Type.NUMBER),
+        FALSE(Type.BOOLEAN),
+        NOT(Type.BOOLEAN),
+        NUMBER(Type.NUMBER),
+        STARTS_WITH(Type.BOOLEAN),
+        STRING(Type.STRING),
+        STRING_LENGTH(Type.NUMBER),
+        TRUE(Type.BOOLEAN);
+
+        private final Type type;
+
+        Function(final Type type) {
+            this.type = type;
+        }
+    }
+
+    // XPath 1.0 Number production, which is narrower than what Double.valueOf() accepts
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("-?([0-9]+(\\.[0-9]*)?|\\.[0-9]+)");
+
+    abstract Type getType();
+
+    abstract Object evaluate(NodeRef context, NodeRef current);
+
+    boolean isConstant() {
+        return false;
+    }
+
+    /**
+     * Collect the data nodes this expression may reference. Nodes are identified by the QNames of the data nodes on
+     * their path from the root, a null element stands for a node whose name is not known. Entries of a list are not
+     * told apart.
+     *
+     * @param context Path of the context node
+     * @param current Path of the current node
+     * @param references Collection to which paths of referenced nodes are added
+     * @return Paths of the nodes in the result, empty if this expression does not evaluate to a node-set
+     */
+    List<List<QName>> collectReferences(final List<QName> context, final List<QName> current,
+            final Collection<List<QName>> references) {
+        return ImmutableList.of();
+    }
+
+    static String toString(final NodeRef node) {
+        return NormalizedNodeNavigator.stringValue(node.getNode());
+    }
+
+    static String toString(final Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof List) {
+            final List<?> nodes = (List<?>) value;
+            return nodes.isEmpty() ? "" : toString((NodeRef) nodes.get(0));
+        }
+        if (value instanceof Double) {
+            return numberToString((Double) value);
+        }
+        return value.toString();
+    }
+
+    static String numberToString(final double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "Infinity" : "-Infinity";
+        }
+        if (value == 0) {
+            // Also takes care of negative zero
+            return "0";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+            return Long.toString((long) value);
+        }
+        // BigDecimal.valueOf() goes through Double.toString(), which may leave a trailing zero, such as in 1.0E-7
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    static double toNumber(final String value) {
+        final String trimmed = value.trim();
+        return NUMBER_PATTERN.matcher(trimmed).matches() ? Double.parseDouble(trimmed) : Double.NaN;
+    }
+
+    static double toNumber(final Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        return toNumber(toString(value));
+    }
+
+    static boolean toBoolean(final Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof List) {
+            return !((List<?>) value).isEmpty();
+        }
+        if (value instanceof String) {
+            return !((String) value).isEmpty();
+        }
+
+        final double d = (Double) value;
+        return d != 0 && !Double.isNaN(d);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<NodeRef> toNodeset(final Object value) {
+        Preconditions.checkArgument(value instanceof List, "Value %s is not a node-set", value);
+        return (List<NodeRef>) value;
+    }
+
+    /**
+     * A constant value, either a literal or the result of folding a constant subexpression.
+     */
+    static final class Constant extends CompiledExpr {
+        private final Object value;
+
+        Constant(final Object value) {
+            this.value = Preconditions.checkNotNull(value);
+        }
+
+        @Override
+        Type getType() {
+            if (value instanceof String) {
+                return Type.STRING;
+            }
+            return value instanceof Double ? Type.NUMBER : Type.BOOLEAN;
+        }
+
+        @Override
+        Object evaluate(final NodeRef context, final NodeRef current) {
+            return value;
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    /**
+     * YANG current() function.
+     */
+    static final class Current extends CompiledExpr {
+        static final Current INSTANCE = new Current();
+
+        private Current() {
+        }
+
+        @Override
+        Type getType() {
+            return Type.NODESET;
+        }
+
+        @Override
+        Object evaluate(final NodeRef context, final NodeRef current) {
+            return ImmutableList.of(current);
+        }
+
+        @Override
+        List<List<QName>> collectReferences(final List<QName> context, final List<QName> current,
+                final Collection<List<QName>> references) {
+            references.add(current);
+            return Collections.singletonList(current);
+        }
+    }
+
+    /**
+     * A location path, optionally applied to the result of a node-set expression.
+     */
+    static final class Path extends CompiledExpr {
+        private final CompiledExpr filter;
+        private final Step[] steps;
+        private final boolean absolute;
+
+        Path(final CompiledExpr filter, final boolean absolute, final List<Step> steps) {
+            this.filter = filter;
+            this.absolute = absolute;
+            this.steps = steps.toArray(new Step[steps.size()]);
+        }
+
+        @Override
+        Type getType() {
+            return Type.NODESET;
+        }
+
+        @Override
+        Object evaluate(final NodeRef context, final NodeRef current) {
+            List<NodeRef> nodes;
+            if (filter != null) {
+                nodes = toNodeset(filter.evaluate(context, current));
+            } else {
+                nodes = Collections.singletonList(absolute ? context.getRoot() : context);
+            }
+
+            for (Step step : steps) {
+                if (nodes.isEmpty()) {
+                    break;
+                }
+
+                final List<NodeRef> next = new ArrayList<>();
+                for (NodeRef node : nodes) {
+                    step.apply(node, current, next);
+                }
+                nodes = step.mayDuplicate() && nodes.size() > 1 ? deduplicate(next) : next;
+            }
+            return nodes;
+        }
+
+        @Override
+        List<List<QName>> collectReferences(final List<QName> context, final List<QName> current,
+                final Collection<List<QName>> references) {
+            List<List<QName>> paths;
+            if (filter != null) {
+                paths = filter.collectReferences(context, current, references);
+            } else {
+                paths = Collections.singletonList(absolute ? ImmutableList.of() : context);
+            }
+
+            for (Step step : steps) {
+                final List<List<QName>> next = new ArrayList<>(paths.size());
+                for (List<QName> path : paths) {
+                    final List<QName> stepPath = step.resultPath(path);
+                    step.collectReferences(path, stepPath, current, references);
+                    references.add(stepPath);
+                    next.add(stepPath);
+                }
+                paths = next;
+            }
+            return paths;
+        }
+
+        private static List<NodeRef> deduplicate(final List<NodeRef> nodes) {
+            final Set<NodeRef> seen = Collections.newSetFromMap(new IdentityHashMap<>(nodes.size()));
+            final List<NodeRef> ret = new ArrayList<>(nodes.size());
+            for (NodeRef node : nodes) {
+                if (seen.add(node)) {
+                    ret.add(node);
+                }
+            }
+            return ret;
+        }
+    }
+
+    /**
+     * A single location step. Predicates are guaranteed to evaluate to non-numbers, hence they are not positional.
+     */
+    abstract static class Step {
+        private final CompiledExpr[] predicates;
+
+        Step(final List<CompiledExpr> predicates) {
+            this.predicates = predicates.toArray(new CompiledExpr[predicates.size()]);
+        }
+
+        abstract void apply(NodeRef context, NodeRef current, List<NodeRef> result);
+
+        /**
+         * Return the path of the nodes selected by this step, see {@link CompiledExpr#collectReferences}.
+         */
+        abstract List<QName> resultPath(List<QName> context);
+
+        void collectReferences(final List<QName> context, final List<QName> result, final List<QName> current,
+                final Collection<List<QName>> references) {
+            for (CompiledExpr predicate : predicates) {
+                predicate.collectReferences(result, current, references);
+            }
+        }
+
+        boolean mayDuplicate() {
+            return false;
+        }
+
+        final void addIfMatches(final NodeRef node, final NodeRef current, final List<NodeRef> result) {
+            for (CompiledExpr predicate : predicates) {
+                if (!toBoolean(predicate.evaluate(node, current))) {
+                    return;
+                }
+            }
+            result.add(node);
+        }
+    }
+
+    static final class SelfStep extends Step {
+        SelfStep(final List<CompiledExpr> predicates) {
+            super(predicates);
+        }
+
+        @Override
+        void apply(final NodeRef context, final NodeRef current, final List<NodeRef> result) {
+            addIfMatches(context, current, result);
+        }
+
+        @Override
+        List<QName> resultPath(final List<QName> context) {
+            return context;
+        }
+    }
+
+    static final class ParentStep extends Step {
+        ParentStep(final List<CompiledExpr> predicates) {
+            super(predicates);
+        }
+
+        @Override
+        void apply(final NodeRef context, final NodeRef current, final List<NodeRef> result) {
+            final NodeRef parent = context.getParent();
+            if (parent != null) {
+                addIfMatches(parent, current, result);
+            }
+        }
+
+        @Override
+        List<QName> resultPath(final List<QName> context) {
+            // The root has no parent, hence the step selects nothing, which we conservatively treat as the root
+            return context.isEmpty() ? context : context.subList(0, context.size() - 1);
+        }
+
+        @Override
+        boolean mayDuplicate() {
+            return true;
+        }
+    }
+
+    /**
+     * A child step. Its name is resolved at compile time, unless it is unprefixed and the schema node of the context
+     * is not known, in which case it is resolved against the context node.
+     */
+    static final class ChildStep extends Step {
+        private final NodeIdentifier identifier;
+        private final String localName;
+        private final KeyLookup keyLookup;
+
+        ChildStep(final QName qname, final List<CompiledExpr> predicates, final KeyLookup keyLookup) {
+            super(predicates);
+            this.identifier = NodeIdentifier.create(qname);
+            this.localName = null;
+            this.keyLookup = keyLookup;
+        }
+
+        ChildStep(final String localName, final List<CompiledExpr> predicates) {
+            super(predicates);
+            this.identifier = null;
+            this.localName = Preconditions.checkNotNull(localName);
+            this.keyLookup = null;
+        }
+
+        @Override
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        void apply(final NodeRef context, final NodeRef current, final List<NodeRef> result) {
+            final NormalizedNode<?, ?> node = context.getNode();
+            if (!(node instanceof DataContainerNode)) {
+                return;
+            }
+
+            final NodeIdentifier id = identifier != null ? identifier
+                    : NodeIdentifier.create(QName.create(node.getNodeType().getModule(), localName));
+            final Optional<NormalizedNode<?, ?>> maybeChild = ((DataContainerNode) node).getChild(id);
+            if (!maybeChild.isPresent()) {
+                return;
+            }
+
+            final NormalizedNode<?, ?> child = maybeChild.get();
+            if (child instanceof MapNode) {
+                final MapNode map = (MapNode) child;
+                if (keyLookup != null) {
+                    for (MapEntryNode entry : keyLookup.lookup(map, context, current)) {
+                        addIfMatches(new NodeRef(entry, context), current, result);
+                    }
+                } else {
+                    for (MapEntryNode entry : map.getValue()) {
+                        addIfMatches(new NodeRef(entry, context), current, result);
+                    }
+                }
+            } else if (child instanceof LeafSetNode) {
+                for (NormalizedNode<?, ?> entry : ((LeafSetNode<?>) child).getValue()) {
+                    addIfMatches(new NodeRef(entry, context), current, result);
+                }
+            } else {
+                addIfMatches(new NodeRef(child, context), current, result);
+            }
+        }
+
+        @Override
+        List<QName> resultPath(final List<QName> context) {
+            final List<QName> ret = new ArrayList<>(context.size() + 1);
+            ret.addAll(context);
+            ret.add(identifier != null ? identifier.getNodeType() : null);
+            return ret;
+        }
+
+        @Override
+        void collectReferences(final List<QName> context, final List<QName> result, final List<QName> current,
+                final Collection<List<QName>> references) {
+            super.collectReferences(context, result, current, references);
+            if (keyLookup != null) {
+                keyLookup.collectReferences(context, current, references);
+            }
+        }
+    }
+
+    /**
+     * Direct lookup of list entries selected by predicates on all keys of a list, as opposed to scanning all entries.
+     * Key values are evaluated against the context of the step and compared as strings, hence this is used only for
+     * string-typed keys.
+     */
+    static final class KeyLookup {
+        private final QName listName;
+        private final QName[] keys;
+        private final CompiledExpr[] values;
+
+        KeyLookup(final QName listName, final Map<QName, CompiledExpr> keyValues) {
+            this.listName = Preconditions.checkNotNull(listName);
+            this.keys = keyValues.keySet().toArray(new QName[keyValues.size()]);
+            this.values = keyValues.values().toArray(new CompiledExpr[keyValues.size()]);
+        }
+
+        List<MapEntryNode> lookup(final MapNode map, final NodeRef context, final NodeRef current) {
+            if (keys.length == 1) {
+                final List<MapEntryNode> ret = new ArrayList<>(1);
+                for (String value : keyValues(values[0].evaluate(context, current))) {
+                    final Optional<MapEntryNode> entry = map.getChild(
+                        new NodeIdentifierWithPredicates(listName, keys[0], value));
+                    if (entry.isPresent()) {
+                        ret.add(entry.get());
+                    }
+                }
+                return ret;
+            }
+
+            final List<Map<QName, Object>> predicates = new ArrayList<>();
+            predicates.add(ImmutableMap.of());
+            for (int i = 0; i < keys.length; ++i) {
+                final Set<String> keyValues = keyValues(values[i].evaluate(context, current));
+                final List<Map<QName, Object>> next = new ArrayList<>(predicates.size() * keyValues.size());
+                for (Map<QName, Object> predicate : predicates) {
+                    for (String value : keyValues) {
+                        next.add(ImmutableMap.<QName, Object>builder().putAll(predicate).put(keys[i], value).build());
+                    }
+                }
+                predicates.clear();
+                predicates.addAll(next);
+            }
+
+            final List<MapEntryNode> ret = new ArrayList<>(predicates.size());
+            for (Map<QName, Object> predicate : predicates) {
+                final Optional<MapEntryNode> entry = map.getChild(new NodeIdentifierWithPredicates(listName, predicate));
+                if (entry.isPresent()) {
+                    ret.add(entry.get());
+                }
+            }
+            return ret;
+        }
+
+        void collectReferences(final List<QName> context, final List<QName> current,
+                final Collection<List<QName>> references) {
+            // Key values are evaluated in the context of the step
+            for (CompiledExpr value : values) {
+                value.collectReferences(context, current, references);
+            }
+        }
+
+        private static Set<String> keyValues(final Object value) {
+            if (!(value instanceof List)) {
+                return Collections.singleton(CompiledExpr.toString(value));
+            }
+
+            final Set<String> ret = new LinkedHashSet<>();
+            for (NodeRef node : toNodeset(value)) {
+                ret.add(CompiledExpr.toString(node));
+            }
+            return ret;
+        }
+    }
+
+    static final class Binary extends CompiledExpr {
+        private final Operator operator;
+        private final CompiledExpr lhs;
+        private final CompiledExpr rhs;
+
+        Binary(final Operator operator, final CompiledExpr lhs, final CompiledExpr rhs) {
+            this.operator = Preconditions.checkNotNull(operator);
+            this.lhs = Preconditions.checkNotNull(lhs);
+            this.rhs = Preconditions.checkNotNull(rhs);
+        }
+
+        @Override
+        Type getType() {
+            switch (operator) {
+            case PLUS:
+            case MINUS:
+            case MULTIPLY:
+            case DIV:
+            case MOD:
+                return Type.NUMBER;
+            default:
+                return Type.BOOLEAN;
+            }
+        }
+
+        @Override
+        boolean isConstant() {
+            return lhs.isConstant() && rhs.isConstant();
+        }
+
+        @Override
+        List<List<QName>> collectReferences(final List<QName> context, final List<QName> current,
+                final Collection<List<QName>> references) {
+            lhs.collectReferences(context, current, references);
+            rhs.collectReferences(context, current, references);
+            return ImmutableList.of();
+        }
+
+        @Override
+        Object evaluate(final NodeRef context, final NodeRef current) {
+            switch (operator) {
+            case AND:
+                return toBoolean(lhs.evaluate(context, current)) && toBoolean(rhs.evaluate(context, current));
+            case OR:
+                return toBoolean(lhs.evaluate(context, current)) || toBoolean(rhs.evaluate(context, current));
+            default:
+                break;
+            }
+
+            final Object left = lhs.evaluate(context, current);
+            final Object right = rhs.evaluate(context, current);
+            switch (operator) {
+            case EQ:
+                return equals(true, left, right);
+            case NE:
+                return equals(false, left, right);
+            case LT:
+            case LE:
+            case GT:
+            case GE:
+                return compare(left, right);
+            case PLUS:
+                return toNumber(left) + toNumber(right);
+            case MINUS:
+                return toNumber(left) - toNumber(right);
+            case MULTIPLY:
+                return toNumber(left) * toNumber(right);
+            case DIV:
+                return toNumber(left) / toNumber(right);
+            case MOD:
+                return toNumber(left) % toNumber(right);
+            default:
+                throw new IllegalStateException("Unhandled operator " + operator);
+            }
+        }
+
+        private static boolean equals(final boolean equal, final Object left, final Object right) {
+            if (left instanceof List) {
+                final List<NodeRef> nodes = toNodeset(left);
+                if (right instanceof List) {
+                    for (NodeRef node : nodes) {
+                        final String str = CompiledExpr.toString(node);
+                        for (NodeRef other : toNodeset(right)) {
+                            if (str.equals(CompiledExpr.toString(other)) == equal) {
+                                return true;
+                            }
+                        }
+                    }
+                    return false;
+                }
+                return nodesetEquals(equal, nodes, right);
+            }
+            if (right instanceof List) {
+                return nodesetEquals(equal, toNodeset(right), left);
+            }
+
+            if (left instanceof Boolean || right instanceof Boolean) {
+                return (toBoolean(left) == toBoolean(right)) == equal;
+            }
+            if (left instanceof Double || right instanceof Double) {
+                return (toNumber(left) == toNumber(right)) == equal;
+            }
+            return left.equals(right) == equal;
+        }
+
+        private static boolean nodesetEquals(final boolean equal, final List<NodeRef> nodes, final Object other) {
+            if (other instanceof Boolean) {
+                return (!nodes.isEmpty() == (Boolean) other) == equal;
+            }
+            if (other instanceof Double) {
+                final double d = (Double) other;
+                for (NodeRef node : nodes) {
+                    if ((toNumber(CompiledExpr.toString(node)) == d) == equal) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            for (NodeRef node : nodes) {
+                if (CompiledExpr.toString(node).equals(other) == equal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean compare(final Object left, final Object right) {
+            if (left instanceof List && !(right instanceof Boolean)) {
+                for (NodeRef node : toNodeset(left)) {
+                    if (compare(toNumber(CompiledExpr.toString(node)), right)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (right instanceof List && !(left instanceof Boolean)) {
+                for (NodeRef node : toNodeset(right)) {
+                    if (compare(left, toNumber(CompiledExpr.toString(node)))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            final double l = left instanceof List ? toNumber(toBoolean(left)) : toNumber(left);
+            final double r = right instanceof List ? toNumber(toBoolean(right)) : toNumber(right);
+            switch (operator) {
+            case LT:
+                return l < r;
+            case LE:
+                return l <= r;
+            case GT:
+                return l > r;
+            case GE:
+                return l >= r;
+            default:
+                throw new IllegalStateException("Unhandled operator " + operator);
+            }
+        }
+    }
+
+    static final class Negate extends CompiledExpr {
+        private final CompiledExpr expr;
+
+        Negate(final CompiledExpr expr) {
+            this.expr = Preconditions.checkNotNull(expr);
+        }
+
+        @Override
+        Type getType() {
+            return Type.NUMBER;
+        }
+
+        @Override
+        boolean isConstant() {
+            return expr.isConstant();
+        }
+
+        @Override
+        List<List<QName>> collectReferences(final List<QName> context, final List<QName> current,
+                final Collection<List<QName>> references) {
+            expr.collectReferences(context, current, references);
+            return ImmutableList.of();
+        }
+
+        @Override
+        Object evaluate(final NodeRef context, final NodeRef current) {
+            return -toNumber(expr.evaluate(context, current));
+        }
+    }
+
+    /**
+     * XPath core function. Functions taking no arguments where the specification defaults to the context node are
+     * evaluated against the context node.
+     */
+    static final class FunctionCall extends CompiledExpr {
+        private final Function function;
+        private final CompiledExpr[] args;
+
+        FunctionCall(final Function function, final List<CompiledExpr> args) {
+            this.function = Preconditions.checkNotNull(function);
+            this.args = args.toArray(new CompiledExpr[args.size()]);
+        }
+
+        @Override
+        Type getType() {
+            return function.type;
+        }
+
+        @Override
+        boolean isConstant() {
+            switch (function) {
+            case STRING:
+            case NUMBER:
+            case STRING_LENGTH:
+                if (args.length == 0) {
+                    return false;
+                }
+                break;
+            default:
+                break;
+            }
+
+            for (CompiledExpr arg : args) {
+                if (!arg.isConstant()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        List<List<QName>> collectReferences(final List<QName> context, final List<QName> current,
+                final Collection<List<QName>> references) {
+            if (args.length == 0) {
+                references.add(context);
+            }
+            for (CompiledExpr arg : args) {
+                arg.collectReferences(context, current, references);
+            }
+            return ImmutableList.of();
+        }
+
+        private Object arg(final int index, final NodeRef context, final NodeRef current) {
+            return args.length > index ? args[index].evaluate(context, current) : ImmutableList.of(context);
+        }
+
+        @Override
+        Object evaluate(final NodeRef context, final NodeRef current) {
+            switch (function) {
+            case BOOLEAN:
+                return toBoolean(arg(0, context, current));
+            case CONCAT:
+                final StringBuilder sb = new StringBuilder();
+                for (CompiledExpr arg : args) {
+                    sb.append(CompiledExpr.toString(arg.evaluate(context, current)));
+                }
+                return sb.toString();
+            case CONTAINS:
+                return CompiledExpr.toString(arg(0, context, current)).contains(
+                    CompiledExpr.toString(arg(1, context, current)));
+            case COUNT:
+                return (double) toNodeset(arg(0, context, current)).size();
+            case FALSE:
+                return Boolean.FALSE;
+            case NOT:
+                return !toBoolean(arg(0, context, current));
+            case NUMBER:
+                return toNumber(arg(0, context, current));
+            case STARTS_WITH:
+                return CompiledExpr.toString(arg(0, context, current)).startsWith(
+                    CompiledExpr.toString(arg(1, context, current)));
+            case STRING:
+                return CompiledExpr.toString(arg(0, context, current));
+            case STRING_LENGTH:
+                final String str = CompiledExpr.toString(arg(0, context, current));
+                return (double) str.codePointCount(0, str.length());
+            case TRUE:
+                return Boolean.TRUE;
+            default:
+                throw new IllegalStateException("Unhandled function " + function);
+            }
+        }
+    }
+}
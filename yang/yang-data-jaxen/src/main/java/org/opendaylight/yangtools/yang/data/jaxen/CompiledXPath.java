@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.Collection;
+import java.util.List;
+import javax.xml.xpath.XPathExpressionException;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathBooleanResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNodesetResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNumberResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathStringResult;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+/**
+ * An {@link XPathExpression} evaluated by interpreting a {@link CompiledExpr} plan directly on
+ * {@link NormalizedNode}s.
+ */
+final class CompiledXPath implements XPathExpression {
+    private final SchemaPath schemaPath;
+    private final SchemaPath apexPath;
+    private final CompiledExpr expr;
+
+    CompiledXPath(final SchemaPath schemaPath, final SchemaPath apexPath, final CompiledExpr expr) {
+        this.schemaPath = Preconditions.checkNotNull(schemaPath);
+        this.apexPath = Preconditions.checkNotNull(apexPath);
+        this.expr = Preconditions.checkNotNull(expr);
+    }
+
+    @Override
+    public Optional<? extends XPathResult<?>> evaluate(final XPathDocument document, final YangInstanceIdentifier path)
+            throws XPathExpressionException {
+        Preconditions.checkArgument(document instanceof JaxenDocument);
+
+        final NodeRef current = NodeRef.create(document.getRootNode(), path);
+        final Object result = expr.evaluate(current, current);
+
+        if (result instanceof String) {
+            return Optional.of(new XPathStringResult() {
+                @Override
+                public String getValue() {
+                    return (String) result;
+                }
+            });
+        } else if (result instanceof Number) {
+            return Optional.of(new XPathNumberResult() {
+                @Override
+                public Number getValue() {
+                    return (Number) result;
+                }
+            });
+        } else if (result instanceof Boolean) {
+            return Optional.of(new XPathBooleanResult() {
+                @Override
+                public Boolean getValue() {
+                    return (Boolean) result;
+                }
+            });
+        } else {
+            final List<NodeRef> nodes = CompiledExpr.toNodeset(result);
+            return Optional.of(new XPathNodesetResult() {
+                @Override
+                public Collection<NormalizedNode<?, ?>> getValue() {
+                    return Lists.transform(nodes, NodeRef::getNode);
+                }
+            });
+        }
+    }
+
+    @Override
+    public SchemaPath getEvaluationPath() {
+        return schemaPath;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The apex is determined from the compiled plan. As choices and cases do not appear in expressions, the
+     * returned path lists data nodes only.
+     */
+    @Override
+    public SchemaPath getApexPath() {
+        return apexPath;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import com.google.common.base.Converter;
+import com.google.common.base.Preconditions;
+import javax.xml.xpath.XPathExpressionException;
+import org.jaxen.JaxenException;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.jaxen.XPathCompiler.UnsupportedExpressionException;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link XPathSchemaContext} which compiles expressions into plans evaluated directly on {@link NormalizedNode}s.
+ * Jaxen is used to parse expressions, and to evaluate those which use constructs the compiler does not support.
+ */
+final class CompiledXPathSchemaContext implements XPathSchemaContext {
+    private static final Logger LOG = LoggerFactory.getLogger(CompiledXPathSchemaContext.class);
+
+    private final SchemaContext context;
+
+    CompiledXPathSchemaContext(final SchemaContext context) {
+        this.context = Preconditions.checkNotNull(context);
+    }
+
+    @Override
+    public XPathExpression compileExpression(final SchemaPath schemaPath,
+            final Converter<String, QNameModule> prefixes, final String xpath) throws XPathExpressionException {
+        final JaxenXPath parsed;
+        try {
+            parsed = JaxenXPath.create(prefixes, schemaPath, xpath);
+        } catch (JaxenException e) {
+            throw new XPathExpressionException(e);
+        }
+
+        final CompiledExpr expr;
+        try {
+            expr = XPathCompiler.compile(prefixes, context, schemaPath, parsed.getRootExpr());
+        } catch (UnsupportedExpressionException e) {
+            LOG.debug("Expression {} cannot be compiled, falling back to Jaxen", xpath, e);
+            return parsed;
+        }
+        return new CompiledXPath(schemaPath, XPathCompiler.apexPath(context, schemaPath, expr), expr);
+    }
+
+    @Override
+    public XPathDocument createDocument(final NormalizedNode<?, ?> documentRoot) {
+        return new JaxenDocument(this, documentRoot);
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import com.google.common.annotations.Beta;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+
+/**
+ * Factory of {@link XPathSchemaContext}s which compile expressions against the schema and evaluate them directly on
+ * normalized nodes. Expressions using constructs outside of the supported subset are evaluated by Jaxen, just as
+ * they would be by contexts created by {@link JaxenSchemaContextFactory}.
+ */
+@Beta
+public final class CompiledXPathSchemaContextFactory implements XPathSchemaContextFactory {
+    @Override
+    public XPathSchemaContext createContext(final SchemaContext context) {
+        return new CompiledXPathSchemaContext(context);
+    }
+}
@@ -10,11 +10,12 @@ package org.opendaylight.yangtools.yang.data.jaxen;
 import com.google.common.base.Preconditions;
 import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
 import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
 
 final class JaxenDocument implements XPathDocument {
     private final NormalizedNode<?, ?> root;
 
-    JaxenDocument(final JaxenSchemaContext context, final NormalizedNode<?, ?> root) {
+    JaxenDocument(final XPathSchemaContext context, final NormalizedNode<?, ?> root) {
         this.root = Preconditions.checkNotNull(root);
     }
 
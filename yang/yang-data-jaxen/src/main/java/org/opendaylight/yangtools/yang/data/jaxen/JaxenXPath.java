@@ -115,6 +115,10 @@ final class JaxenXPath implements XPathExpression {
         }
     }
 
+    Expr getRootExpr() {
+        return xpath.getRootExpr();
+    }
+
     @Override
     public SchemaPath getEvaluationPath() {
         return schemaPath;
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.data.api.schema.LeafSetNode;
+import org.opendaylight.yangtools.yang.data.api.schema.MapNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNodes;
+
+/**
+ * A {@link NormalizedNode} together with its parent, as seen by {@link CompiledXPath}. This is a lightweight
+ * counterpart of {@link NormalizedNodeContext}, which does not carry any Jaxen state.
+ */
+final class NodeRef {
+    private final NormalizedNode<?, ?> node;
+    private final NodeRef parent;
+
+    NodeRef(@Nonnull final NormalizedNode<?, ?> node, @Nullable final NodeRef parent) {
+        this.node = Preconditions.checkNotNull(node);
+        this.parent = parent;
+    }
+
+    /**
+     * Create a reference to a node in a document. Lists and leaf-lists are not XPath nodes, hence their entries
+     * are parented by the node containing the list.
+     *
+     * @param root Document root node
+     * @param path Path to the node
+     * @return Node reference
+     * @throws IllegalArgumentException if the node does not exist
+     */
+    static NodeRef create(final NormalizedNode<?, ?> root, final YangInstanceIdentifier path) {
+        NodeRef result = new NodeRef(root, null);
+        NormalizedNode<?, ?> node = root;
+        for (PathArgument arg : path.getPathArguments()) {
+            final Optional<NormalizedNode<?, ?>> child = NormalizedNodes.getDirectChild(node, arg);
+            Preconditions.checkArgument(child.isPresent(), "Node %s has no child %s", node, arg);
+            node = child.get();
+            if (!(node instanceof MapNode || node instanceof LeafSetNode)) {
+                result = new NodeRef(node, result);
+            }
+        }
+
+        return result;
+    }
+
+    @Nonnull NormalizedNode<?, ?> getNode() {
+        return node;
+    }
+
+    @Nullable NodeRef getParent() {
+        return parent;
+    }
+
+    NodeRef getRoot() {
+        NodeRef ret = this;
+        while (ret.parent != null) {
+            ret = ret.parent;
+        }
+        return ret;
+    }
+}
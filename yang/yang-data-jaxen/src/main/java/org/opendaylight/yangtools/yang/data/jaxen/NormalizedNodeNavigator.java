@@ -159,7 +159,10 @@ final class NormalizedNodeNavigator extends DefaultNavigator implements NamedAcc
 
     @Override
     public String getElementStringValue(final Object element) {
-        final NormalizedNode<?, ?> node = contextNode(element);
+        return stringValue(contextNode(element));
+    }
+
+    static String stringValue(final NormalizedNode<?, ?> node) {
         if (node instanceof LeafNode || node instanceof LeafSetEntryNode) {
             final Object value = node.getValue();
 
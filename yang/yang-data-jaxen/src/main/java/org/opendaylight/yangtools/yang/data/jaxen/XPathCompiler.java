@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import com.google.common.base.Converter;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.jaxen.expr.AllNodeStep;
+import org.jaxen.expr.BinaryExpr;
+import org.jaxen.expr.EqualityExpr;
+import org.jaxen.expr.Expr;
+import org.jaxen.expr.FilterExpr;
+import org.jaxen.expr.FunctionCallExpr;
+import org.jaxen.expr.LiteralExpr;
+import org.jaxen.expr.LocationPath;
+import org.jaxen.expr.NameStep;
+import org.jaxen.expr.NumberExpr;
+import org.jaxen.expr.PathExpr;
+import org.jaxen.expr.Predicate;
+import org.jaxen.expr.Step;
+import org.jaxen.expr.UnaryExpr;
+import org.jaxen.saxpath.Axis;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.Binary;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.ChildStep;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.Constant;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.Current;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.Function;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.FunctionCall;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.KeyLookup;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.Negate;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.Operator;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.ParentStep;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.Path;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.SelfStep;
+import org.opendaylight.yangtools.yang.data.jaxen.CompiledExpr.Type;
+import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
+import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.LeafSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
+import org.opendaylight.yangtools.yang.model.api.type.StringTypeDefinition;
+
+/**
+ * Compiler translating a Jaxen expression tree into a {@link CompiledExpr} plan. Location steps are tracked against
+ * the {@link SchemaContext}, so that names can be resolved up front and list entries selected by all their keys can be
+ * looked up directly. Constant subexpressions are folded.
+ */
+final class XPathCompiler {
+    /**
+     * Thrown when an expression uses constructs which are not supported by the compiler.
+     */
+    static final class UnsupportedExpressionException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedExpressionException(final String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Position in the schema tree. A null node denotes the schema root, an unknown position is denoted by a null
+     * Position reference.
+     */
+    private static final class Position {
+        private final DataSchemaNode node;
+        private final Position parent;
+
+        Position(final DataSchemaNode node, final Position parent) {
+            this.node = node;
+            this.parent = parent;
+        }
+    }
+
+    private static final Position ROOT = new Position(null, null);
+    private static final Map<String, Operator> OPERATORS = ImmutableMap.<String, Operator>builder()
+            .put("=", Operator.EQ).put("!=", Operator.NE).put("<", Operator.LT).put("<=", Operator.LE)
+            .put(">", Operator.GT).put(">=", Operator.GE).put("and", Operator.AND).put("or", Operator.OR)
+            .put("+", Operator.PLUS).put("-", Operator.MINUS).put("*", Operator.MULTIPLY).put("div", Operator.DIV)
+            .put("mod", Operator.MOD).build();
+    private static final Map<String, Function> FUNCTIONS;
+
+    static {
+        final Map<String, Function> functions = new HashMap<>();
+        for (Function f : Function.values()) {
+            functions.put(f.name().toLowerCase(Locale.ENGLISH).replace('_', '-'), f);
+        }
+        FUNCTIONS = ImmutableMap.copyOf(functions);
+    }
+
+    private final Converter<String, QNameModule> prefixes;
+    private final SchemaContext context;
+    private final Position evaluationPosition;
+    private final QNameModule defaultModule;
+
+    private XPathCompiler(final Converter<String, QNameModule> prefixes, final SchemaContext context,
+            final SchemaPath evaluationPath) {
+        this.prefixes = Preconditions.checkNotNull(prefixes);
+        this.context = Preconditions.checkNotNull(context);
+
+        final Iterator<QName> it = evaluationPath.getPathFromRoot().iterator();
+        defaultModule = it.hasNext() ? it.next().getModule() : null;
+        evaluationPosition = resolvePosition(evaluationPath);
+    }
+
+    static CompiledExpr compile(final Converter<String, QNameModule> prefixes, final SchemaContext context,
+            final SchemaPath evaluationPath, final Expr expr) throws UnsupportedExpressionException {
+        final XPathCompiler compiler = new XPathCompiler(prefixes, context, evaluationPath);
+        return compiler.compile(expr, compiler.evaluationPosition);
+    }
+
+    /**
+     * Compute the apex of a compiled expression, which is the closest common ancestor of all data nodes it may
+     * reference. The returned path lists data nodes only, as choices and cases do not appear in expressions. If the
+     * data node at the evaluation path cannot be found, {@link SchemaPath#ROOT} is returned.
+     */
+    static SchemaPath apexPath(final SchemaContext context, final SchemaPath evaluationPath,
+            final CompiledExpr expr) {
+        final List<QName> evaluation = dataPath(context, evaluationPath);
+        if (evaluation == null) {
+            return SchemaPath.ROOT;
+        }
+
+        final List<List<QName>> references = new ArrayList<>();
+        expr.collectReferences(evaluation, evaluation, references);
+        if (references.isEmpty()) {
+            // Result does not depend on any data
+            return SchemaPath.create(evaluation, true);
+        }
+
+        int length = Integer.MAX_VALUE;
+        final List<QName> first = references.get(0);
+        for (List<QName> reference : references) {
+            int common = 0;
+            final int max = Math.min(length, Math.min(first.size(), reference.size()));
+            while (common < max && first.get(common) != null && first.get(common).equals(reference.get(common))) {
+                common++;
+            }
+            length = common;
+        }
+        return SchemaPath.create(first.subList(0, length), true);
+    }
+
+    /**
+     * Return the QNames of data nodes on a schema path, skipping choices and cases.
+     *
+     * @return Data node QNames, or null if the path cannot be resolved
+     */
+    private static List<QName> dataPath(final SchemaContext context, final SchemaPath path) {
+        final List<QName> ret = new ArrayList<>();
+        Object node = context;
+        for (QName qname : path.getPathFromRoot()) {
+            final DataSchemaNode child;
+            if (node instanceof ChoiceSchemaNode) {
+                child = ((ChoiceSchemaNode) node).getCaseNodeByName(qname);
+            } else if (node instanceof DataNodeContainer) {
+                child = ((DataNodeContainer) node).getDataChildByName(qname);
+            } else {
+                child = null;
+            }
+            if (child == null) {
+                return null;
+            }
+
+            if (!(child instanceof ChoiceSchemaNode) && !(child instanceof ChoiceCaseNode)) {
+                ret.add(qname);
+            }
+            node = child;
+        }
+        return ret;
+    }
+
+    private Position resolvePosition(final SchemaPath path) {
+        Position position = ROOT;
+        for (QName qname : path.getPathFromRoot()) {
+            position = childPosition(position, qname);
+            if (position == null) {
+                break;
+            }
+        }
+        return position;
+    }
+
+    private Position childPosition(final Position position, final QName qname) {
+        if (position == null) {
+            return null;
+        }
+
+        final DataNodeContainer container;
+        if (position.node == null) {
+            container = context;
+        } else if (position.node instanceof DataNodeContainer) {
+            container = (DataNodeContainer) position.node;
+        } else {
+            return null;
+        }
+
+        // Choices and cases do not appear in XPath, but do appear in the data, hence we lose track of the schema
+        final DataSchemaNode child = container.getDataChildByName(qname);
+        if (child == null || child instanceof ChoiceSchemaNode || child instanceof ChoiceCaseNode) {
+            return null;
+        }
+        return new Position(child, position);
+    }
+
+    private CompiledExpr compile(final Expr expr, final Position position) throws UnsupportedExpressionException {
+        if (expr instanceof LiteralExpr) {
+            return new Constant(((LiteralExpr) expr).getLiteral());
+        }
+        if (expr instanceof NumberExpr) {
+            return new Constant(((NumberExpr) expr).getNumber().doubleValue());
+        }
+        if (expr instanceof LocationPath) {
+            final LocationPath path = (LocationPath) expr;
+            return compileSteps(null, path.isAbsolute(), path, path.isAbsolute() ? ROOT : position);
+        }
+        if (expr instanceof PathExpr) {
+            final PathExpr path = (PathExpr) expr;
+            final CompiledExpr filter = compile(path.getFilterExpr(), position);
+            if (path.getLocationPath() == null) {
+                return filter;
+            }
+            if (filter.getType() != Type.NODESET) {
+                throw new UnsupportedExpressionException("Path applied to non-nodeset " + path.getText());
+            }
+
+            return compileSteps(filter, false, path.getLocationPath(),
+                filter instanceof Current ? evaluationPosition : null);
+        }
+        if (expr instanceof FilterExpr) {
+            final FilterExpr filter = (FilterExpr) expr;
+            if (!filter.getPredicates().isEmpty()) {
+                throw new UnsupportedExpressionException("Filter predicates in " + filter.getText());
+            }
+            return compile(filter.getExpr(), position);
+        }
+        if (expr instanceof BinaryExpr) {
+            final BinaryExpr binary = (BinaryExpr) expr;
+            final Operator operator = OPERATORS.get(binary.getOperator());
+            if (operator == null) {
+                throw new UnsupportedExpressionException("Operator " + binary.getOperator());
+            }
+            return fold(new Binary(operator, compile(binary.getLHS(), position), compile(binary.getRHS(), position)));
+        }
+        if (expr instanceof UnaryExpr) {
+            return fold(new Negate(compile(((UnaryExpr) expr).getExpr(), position)));
+        }
+        if (expr instanceof FunctionCallExpr) {
+            return compileFunction((FunctionCallExpr) expr, position);
+        }
+
+        throw new UnsupportedExpressionException("Expression " + expr.getText());
+    }
+
+    private static CompiledExpr fold(final CompiledExpr expr) {
+        return expr.isConstant() ? new Constant(expr.evaluate(null, null)) : expr;
+    }
+
+    private CompiledExpr compileFunction(final FunctionCallExpr expr, final Position position)
+            throws UnsupportedExpressionException {
+        if (!Strings.isNullOrEmpty(expr.getPrefix())) {
+            throw new UnsupportedExpressionException("Prefixed function " + expr.getText());
+        }
+
+        final List<?> params = expr.getParameters();
+        if ("current".equals(expr.getFunctionName())) {
+            checkArguments(expr, params.isEmpty());
+            return Current.INSTANCE;
+        }
+
+        final Function function = FUNCTIONS.get(expr.getFunctionName());
+        if (function == null) {
+            throw new UnsupportedExpressionException("Function " + expr.getFunctionName());
+        }
+
+        final List<CompiledExpr> args = new ArrayList<>(params.size());
+        for (Object param : params) {
+            args.add(compile((Expr) param, position));
+        }
+
+        switch (function) {
+        case TRUE:
+        case FALSE:
+            checkArguments(expr, args.isEmpty());
+            break;
+        case BOOLEAN:
+        case NOT:
+            checkArguments(expr, args.size() == 1);
+            break;
+        case COUNT:
+            checkArguments(expr, args.size() == 1 && args.get(0).getType() == Type.NODESET);
+            break;
+        case NUMBER:
+        case STRING:
+        case STRING_LENGTH:
+            checkArguments(expr, args.size() <= 1);
+            break;
+        case CONTAINS:
+        case STARTS_WITH:
+            checkArguments(expr, args.size() == 2);
+            break;
+        case CONCAT:
+            checkArguments(expr, args.size() >= 2);
+            break;
+        default:
+            throw new IllegalStateException("Unhandled function " + function);
+        }
+
+        return fold(new FunctionCall(function, args));
+    }
+
+    private static void checkArguments(final FunctionCallExpr expr, final boolean valid)
+            throws UnsupportedExpressionException {
+        if (!valid) {
+            // Let the fallback report the error at evaluation time
+            throw new UnsupportedExpressionException("Invalid arguments in " + expr.getText());
+        }
+    }
+
+    private Path compileSteps(final CompiledExpr filter, final boolean absolute, final LocationPath path,
+            final Position initial) throws UnsupportedExpressionException {
+        Position position = initial;
+        final List<CompiledExpr.Step> steps = new ArrayList<>();
+        for (Object obj : path.getSteps()) {
+            final Step step = (Step) obj;
+            if (step instanceof AllNodeStep && step.getAxis() == Axis.SELF) {
+                steps.add(new SelfStep(compilePredicates(step, position)));
+            } else if (step instanceof AllNodeStep && step.getAxis() == Axis.PARENT) {
+                position = position == null || position.node == null ? null : position.parent;
+                steps.add(new ParentStep(compilePredicates(step, position)));
+            } else if (step instanceof NameStep && step.getAxis() == Axis.CHILD) {
+                final Position parent = position;
+                final NameStep nameStep = (NameStep) step;
+                final QName qname = resolveName(nameStep, parent);
+                position = qname == null ? null : childPosition(parent, qname);
+                steps.add(compileChildStep(nameStep, qname, parent, position));
+            } else {
+                throw new UnsupportedExpressionException("Step " + step.getText());
+            }
+        }
+
+        return new Path(filter, absolute, steps);
+    }
+
+    private QName resolveName(final NameStep step, final Position position) throws UnsupportedExpressionException {
+        if ("*".equals(step.getLocalName())) {
+            throw new UnsupportedExpressionException("Wildcard step " + step.getText());
+        }
+
+        final String prefix = step.getPrefix();
+        if (!Strings.isNullOrEmpty(prefix)) {
+            final QNameModule module;
+            try {
+                module = prefixes.convert(prefix);
+            } catch (IllegalArgumentException e) {
+                throw new UnsupportedExpressionException("Unknown prefix " + prefix);
+            }
+            return QName.create(module, step.getLocalName());
+        }
+
+        // Unprefixed names are resolved against the context node, which we know only if we know its schema
+        if (position == null) {
+            return null;
+        }
+        if (position.node != null) {
+            return QName.create(position.node.getQName().getModule(), step.getLocalName());
+        }
+        return defaultModule == null ? null : QName.create(defaultModule, step.getLocalName());
+    }
+
+    private List<CompiledExpr> compilePredicates(final Step step, final Position position)
+            throws UnsupportedExpressionException {
+        final List<?> predicates = step.getPredicates();
+        final List<CompiledExpr> ret = new ArrayList<>(predicates.size());
+        for (Object obj : predicates) {
+            final CompiledExpr predicate = compile(((Predicate) obj).getExpr(), position);
+            if (predicate.getType() == Type.NUMBER) {
+                throw new UnsupportedExpressionException("Positional predicate " + step.getText());
+            }
+            ret.add(predicate);
+        }
+        return ret;
+    }
+
+    private CompiledExpr.Step compileChildStep(final NameStep step, final QName qname, final Position parent,
+            final Position position) throws UnsupportedExpressionException {
+        if (qname == null) {
+            return new ChildStep(step.getLocalName(), compilePredicates(step, position));
+        }
+        if (position == null || !(position.node instanceof ListSchemaNode)) {
+            return new ChildStep(qname, compilePredicates(step, position), null);
+        }
+
+        final ListSchemaNode list = (ListSchemaNode) position.node;
+        final Map<QName, Expr> keyValues = new LinkedHashMap<>();
+        final List<Expr> filters = new ArrayList<>();
+        for (Object obj : step.getPredicates()) {
+            final Expr expr = ((Predicate) obj).getExpr();
+            final QName key = keyPredicate(expr, list, position);
+            if (key != null && !keyValues.containsKey(key)) {
+                keyValues.put(key, ((EqualityExpr) expr).getRHS());
+            } else {
+                filters.add(expr);
+            }
+        }
+
+        final List<QName> keys = list.getKeyDefinition();
+        if (keys.isEmpty() || keyValues.size() != keys.size()) {
+            // Not all keys are bound, evaluate all predicates as filters
+            return new ChildStep(qname, compilePredicates(step, position), null);
+        }
+
+        // Key values are evaluated in the context of the step, not the entry
+        final Map<QName, CompiledExpr> lookup = new LinkedHashMap<>();
+        for (Entry<QName, Expr> e : keyValues.entrySet()) {
+            lookup.put(e.getKey(), compile(e.getValue(), parent));
+        }
+        final List<CompiledExpr> predicates = new ArrayList<>(filters.size());
+        for (Expr expr : filters) {
+            final CompiledExpr predicate = compile(expr, position);
+            if (predicate.getType() == Type.NUMBER) {
+                throw new UnsupportedExpressionException("Positional predicate " + step.getText());
+            }
+            predicates.add(predicate);
+        }
+
+        return new ChildStep(qname, predicates, new KeyLookup(qname, lookup));
+    }
+
+    /**
+     * Check whether an expression is a predicate of the form 'key = value', where value does not depend on the list
+     * entry being matched, and key is a string-typed key leaf.
+     *
+     * @return Key leaf name, or null if the expression is not such a predicate.
+     */
+    private QName keyPredicate(final Expr expr, final ListSchemaNode list, final Position position)
+            throws UnsupportedExpressionException {
+        if (!(expr instanceof EqualityExpr) || !"=".equals(((EqualityExpr) expr).getOperator())) {
+            return null;
+        }
+
+        final EqualityExpr equality = (EqualityExpr) expr;
+        if (!(equality.getLHS() instanceof LocationPath) || !isEntryIndependent(equality.getRHS())) {
+            return null;
+        }
+
+        final LocationPath path = (LocationPath) equality.getLHS();
+        if (path.isAbsolute() || path.getSteps().size() != 1) {
+            return null;
+        }
+        final Step step = (Step) path.getSteps().get(0);
+        if (!(step instanceof NameStep) || step.getAxis() != Axis.CHILD || !step.getPredicates().isEmpty()) {
+            return null;
+        }
+
+        final QName key = resolveName((NameStep) step, position);
+        if (key == null || !list.getKeyDefinition().contains(key)) {
+            return null;
+        }
+
+        final DataSchemaNode leaf = list.getDataChildByName(key);
+        return leaf instanceof LeafSchemaNode && isString(((LeafSchemaNode) leaf).getType()) ? key : null;
+    }
+
+    /**
+     * Check whether an expression is known to evaluate to a string or a node-set irrespective of its context node.
+     */
+    private static boolean isEntryIndependent(final Expr expr) {
+        if (expr instanceof LiteralExpr) {
+            return true;
+        }
+        if (expr instanceof LocationPath) {
+            return ((LocationPath) expr).isAbsolute();
+        }
+        if (expr instanceof PathExpr) {
+            return isCurrent(((PathExpr) expr).getFilterExpr());
+        }
+        return isCurrent(expr);
+    }
+
+    private static boolean isCurrent(final Expr expr) {
+        return expr instanceof FunctionCallExpr && Strings.isNullOrEmpty(((FunctionCallExpr) expr).getPrefix())
+                && "current".equals(((FunctionCallExpr) expr).getFunctionName())
+                && ((FunctionCallExpr) expr).getParameters().isEmpty();
+    }
+
+    private static boolean isString(final TypeDefinition<?> type) {
+        for (TypeDefinition<?> t = type; t != null; t = t.getBaseType()) {
+            if (t instanceof StringTypeDefinition) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.base.Converter;
+import com.google.common.collect.HashBiMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.xpath.XPathExpressionException;
+import org.jaxen.dom.DocumentNavigator;
+import org.jaxen.function.StringFunction;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathNodesetResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathResult;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+public class CompiledXPathTest {
+    private static final QName ROOT = QName.create("urn:opendaylight.test2", "2015-08-08", "root");
+    private static final QName LIST_A = QName.create(ROOT, "list-a");
+    private static final QName LEAF_A = QName.create(ROOT, "leaf-a");
+    private static final SchemaPath LEAF_A_PATH = SchemaPath.create(true, ROOT, LIST_A, LEAF_A);
+    private static final YangInstanceIdentifier BAR_LEAF_A = YangInstanceIdentifier.of(LIST_A)
+            .node(new NodeIdentifierWithPredicates(LIST_A, LEAF_A, "bar")).node(LEAF_A);
+
+    private static SchemaContext schemaContext;
+    private static Converter<String, QNameModule> prefixes;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        schemaContext = TestUtils.loadModules("/test/documentTest");
+        final HashBiMap<String, QNameModule> map = HashBiMap.create();
+        map.put("test2", ROOT.getModule());
+        prefixes = Maps.asConverter(map);
+    }
+
+    private static XPathResult<?> evaluate(final XPathSchemaContext context, final NormalizedNode<?, ?> root,
+            final SchemaPath schemaPath, final YangInstanceIdentifier path, final String xpath)
+            throws XPathExpressionException {
+        final XPathDocument document = context.createDocument(root);
+        return context.compileExpression(schemaPath, prefixes, xpath).evaluate(document, path).get();
+    }
+
+    private static Object value(final XPathResult<?> result) {
+        if (result instanceof XPathNodesetResult) {
+            final List<Object> values = new ArrayList<>();
+            for (NormalizedNode<?, ?> node : ((XPathNodesetResult) result).getValue()) {
+                values.add(node.getValue());
+            }
+            return values;
+        }
+        if (result.getValue() instanceof Number) {
+            return ((Number) result.getValue()).doubleValue();
+        }
+        return result.getValue();
+    }
+
+    private static Object compiledValue(final String xpath) throws XPathExpressionException {
+        final XPathSchemaContext context = new CompiledXPathSchemaContextFactory().createContext(schemaContext);
+        final XPathExpression expr = context.compileExpression(LEAF_A_PATH, prefixes, xpath);
+        assertTrue(xpath, expr instanceof CompiledXPath);
+        return value(evaluate(context, TestUtils.createNormalizedNodes(), LEAF_A_PATH, BAR_LEAF_A, xpath));
+    }
+
+    @Test
+    public void testJaxenParity() throws XPathExpressionException {
+        final XPathSchemaContext jaxen = new JaxenSchemaContextFactory().createContext(schemaContext);
+        final XPathSchemaContext compiled = new CompiledXPathSchemaContextFactory().createContext(schemaContext);
+        final NormalizedNode<?, ?> root = TestUtils.createNormalizedNodes();
+
+        for (String xpath : ImmutableList.of("/container-a/container-b/leaf-d",
+                "/list-a[leaf-a='bar']/list-b[leaf-b='two']/leaf-b", "/list-a/leaf-a", "/list-a[leaf-a != 'bar']",
+                "../list-b/leaf-b", ".", "count(../list-b)", "count(/list-a/list-b) > 1", "string(/leaf-c)",
+                "concat(/leaf-c, '-', .)", "not(/list-a[leaf-a = 'baz'])",
+                "starts-with(., 'ba') and contains(/leaf-c, 'a')",
+                "string-length(/leaf-c) * 2 - 1", "/list-a/leaf-a = 'foo'", "7 mod 3 = 1 or false()",
+                "-(1 div 2)", "number('12') + 3", "true() = 'x'")) {
+            assertEquals(xpath, value(evaluate(jaxen, root, LEAF_A_PATH, BAR_LEAF_A, xpath)),
+                value(evaluate(compiled, root, LEAF_A_PATH, BAR_LEAF_A, xpath)));
+        }
+    }
+
+    @Test
+    public void testFractionalNumberParity() throws XPathExpressionException {
+        // NormalizedNodeNavigator does not handle non-node objects, hence compare with Jaxen's DOM navigator
+        for (double value : new double[] { 1e-7, 0.5, -2.5, 0.125, 123456.75, 11, 0.03, 1.5e-5 }) {
+            assertEquals(String.valueOf(value), StringFunction.evaluate(value, DocumentNavigator.getInstance()),
+                CompiledExpr.numberToString(value));
+        }
+        assertEquals("0.0000001", compiledValue("string(1 div 10000000)"));
+        assertEquals("0.125", compiledValue("concat(1 div 8, '')"));
+    }
+
+    @Test
+    public void testRelativePaths() throws XPathExpressionException {
+        assertEquals(ImmutableList.of("waz"), compiledValue("../../leaf-c"));
+        assertEquals(ImmutableList.of("two"), compiledValue("../list-b[leaf-b = 'two']/leaf-b"));
+        assertEquals(Boolean.TRUE, compiledValue("../leaf-a = 'bar' and 1 + 2 = 3"));
+        assertEquals(ImmutableList.of("bar"), compiledValue("current()"));
+        assertEquals(ImmutableList.of("bar"), compiledValue("/list-a[leaf-a = current()]/leaf-a"));
+        assertEquals("waz-bar", compiledValue("concat(../../leaf-c, '-', current())"));
+    }
+
+    @Test
+    public void testKeyLookup() throws XPathExpressionException {
+        // Document rooted at the datastore root, so absolute paths are tracked through the schema
+        final NormalizedNode<?, ?> document = Builders.containerBuilder()
+                .withNodeIdentifier(new NodeIdentifier(SchemaContext.NAME))
+                .withChild((DataContainerChild<?, ?>) TestUtils.createNormalizedNodes()).build();
+
+        final XPathSchemaContext context = new CompiledXPathSchemaContextFactory().createContext(schemaContext);
+        final YangInstanceIdentifier path = YangInstanceIdentifier.of(ROOT).node(LIST_A)
+                .node(new NodeIdentifierWithPredicates(LIST_A, LEAF_A, "bar")).node(LEAF_A);
+
+        for (String xpath : ImmutableList.of("/test2:root/test2:list-a[test2:leaf-a = current()]/list-b[leaf-b='two']",
+                "/root/list-a[leaf-a = 'bar']/list-b[leaf-b = /root/list-a/list-b/leaf-b]")) {
+            final XPathExpression expr = context.compileExpression(LEAF_A_PATH, prefixes, xpath);
+            assertTrue(xpath, expr instanceof CompiledXPath);
+        }
+
+        assertEquals(ImmutableList.of("two"), value(evaluate(context, document, LEAF_A_PATH, path,
+            "/test2:root/test2:list-a[test2:leaf-a = current()]/list-b[leaf-b='two']/leaf-b")));
+        assertEquals(ImmutableSet.of("one", "two"), ImmutableSet.copyOf((List<?>) value(evaluate(context, document,
+            LEAF_A_PATH, path, "/root/list-a[leaf-a = 'bar']/list-b[leaf-b = /root/list-a/list-b/leaf-b]/leaf-b"))));
+        assertEquals(ImmutableList.of(), value(evaluate(context, document, LEAF_A_PATH, path,
+            "/root/list-a[leaf-a = 'baz']/list-b/leaf-b")));
+    }
+
+    @Test
+    public void testApexPath() throws XPathExpressionException {
+        final XPathSchemaContext context = new CompiledXPathSchemaContextFactory().createContext(schemaContext);
+        assertEquals(LEAF_A_PATH, context.compileExpression(LEAF_A_PATH, prefixes, ". = 'bar'").getApexPath());
+        assertEquals(SchemaPath.create(true, ROOT, LIST_A), context.compileExpression(LEAF_A_PATH, prefixes,
+            "../list-b[leaf-b = 'two']/leaf-b").getApexPath());
+        assertEquals(SchemaPath.create(true, ROOT), context.compileExpression(LEAF_A_PATH, prefixes,
+            "concat(../../leaf-c, '-', current())").getApexPath());
+    }
+
+    @Test
+    public void testFallback() throws XPathExpressionException {
+        final XPathSchemaContext context = new CompiledXPathSchemaContextFactory().createContext(schemaContext);
+        final XPathExpression expr = context.compileExpression(LEAF_A_PATH, prefixes, "count(/list-a[1])");
+        assertTrue(expr instanceof JaxenXPath);
+        assertEquals(1.0, value(evaluate(context, TestUtils.createNormalizedNodes(), LEAF_A_PATH, BAR_LEAF_A,
+            "count(/list-a[1])")));
+    }
+
+    @Test(expected = XPathExpressionException.class)
+    public void testInvalidExpression() throws XPathExpressionException {
+        new CompiledXPathSchemaContextFactory().createContext(schemaContext).compileExpression(LEAF_A_PATH, prefixes,
+            "/broken-path*");
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.jaxen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes.leafNode;
+
+import com.google.common.base.Converter;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import javax.xml.xpath.XPathExpressionException;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.AugmentationIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.ContainerNode;
+import org.opendaylight.yangtools.yang.data.api.schema.DataContainerChild;
+import org.opendaylight.yangtools.yang.data.api.schema.MapEntryNode;
+import org.opendaylight.yangtools.yang.data.api.schema.NormalizedNode;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.BatchingDataTreeTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeCandidateTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeConfiguration;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeModification;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataTreeTip;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.DataValidationFailedException;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TipProducingDataTree;
+import org.opendaylight.yangtools.yang.data.api.schema.tree.TreeType;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathDocument;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathExpression;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContext;
+import org.opendaylight.yangtools.yang.data.api.schema.xpath.XPathSchemaContextFactory;
+import org.opendaylight.yangtools.yang.data.impl.schema.Builders;
+import org.opendaylight.yangtools.yang.data.impl.schema.ImmutableNodes;
+import org.opendaylight.yangtools.yang.data.impl.schema.tree.InMemoryDataTreeFactory;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.api.SchemaPath;
+
+@RunWith(Parameterized.class)
+public class DataTreeConstraintValidationTest {
+    private static final QName INTERFACES = QName.create("urn:opendaylight.constraints", "2016-10-15", "interfaces");
+    private static final QName INTERFACE = QName.create(INTERFACES, "interface");
+    private static final QName NAME = QName.create(INTERFACES, "name");
+    private static final QName TYPE = QName.create(INTERFACES, "type");
+    private static final QName MTU = QName.create(INTERFACES, "mtu");
+    private static final QName ETHERNET = QName.create(INTERFACES, "ethernet");
+    private static final QName DUPLEX = QName.create(INTERFACES, "duplex");
+    private static final QName ROUTING = QName.create(INTERFACES, "routing");
+    private static final QName ROUTE = QName.create(INTERFACES, "route");
+    private static final QName PREFIX = QName.create(INTERFACES, "prefix");
+    private static final QName SETTINGS = QName.create(INTERFACES, "settings");
+    private static final QName MODE = QName.create(INTERFACES, "mode");
+    private static final QName TRANSPORT = QName.create(INTERFACES, "transport");
+    private static final QName TCP_PORT = QName.create(INTERFACES, "tcp-port");
+    private static final QName UDP_PORT = QName.create(INTERFACES, "udp-port");
+    private static final QName EXTENSION = QName.create(INTERFACES, "extension");
+    private static final QName BROKEN = QName.create(INTERFACES, "broken");
+    private static final QName VALUE = QName.create(INTERFACES, "value");
+
+    private static final YangInstanceIdentifier INTERFACE_PATH = YangInstanceIdentifier.of(INTERFACES)
+            .node(INTERFACE);
+    private static final YangInstanceIdentifier ROUTE_PATH = YangInstanceIdentifier.of(ROUTING).node(ROUTE);
+    private static final YangInstanceIdentifier SETTINGS_PATH = YangInstanceIdentifier.of(SETTINGS);
+    private static final YangInstanceIdentifier TRANSPORT_PATH = SETTINGS_PATH.node(TRANSPORT);
+    private static final AugmentationIdentifier EXTENSION_AUGMENTATION = new AugmentationIdentifier(
+        ImmutableSet.of(EXTENSION));
+
+    private static SchemaContext schemaContext;
+
+    private final XPathSchemaContextFactory factory;
+    private TipProducingDataTree dataTree;
+
+    public DataTreeConstraintValidationTest(final XPathSchemaContextFactory factory) {
+        this.factory = factory;
+    }
+
+    @Parameters
+    public static Collection<Object[]> factories() {
+        return Arrays.asList(new Object[] { new JaxenSchemaContextFactory() },
+            new Object[] { new CompiledXPathSchemaContextFactory() });
+    }
+
+    @BeforeClass
+    public static void init() throws Exception {
+        schemaContext = TestUtils.loadModules("/test/constraintTest");
+    }
+
+    @Before
+    public void setUp() throws DataValidationFailedException {
+        dataTree = createDataTree(factory);
+
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(YangInstanceIdentifier.of(INTERFACES), Builders.containerBuilder()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(INTERFACES))
+            .withChild(ImmutableNodes.mapNodeBuilder(INTERFACE).withChild(iface("eth0", "ethernet")).build())
+            .build());
+        modification.write(YangInstanceIdentifier.of(ROUTING), ImmutableNodes.containerNode(ROUTING));
+        commit(modification);
+    }
+
+    private static TipProducingDataTree createDataTree(final XPathSchemaContextFactory xpathFactory) {
+        final TipProducingDataTree ret = InMemoryDataTreeFactory.getInstance().create(
+            new DataTreeConfiguration.Builder(TreeType.CONFIGURATION).setConstraintXPathFactory(xpathFactory).build());
+        ret.setSchemaContext(schemaContext);
+        return ret;
+    }
+
+    private static ContainerNode settings(final String mode, final DataContainerChild<?, ?> child) {
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(SETTINGS))
+            .withChild(leafNode(MODE, mode)).withChild(child).build();
+    }
+
+    private static DataContainerChild<?, ?> transport(final QName port, final int value) {
+        return Builders.choiceBuilder().withNodeIdentifier(new NodeIdentifier(TRANSPORT))
+            .withChild(leafNode(port, value)).build();
+    }
+
+    private static ContainerNode broken() {
+        return Builders.containerBuilder().withNodeIdentifier(new NodeIdentifier(BROKEN))
+            .withChild(leafNode(VALUE, "foo")).build();
+    }
+
+    private static MapEntryNode iface(final String name, final String type) {
+        return ImmutableNodes.mapEntryBuilder(INTERFACE, NAME, name).withChild(leafNode(TYPE, type)).build();
+    }
+
+    private static YangInstanceIdentifier interfacePath(final String name) {
+        return INTERFACE_PATH.node(new NodeIdentifierWithPredicates(INTERFACE, NAME, name));
+    }
+
+    private static YangInstanceIdentifier routePath(final String prefix) {
+        return ROUTE_PATH.node(new NodeIdentifierWithPredicates(ROUTE, PREFIX, prefix));
+    }
+
+    private void commit(final DataTreeModification modification) throws DataValidationFailedException {
+        modification.ready();
+        dataTree.validate(modification);
+        dataTree.commit(dataTree.prepare(modification));
+    }
+
+    private void assertValidationFails(final DataTreeModification modification, final YangInstanceIdentifier path) {
+        assertValidationFails(dataTree, modification, path);
+    }
+
+    private static DataValidationFailedException assertValidationFails(final DataTreeTip tip,
+            final DataTreeModification modification, final YangInstanceIdentifier path) {
+        modification.ready();
+        try {
+            tip.validate(modification);
+            fail("Validation should have failed");
+            return null;
+        } catch (DataValidationFailedException e) {
+            assertEquals(path, e.getPath());
+            return e;
+        }
+    }
+
+    @Test
+    public void testMust() throws DataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(interfacePath("eth0").node(MTU), leafNode(MTU, 1500L));
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(interfacePath("eth1"), ImmutableNodes.mapEntryBuilder(INTERFACE, NAME, "eth1")
+            .withChild(leafNode(MTU, 32L)).build());
+        assertValidationFails(modification, interfacePath("eth1").node(MTU));
+    }
+
+    @Test
+    public void testMustOnParent() throws DataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(ROUTE_PATH, ImmutableNodes.mapNodeBuilder(ROUTE)
+            .withChild(ImmutableNodes.mapEntry(ROUTE, PREFIX, "10.0.0.0/8"))
+            .withChild(ImmutableNodes.mapEntry(ROUTE, PREFIX, "10.1.0.0/16")).build());
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.merge(routePath("10.2.0.0/16"), ImmutableNodes.mapEntry(ROUTE, PREFIX, "10.2.0.0/16"));
+        assertValidationFails(modification, YangInstanceIdentifier.of(ROUTING));
+    }
+
+    @Test
+    public void testWhen() throws DataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(interfacePath("eth0").node(ETHERNET), Builders.containerBuilder()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(ETHERNET))
+            .withChild(leafNode(DUPLEX, "full")).build());
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(interfacePath("lo0"), iface("lo0", "loopback"));
+        modification.write(interfacePath("lo0").node(ETHERNET), Builders.containerBuilder()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(ETHERNET))
+            .withChild(leafNode(DUPLEX, "half")).build());
+        assertValidationFails(modification, interfacePath("lo0").node(ETHERNET));
+    }
+
+    @Test
+    public void testWhenReferencedDataChanged() throws DataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(interfacePath("eth0").node(ETHERNET), Builders.containerBuilder()
+            .withNodeIdentifier(new YangInstanceIdentifier.NodeIdentifier(ETHERNET))
+            .withChild(leafNode(DUPLEX, "full")).build());
+        commit(modification);
+
+        // Only the type is modified, the ethernet container is left untouched
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(interfacePath("eth0").node(TYPE), leafNode(TYPE, "loopback"));
+        assertValidationFails(modification, interfacePath("eth0").node(ETHERNET));
+    }
+
+    @Test
+    public void testWhenOnChoiceReferencedDataChanged() throws DataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH, settings("udp", transport(UDP_PORT, 53)));
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH.node(MODE), leafNode(MODE, "off"));
+        assertValidationFails(modification, TRANSPORT_PATH);
+    }
+
+    @Test
+    public void testBatch() throws DataValidationFailedException {
+        final DataTreeModification first = dataTree.takeSnapshot().newModification();
+        first.write(interfacePath("eth1"), iface("eth1", "ethernet"));
+        first.ready();
+
+        final DataTreeModification second = dataTree.takeSnapshot().newModification();
+        second.write(interfacePath("eth2"), ImmutableNodes.mapEntryBuilder(INTERFACE, NAME, "eth2")
+            .withChild(leafNode(MTU, 10L)).build());
+        second.ready();
+
+        try {
+            ((BatchingDataTreeTip) dataTree).validateAndPrepare(Arrays.asList(first, second));
+            fail("Validation should have failed");
+        } catch (DataValidationFailedException e) {
+            assertEquals(interfacePath("eth2").node(MTU), e.getPath());
+        }
+    }
+
+    @Test
+    public void testWhenOnChoiceAndCase() throws DataValidationFailedException {
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH, settings("tcp", transport(TCP_PORT, 80)));
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH, settings("udp", transport(UDP_PORT, 53)));
+        commit(modification);
+
+        // Case condition does not hold
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH, settings("udp", transport(TCP_PORT, 80)));
+        assertValidationFails(modification, TRANSPORT_PATH.node(TCP_PORT));
+
+        // Choice condition does not hold
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH, settings("off", transport(UDP_PORT, 53)));
+        assertValidationFails(modification, TRANSPORT_PATH);
+    }
+
+    @Test
+    public void testWhenOnAugmentation() throws DataValidationFailedException {
+        final DataContainerChild<?, ?> augmentation = Builders.augmentationBuilder()
+            .withNodeIdentifier(EXTENSION_AUGMENTATION).withChild(leafNode(EXTENSION, "foo")).build();
+
+        DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH, settings("extended", augmentation));
+        commit(modification);
+
+        modification = dataTree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH, settings("tcp", augmentation));
+        assertValidationFails(modification, SETTINGS_PATH.node(EXTENSION_AUGMENTATION));
+    }
+
+    @Test
+    public void testUncompilableConstraint() {
+        final DataTreeModification modification = dataTree.takeSnapshot().newModification();
+        modification.write(YangInstanceIdentifier.of(BROKEN), broken());
+        final DataValidationFailedException e = assertValidationFails(dataTree, modification,
+            YangInstanceIdentifier.of(BROKEN));
+        assertTrue(e.getMessage().startsWith("Failed to compile"));
+    }
+
+    @Test
+    public void testChainedCandidate() throws DataValidationFailedException {
+        final DataTreeModification first = dataTree.takeSnapshot().newModification();
+        first.write(interfacePath("eth1"), iface("eth1", "ethernet"));
+        first.ready();
+        dataTree.validate(first);
+        final DataTreeCandidateTip tip = dataTree.prepare(first);
+
+        final DataTreeModification second = dataTree.takeSnapshot().newModification();
+        second.write(interfacePath("eth2"), ImmutableNodes.mapEntryBuilder(INTERFACE, NAME, "eth2")
+            .withChild(leafNode(MTU, 10L)).build());
+        assertValidationFails(tip, second, interfacePath("eth2").node(MTU));
+
+        final DataTreeModification third = dataTree.takeSnapshot().newModification();
+        third.write(YangInstanceIdentifier.of(BROKEN), broken());
+        assertValidationFails(tip.prepare(first), third, YangInstanceIdentifier.of(BROKEN));
+    }
+
+    @Test
+    public void testPrepareReusesValidatedRoot() throws DataValidationFailedException {
+        final List<NormalizedNode<?, ?>> documents = new ArrayList<>();
+        final TipProducingDataTree tree = createDataTree(context -> {
+            final XPathSchemaContext delegate = factory.createContext(context);
+            return new XPathSchemaContext() {
+                @Override
+                public XPathExpression compileExpression(final SchemaPath schemaPath,
+                        final Converter<String, QNameModule> prefixes, final String xpath)
+                                throws XPathExpressionException {
+                    return delegate.compileExpression(schemaPath, prefixes, xpath);
+                }
+
+                @Override
+                public XPathDocument createDocument(final NormalizedNode<?, ?> documentRoot) {
+                    documents.add(documentRoot);
+                    return delegate.createDocument(documentRoot);
+                }
+            };
+        });
+
+        final DataTreeModification modification = tree.takeSnapshot().newModification();
+        modification.write(SETTINGS_PATH, settings("tcp", transport(TCP_PORT, 80)));
+        modification.ready();
+        tree.validate(modification);
+        assertEquals(1, documents.size());
+        assertSame(documents.get(0), tree.prepare(modification).getRootNode().getDataAfter().get());
+    }
+}
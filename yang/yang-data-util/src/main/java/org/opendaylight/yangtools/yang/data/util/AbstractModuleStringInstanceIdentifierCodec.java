@@ -22,6 +22,21 @@ import org.opendaylight.yangtools.yang.model.api.Module;
  */
 @Beta
 public abstract class AbstractModuleStringInstanceIdentifierCodec extends AbstractStringInstanceIdentifierCodec {
+    protected AbstractModuleStringInstanceIdentifierCodec() {
+        super();
+    }
+
+    /**
+     * Create a codec which caches deserialized identifiers. See
+     * {@link AbstractStringInstanceIdentifierCodec#AbstractStringInstanceIdentifierCodec(int, int)} for details.
+     *
+     * @param maximumIdentifiers Maximum number of cached identifiers
+     * @param maximumTemplates Maximum number of cached templates
+     */
+    protected AbstractModuleStringInstanceIdentifierCodec(final int maximumIdentifiers, final int maximumTemplates) {
+        super(maximumIdentifiers, maximumTemplates);
+    }
+
     /**
      * Resolve a string prefix into the corresponding module.
      *
@@ -8,7 +8,9 @@
 package org.opendaylight.yangtools.yang.data.util;
 
 import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import org.opendaylight.yangtools.yang.common.QName;
@@ -25,6 +27,24 @@ import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
  */
 @Beta
 public abstract class AbstractStringInstanceIdentifierCodec extends AbstractNamespaceCodec implements InstanceIdentifierCodec<String> {
+    private final InstanceIdentifierStringCache cache;
+
+    protected AbstractStringInstanceIdentifierCodec() {
+        cache = null;
+    }
+
+    /**
+     * Create a codec which caches deserialized identifiers by their string representation and compiled templates of
+     * identifiers which differ only in predicate values. This is valid only if prefixes resolve to the same
+     * namespaces for all strings passed to {@link #deserialize(String)} and {@link #deserializeKeyValue(DataSchemaNode,
+     * String)} does not depend on the context in which it is invoked.
+     *
+     * @param maximumIdentifiers Maximum number of cached identifiers
+     * @param maximumTemplates Maximum number of cached templates
+     */
+    protected AbstractStringInstanceIdentifierCodec(final int maximumIdentifiers, final int maximumTemplates) {
+        cache = new InstanceIdentifierStringCache(maximumIdentifiers, maximumTemplates);
+    }
 
     @Override
     public final String serialize(final YangInstanceIdentifier data) {
@@ -92,8 +112,29 @@ public abstract class AbstractStringInstanceIdentifierCodec extends AbstractName
     @Override
     public final YangInstanceIdentifier deserialize(final String data) {
         Preconditions.checkNotNull(data, "Data may not be null");
+        if (cache != null) {
+            return cache.deserialize(this, data);
+        }
         XpathStringParsingPathArgumentBuilder builder = new XpathStringParsingPathArgumentBuilder(this, data);
         return YangInstanceIdentifier.create(builder.build());
     }
 
+    /**
+     * Return statistics of the cache of deserialized identifiers.
+     *
+     * @return Cache statistics, absent if this codec does not cache identifiers
+     */
+    public final Optional<CacheStats> getIdentifierCacheStats() {
+        return cache == null ? Optional.absent() : Optional.of(cache.getIdentifierStats());
+    }
+
+    /**
+     * Return statistics of the cache of compiled identifier templates.
+     *
+     * @return Cache statistics, absent if this codec does not cache identifiers
+     */
+    public final Optional<CacheStats> getTemplateCacheStats() {
+        return cache == null ? Optional.absent() : Optional.of(cache.getTemplateStats());
+    }
+
 }
@@ -9,6 +9,9 @@
 package org.opendaylight.yangtools.yang.data.util;
 
 import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
 import org.opendaylight.yangtools.concepts.Codec;
 import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.TypeDefinition;
@@ -22,6 +25,12 @@ public abstract class AbstractStringUnionCodec implements Codec<String, Object>
     protected final DataSchemaNode schema;
     protected final UnionTypeDefinition typeDefinition;
 
+    /*
+     * Codecs for the member types, in the order of typeDefinition.getTypes(). Resolved on first use, as codecFor()
+     * cannot be invoked from the constructor. Races are benign, as the codecs are expected to be equivalent.
+     */
+    private volatile List<Codec<String, Object>> memberCodecs;
+
     protected AbstractStringUnionCodec(final DataSchemaNode schema, final UnionTypeDefinition typeDefinition) {
         this.schema = Preconditions.checkNotNull(schema);
         this.typeDefinition = Preconditions.checkNotNull(typeDefinition);
@@ -29,10 +38,25 @@ public abstract class AbstractStringUnionCodec implements Codec<String, Object>
 
     protected abstract Codec<String, Object> codecFor(final TypeDefinition<?> type);
 
+    private List<Codec<String, Object>> memberCodecs() {
+        List<Codec<String, Object>> ret = memberCodecs;
+        if (ret == null) {
+            final List<Codec<String, Object>> codecs = new ArrayList<>(typeDefinition.getTypes().size());
+            for (final TypeDefinition<?> type : typeDefinition.getTypes()) {
+                codecs.add(codecFor(type));
+            }
+            ret = codecs;
+            memberCodecs = ret;
+        }
+        return ret;
+    }
+
     @Override
     public final String serialize(final Object data) {
-        for (final TypeDefinition<?> type : typeDefinition.getTypes()) {
-            Codec<String, Object> codec = codecFor(type);
+        final List<Codec<String, Object>> codecs = memberCodecs();
+        for (int i = 0; i < codecs.size(); ++i) {
+            final TypeDefinition<?> type = typeDefinition.getTypes().get(i);
+            final Codec<String, Object> codec = codecs.get(i);
             if (codec == null) {
                 LOG.debug("no codec found for {}", type);
                 continue;
@@ -49,13 +73,29 @@ public abstract class AbstractStringUnionCodec implements Codec<String, Object>
 
     @Override
     public Object deserialize(final String stringRepresentation) {
+        return deserialize(stringRepresentation, Codec::deserialize);
+    }
+
+    /**
+     * Deserialize a value by trying the member codecs in turn. Subclasses use this to supply the member codecs with
+     * context which is known only at the time of invocation.
+     *
+     * @param stringRepresentation String representation of the value
+     * @param memberDeserializer Function invoking a member codec on the string representation
+     * @return Deserialized value
+     * @throws IllegalArgumentException if none of the member codecs accepts the value
+     */
+    protected final Object deserialize(final String stringRepresentation,
+            final BiFunction<Codec<String, Object>, String, Object> memberDeserializer) {
         if (stringRepresentation == null) {
             return null;
         }
 
         Object returnValue = null;
-        for (final TypeDefinition<?> type : typeDefinition.getTypes()) {
-            Codec<String, Object> codec = codecFor(type);
+        final List<Codec<String, Object>> codecs = memberCodecs();
+        for (int i = 0; i < codecs.size(); ++i) {
+            final TypeDefinition<?> type = typeDefinition.getTypes().get(i);
+            final Codec<String, Object> codec = codecs.get(i);
             if (codec == null) {
                 /*
                  * This is a type for which we have no codec (eg identity ref) so we'll say it's
@@ -65,7 +105,7 @@ public abstract class AbstractStringUnionCodec implements Codec<String, Object>
                 continue;
             }
             try {
-                final Object deserialized = codec.deserialize(stringRepresentation);
+                final Object deserialized = memberDeserializer.apply(codec, stringRepresentation);
                 if (deserialized != null) {
                     return deserialized;
                 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.ArrayList;
+import java.util.List;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+
+/**
+ * Cache of deserialized instance identifiers. It is two-level: identifiers are cached by their string, and strings
+ * which are not are split into a template, which is the string with quoted predicate values left out, and the values
+ * themselves. Templates are compiled once, so identifiers which differ only in their predicate values do not need
+ * to be parsed again.
+ */
+final class InstanceIdentifierStringCache {
+    private final Cache<String, YangInstanceIdentifier> identifiers;
+    private final Cache<String, InstanceIdentifierTemplate> templates;
+
+    InstanceIdentifierStringCache(final int maximumIdentifiers, final int maximumTemplates) {
+        Preconditions.checkArgument(maximumIdentifiers >= 0, "Invalid identifier cache size %s", maximumIdentifiers);
+        Preconditions.checkArgument(maximumTemplates >= 0, "Invalid template cache size %s", maximumTemplates);
+        identifiers = CacheBuilder.newBuilder().maximumSize(maximumIdentifiers).recordStats().build();
+        templates = CacheBuilder.newBuilder().maximumSize(maximumTemplates).recordStats().build();
+    }
+
+    YangInstanceIdentifier deserialize(final AbstractStringInstanceIdentifierCodec codec, final String data) {
+        final YangInstanceIdentifier cached = identifiers.getIfPresent(data);
+        if (cached != null) {
+            return cached;
+        }
+
+        final YangInstanceIdentifier ret;
+        final List<String> values = new ArrayList<>();
+        final String template = splitValues(data, values);
+        if (template == null) {
+            // Not well-formed, let the parser report the error
+            ret = YangInstanceIdentifier.create(new XpathStringParsingPathArgumentBuilder(codec, data).build());
+        } else {
+            final InstanceIdentifierTemplate compiled = templates.getIfPresent(template);
+            if (compiled != null) {
+                ret = compiled.instantiate(codec, values);
+            } else {
+                final InstanceIdentifierTemplate.Recorder recorder = new InstanceIdentifierTemplate.Recorder();
+                ret = YangInstanceIdentifier.create(new XpathStringParsingPathArgumentBuilder(codec, data, recorder)
+                    .build());
+                templates.put(template, recorder.build());
+            }
+        }
+
+        identifiers.put(data, ret);
+        return ret;
+    }
+
+    CacheStats getIdentifierStats() {
+        return identifiers.stats();
+    }
+
+    CacheStats getTemplateStats() {
+        return templates.stats();
+    }
+
+    /**
+     * Split a string into its template and quoted values. The template retains the quotes, so that the parser
+     * sees the same string structure.
+     *
+     * @return Template string, or null if a quoted value is not terminated
+     */
+    private static String splitValues(final String data, final List<String> values) {
+        final StringBuilder sb = new StringBuilder(data.length());
+        int offset = 0;
+        while (offset < data.length()) {
+            final char ch = data.charAt(offset);
+            sb.append(ch);
+            if (ch == '\'' || ch == '"') {
+                final int end = data.indexOf(ch, offset + 1);
+                if (end == -1) {
+                    return null;
+                }
+                values.add(data.substring(offset + 1, end));
+                sb.append(ch);
+                offset = end + 1;
+            } else {
+                offset++;
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeWithValue;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.PathArgument;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+
+/**
+ * Compiled form of an instance identifier string with its quoted predicate values left out. Prefixes have been
+ * resolved and the schema tree has been walked, hence instantiating the template only requires deserializing
+ * the predicate values, which are supplied in the order they appear in the string.
+ */
+final class InstanceIdentifierTemplate {
+    private abstract static class Segment {
+        abstract PathArgument instantiate(AbstractStringInstanceIdentifierCodec codec, Iterator<String> values);
+    }
+
+    private static final class FixedSegment extends Segment {
+        private final PathArgument argument;
+
+        FixedSegment(final PathArgument argument) {
+            this.argument = Preconditions.checkNotNull(argument);
+        }
+
+        @Override
+        PathArgument instantiate(final AbstractStringInstanceIdentifierCodec codec, final Iterator<String> values) {
+            return argument;
+        }
+    }
+
+    private static final class PredicateSegment extends Segment {
+        private final QName name;
+        private final List<QName> keys;
+        private final List<DataSchemaNode> keyNodes;
+
+        PredicateSegment(final QName name, final List<QName> keys, final List<DataSchemaNode> keyNodes) {
+            this.name = Preconditions.checkNotNull(name);
+            this.keys = ImmutableList.copyOf(keys);
+            this.keyNodes = ImmutableList.copyOf(keyNodes);
+        }
+
+        @Override
+        PathArgument instantiate(final AbstractStringInstanceIdentifierCodec codec, final Iterator<String> values) {
+            final ImmutableMap.Builder<QName, Object> keyValues = ImmutableMap.builder();
+            for (int i = 0; i < keys.size(); ++i) {
+                keyValues.put(keys.get(i), codec.deserializeKeyValue(keyNodes.get(i), values.next()));
+            }
+            return new NodeIdentifierWithPredicates(name, keyValues.build());
+        }
+    }
+
+    private static final class ValueSegment extends Segment {
+        private final QName name;
+
+        ValueSegment(final QName name) {
+            this.name = Preconditions.checkNotNull(name);
+        }
+
+        @Override
+        PathArgument instantiate(final AbstractStringInstanceIdentifierCodec codec, final Iterator<String> values) {
+            return new NodeWithValue<>(name, values.next());
+        }
+    }
+
+    /**
+     * Records the structure of an instance identifier while it is being parsed.
+     */
+    static final class Recorder {
+        private final List<Segment> segments = new ArrayList<>();
+        private final List<QName> keys = new ArrayList<>();
+        private final List<DataSchemaNode> keyNodes = new ArrayList<>();
+
+        void fixed(final PathArgument argument) {
+            segments.add(new FixedSegment(argument));
+        }
+
+        void key(final QName key, final DataSchemaNode keyNode) {
+            keys.add(key);
+            keyNodes.add(keyNode);
+        }
+
+        void predicates(final QName name) {
+            segments.add(new PredicateSegment(name, keys, keyNodes));
+            keys.clear();
+            keyNodes.clear();
+        }
+
+        void value(final QName name) {
+            segments.add(new ValueSegment(name));
+        }
+
+        InstanceIdentifierTemplate build() {
+            return new InstanceIdentifierTemplate(segments);
+        }
+    }
+
+    private final List<Segment> segments;
+
+    private InstanceIdentifierTemplate(final List<Segment> segments) {
+        this.segments = ImmutableList.copyOf(segments);
+    }
+
+    YangInstanceIdentifier instantiate(final AbstractStringInstanceIdentifierCodec codec, final List<String> values) {
+        final Iterator<String> it = values.iterator();
+        final List<PathArgument> arguments = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            arguments.add(segment.instantiate(codec, it));
+        }
+        Preconditions.checkState(!it.hasNext(), "Template %s has not consumed all values %s", this, values);
+        return YangInstanceIdentifier.create(arguments);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.data.util;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.data.api.YangInstanceIdentifier.NodeIdentifierWithPredicates;
+import org.opendaylight.yangtools.yang.data.api.schema.stream.NormalizedNodeStreamWriter;
+import org.opendaylight.yangtools.yang.model.api.ListSchemaNode;
+
+/**
+ * Context of a keyed list entry being streamed by a parser. The entry cannot be started before all of its key
+ * leaves have been seen, hence the parser reads its children into {@link #getPendingData()} until
+ * {@link #isStarted()} returns true, reporting each of them through {@link #childRead(AbstractNodeDataWithSchema)}.
+ * Once the last key leaf is reported, the entry is started and the buffered children are emitted, after which the
+ * parser can stream the remaining children directly.
+ */
+@Beta
+public final class MapEntryContext {
+    private final Map<QName, Object> keyValues = new HashMap<>();
+    private final NormalizedNodeStreamWriter writer;
+    private final ListSchemaNode schema;
+    private CompositeNodeDataWithSchema pending;
+
+    public MapEntryContext(final NormalizedNodeStreamWriter writer, final ListSchemaNode schema) {
+        this.writer = Preconditions.checkNotNull(writer);
+        this.schema = Preconditions.checkNotNull(schema);
+        this.pending = new CompositeNodeDataWithSchema(schema);
+    }
+
+    /**
+     * Checks whether the entry has been started.
+     *
+     * @return true if all key leaves have been seen and the entry has been started
+     */
+    public boolean isStarted() {
+        return pending == null;
+    }
+
+    /**
+     * Returns the node into which children need to be read while the entry has not been started.
+     *
+     * @return node buffering the children of the entry
+     * @throws IllegalStateException if the entry has already been started
+     */
+    public CompositeNodeDataWithSchema getPendingData() {
+        Preconditions.checkState(pending != null, "Entry of %s has already been started", schema.getQName());
+        return pending;
+    }
+
+    /**
+     * Reports a child which has been read into {@link #getPendingData()}. If it is the last key leaf to be seen,
+     * the entry is started and all buffered children are emitted.
+     *
+     * @param child child which has been read
+     * @throws IOException if the writer fails
+     */
+    public void childRead(final AbstractNodeDataWithSchema child) throws IOException {
+        final QName qname = child.getSchema().getQName();
+        if (child instanceof LeafNodeDataWithSchema && schema.getKeyDefinition().contains(qname)) {
+            keyValues.put(qname, ((LeafNodeDataWithSchema) child).getValue());
+            if (keyValues.size() == schema.getKeyDefinition().size()) {
+                start();
+            }
+        }
+    }
+
+    /**
+     * Checks that the entry has been started, which is expected once all of its children have been read.
+     *
+     * @throws IllegalStateException if some of the key leaves have not been seen
+     */
+    public void checkStarted() {
+        Preconditions.checkState(isStarted(), "Input is missing some of the keys of %s", schema.getQName());
+    }
+
+    private void start() throws IOException {
+        // Need to restore schema order...
+        final List<QName> keyDef = schema.getKeyDefinition();
+        final Map<QName, Object> predicates = new LinkedHashMap<>(keyDef.size());
+        for (QName qname : keyDef) {
+            predicates.put(qname, keyValues.get(qname));
+        }
+
+        writer.nextDataSchemaNode(schema);
+        writer.startMapEntryNode(new NodeIdentifierWithPredicates(schema.getQName(), predicates),
+            NormalizedNodeStreamWriter.UNKNOWN_SIZE);
+        pending.write(writer);
+        pending = null;
+    }
+}
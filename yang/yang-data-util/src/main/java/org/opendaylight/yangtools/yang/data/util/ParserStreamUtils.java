@@ -14,6 +14,8 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.AugmentationTarget;
 import org.opendaylight.yangtools.yang.model.api.ChoiceCaseNode;
 import org.opendaylight.yangtools.yang.model.api.ChoiceSchemaNode;
 import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
@@ -76,4 +78,32 @@ public final class ParserStreamUtils {
         }
         return result;
     }
+
+    /**
+     * Checks whether a child returned by {@link #findSchemaNodeByNameAndNamespace(DataSchemaNode, String, URI)}
+     * is emitted under a choice or an augmentation node by {@link CompositeNodeDataWithSchema}. Streaming parsers
+     * need to buffer such children until their parent ends, as all members of a choice or an augmentation have to be
+     * emitted under a single node.
+     *
+     * @param parent schema of the parent node
+     * @param childDataSchemaNodes stack of schema nodes leading to the child
+     * @return true if the child needs to be emitted together with its choice or augmentation siblings
+     */
+    public static boolean isGroupedChild(final DataSchemaNode parent,
+            final Deque<DataSchemaNode> childDataSchemaNodes) {
+        if (childDataSchemaNodes.size() > 1) {
+            return true;
+        }
+
+        final DataSchemaNode child = childDataSchemaNodes.peek();
+        if (!child.isAugmenting() || !(parent instanceof AugmentationTarget) || parent instanceof ChoiceSchemaNode) {
+            return false;
+        }
+        for (AugmentationSchema augmentation : ((AugmentationTarget) parent).getAvailableAugmentations()) {
+            if (augmentation.getDataChildByName(child.getQName()) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -70,6 +70,7 @@ class XpathStringParsingPathArgumentBuilder implements Builder<Iterable<PathArgu
 
     private final AbstractStringInstanceIdentifierCodec codec;
     private final String data;
+    private final InstanceIdentifierTemplate.Recorder recorder;
 
     private final List<PathArgument> product = new LinkedList<>();
 
@@ -77,8 +78,19 @@ class XpathStringParsingPathArgumentBuilder implements Builder<Iterable<PathArgu
     private int offset;
 
     XpathStringParsingPathArgumentBuilder(final AbstractStringInstanceIdentifierCodec codec, final String data) {
+        this(codec, data, null);
+    }
+
+    /**
+     * Create a builder which also records the structure of the identifier into a template.
+     *
+     * @param recorder Template recorder, may be null
+     */
+    XpathStringParsingPathArgumentBuilder(final AbstractStringInstanceIdentifierCodec codec, final String data,
+            @Nullable final InstanceIdentifierTemplate.Recorder recorder) {
         this.codec = Preconditions.checkNotNull(codec);
         this.data = Preconditions.checkNotNull(data);
+        this.recorder = recorder;
         this.current = codec.getDataContextTree().getRoot();
         this.offset = 0;
     }
@@ -111,6 +123,9 @@ class XpathStringParsingPathArgumentBuilder implements Builder<Iterable<PathArgu
         checkValid(current != null, "%s is not correct schema node identifier.",name);
         while (current.isMixin()) {
             product.add(current.getIdentifier());
+            if (recorder != null) {
+                recorder.fixed(current.getIdentifier());
+            }
             current = current.getChild(name);
         }
         return current;
@@ -158,20 +173,33 @@ class XpathStringParsingPathArgumentBuilder implements Builder<Iterable<PathArgu
             // Break-out from method for leaf-list case
             if (key == null && currentNode.isLeaf()) {
                 checkValid(offset == data.length(), "Leaf argument must be last argument of instance identifier.");
+                if (recorder != null) {
+                    recorder.value(name);
+                }
                 return new YangInstanceIdentifier.NodeWithValue<>(name, keyValue);
             }
             final DataSchemaContextNode<?> keyNode = currentNode.getChild(key);
             checkValid(keyNode != null, "%s is not correct schema node identifier.", key);
             final Object value = codec.deserializeKeyValue(keyNode.getDataSchemaNode(), keyValue);
             keyValues.put(key, value);
+            if (recorder != null) {
+                recorder.key(key, keyNode.getDataSchemaNode());
+            }
         }
-        return new YangInstanceIdentifier.NodeIdentifierWithPredicates(name, keyValues.build());
+        final PathArgument ret = new YangInstanceIdentifier.NodeIdentifierWithPredicates(name, keyValues.build());
+        if (recorder != null) {
+            recorder.predicates(name);
+        }
+        return ret;
     }
 
 
     private PathArgument computeIdentifier(final QName name) {
         DataSchemaContextNode<?> currentNode = nextContextNode(name);
         checkValid(!currentNode.isKeyedEntry(), "Entry %s requires key or value predicate to be present", name);
+        if (recorder != null) {
+            recorder.fixed(currentNode.getIdentifier());
+        }
         return currentNode.getIdentifier();
     }
 
@@ -8,11 +8,19 @@
 package org.opendaylight.yangtools.yang.model.repo.api;
 
 import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.CheckedFuture;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.SimpleDateFormatUtil;
+import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 
 /**
@@ -90,4 +98,70 @@ public interface SchemaContextFactory {
     CheckedFuture<SchemaContext, SchemaResolutionException> createSchemaContext(
             Collection<SourceIdentifier> requiredSources, StatementParserMode statementParserMode,
             Predicate<QName> isFeatureSupported);
+
+    /**
+     * Create a new schema context by adding sources to and removing sources from a schema context previously created
+     * by this factory. Implementations may reuse the modules of the base context which are not affected by the
+     * change, rather than assembling all sources again. The default implementation assembles all sources of the
+     * resulting context.
+     *
+     * @param baseContext
+     *            schema context to derive the new context from
+     * @param addedSources
+     *            sources which are to be added to the context, pulling in any
+     *            dependencies they may have
+     * @param removedSources
+     *            sources of modules which are to be removed from the context
+     * @return A checked future, which will produce a schema context, or fail
+     *         with an explanation why the creation of the schema context
+     *         failed.
+     */
+    @Beta
+    default CheckedFuture<SchemaContext, SchemaResolutionException> createSchemaContext(
+            @Nonnull final SchemaContext baseContext, @Nonnull final Collection<SourceIdentifier> addedSources,
+            @Nonnull final Collection<SourceIdentifier> removedSources) {
+        return createSchemaContext(baseContext, addedSources, removedSources, IfFeaturePredicates.ALL_FEATURES);
+    }
+
+    /**
+     * Create a new schema context by adding sources to and removing sources from a schema context previously created
+     * by this factory. Implementations may reuse the modules of the base context which are not affected by the
+     * change, rather than assembling all sources again. The default implementation assembles all sources of the
+     * resulting context.
+     *
+     * @param baseContext
+     *            schema context to derive the new context from
+     * @param addedSources
+     *            sources which are to be added to the context, pulling in any
+     *            dependencies they may have
+     * @param removedSources
+     *            sources of modules which are to be removed from the context
+     * @param isFeatureSupported
+     *            a predicate based on which all if-feature statements in the
+     *            parsed yang models are resolved, it should match the one used
+     *            to create the base context
+     * @return A checked future, which will produce a schema context, or fail
+     *         with an explanation why the creation of the schema context
+     *         failed.
+     */
+    @Beta
+    default CheckedFuture<SchemaContext, SchemaResolutionException> createSchemaContext(
+            @Nonnull final SchemaContext baseContext, @Nonnull final Collection<SourceIdentifier> addedSources,
+            @Nonnull final Collection<SourceIdentifier> removedSources, final Predicate<QName> isFeatureSupported) {
+        final Set<SourceIdentifier> sources = new LinkedHashSet<>();
+        for (Module module : baseContext.getModules()) {
+            final List<SourceIdentifier> moduleSources = new ArrayList<>();
+            for (Module source : Iterables.concat(ImmutableList.of(module), module.getSubmodules())) {
+                moduleSources.add(SimpleDateFormatUtil.DEFAULT_DATE_REV.equals(source.getRevision())
+                        ? RevisionSourceIdentifier.create(source.getName())
+                        : RevisionSourceIdentifier.create(source.getName(),
+                            source.getQNameModule().getFormattedRevision()));
+            }
+            if (!removedSources.contains(moduleSources.get(0))) {
+                sources.addAll(moduleSources);
+            }
+        }
+        sources.addAll(addedSources);
+        return createSchemaContext(sources, StatementParserMode.DEFAULT_MODE, isFeatureSupported);
+    }
 }
@@ -11,9 +11,11 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.opendaylight.yangtools.util.concurrent.ExceptionMapper;
 import org.opendaylight.yangtools.util.concurrent.ReflectiveExceptionMapper;
@@ -41,20 +43,39 @@ public class SchemaSourceTransformer<S extends SchemaSourceRepresentation, D ext
     private final AsyncFunction<S, D> function;
     private final Class<S> srcClass;
     private final Class<D> dstClass;
+    private final Executor executor;
 
     public SchemaSourceTransformer(final SchemaRepository provider, final Class<S> srcClass,
             final SchemaSourceRegistry consumer, final Class<D> dstClass, final AsyncFunction<S, D> function) {
+        this(provider, srcClass, consumer, dstClass, function, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Create a new transformer, which executes the transformation function on specified executor. This allows
+     * multiple sources, which are requested at the same time, to be transformed concurrently.
+     *
+     * @param provider Repository providing source representations
+     * @param srcClass Source representation class
+     * @param consumer Registry of transformed representations
+     * @param dstClass Transformed representation class
+     * @param function Transformation function
+     * @param executor Executor on which the transformation function runs
+     */
+    public SchemaSourceTransformer(final SchemaRepository provider, final Class<S> srcClass,
+            final SchemaSourceRegistry consumer, final Class<D> dstClass, final AsyncFunction<S, D> function,
+            final Executor executor) {
         this.provider = Preconditions.checkNotNull(provider);
         this.consumer = Preconditions.checkNotNull(consumer);
         this.function = Preconditions.checkNotNull(function);
         this.srcClass = Preconditions.checkNotNull(srcClass);
         this.dstClass = Preconditions.checkNotNull(dstClass);
+        this.executor = Preconditions.checkNotNull(executor);
     }
 
     @Override
     public CheckedFuture<D, SchemaSourceException> getSource(final SourceIdentifier sourceIdentifier) {
         final CheckedFuture<S, SchemaSourceException> f = provider.getSchemaSource(sourceIdentifier, srcClass);
-        return Futures.makeChecked(Futures.transform(f, function), MAPPER);
+        return Futures.makeChecked(Futures.transform(f, function, executor), MAPPER);
     }
 
     @Override
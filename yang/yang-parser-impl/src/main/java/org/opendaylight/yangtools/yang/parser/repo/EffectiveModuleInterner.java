@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.repo;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.SetMultimap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.ArgumentContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.SimpleDateFormatUtil;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.ModuleImport;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.StatementParserMode;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.effective.EffectiveSchemaContext;
+import org.opendaylight.yangtools.yang.parser.util.ASTSchemaSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares identical effective modules between schema contexts, so that contexts which have most of their modules in
+ * common, such as those of individual devices, do not each hold a copy of them.
+ *
+ * <p>
+ * The effective model of a module is determined by its source, the sources of modules it imports and the sources of
+ * modules which augment it, deviate it or derive identities from it, transitively, and by the parser mode and feature
+ * predicate used to assemble it. Two modules with the same name and revision which match in all of these are
+ * interchangeable, hence the module assembled first is used in place of the other one. Sources are compared by the
+ * content of their parse trees. Feature predicates are compared by identity.
+ */
+final class EffectiveModuleInterner {
+    private static final class ModuleKey {
+        private final QNameModule module;
+        private final String name;
+        private final StatementParserMode mode;
+        private final Predicate<QName> isFeatureSupported;
+        private final Set<HashCode> sources;
+
+        ModuleKey(final Module module, final StatementParserMode mode, final Predicate<QName> isFeatureSupported,
+                final Set<HashCode> sources) {
+            this.module = module.getQNameModule();
+            this.name = module.getName();
+            this.mode = Preconditions.checkNotNull(mode);
+            this.isFeatureSupported = Preconditions.checkNotNull(isFeatureSupported);
+            this.sources = ImmutableSet.copyOf(sources);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(module, name, sources);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ModuleKey)) {
+                return false;
+            }
+            final ModuleKey other = (ModuleKey) obj;
+            return module.equals(other.module) && name.equals(other.name) && mode == other.mode
+                    && isFeatureSupported == other.isFeatureSupported && sources.equals(other.sources);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this).add("module", module).add("name", name).add("mode", mode)
+                    .add("sources", sources.size()).toString();
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(EffectiveModuleInterner.class);
+
+    private final Cache<ModuleKey, Module> modules = CacheBuilder.newBuilder().weakValues().build();
+
+    /**
+     * Replace modules of a freshly-assembled schema context with equivalent modules of previously-interned contexts
+     * and make its own modules available for subsequent contexts.
+     *
+     * @param context Assembled schema context
+     * @param sources Sources the context has been assembled from
+     * @param mode Parser mode used to assemble the context
+     * @param isFeatureSupported Feature predicate used to assemble the context
+     * @return A schema context with shared modules, or the original context if none of its modules were shared
+     */
+    SchemaContext intern(final SchemaContext context, final Collection<ASTSchemaSource> sources,
+            final StatementParserMode mode, final Predicate<QName> isFeatureSupported) {
+        final Map<SourceIdentifier, HashCode> fingerprints = new HashMap<>();
+        for (ASTSchemaSource source : sources) {
+            final ParserRuleContext ast = source.getAST();
+            if (ast instanceof StatementContext) {
+                fingerprints.put(source.getIdentifier(), fingerprint((StatementContext) ast));
+            }
+        }
+
+        final SetMultimap<QNameModule, Module> contributors = HashMultimap.create();
+        for (Module module : context.getModules()) {
+            for (QNameModule modified : SchemaContextDelta.modifiedModules(module)) {
+                contributors.put(modified, module);
+            }
+        }
+
+        final Set<Module> result = new LinkedHashSet<>();
+        boolean shared = false;
+        for (Module module : context.getModules()) {
+            final Set<HashCode> closure = sourceClosure(context, contributors, fingerprints, module);
+            if (closure == null) {
+                // Some sources are not known, do not risk sharing the module
+                result.add(module);
+                continue;
+            }
+
+            final Module interned;
+            try {
+                interned = modules.get(new ModuleKey(module, mode, isFeatureSupported, closure), () -> module);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to intern module " + module, e);
+            }
+
+            result.add(interned);
+            if (interned != module) {
+                LOG.trace("Module {} shared with a previous context", module);
+                shared = true;
+            }
+        }
+
+        return shared ? EffectiveSchemaContext.resolveSchemaContext(result) : context;
+    }
+
+    /**
+     * Compute fingerprints of all sources the effective model of a module depends on.
+     *
+     * @return Source fingerprints, null if some of the sources are not known
+     */
+    private static Set<HashCode> sourceClosure(final SchemaContext context,
+            final SetMultimap<QNameModule, Module> contributors, final Map<SourceIdentifier, HashCode> fingerprints,
+            final Module module) {
+        final Set<Module> visited = new HashSet<>();
+        final Queue<Module> queue = new ArrayDeque<>();
+        queue.add(module);
+
+        final Set<HashCode> ret = new HashSet<>();
+        while (!queue.isEmpty()) {
+            final Module current = queue.remove();
+            if (!visited.add(current)) {
+                continue;
+            }
+
+            final List<Module> parts = ImmutableList.<Module>builder().add(current)
+                    .addAll(current.getSubmodules()).build();
+            for (Module part : parts) {
+                final HashCode fingerprint = fingerprints.get(SchemaContextDelta.sourceIdentifier(part));
+                if (fingerprint == null) {
+                    return null;
+                }
+                ret.add(fingerprint);
+            }
+
+            for (ModuleImport imp : Iterables.concat(Iterables.transform(parts, Module::getImports))) {
+                final Module imported = context.findModuleByName(imp.getModuleName(),
+                    SimpleDateFormatUtil.DEFAULT_DATE_REV.equals(imp.getRevision()) ? null : imp.getRevision());
+                if (imported != null) {
+                    queue.add(imported);
+                }
+            }
+            queue.addAll(contributors.get(current.getQNameModule()));
+        }
+
+        return ret;
+    }
+
+    private static HashCode fingerprint(final StatementContext root) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        fingerprint(hasher, root);
+        return hasher.hash();
+    }
+
+    private static void fingerprint(final Hasher hasher, final StatementContext stmt) {
+        putString(hasher, stmt.keyword().getText());
+        final ArgumentContext argument = stmt.argument();
+        if (argument != null) {
+            putString(hasher.putBoolean(true), argument.getText());
+        } else {
+            hasher.putBoolean(false);
+        }
+
+        final List<StatementContext> children = stmt.statement();
+        hasher.putInt(children.size());
+        for (StatementContext child : children) {
+            fingerprint(hasher, child);
+        }
+    }
+
+    private static void putString(final Hasher hasher, final String str) {
+        // Length prefix keeps adjacent strings apart
+        hasher.putInt(str.length()).putString(str, StandardCharsets.UTF_8);
+    }
+}
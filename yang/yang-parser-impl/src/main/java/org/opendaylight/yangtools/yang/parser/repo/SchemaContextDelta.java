@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.repo;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import org.opendaylight.yangtools.yang.common.QName;
+import org.opendaylight.yangtools.yang.common.QNameModule;
+import org.opendaylight.yangtools.yang.common.SimpleDateFormatUtil;
+import org.opendaylight.yangtools.yang.model.api.AugmentationSchema;
+import org.opendaylight.yangtools.yang.model.api.Deviation;
+import org.opendaylight.yangtools.yang.model.api.IdentitySchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.ModuleImport;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.parser.impl.util.YangModelDependencyInfo;
+import org.opendaylight.yangtools.yang.parser.impl.util.YangModelDependencyInfo.SubmoduleDependencyInfo;
+import org.opendaylight.yangtools.yang.parser.stmt.rfc6020.effective.EffectiveSchemaContext;
+import org.opendaylight.yangtools.yang.parser.util.ASTSchemaSource;
+
+/**
+ * Plan for deriving a schema context from a base context by adding and removing sources. Modules of the base context
+ * are split into those which are retained as they are, and those which have to be run through the reactor again
+ * together with the added sources.
+ *
+ * <p>
+ * A base module has to be assembled again if it is removed, if any of its imports resolves differently, if it is
+ * imported by a module which is assembled again, or if it augments, deviates or derives identities from a module
+ * which is assembled again -- as otherwise the assembled module would lose the contributions of the retained one.
+ * Retained modules keep referring to the previous instances of the modules they import, which are equivalent to the
+ * assembled ones.
+ */
+final class SchemaContextDelta {
+    private static final class Unit {
+        final String name;
+        final Date revision;
+        final List<SourceIdentifier> sources;
+        final Collection<ModuleImport> imports;
+        // Added submodules only
+        final String belongsTo;
+        // Base modules only
+        final Module module;
+        final Set<QNameModule> modifies;
+
+        Unit(final Module module) {
+            this.module = module;
+            this.name = module.getName();
+            this.revision = module.getRevision();
+            this.belongsTo = null;
+
+            final List<SourceIdentifier> sources = new ArrayList<>();
+            final Set<ModuleImport> imports = new HashSet<>();
+            for (Module source : Iterables.concat(ImmutableList.of(module), module.getSubmodules())) {
+                sources.add(sourceIdentifier(source));
+                imports.addAll(source.getImports());
+            }
+
+            this.sources = ImmutableList.copyOf(sources);
+            this.imports = ImmutableSet.copyOf(imports);
+            this.modifies = modifiedModules(module);
+        }
+
+        Unit(final ASTSchemaSource source) {
+            final YangModelDependencyInfo info = source.getDependencyInformation();
+            this.module = null;
+            this.name = info.getName();
+            this.revision = info.getFormattedRevision() == null ? null
+                    : QName.parseRevision(info.getFormattedRevision());
+            this.sources = ImmutableList.of(source.getIdentifier());
+            this.modifies = ImmutableSet.of();
+            this.imports = info.getDependencies();
+            this.belongsTo = info instanceof SubmoduleDependencyInfo
+                    ? ((SubmoduleDependencyInfo) info).getParentModule() : null;
+        }
+
+        @Override
+        public String toString() {
+            return sources.toString();
+        }
+    }
+
+    private final Set<Module> retainedModules;
+    private final List<SourceIdentifier> assembledSources;
+
+    private SchemaContextDelta(final Set<Module> retainedModules, final List<SourceIdentifier> assembledSources) {
+        this.retainedModules = Preconditions.checkNotNull(retainedModules);
+        this.assembledSources = Preconditions.checkNotNull(assembledSources);
+    }
+
+    static SchemaContextDelta create(final SchemaContext baseContext, final List<ASTSchemaSource> addedSources,
+            final Collection<SourceIdentifier> removedSources) {
+        final List<Unit> baseUnits = new ArrayList<>();
+        for (Module module : baseContext.getModules()) {
+            baseUnits.add(new Unit(module));
+        }
+        final List<Unit> addedUnits = new ArrayList<>();
+        for (ASTSchemaSource source : addedSources) {
+            addedUnits.add(new Unit(source));
+        }
+
+        // Removed modules, including those replaced by an added source with the same identifier
+        final Set<Unit> removed = new HashSet<>();
+        for (SourceIdentifier id : removedSources) {
+            final Unit unit = findUnit(baseUnits, id);
+            Preconditions.checkArgument(unit != null, "Source %s is not present in %s", id, baseContext);
+            removed.add(unit);
+        }
+        for (ASTSchemaSource source : addedSources) {
+            final Unit unit = findUnit(baseUnits, source.getIdentifier());
+            if (unit != null) {
+                removed.add(unit);
+            }
+        }
+
+        final ListMultimap<String, Unit> before = index(baseUnits, ImmutableSet.of());
+        final ListMultimap<String, Unit> after = index(Iterables.concat(addedUnits, baseUnits), removed);
+
+        final Set<Unit> assembled = new LinkedHashSet<>();
+        final Queue<Unit> queue = new ArrayDeque<>(addedUnits);
+        for (Unit unit : baseUnits) {
+            if (!removed.contains(unit)) {
+                if (!Collections.disjoint(unit.modifies, modules(removed))) {
+                    queue.add(unit);
+                    continue;
+                }
+                for (ModuleImport imp : unit.imports) {
+                    if (resolve(before, imp.getModuleName(), imp.getRevision())
+                            != resolve(after, imp.getModuleName(), imp.getRevision())) {
+                        queue.add(unit);
+                        break;
+                    }
+                }
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            // Pull in everything the assembled modules import
+            while (!queue.isEmpty()) {
+                final Unit unit = queue.remove();
+                if (assembled.add(unit)) {
+                    for (ModuleImport imp : unit.imports) {
+                        final Unit dependency = resolve(after, imp.getModuleName(), imp.getRevision());
+                        if (dependency != null) {
+                            queue.add(dependency);
+                        }
+                    }
+                    if (unit.belongsTo != null) {
+                        // The module a submodule belongs to has to be assembled with it
+                        final Unit parent = resolve(after, unit.belongsTo, null);
+                        if (parent != null) {
+                            queue.add(parent);
+                        }
+                    }
+                }
+            }
+
+            // Pull in everything contributing to the assembled modules
+            final Set<QNameModule> assembledModules = modules(assembled);
+            for (Unit unit : baseUnits) {
+                if (!removed.contains(unit) && !assembled.contains(unit)
+                        && !Collections.disjoint(unit.modifies, assembledModules)) {
+                    queue.add(unit);
+                }
+            }
+        }
+
+        final Set<Module> retained = new LinkedHashSet<>();
+        for (Unit unit : baseUnits) {
+            if (!removed.contains(unit) && !assembled.contains(unit)) {
+                retained.add(unit.module);
+            }
+        }
+        final List<SourceIdentifier> sources = new ArrayList<>();
+        for (Unit unit : assembled) {
+            sources.addAll(unit.sources);
+        }
+
+        return new SchemaContextDelta(ImmutableSet.copyOf(retained), ImmutableList.copyOf(sources));
+    }
+
+    /**
+     * Return sources which need to be run through the reactor.
+     *
+     * @return Sources to assemble, empty if the resulting context consists only of retained modules
+     */
+    List<SourceIdentifier> getAssembledSources() {
+        return assembledSources;
+    }
+
+    /**
+     * Create the resulting schema context from the retained modules and modules assembled from
+     * {@link #getAssembledSources()}.
+     *
+     * @param assembledContext Context assembled from {@link #getAssembledSources()}, null if there are none
+     * @return Resulting schema context
+     */
+    SchemaContext createSchemaContext(final SchemaContext assembledContext) {
+        final Set<Module> modules = new LinkedHashSet<>(retainedModules);
+        if (assembledContext != null) {
+            modules.addAll(assembledContext.getModules());
+        }
+        return EffectiveSchemaContext.resolveSchemaContext(modules);
+    }
+
+    /**
+     * Return the modules whose effective model is affected by a module, other than itself. These are targets of its
+     * augments and deviations, and modules defining base identities of its identities.
+     *
+     * @param module Module, including its submodules
+     * @return Affected modules
+     */
+    static Set<QNameModule> modifiedModules(final Module module) {
+        final Set<QNameModule> modifies = new HashSet<>();
+        for (Module source : Iterables.concat(ImmutableList.of(module), module.getSubmodules())) {
+            for (AugmentationSchema augment : source.getAugmentations()) {
+                addModules(modifies, augment.getTargetPath().getPathFromRoot());
+            }
+            for (Deviation deviation : source.getDeviations()) {
+                addModules(modifies, deviation.getTargetPath().getPathFromRoot());
+            }
+            for (IdentitySchemaNode identity : source.getIdentities()) {
+                final IdentitySchemaNode base = identity.getBaseIdentity();
+                if (base != null) {
+                    modifies.add(base.getQName().getModule());
+                }
+            }
+        }
+        modifies.remove(module.getQNameModule());
+        return ImmutableSet.copyOf(modifies);
+    }
+
+    private static void addModules(final Set<QNameModule> modules, final Iterable<QName> path) {
+        for (QName qname : path) {
+            modules.add(qname.getModule());
+        }
+    }
+
+    static SourceIdentifier sourceIdentifier(final Module module) {
+        return SimpleDateFormatUtil.DEFAULT_DATE_REV.equals(module.getRevision())
+                ? RevisionSourceIdentifier.create(module.getName())
+                : RevisionSourceIdentifier.create(module.getName(), module.getQNameModule().getFormattedRevision());
+    }
+
+    private static Unit findUnit(final Collection<Unit> units, final SourceIdentifier id) {
+        for (Unit unit : units) {
+            if (unit.sources.get(0).equals(id)) {
+                return unit;
+            }
+        }
+        return null;
+    }
+
+    private static Set<QNameModule> modules(final Collection<Unit> units) {
+        final Set<QNameModule> ret = new HashSet<>();
+        for (Unit unit : units) {
+            if (unit.module != null) {
+                ret.add(unit.module.getQNameModule());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Index units by the names of their modules and submodules, so imports and includes can be resolved.
+     */
+    private static ListMultimap<String, Unit> index(final Iterable<Unit> units, final Set<Unit> excluded) {
+        final ListMultimap<String, Unit> ret = ArrayListMultimap.create();
+        for (Unit unit : units) {
+            if (!excluded.contains(unit)) {
+                ret.put(unit.name, unit);
+                if (unit.module != null) {
+                    for (Module submodule : unit.module.getSubmodules()) {
+                        ret.put(submodule.getName(), unit);
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Resolve an import or include to the unit satisfying it. Imports without a revision resolve to the latest
+     * revision.
+     */
+    private static Unit resolve(final ListMultimap<String, Unit> index, final String name, final Date revision) {
+        final Date rev = SimpleDateFormatUtil.DEFAULT_DATE_REV.equals(revision) ? null : revision;
+
+        Unit ret = null;
+        for (Unit unit : index.get(name)) {
+            if (rev == null) {
+                if (ret == null || unit.revision != null
+                        && (ret.revision == null || unit.revision.after(ret.revision))) {
+                    ret = unit;
+                }
+            } else if (rev.equals(revisionOf(unit, name))) {
+                return unit;
+            }
+        }
+        return ret;
+    }
+
+    private static Date revisionOf(final Unit unit, final String name) {
+        if (unit.module != null && !unit.name.equals(name)) {
+            // Include of a submodule of a base module
+            for (Module submodule : unit.module.getSubmodules()) {
+                if (submodule.getName().equals(name)) {
+                    return submodule.getRevision();
+                }
+            }
+        }
+        return unit.revision;
+    }
+}
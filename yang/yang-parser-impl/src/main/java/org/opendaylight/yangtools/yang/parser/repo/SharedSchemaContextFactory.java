@@ -71,7 +71,44 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
             final Predicate<QName> isFeatureSupported) {
         return createSchemaContext(requiredSources,
                 statementParserMode == StatementParserMode.SEMVER_MODE ? this.semVerCache : this.cache,
-                new AssembleSources(isFeatureSupported, statementParserMode));
+                new AssembleSources(repository.getModuleInterner(), isFeatureSupported, statementParserMode));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Modules of the base context which are not affected by the change are reused as they are, only the added
+     * sources and the base modules related to them are assembled. See {@link SchemaContextDelta} for details.
+     */
+    @Override
+    public CheckedFuture<SchemaContext, SchemaResolutionException> createSchemaContext(final SchemaContext baseContext,
+            final Collection<SourceIdentifier> addedSources, final Collection<SourceIdentifier> removedSources,
+            final Predicate<QName> isFeatureSupported) {
+        final List<SourceIdentifier> uniqueSourceIdentifiers = deDuplicateSources(addedSources);
+
+        // Added sources are needed to find out their dependencies
+        ListenableFuture<List<ASTSchemaSource>> sf = Futures.allAsList(Collections2.transform(uniqueSourceIdentifiers,
+            this::requestSource));
+        sf = Futures.transform(sf, new SourceIdMismatchDetector(uniqueSourceIdentifiers));
+
+        final ListenableFuture<SchemaContext> cf = Futures.transform(sf,
+            (AsyncFunction<List<ASTSchemaSource>, SchemaContext>) sources -> {
+                final SchemaContextDelta delta = SchemaContextDelta.create(baseContext, sources, removedSources);
+                final List<SourceIdentifier> assembled = delta.getAssembledSources();
+                LOG.debug("Assembling {} out of {} base modules and {} added sources", assembled,
+                    baseContext.getModules().size(), sources.size());
+                if (assembled.isEmpty()) {
+                    return Futures.immediateFuture(delta.createSchemaContext(null));
+                }
+
+                return Futures.transform(createSchemaContext(assembled, cache,
+                    new AssembleSources(repository.getModuleInterner(), isFeatureSupported,
+                        StatementParserMode.DEFAULT_MODE)),
+                    delta::createSchemaContext);
+            });
+
+        return Futures.makeChecked(cf, MAPPER);
     }
 
     private ListenableFuture<ASTSchemaSource> requestSource(final SourceIdentifier identifier) {
@@ -169,12 +206,14 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
 
     private static final class AssembleSources implements AsyncFunction<List<ASTSchemaSource>, SchemaContext> {
 
+        private final EffectiveModuleInterner moduleInterner;
         private final Predicate<QName> isFeatureSupported;
         private final StatementParserMode statementParserMode;
         private final Function<ASTSchemaSource, SourceIdentifier> getIdentifier;
 
-        private AssembleSources(final Predicate<QName> isFeatureSupported,
-                final StatementParserMode statementParserMode) {
+        private AssembleSources(final EffectiveModuleInterner moduleInterner,
+                final Predicate<QName> isFeatureSupported, final StatementParserMode statementParserMode) {
+            this.moduleInterner = Preconditions.checkNotNull(moduleInterner);
             this.isFeatureSupported = Preconditions.checkNotNull(isFeatureSupported);
             this.statementParserMode = Preconditions.checkNotNull(statementParserMode);
             switch (statementParserMode) {
@@ -222,7 +261,8 @@ final class SharedSchemaContextFactory implements SchemaContextFactory {
                 throw new SchemaResolutionException("Failed to resolve required models", ex.getSourceIdentifier(), ex);
             }
 
-            return Futures.immediateCheckedFuture(schemaContext);
+            return Futures.immediateCheckedFuture(moduleInterner.intern(schemaContext, sources, statementParserMode,
+                isFeatureSupported));
         }
     }
 }
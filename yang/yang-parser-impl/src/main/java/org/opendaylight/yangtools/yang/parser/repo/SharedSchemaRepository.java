@@ -26,7 +26,8 @@ import org.opendaylight.yangtools.yang.model.repo.util.AbstractSchemaRepository;
  * long as their specification is the same.
  *
  * Note: for current implementation, "same" means the same filter and the same
- * set of {@link SourceIdentifier}s.
+ * set of {@link SourceIdentifier}s. Individual modules are shared between
+ * different {@link SchemaContext}s as long as their effective model is the same.
  */
 @Beta
 public final class SharedSchemaRepository extends AbstractSchemaRepository implements Identifiable<String> {
@@ -37,6 +38,7 @@ public final class SharedSchemaRepository extends AbstractSchemaRepository imple
                     return new SharedSchemaContextFactory(SharedSchemaRepository.this, key);
                 }
             });
+    private final EffectiveModuleInterner moduleInterner = new EffectiveModuleInterner();
     private final String id;
 
     public SharedSchemaRepository(final String id) {
@@ -53,6 +55,10 @@ public final class SharedSchemaRepository extends AbstractSchemaRepository imple
         return cache.getUnchecked(filter);
     }
 
+    EffectiveModuleInterner getModuleInterner() {
+        return moduleInterner;
+    }
+
     @Override
     public String toString() {
         return "SchemaRepository: " + id;
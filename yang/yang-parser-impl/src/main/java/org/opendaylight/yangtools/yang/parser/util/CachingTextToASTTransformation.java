@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.CheckedFuture;
+import com.google.common.util.concurrent.Futures;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import javax.annotation.concurrent.GuardedBy;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
+import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
+import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceException;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+import org.opendaylight.yangtools.yang.model.repo.util.SchemaSourceTransformer.Transformation;
+import org.opendaylight.yangtools.yang.parser.util.TextToASTTransformer.TextToASTTransformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Transformation} which persists parse trees in a directory, so that sources whose text has not changed do
+ * not have to be parsed again, for example after a restart. Trees are stored in files named after the SHA-256 hash of
+ * the source text, hence a modified source never matches a stale tree. Any failure to read a stored tree results in
+ * the source being parsed and the tree being stored again.
+ *
+ * <p>
+ * The directory holds at most a configured number of trees. Restoring a tree updates its modification time. The
+ * number of trees and their total size are tracked in memory, starting from a single scan of the directory, and
+ * whenever storing a new tree exceeds the limit, the directory is scanned again and the least recently used trees
+ * beyond the limit are deleted.
+ */
+final class CachingTextToASTTransformation implements Transformation<YangTextSchemaSource, ASTSchemaSource> {
+    private static final Logger LOG = LoggerFactory.getLogger(CachingTextToASTTransformation.class);
+    private static final String SUFFIX = ".ast";
+    // Stored trees are within a small multiple of the source size, anything this large is not a valid tree
+    private static final long MAX_FILE_SIZE = 64 * 1024 * 1024;
+
+    private final TextToASTTransformation delegate;
+    private final Path directory;
+    private final int maxEntries;
+
+    @GuardedBy("this")
+    private int entries;
+    @GuardedBy("this")
+    private long totalSize;
+
+    CachingTextToASTTransformation(final TextToASTTransformation delegate, final File directory,
+            final int maxEntries) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        Preconditions.checkArgument(maxEntries > 0, "Maximum number of entries %s is not positive", maxEntries);
+        this.maxEntries = maxEntries;
+        Preconditions.checkArgument(directory.isDirectory() || directory.mkdirs(), "Cannot use %s as cache directory",
+            directory);
+        Preconditions.checkArgument(directory.canWrite(), "Cache directory %s is not writable", directory);
+        this.directory = directory.toPath();
+
+        try {
+            scan();
+        } catch (IOException e) {
+            LOG.warn("Failed to scan cache directory {}", directory, e);
+        }
+    }
+
+    @Override
+    public CheckedFuture<ASTSchemaSource, SchemaSourceException> apply(final YangTextSchemaSource input)
+            throws IOException, YangSyntaxErrorException {
+        final String text = input.asCharSource(StandardCharsets.UTF_8).read();
+        final Path file = directory.resolve(Hashing.sha256().hashString(text, StandardCharsets.UTF_8) + SUFFIX);
+
+        if (Files.isRegularFile(file)) {
+            final StatementContext tree;
+            try {
+                final long size = Files.size(file);
+                if (size > MAX_FILE_SIZE) {
+                    throw new IOException("File size " + size + " exceeds " + MAX_FILE_SIZE);
+                }
+                tree = StatementTreeCodec.read(Files.readAllBytes(file));
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("Failed to restore parse tree of {} from {}, parsing it", input, file, e);
+                return parseAndStore(input, file);
+            }
+
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                LOG.debug("Failed to update modification time of {}", file, e);
+            }
+
+            LOG.debug("Model {} restored from {}", input, file);
+            return Futures.immediateCheckedFuture(ASTSchemaSource.create(input.getIdentifier(), tree, text));
+        }
+
+        return parseAndStore(input, file);
+    }
+
+    private CheckedFuture<ASTSchemaSource, SchemaSourceException> parseAndStore(final YangTextSchemaSource input,
+            final Path file) throws IOException, YangSyntaxErrorException {
+        final CheckedFuture<ASTSchemaSource, SchemaSourceException> ret = delegate.apply(input);
+        final ParserRuleContext tree;
+        try {
+            tree = ret.checkedGet().getAST();
+        } catch (SchemaSourceException e) {
+            return ret;
+        }
+
+        if (tree instanceof StatementContext) {
+            try {
+                store(file, (StatementContext) tree);
+            } catch (IOException e) {
+                LOG.warn("Failed to store parse tree of {} to {}", input, file, e);
+            }
+        }
+        return ret;
+    }
+
+    private void store(final Path file, final StatementContext tree) throws IOException {
+        // Write to a temporary file first, so concurrent readers never observe a partial tree
+        final Path tmp = Files.createTempFile(directory, "tmp", SUFFIX);
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                StatementTreeCodec.write(out, tree);
+            }
+
+            final long size = Files.size(tmp);
+            // A corrupted tree is replaced, in which case the number of trees does not change
+            final long previousSize = Files.isRegularFile(file) ? Files.size(file) : -1;
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                LOG.debug("Atomic move not supported, falling back to replace", e);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            stored(size, previousSize);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private synchronized void stored(final long size, final long previousSize) {
+        if (previousSize < 0) {
+            entries++;
+        } else {
+            totalSize -= previousSize;
+        }
+        totalSize += size;
+        if (entries <= maxEntries) {
+            return;
+        }
+
+        try {
+            prune();
+        } catch (IOException e) {
+            LOG.warn("Failed to prune cache directory {}", directory, e);
+        }
+    }
+
+    @GuardedBy("this")
+    private List<Entry<Path, BasicFileAttributes>> scan() throws IOException {
+        final List<Entry<Path, BasicFileAttributes>> files = new ArrayList<>();
+        long size = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                final BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    LOG.trace("File {} removed concurrently", file, e);
+                    continue;
+                }
+                files.add(new SimpleImmutableEntry<>(file, attrs));
+                size += attrs.size();
+            }
+        }
+
+        // The directory may be shared, hence the scan also corrects any drift of the tracked values
+        entries = files.size();
+        totalSize = size;
+        return files;
+    }
+
+    @GuardedBy("this")
+    private void prune() throws IOException {
+        final List<Entry<Path, BasicFileAttributes>> files = scan();
+        if (files.size() <= maxEntries) {
+            return;
+        }
+
+        files.sort((first, second) -> first.getValue().lastModifiedTime().compareTo(
+            second.getValue().lastModifiedTime()));
+        for (Entry<Path, BasicFileAttributes> entry : files.subList(0, files.size() - maxEntries)) {
+            LOG.debug("Evicting {} from cache", entry.getKey());
+            if (Files.deleteIfExists(entry.getKey())) {
+                entries--;
+                totalSize -= entry.getValue().size();
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return getClass().getSimpleName() + "{directory=" + directory + ", maxEntries=" + maxEntries + ", entries="
+                + entries + ", totalSize=" + totalSize + "}";
+    }
+}
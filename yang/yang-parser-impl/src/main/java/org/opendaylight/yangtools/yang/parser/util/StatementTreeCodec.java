@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.util;
+
+import com.google.common.base.Preconditions;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.ArgumentContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.KeywordContext;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser.StatementContext;
+
+/**
+ * Binary encoding of a YANG statement parse tree. Only the parts of the tree which are inspected by statement sources
+ * and dependency extraction are retained: statement start positions, keyword and argument tokens, and substatements.
+ * Separators, braces and semicolons are not stored. The decoded tree is a regular {@link StatementContext}, which
+ * can be walked without re-running the lexer and parser.
+ */
+final class StatementTreeCodec {
+    private static final int MAGIC = 0x59414E47;
+    private static final int VERSION = 1;
+    // Real-world models nest far less deeply, this only guards against stack exhaustion on corrupted input
+    private static final int MAX_DEPTH = 1024;
+
+    private StatementTreeCodec() {
+        throw new UnsupportedOperationException();
+    }
+
+    static void write(final DataOutput out, final StatementContext root) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeStatement(out, root);
+    }
+
+    /**
+     * Read a parse tree written by {@link #write(DataOutput, StatementContext)}. The encoded form is not trusted:
+     * lengths and nesting are checked against the input, so that corrupted input is reported as an exception.
+     *
+     * @param bytes Encoded tree
+     * @return Decoded statement tree
+     * @throws IOException if the input is malformed or was written by an incompatible version
+     */
+    static StatementContext read(final byte[] bytes) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Unrecognized statement tree format");
+        }
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported statement tree version " + version);
+        }
+        return readStatement(in, null, 0);
+    }
+
+    private static void writeStatement(final DataOutput out, final StatementContext stmt) throws IOException {
+        out.writeInt(stmt.getStart().getLine());
+        out.writeInt(stmt.getStart().getCharPositionInLine());
+        writeTokens(out, stmt.keyword());
+
+        final ArgumentContext argument = stmt.argument();
+        out.writeBoolean(argument != null);
+        if (argument != null) {
+            writeTokens(out, argument);
+        }
+
+        final List<StatementContext> children = stmt.statement();
+        out.writeInt(children.size());
+        for (StatementContext child : children) {
+            writeStatement(out, child);
+        }
+    }
+
+    private static void writeTokens(final DataOutput out, final ParserRuleContext ctx) throws IOException {
+        final List<Token> tokens = new ArrayList<>(ctx.getChildCount());
+        for (int i = 0; i < ctx.getChildCount(); ++i) {
+            final ParseTree child = ctx.getChild(i);
+            Preconditions.checkArgument(child instanceof TerminalNode, "Unexpected child %s of %s", child, ctx);
+            tokens.add(((TerminalNode) child).getSymbol());
+        }
+
+        out.writeInt(tokens.size());
+        for (Token token : tokens) {
+            out.writeInt(token.getType());
+            out.writeInt(token.getLine());
+            out.writeInt(token.getCharPositionInLine());
+            writeString(out, token.getText());
+        }
+    }
+
+    private static void writeString(final DataOutput out, final String str) throws IOException {
+        // DataOutput.writeUTF() is limited to 64KiB, which is not enough for some descriptions
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static StatementContext readStatement(final DataInputStream in, final ParserRuleContext parent,
+            final int depth) throws IOException {
+        if (depth >= MAX_DEPTH) {
+            throw new IOException("Statement nesting exceeds " + MAX_DEPTH);
+        }
+
+        final StatementContext stmt = new StatementContext(parent, 0);
+        final int line = in.readInt();
+        final int column = in.readInt();
+
+        final KeywordContext keyword = new KeywordContext(stmt, 0);
+        readTokens(in, keyword);
+        stmt.addChild(keyword);
+
+        if (in.readBoolean()) {
+            final ArgumentContext argument = new ArgumentContext(stmt, 0);
+            readTokens(in, argument);
+            stmt.addChild(argument);
+        }
+
+        final int childCount = in.readInt();
+        for (int i = 0; i < childCount; ++i) {
+            stmt.addChild(readStatement(in, stmt, depth + 1));
+        }
+
+        final CommonToken start = new CommonToken(keyword.getStart());
+        start.setLine(line);
+        start.setCharPositionInLine(column);
+        stmt.start = start;
+        stmt.stop = start;
+        return stmt;
+    }
+
+    private static void readTokens(final DataInputStream in, final ParserRuleContext ctx) throws IOException {
+        final int count = in.readInt();
+        if (count < 1) {
+            throw new IOException("Invalid token count " + count);
+        }
+
+        for (int i = 0; i < count; ++i) {
+            final int type = in.readInt();
+            switch (type) {
+            case YangStatementParser.COLON:
+            case YangStatementParser.IDENTIFIER:
+            case YangStatementParser.PLUS:
+            case YangStatementParser.SEP:
+            case YangStatementParser.STRING:
+                break;
+            default:
+                throw new IOException("Invalid token type " + type);
+            }
+
+            final int line = in.readInt();
+            final int column = in.readInt();
+            final CommonToken token = new CommonToken(type, readString(in));
+            token.setLine(line);
+            token.setCharPositionInLine(column);
+
+            final TerminalNodeImpl node = new TerminalNodeImpl(token);
+            node.parent = ctx;
+            ctx.addChild(node);
+            if (i == 0) {
+                ctx.start = token;
+            }
+            ctx.stop = token;
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        // available() is exact for a ByteArrayInputStream, hence this also rejects lengths past the end of input
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -11,9 +11,12 @@ package org.opendaylight.yangtools.yang.parser.util;
 import com.google.common.annotations.Beta;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.opendaylight.yangtools.yang.model.parser.api.YangSyntaxErrorException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaRepository;
@@ -51,12 +54,66 @@ public final class TextToASTTransformer extends SchemaSourceTransformer<YangText
 
     public static final TextToASTTransformation TRANSFORMATION = new TextToASTTransformation();
     private static final Logger LOG = LoggerFactory.getLogger(TextToASTTransformer.class);
+    private static final int DEFAULT_CACHE_ENTRIES = 4096;
 
-    private TextToASTTransformer(final SchemaRepository provider, final SchemaSourceRegistry consumer) {
-        super(provider, YangTextSchemaSource.class, consumer, ASTSchemaSource.class, TRANSFORMATION);
+    private TextToASTTransformer(final SchemaRepository provider, final SchemaSourceRegistry consumer,
+            final Executor executor, final Transformation<YangTextSchemaSource, ASTSchemaSource> transformation) {
+        super(provider, YangTextSchemaSource.class, consumer, ASTSchemaSource.class, transformation, executor);
     }
 
     public static TextToASTTransformer create(final SchemaRepository provider, final SchemaSourceRegistry consumer) {
-        return new TextToASTTransformer(provider, consumer);
+        return create(provider, consumer, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Create a transformer which parses sources on specified executor. Sources requested together, such as those
+     * required by a {@link org.opendaylight.yangtools.yang.model.repo.api.SchemaContextFactory}, are then parsed
+     * concurrently.
+     *
+     * @param provider Repository providing {@link YangTextSchemaSource}s
+     * @param consumer Registry of resulting {@link ASTSchemaSource}s
+     * @param executor Executor on which parsing takes place
+     * @return A new transformer
+     */
+    public static TextToASTTransformer create(final SchemaRepository provider, final SchemaSourceRegistry consumer,
+            final Executor executor) {
+        return new TextToASTTransformer(provider, consumer, executor, TRANSFORMATION);
+    }
+
+    /**
+     * Create a transformer which parses sources on specified executor and persists the resulting parse trees in
+     * a directory. Sources whose text matches a previously-stored tree are not parsed again, which speeds up
+     * subsequent runs processing the same set of sources. The directory holds at most 4096 trees.
+     *
+     * @param provider Repository providing {@link YangTextSchemaSource}s
+     * @param consumer Registry of resulting {@link ASTSchemaSource}s
+     * @param executor Executor on which parsing takes place
+     * @param cacheDirectory Directory holding parse trees, created if it does not exist
+     * @return A new transformer
+     * @throws IllegalArgumentException if the directory cannot be created or is not writable
+     */
+    public static TextToASTTransformer create(final SchemaRepository provider, final SchemaSourceRegistry consumer,
+            final Executor executor, final File cacheDirectory) {
+        return create(provider, consumer, executor, cacheDirectory, DEFAULT_CACHE_ENTRIES);
+    }
+
+    /**
+     * Create a transformer which parses sources on specified executor and persists the resulting parse trees in
+     * a directory holding at most specified number of trees. Least recently used trees are deleted when this number
+     * is exceeded.
+     *
+     * @param provider Repository providing {@link YangTextSchemaSource}s
+     * @param consumer Registry of resulting {@link ASTSchemaSource}s
+     * @param executor Executor on which parsing takes place
+     * @param cacheDirectory Directory holding parse trees, created if it does not exist
+     * @param maxCacheEntries Maximum number of trees kept in the directory
+     * @return A new transformer
+     * @throws IllegalArgumentException if the directory cannot be created or is not writable, or if maxCacheEntries
+     *                                  is not positive
+     */
+    public static TextToASTTransformer create(final SchemaRepository provider, final SchemaSourceRegistry consumer,
+            final Executor executor, final File cacheDirectory, final int maxCacheEntries) {
+        return new TextToASTTransformer(provider, consumer, executor,
+            new CachingTextToASTTransformation(TRANSFORMATION, cacheDirectory, maxCacheEntries));
     }
 }
@@ -7,17 +7,24 @@
  */
 package org.opendaylight.yangtools.yang.parser.repo;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 
 import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.CheckedFuture;
 import com.google.common.util.concurrent.Futures;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.opendaylight.yangtools.yang.model.api.Module;
 import org.opendaylight.yangtools.yang.model.api.SchemaContext;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaResolutionException;
 import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceException;
@@ -72,6 +79,89 @@ public class SharedSchemaContextFactoryTest {
         assertNotNull(schemaContext.checkedGet());
     }
 
+    @Test
+    public void testCreateSchemaContextWithParallelParsing() throws Exception {
+        final SharedSchemaRepository parallelRepository = new SharedSchemaRepository("parallel");
+        final AtomicInteger parsed = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final TextToASTTransformer transformer = TextToASTTransformer.create(parallelRepository,
+                parallelRepository, command -> executor.execute(() -> {
+                    parsed.incrementAndGet();
+                    command.run();
+                }));
+            parallelRepository.registerSchemaSourceListener(transformer);
+
+            final ResourceYangSource source1 = new ResourceYangSource("/ietf/ietf-inet-types@2010-09-24.yang");
+            parallelRepository.registerSchemaSource(sourceIdentifier -> Futures.immediateCheckedFuture(source1),
+                PotentialSchemaSource.create(s1, YangTextSchemaSource.class, 1));
+            final ResourceYangSource source2 = new ResourceYangSource("/ietf/iana-timezones@2012-07-09.yang");
+            parallelRepository.registerSchemaSource(sourceIdentifier -> Futures.immediateCheckedFuture(source2),
+                PotentialSchemaSource.create(s2, YangTextSchemaSource.class, 1));
+
+            final SchemaContext schemaContext = new SharedSchemaContextFactory(parallelRepository, filter)
+                    .createSchemaContext(Lists.newArrayList(s1, s2)).checkedGet();
+            assertEquals(2, schemaContext.getModules().size());
+            assertEquals(2, parsed.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCreateSchemaContextIncrementally() throws Exception {
+        final ResourceYangSource source3 = new ResourceYangSource("/ietf/network-topology@2013-10-21.yang");
+        final SourceIdentifier s3 = RevisionSourceIdentifier.create("network-topology", "2013-10-21");
+        repository.registerSchemaSource(sourceIdentifier -> Futures.immediateCheckedFuture(source3),
+            PotentialSchemaSource.create(s3, YangTextSchemaSource.class, 1));
+
+        final SharedSchemaContextFactory sharedSchemaContextFactory = new SharedSchemaContextFactory(repository, filter);
+        final SchemaContext base = sharedSchemaContextFactory.createSchemaContext(Lists.newArrayList(s1, s2))
+                .checkedGet();
+        final Module inetTypes = findModule(base, "ietf-inet-types");
+        final Module timezones = findModule(base, "iana-timezones");
+
+        // Imported module is assembled again, but it is not affected by the added one and is shared
+        final SchemaContext added = sharedSchemaContextFactory.createSchemaContext(base, ImmutableList.of(s3),
+            ImmutableList.of()).checkedGet();
+        assertEquals(3, added.getModules().size());
+        assertNotNull(findModule(added, "network-topology"));
+        assertSame(inetTypes, findModule(added, "ietf-inet-types"));
+        assertSame(timezones, findModule(added, "iana-timezones"));
+
+        // Nothing depends on removed module, hence all remaining ones are reused
+        final SchemaContext removed = sharedSchemaContextFactory.createSchemaContext(added, ImmutableList.of(),
+            ImmutableList.of(s3)).checkedGet();
+        assertEquals(2, removed.getModules().size());
+        assertSame(findModule(added, "ietf-inet-types"), findModule(removed, "ietf-inet-types"));
+        assertSame(timezones, findModule(removed, "iana-timezones"));
+    }
+
+    @Test
+    public void testModulesSharedBetweenContexts() throws Exception {
+        final ResourceYangSource source3 = new ResourceYangSource("/ietf/network-topology@2013-10-21.yang");
+        final SourceIdentifier s3 = RevisionSourceIdentifier.create("network-topology", "2013-10-21");
+        repository.registerSchemaSource(sourceIdentifier -> Futures.immediateCheckedFuture(source3),
+            PotentialSchemaSource.create(s3, YangTextSchemaSource.class, 1));
+
+        final SchemaContext first = repository.createSchemaContextFactory(filter)
+                .createSchemaContext(Lists.newArrayList(s1, s2)).checkedGet();
+        final SchemaContext second = repository.createSchemaContextFactory(SchemaSourceFilter.ALWAYS_ACCEPT)
+                .createSchemaContext(Lists.newArrayList(s1, s3)).checkedGet();
+        assertEquals(2, second.getModules().size());
+        assertSame(findModule(first, "ietf-inet-types"), findModule(second, "ietf-inet-types"));
+
+    }
+
+    private static Module findModule(final SchemaContext context, final String name) {
+        for (Module module : context.getModules()) {
+            if (name.equals(module.getName())) {
+                return module;
+            }
+        }
+        return null;
+    }
+
     @Test
     public void testSourceRegisteredWithDifferentSI() throws Exception {
         final ResourceYangSource source1 = new ResourceYangSource("/ietf/ietf-inet-types@2010-09-24.yang");
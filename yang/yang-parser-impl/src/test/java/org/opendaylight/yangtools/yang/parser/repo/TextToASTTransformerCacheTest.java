@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2016 Cisco Systems, Inc. and others.  All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v1.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.opendaylight.yangtools.yang.parser.repo;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.opendaylight.yangtools.antlrv4.code.gen.YangStatementParser;
+import org.opendaylight.yangtools.yang.model.api.DataNodeContainer;
+import org.opendaylight.yangtools.yang.model.api.DataSchemaNode;
+import org.opendaylight.yangtools.yang.model.api.Module;
+import org.opendaylight.yangtools.yang.model.api.SchemaContext;
+import org.opendaylight.yangtools.yang.model.repo.api.RevisionSourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.SchemaSourceFilter;
+import org.opendaylight.yangtools.yang.model.repo.api.SourceIdentifier;
+import org.opendaylight.yangtools.yang.model.repo.api.YangTextSchemaSource;
+import org.opendaylight.yangtools.yang.model.repo.spi.PotentialSchemaSource;
+import org.opendaylight.yangtools.yang.parser.util.TextToASTTransformer;
+
+public class TextToASTTransformerCacheTest {
+    private static final SourceIdentifier INET_TYPES = RevisionSourceIdentifier.create("ietf-inet-types",
+        "2010-09-24");
+    private static final SourceIdentifier TOPOLOGY = RevisionSourceIdentifier.create("network-topology",
+        "2013-10-21");
+
+    private File cacheDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDirectory = Files.createTempDirectory("ast-cache").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (File file : cacheDirectory.listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(cacheDirectory.toPath());
+    }
+
+    private SchemaContext createSchemaContext() throws Exception {
+        return createSchemaContext(4096);
+    }
+
+    private SchemaContext createSchemaContext(final int maxCacheEntries) throws Exception {
+        final SharedSchemaRepository repository = new SharedSchemaRepository("cache");
+        repository.registerSchemaSourceListener(TextToASTTransformer.create(repository, repository,
+            MoreExecutors.directExecutor(), cacheDirectory, maxCacheEntries));
+
+        final ResourceYangSource inetTypes = new ResourceYangSource("/ietf/ietf-inet-types@2010-09-24.yang");
+        repository.registerSchemaSource(sourceIdentifier -> Futures.immediateCheckedFuture(inetTypes),
+            PotentialSchemaSource.create(INET_TYPES, YangTextSchemaSource.class, 1));
+        final ResourceYangSource topology = new ResourceYangSource("/ietf/network-topology@2013-10-21.yang");
+        repository.registerSchemaSource(sourceIdentifier -> Futures.immediateCheckedFuture(topology),
+            PotentialSchemaSource.create(TOPOLOGY, YangTextSchemaSource.class, 1));
+
+        return new SharedSchemaContextFactory(repository, mock(SchemaSourceFilter.class))
+                .createSchemaContext(ImmutableList.of(INET_TYPES, TOPOLOGY)).checkedGet();
+    }
+
+    private List<Path> cachedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory.toPath())) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> describe(final SchemaContext context) {
+        final List<String> ret = new ArrayList<>();
+        for (Module module : context.getModules()) {
+            ret.add(module.getName() + "@" + module.getQNameModule().getFormattedRevision() + " "
+                    + module.getDescription());
+            describe(ret, module);
+        }
+        return ret;
+    }
+
+    private static void describe(final List<String> ret, final DataNodeContainer container) {
+        for (DataSchemaNode child : container.getChildNodes()) {
+            ret.add(child.getPath() + " " + child.getDescription() + " " + child.isConfiguration());
+            if (child instanceof DataNodeContainer) {
+                describe(ret, (DataNodeContainer) child);
+            }
+        }
+    }
+
+    @Test
+    public void testRestoreFromCache() throws Exception {
+        final SchemaContext parsed = createSchemaContext();
+        final List<Path> files = cachedFiles();
+        assertEquals(2, files.size());
+        final List<Object> keys = new ArrayList<>();
+        for (Path file : files) {
+            keys.add(Files.readAttributes(file, BasicFileAttributes.class).fileKey());
+        }
+
+        final SchemaContext restored = createSchemaContext();
+        assertEquals(describe(parsed), describe(restored));
+
+        // Files are not rewritten when the trees have been restored
+        assertEquals(files, cachedFiles());
+        for (int i = 0; i < files.size(); ++i) {
+            assertEquals(keys.get(i), Files.readAttributes(files.get(i), BasicFileAttributes.class).fileKey());
+        }
+    }
+
+    @Test
+    public void testCorruptedCache() throws Exception {
+        final SchemaContext parsed = createSchemaContext();
+        final Path file = cachedFiles().get(0);
+        final long size = Files.size(file);
+        Files.write(file, "garbage".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(describe(parsed), describe(createSchemaContext()));
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    public void testOversizedStringLength() throws Exception {
+        final SchemaContext parsed = createSchemaContext();
+        final Path file = cachedFiles().get(0);
+        final long size = Files.size(file);
+
+        // Valid header and statement prefix, followed by a string length far exceeding the file size
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.write(Files.readAllBytes(file), 0, 16);
+            out.writeInt(1);
+            out.writeInt(YangStatementParser.IDENTIFIER);
+            out.writeInt(1);
+            out.writeInt(0);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+        Files.write(file, bos.toByteArray());
+
+        assertEquals(describe(parsed), describe(createSchemaContext()));
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        final SchemaContext parsed = createSchemaContext(1);
+        assertEquals(1, cachedFiles().size());
+
+        assertEquals(describe(parsed), describe(createSchemaContext(1)));
+        assertEquals(1, cachedFiles().size());
+    }
+}